@@ -1,11 +1,13 @@
 import $ivy.`de.tototec::de.tobiasroeser.mill.vcs.version::0.4.1`
 import $ivy.`de.tototec::de.tobiasroeser.mill.osgi::0.5.0`
+import $ivy.`com.lihaoyi::mill-contrib-jmh:$MILL_VERSION`
 
 import mill._
 import mill.define.{Source, Target}
 import mill.scalalib._
 import mill.scalalib.publish._
 import de.tobiasroeser.mill.osgi._
+import mill.contrib.jmh.JmhModule
 import mill.api.Loose
 
 
@@ -13,6 +15,7 @@ def baseDir = build.millSourcePath
 
 object Deps {
   val slf4j = ivy"org.slf4j:slf4j-api:1.7.36"
+  val jmhVersion = "1.37"
   object Test {
     val testNg = ivy"org.testng:testng:7.5"
     val lambdatest = ivy"de.tototec:de.tobiasroeser.lambdatest:0.8.0"
@@ -142,7 +145,7 @@ object cmdoption extends MavenModule with GettextJavaModule with OsgiBundleModul
   )}
 
 
-  object test extends MavenModuleTests with TestModule.TestNg {
+  trait CmdOptionTests extends MavenModuleTests with TestModule.TestNg {
     override def forkArgs = super.forkArgs() ++ Seq("-Dmill.testng.printProgress=0")
     override def ivyDeps = super.ivyDeps() ++ Agg(
       Deps.Test.lambdatest,
@@ -152,4 +155,91 @@ object cmdoption extends MavenModule with GettextJavaModule with OsgiBundleModul
     override def javacOptions = Seq("-source", "1.8", "-target", "1.8", "-encoding", "UTF-8")
   }
 
+  object test extends CmdOptionTests
+
+  /**
+   * Runs the same test suite with the generated apply engine as default.
+   */
+  object testGenerated extends CmdOptionTests {
+    override def forkArgs = super.forkArgs() ++ Seq("-Dde.tototec.cmdoption.applyEngine=generated")
+  }
+
+}
+
+object apt extends MavenModule with PubSettings {
+  override def millSourcePath = super.millSourcePath / os.up / "de.tototec.cmdoption.apt"
+  val namespace = "de.tototec.cmdoption.apt"
+  override def artifactName = namespace
+  override def javacOptions = Seq("-source", "1.6", "-target", "1.6", "-encoding", "UTF-8")
+  override def pomSettings = T {
+    super.pomSettings().copy(
+      description = "Annotation processor generating compile-time descriptors for CmdOption config classes"
+    )
+  }
+
+  object test extends MavenModuleTests with TestModule.TestNg {
+    override def forkArgs = super.forkArgs() ++ Seq("-Dmill.testng.printProgress=0")
+    override def moduleDeps = super.moduleDeps ++ Seq(cmdoption)
+    override def ivyDeps = super.ivyDeps() ++ Agg(
+      Deps.Test.lambdatest,
+      Deps.Test.testNg
+    )
+    override def javacOptions = Seq("-source", "1.8", "-target", "1.8", "-encoding", "UTF-8")
+  }
+
+}
+
+/**
+ * JMH benchmarks, run them with `mill bench.runJmh`.
+ *
+ * Also contains a sample CLI and a harness to measure the startup time in fresh JVMs,
+ * run it with `mill bench.startupBenchmark`.
+ */
+object bench extends MavenModule with JmhModule {
+  override def millSourcePath = super.millSourcePath / os.up / "de.tototec.cmdoption.bench"
+  override def moduleDeps = Seq(cmdoption)
+  override def jmhCoreVersion = Deps.jmhVersion
+  override def javacOptions = Seq("-source", "1.8", "-target", "1.8", "-encoding", "UTF-8")
+
+  def startupHarnessClass = "de.tototec.cmdoption.StartupHarness"
+
+  /**
+   * The classpath of the sample CLI. CDS only supports jars, no directories.
+   */
+  def startupClasspath = T {
+    Seq(cmdoption.jar(), jar())
+  }
+
+  /**
+   * A dynamic AppCDS archive (requires Java 13+) created from a run of the sample CLI.
+   */
+  def startupCdsArchive = T {
+    val archive = T.dest / "startup-sample.jsa"
+    val cp = startupClasspath().map(_.path).mkString(java.io.File.pathSeparator)
+    os.proc("java", "-cp", cp, startupHarnessClass, "--classpath", cp, "--create-archive", archive)
+      .call(stdout = os.Inherit)
+    PathRef(archive)
+  }
+
+  /**
+   * Measures the time from `main` to the end of `CmdlineParser.parse` of the sample CLI
+   * in fresh JVMs, without and with the CDS archive.
+   */
+  def startupBenchmark(runs: Int = 20) = T.command {
+    val cp = startupClasspath().map(_.path).mkString(java.io.File.pathSeparator)
+    val archive = startupCdsArchive().path
+    Seq(Seq(), Seq("--archive", archive.toString())).foreach { archiveArgs =>
+      os.proc("java", "-cp", cp, startupHarnessClass, "--classpath", cp, "--runs", runs.toString(), archiveArgs)
+        .call(stdout = os.Inherit)
+    }
+  }
+
+  object test extends MavenModuleTests with TestModule.TestNg {
+    override def forkArgs = super.forkArgs() ++ Seq("-Dmill.testng.printProgress=0")
+    override def ivyDeps = super.ivyDeps() ++ Agg(
+      Deps.Test.lambdatest,
+      Deps.Test.testNg
+    )
+    override def javacOptions = Seq("-source", "1.8", "-target", "1.8", "-encoding", "UTF-8")
+  }
 }
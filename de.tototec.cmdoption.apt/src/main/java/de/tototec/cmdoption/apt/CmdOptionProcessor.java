@@ -0,0 +1,766 @@
+package de.tototec.cmdoption.apt;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor generating a <code>CmdOptionDescriptor</code> for each
+ * config class, so that <code>CmdlineParser</code> does not need to scan the
+ * class hierarchy via reflection at runtime and can apply parsed values to
+ * accessible fields and methods directly.
+ * <p>
+ * The processor is registered as service, so it is sufficient to have it on
+ * the compile classpath (or processor path) of your project.
+ * <p>
+ * Additionally, a GraalVM native-image reflection configuration is generated,
+ * which registers all config classes (and their super classes), descriptors and
+ * custom handlers, so that CmdOption also works in a native executable. It is
+ * written to
+ * <code>META-INF/native-image/&lt;name&gt;/reflect-config.json</code>, where
+ * the name can be set with the processor option
+ * <code>-A{@value #OPTION_NATIVE_IMAGE_NAME}=&lt;name&gt;</code>. Use
+ * <code>-A{@value #OPTION_NATIVE_IMAGE}=false</code> to disable it.
+ * <p>
+ * Commands annotated with <code>@CmdCommandPlugin</code> are listed in the
+ * plugin command index <code>{@value #PLUGIN_COMMAND_INDEX}</code>, which
+ * <code>CmdlineParser.addPluginCommands()</code> reads without loading the
+ * command classes.
+ * <p>
+ * Both files are merged with the files of a previous compilation into the same
+ * output directory, so that an incremental compilation of some classes keeps
+ * the entries of the other classes.
+ *
+ * @since 0.8.0
+ */
+@SupportedAnnotationTypes({
+	CmdOptionProcessor.CMD_OPTION,
+	CmdOptionProcessor.CMD_OPTION_DELEGATE,
+	CmdOptionProcessor.CMD_COMMAND,
+	CmdOptionProcessor.CMD_COMMAND_PLUGIN
+})
+@SupportedOptions({
+	CmdOptionProcessor.OPTION_NATIVE_IMAGE,
+	CmdOptionProcessor.OPTION_NATIVE_IMAGE_NAME
+})
+public class CmdOptionProcessor extends AbstractProcessor {
+
+	public static final String CMD_OPTION = "de.tototec.cmdoption.CmdOption";
+	public static final String CMD_OPTION_DELEGATE = "de.tototec.cmdoption.CmdOptionDelegate";
+	public static final String CMD_COMMAND = "de.tototec.cmdoption.CmdCommand";
+	public static final String CMD_COMMAND_PLUGIN = "de.tototec.cmdoption.CmdCommandPlugin";
+	public static final String DESCRIPTOR_INTERFACE = "de.tototec.cmdoption.CmdOptionDescriptor";
+	public static final String DESCRIPTOR_SUFFIX = "_CmdOptionDescriptor";
+	public static final String HANDLER_INTERFACE = "de.tototec.cmdoption.handler.CmdOptionHandler";
+
+	public static final String OPTION_NATIVE_IMAGE = "cmdoption.nativeImage";
+	public static final String OPTION_NATIVE_IMAGE_NAME = "cmdoption.nativeImageName";
+	public static final String DEFAULT_NATIVE_IMAGE_NAME = "de.tototec.cmdoption.apt/generated";
+	public static final String PLUGIN_COMMAND_INDEX = "META-INF/cmdoption/plugin-commands";
+
+	private final Set<String> generated = new HashSet<String>();
+
+	/**
+	 * The binary names of all classes of the current compilation.
+	 */
+	private final Set<String> processed = new HashSet<String>();
+
+	/**
+	 * The entries of the native-image reflection configuration, by class name.
+	 */
+	private final Map<String, ReflectEntry> reflectEntries = new TreeMap<String, ReflectEntry>();
+
+	/**
+	 * The lines of the plugin command index, by class name.
+	 */
+	private final Map<String, String> pluginCommands = new TreeMap<String, String>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+		final Set<TypeElement> types = new LinkedHashSet<TypeElement>();
+		for (final Element root : roundEnv.getRootElements()) {
+			collectTypes(root, types);
+		}
+		for (final TypeElement type : types) {
+			processed.add(binaryName(type));
+			final List<Element> elements = findElements(type);
+			if (!elements.isEmpty() || hasAnnotation(type, CMD_COMMAND)) {
+				generateDescriptor(type, elements);
+				registerReflection(type, elements);
+			}
+			if (hasAnnotation(type, CMD_COMMAND_PLUGIN)) {
+				registerPluginCommand(type, elements);
+			}
+		}
+		if (roundEnv.processingOver()) {
+			generateReflectConfig();
+			generatePluginCommandIndex();
+		}
+		// we only read the annotations, others may process them too
+		return false;
+	}
+
+	protected void collectTypes(final Element element, final Set<TypeElement> types) {
+		if (element.getKind() != ElementKind.CLASS) {
+			return;
+		}
+		final TypeElement type = (TypeElement) element;
+		final NestingKind nesting = type.getNestingKind();
+		if (nesting != NestingKind.TOP_LEVEL && nesting != NestingKind.MEMBER) {
+			// local and anonymous classes can not be looked up by name
+			return;
+		}
+		if (!type.getModifiers().contains(Modifier.ABSTRACT)) {
+			types.add(type);
+		}
+		for (final TypeElement member : ElementFilter.typesIn(type.getEnclosedElements())) {
+			collectTypes(member, types);
+		}
+	}
+
+	/**
+	 * Find all annotated fields and methods of the given type and its super
+	 * classes, with the same visibility and override rules and in the same order
+	 * as the reflective scan of <code>CmdlineParser</code>.
+	 *
+	 * @return The found fields and methods.
+	 */
+	protected List<Element> findElements(final TypeElement type) {
+		final List<VariableElement> fields = new ArrayList<VariableElement>();
+		final List<ExecutableElement> privateMethods = new ArrayList<ExecutableElement>();
+		final List<ExecutableElement> otherPackageNonPrivateMethods = new ArrayList<ExecutableElement>();
+		final Set<String> otherPackageKeys = new HashSet<String>();
+		final List<ExecutableElement> currentPackageNonPrivateMethods = new ArrayList<ExecutableElement>();
+		final Set<String> currentPackageKeys = new HashSet<String>();
+
+		TypeElement parentClass = type;
+		while (parentClass != null && !parentClass.getQualifiedName().contentEquals("java.lang.Object")) {
+			fields.addAll(ElementFilter.fieldsIn(parentClass.getEnclosedElements()));
+
+			for (final ExecutableElement method : ElementFilter.methodsIn(parentClass.getEnclosedElements())) {
+				final Set<Modifier> modifiers = method.getModifiers();
+				final String key = methodKey(method);
+				if (modifiers.contains(Modifier.PRIVATE)) {
+					privateMethods.add(method);
+				} else if (modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.PROTECTED)) {
+					if (!otherPackageKeys.contains(key) && !currentPackageKeys.contains(key)) {
+						currentPackageNonPrivateMethods.add(method);
+						currentPackageKeys.add(key);
+					}
+				} else if (!currentPackageKeys.contains(key)) {
+					currentPackageNonPrivateMethods.add(method);
+					currentPackageKeys.add(key);
+				}
+			}
+
+			final PackageElement pack = processingEnv.getElementUtils().getPackageOf(parentClass);
+			parentClass = superClass(parentClass);
+			if (parentClass != null && !pack.equals(processingEnv.getElementUtils().getPackageOf(parentClass))) {
+				otherPackageNonPrivateMethods.addAll(currentPackageNonPrivateMethods);
+				otherPackageKeys.addAll(currentPackageKeys);
+				currentPackageNonPrivateMethods.clear();
+				currentPackageKeys.clear();
+			}
+		}
+
+		final List<Element> elements = new ArrayList<Element>();
+		for (final VariableElement field : fields) {
+			if (hasAnnotation(field, CMD_OPTION) || hasAnnotation(field, CMD_OPTION_DELEGATE)) {
+				elements.add(field);
+			}
+		}
+		final List<ExecutableElement> methods = new ArrayList<ExecutableElement>();
+		methods.addAll(privateMethods);
+		methods.addAll(otherPackageNonPrivateMethods);
+		methods.addAll(currentPackageNonPrivateMethods);
+		for (final ExecutableElement method : methods) {
+			if (hasAnnotation(method, CMD_OPTION)) {
+				elements.add(method);
+			}
+		}
+		return elements;
+	}
+
+	/**
+	 * @return The signature of the given field or method as expected by
+	 *         <code>CmdOptionDescriptor.getElements()</code>.
+	 */
+	protected String signature(final Element element) {
+		if (element.getKind() == ElementKind.METHOD) {
+			return binaryName(element.getEnclosingElement()) + "#" + methodKey((ExecutableElement) element);
+		}
+		return binaryName(element.getEnclosingElement()) + "#" + element.getSimpleName();
+	}
+
+	protected void generateDescriptor(final TypeElement type, final List<Element> elements) {
+		final String binaryName = binaryName(type);
+		if (!generated.add(binaryName)) {
+			return;
+		}
+
+		final PackageElement pack = processingEnv.getElementUtils().getPackageOf(type);
+		final String packageName = pack.isUnnamed() ? "" : pack.getQualifiedName().toString();
+		final String className = (packageName.length() == 0 ? binaryName
+			: binaryName.substring(packageName.length() + 1)) + DESCRIPTOR_SUFFIX;
+
+		try {
+			final PrintWriter out = new PrintWriter(processingEnv.getFiler()
+				.createSourceFile(packageName.length() == 0 ? className : packageName + "." + className, type)
+				.openWriter());
+			try {
+				if (packageName.length() > 0) {
+					out.println("package " + packageName + ";");
+					out.println();
+				}
+				out.println("/**");
+				out.println(" * Generated by " + getClass().getName() + ". Do not edit.");
+				out.println(" */");
+				out.println("public final class " + className + " implements " + DESCRIPTOR_INTERFACE + " {");
+				out.println();
+				out.println("\tprivate static final String[] ELEMENTS = new String[] {");
+				for (final Element element : elements) {
+					out.println("\t\t\"" + signature(element).replace("\\", "\\\\").replace("\"", "\\\"") + "\",");
+				}
+				out.println("\t};");
+				out.println();
+				out.println("\tpublic String[] getElements() {");
+				out.println("\t\treturn ELEMENTS.clone();");
+				out.println("\t}");
+				out.println();
+				out.println("\t@SuppressWarnings({ \"unchecked\", \"rawtypes\" })");
+				out.println("\tpublic boolean apply(final int element, final Object config, final Object[] values) throws Exception {");
+				out.println("\t\tswitch (element) {");
+				for (int i = 0; i < elements.size(); ++i) {
+					final String statement = applyStatement(elements.get(i), pack);
+					if (statement != null) {
+						out.println("\t\t\tcase " + i + ":");
+						out.println("\t\t\t\t" + statement);
+						out.println("\t\t\t\treturn true;");
+					}
+				}
+				out.println("\t\t\tdefault:");
+				out.println("\t\t\t\treturn false;");
+				out.println("\t\t}");
+				out.println("\t}");
+				out.println();
+				out.println("}");
+			} finally {
+				out.close();
+			}
+		} catch (final IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+				"Could not generate CmdOption descriptor for " + binaryName + ": " + e, type);
+		}
+	}
+
+	/**
+	 * Register everything <code>CmdlineParser</code> accesses via reflection for
+	 * the given config class: the declared fields and methods of the class and its
+	 * super classes, the no-arg constructor of the descriptor, of handlers given
+	 * in <code>@CmdOption(handler = ...)</code> and of lazily created delegates.
+	 */
+	protected void registerReflection(final TypeElement type, final List<Element> elements) {
+		if (!isNativeImageEnabled()) {
+			return;
+		}
+		TypeElement current = type;
+		while (current != null && !current.getQualifiedName().contentEquals("java.lang.Object")) {
+			final ReflectEntry entry = reflectEntry(binaryName(current));
+			entry.allDeclaredFields = true;
+			entry.allDeclaredMethods = true;
+			current = superClass(current);
+		}
+		reflectEntry(binaryName(type) + DESCRIPTOR_SUFFIX).defaultConstructor = true;
+		for (final Element element : elements) {
+			final TypeMirror handler = annotationValue(element, CMD_OPTION, "handler");
+			if (handler != null && handler.getKind() == TypeKind.DECLARED) {
+				final String handlerName = binaryName(((DeclaredType) handler).asElement());
+				if (!handlerName.equals(HANDLER_INTERFACE)) {
+					reflectEntry(handlerName).defaultConstructor = true;
+				}
+			}
+			if (Boolean.TRUE.equals(annotationAttribute(element, CMD_OPTION_DELEGATE, "lazy"))) {
+				TypeMirror lazyType = annotationValue(element, CMD_OPTION_DELEGATE, "type");
+				if (lazyType == null || lazyType.getKind() != TypeKind.DECLARED || ((TypeElement) ((DeclaredType) lazyType)
+					.asElement()).getQualifiedName().contentEquals("java.lang.Object")) {
+					lazyType = element.asType();
+				}
+				if (lazyType.getKind() == TypeKind.DECLARED) {
+					reflectEntry(binaryName(((DeclaredType) lazyType).asElement())).defaultConstructor = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Add the given command to the plugin command index. Each line of the index
+	 * holds the tab-separated class name, the flags <code>hidden</code>,
+	 * <code>options</code> (the command has options) and <code>parameter</code>
+	 * (the command has a parameter) as <code>true</code> or <code>false</code>,
+	 * the description and the names of the command.
+	 */
+	protected void registerPluginCommand(final TypeElement type, final List<Element> elements) {
+		final Object names = annotationAttribute(type, CMD_COMMAND, "names");
+		if (!(names instanceof List<?>) || ((List<?>) names).isEmpty()) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+				"A plugin command needs a @CmdCommand annotation with at least one name", type);
+			return;
+		}
+		boolean options = false;
+		boolean parameter = false;
+		for (final Element element : elements) {
+			if (hasAnnotation(element, CMD_OPTION)) {
+				final Object optionNames = annotationAttribute(element, CMD_OPTION, "names");
+				if (optionNames instanceof List<?> && !((List<?>) optionNames).isEmpty()) {
+					options = true;
+				} else {
+					parameter = true;
+				}
+			} else {
+				final Object mode = annotationAttribute(element, CMD_OPTION_DELEGATE, "value");
+				if (!(mode instanceof VariableElement)
+					|| !((VariableElement) mode).getSimpleName().contentEquals("COMMAND")) {
+					options = true;
+				}
+			}
+		}
+		final Object description = annotationAttribute(type, CMD_COMMAND, "description");
+		final StringBuilder line = new StringBuilder();
+		line.append(binaryName(type));
+		line.append('\t').append(Boolean.TRUE.equals(annotationAttribute(type, CMD_COMMAND, "hidden")));
+		line.append('\t').append(options);
+		line.append('\t').append(parameter);
+		line.append('\t').append(escape(description instanceof String ? (String) description : ""));
+		for (final Object name : (List<?>) names) {
+			line.append('\t').append(escape((String) ((AnnotationValue) name).getValue()));
+		}
+		pluginCommands.put(binaryName(type), line.toString());
+		if (isNativeImageEnabled()) {
+			reflectEntry(binaryName(type)).defaultConstructor = true;
+		}
+	}
+
+	/**
+	 * Escape backslashes, tabs and line breaks.
+	 */
+	protected String escape(final String string) {
+		return string.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+	}
+
+	protected void generatePluginCommandIndex() {
+		final List<String> previous = readPreviousResource(PLUGIN_COMMAND_INDEX);
+		final Map<String, String> lines = new TreeMap<String, String>();
+		for (final String line : previous) {
+			if (line.length() == 0 || line.startsWith("#")) {
+				continue;
+			}
+			final int tab = line.indexOf('\t');
+			final String className = tab < 0 ? line : line.substring(0, tab);
+			// the commands of the current compilation are indexed again
+			if (!processed.contains(className) && exists(className)) {
+				lines.put(className, line);
+			}
+		}
+		lines.putAll(pluginCommands);
+		if (lines.isEmpty() && previous.isEmpty()) {
+			return;
+		}
+		try {
+			final PrintWriter out = new PrintWriter(new OutputStreamWriter(processingEnv.getFiler()
+				.createResource(StandardLocation.CLASS_OUTPUT, "", PLUGIN_COMMAND_INDEX).openOutputStream(), "UTF-8"));
+			try {
+				out.print("# CmdOption plugin commands 1\n");
+				for (final String line : lines.values()) {
+					out.print(line);
+					out.print("\n");
+				}
+			} finally {
+				out.close();
+			}
+		} catch (final IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+				"Could not generate plugin command index " + PLUGIN_COMMAND_INDEX + ": " + e);
+		}
+	}
+
+	/**
+	 * Read a resource written by a previous compilation into the same output
+	 * directory.
+	 *
+	 * @return The lines of the resource, or an empty list if there is none.
+	 */
+	protected List<String> readPreviousResource(final String path) {
+		final List<String> lines = new ArrayList<String>();
+		try {
+			final BufferedReader in = new BufferedReader(new InputStreamReader(processingEnv.getFiler()
+				.getResource(StandardLocation.CLASS_OUTPUT, "", path).openInputStream(), "UTF-8"));
+			try {
+				String line;
+				while ((line = in.readLine()) != null) {
+					lines.add(line);
+				}
+			} finally {
+				in.close();
+			}
+		} catch (final IOException e) {
+			// no previous compilation
+		}
+		return lines;
+	}
+
+	/**
+	 * @return <code>true</code>, if the class with the given binary name is part
+	 *         of the current compilation or its classpath.
+	 */
+	protected boolean exists(final String binaryName) {
+		return processed.contains(binaryName)
+			|| processingEnv.getElementUtils().getTypeElement(binaryName.replace('$', '.')) != null;
+	}
+
+	protected boolean isNativeImageEnabled() {
+		return !"false".equals(processingEnv.getOptions().get(OPTION_NATIVE_IMAGE));
+	}
+
+	protected ReflectEntry reflectEntry(final String className) {
+		ReflectEntry entry = reflectEntries.get(className);
+		if (entry == null) {
+			entry = new ReflectEntry();
+			reflectEntries.put(className, entry);
+		}
+		return entry;
+	}
+
+	protected void generateReflectConfig() {
+		if (!isNativeImageEnabled()) {
+			return;
+		}
+		String name = processingEnv.getOptions().get(OPTION_NATIVE_IMAGE_NAME);
+		if (name == null || name.trim().length() == 0) {
+			name = DEFAULT_NATIVE_IMAGE_NAME;
+		}
+		final String path = "META-INF/native-image/" + name.trim() + "/reflect-config.json";
+		if (!readPreviousReflectConfig(path) && reflectEntries.isEmpty()) {
+			return;
+		}
+		try {
+			final PrintWriter out = new PrintWriter(processingEnv.getFiler()
+				.createResource(StandardLocation.CLASS_OUTPUT, "", path).openWriter());
+			try {
+				out.println("[");
+				boolean first = true;
+				for (final Map.Entry<String, ReflectEntry> entry : reflectEntries.entrySet()) {
+					if (!first) {
+						out.println(",");
+					}
+					first = false;
+					out.print("  {\n    \"name\": \"" + entry.getKey() + "\"");
+					if (entry.getValue().allDeclaredFields) {
+						out.print(",\n    \"allDeclaredFields\": true");
+					}
+					if (entry.getValue().allDeclaredMethods) {
+						out.print(",\n    \"allDeclaredMethods\": true");
+					}
+					if (entry.getValue().defaultConstructor) {
+						out.print(",\n    \"methods\": [ { \"name\": \"<init>\", \"parameterTypes\": [] } ]");
+					}
+					out.print("\n  }");
+				}
+				out.println();
+				out.println("]");
+			} finally {
+				out.close();
+			}
+		} catch (final IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+				"Could not generate native-image configuration " + path + ": " + e);
+		}
+	}
+
+	/**
+	 * Add the entries of the reflection configuration of a previous compilation
+	 * to the current entries. As an entry may be needed by several classes, e.g.
+	 * a super class, the entries are only removed, when the class is gone.
+	 *
+	 * @return <code>true</code>, if there was a previous configuration.
+	 */
+	protected boolean readPreviousReflectConfig(final String path) {
+		final List<String> lines = readPreviousResource(path);
+		ReflectEntry entry = null;
+		for (final String line : lines) {
+			final String trimmed = line.trim();
+			if (trimmed.startsWith("\"name\": \"")) {
+				final String className = trimmed.substring(9, trimmed.indexOf('"', 9));
+				entry = exists(className) ? reflectEntry(className) : null;
+			} else if (entry != null) {
+				if (trimmed.startsWith("\"allDeclaredFields\": true")) {
+					entry.allDeclaredFields = true;
+				} else if (trimmed.startsWith("\"allDeclaredMethods\": true")) {
+					entry.allDeclaredMethods = true;
+				} else if (trimmed.startsWith("\"methods\": [ { \"name\": \"<init>\"")) {
+					entry.defaultConstructor = true;
+				}
+			}
+		}
+		return !lines.isEmpty();
+	}
+
+	/**
+	 * @return The class value of the given annotation attribute, or
+	 *         <code>null</code> if the annotation or the attribute is not present.
+	 */
+	protected TypeMirror annotationValue(final Element element, final String annotationName,
+			final String attribute) {
+		final Object value = annotationAttribute(element, annotationName, attribute);
+		return value instanceof TypeMirror ? (TypeMirror) value : null;
+	}
+
+	/**
+	 * @return The explicitly given value of the annotation attribute, or
+	 *         <code>null</code> if the annotation or the attribute is not present.
+	 */
+	protected Object annotationAttribute(final Element element, final String annotationName,
+			final String attribute) {
+		for (final AnnotationMirror annotation : element.getAnnotationMirrors()) {
+			if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName()
+				.contentEquals(annotationName)) {
+				for (final Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : annotation
+					.getElementValues().entrySet()) {
+					if (value.getKey().getSimpleName().contentEquals(attribute)) {
+						return value.getValue().getValue();
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Create the statement applying the <code>values</code> to the given element
+	 * of the <code>config</code> object without reflection.
+	 *
+	 * @return The statement, or <code>null</code> if the element can not be
+	 *         accessed directly from the given package. In this case, the parser
+	 *         falls back to reflection.
+	 */
+	protected String applyStatement(final Element element, final PackageElement pack) {
+		final Set<Modifier> modifiers = element.getModifiers();
+		if (modifiers.contains(Modifier.STATIC) || !isAccessible(element, pack)) {
+			return null;
+		}
+		final String target = "((" + typeName(element.getEnclosingElement().asType()) + ") config)." + element.getSimpleName();
+
+		if (element.getKind() == ElementKind.FIELD) {
+			if (modifiers.contains(Modifier.FINAL) || !hasAnnotation(element, CMD_OPTION)
+				|| !isAccessible(element.asType(), pack)) {
+				return null;
+			}
+			return target + " = " + value(element.asType(), 0) + ";";
+		}
+
+		final ExecutableElement method = (ExecutableElement) element;
+		final TypeMirror exception = processingEnv.getElementUtils().getTypeElement("java.lang.Exception").asType();
+		final TypeMirror error = processingEnv.getElementUtils().getTypeElement("java.lang.Error").asType();
+		for (final TypeMirror thrown : method.getThrownTypes()) {
+			if (!processingEnv.getTypeUtils().isAssignable(thrown, exception)
+				&& !processingEnv.getTypeUtils().isAssignable(thrown, error)) {
+				return null;
+			}
+		}
+		final StringBuilder call = new StringBuilder(target).append("(");
+		final List<? extends VariableElement> params = method.getParameters();
+		for (int i = 0; i < params.size(); ++i) {
+			final TypeMirror paramType = params.get(i).asType();
+			if (!isAccessible(paramType, pack)) {
+				return null;
+			}
+			if (i > 0) {
+				call.append(", ");
+			}
+			call.append(value(paramType, i));
+		}
+		return call.append(");").toString();
+	}
+
+	/**
+	 * @return The expression converting <code>values[index]</code> to the given
+	 *         type.
+	 */
+	protected String value(final TypeMirror type, final int index) {
+		final String value = "values[" + index + "]";
+		if (type.getKind().isPrimitive()) {
+			final String primitive = type.getKind().name().toLowerCase(Locale.ENGLISH);
+			final TypeElement boxed = processingEnv.getTypeUtils().boxedClass((PrimitiveType) type);
+			return "((" + boxed.getQualifiedName() + ") " + value + ")." + primitive + "Value()";
+		}
+		return "(" + typeName(type) + ") " + value;
+	}
+
+	/**
+	 * @return The source name of the erased type.
+	 */
+	protected String typeName(final TypeMirror type) {
+		return processingEnv.getTypeUtils().erasure(type).toString();
+	}
+
+	/**
+	 * @return <code>true</code> if the given (erased) type can be referenced from
+	 *         the given package.
+	 */
+	protected boolean isAccessible(final TypeMirror type, final PackageElement pack) {
+		final TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+		if (erased.getKind().isPrimitive()) {
+			return true;
+		}
+		if (erased.getKind() == TypeKind.ARRAY) {
+			return isAccessible(((ArrayType) erased).getComponentType(), pack);
+		}
+		if (erased.getKind() == TypeKind.DECLARED) {
+			return isAccessible(((DeclaredType) erased).asElement(), pack);
+		}
+		return false;
+	}
+
+	/**
+	 * @return <code>true</code> if the given element and all its enclosing types
+	 *         can be accessed from the given package.
+	 */
+	protected boolean isAccessible(final Element element, final PackageElement pack) {
+		Element current = element;
+		while (current != null && current.getKind() != ElementKind.PACKAGE) {
+			final Set<Modifier> modifiers = current.getModifiers();
+			if (modifiers.contains(Modifier.PRIVATE)) {
+				return false;
+			}
+			if (!modifiers.contains(Modifier.PUBLIC)
+				&& !pack.equals(processingEnv.getElementUtils().getPackageOf(current))) {
+				return false;
+			}
+			current = current.getEnclosingElement();
+		}
+		return true;
+	}
+
+	protected TypeElement superClass(final TypeElement type) {
+		final TypeMirror superclass = type.getSuperclass();
+		if (superclass.getKind() == TypeKind.DECLARED) {
+			return (TypeElement) ((DeclaredType) superclass).asElement();
+		}
+		return null;
+	}
+
+	protected boolean hasAnnotation(final Element element, final String annotationName) {
+		for (final AnnotationMirror annotation : element.getAnnotationMirrors()) {
+			if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName()
+				.contentEquals(annotationName)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	protected String methodKey(final ExecutableElement method) {
+		final StringBuilder key = new StringBuilder();
+		key.append(method.getSimpleName()).append("(");
+		boolean first = true;
+		for (final VariableElement param : method.getParameters()) {
+			if (!first) {
+				key.append(",");
+			}
+			first = false;
+			key.append(className(processingEnv.getTypeUtils().erasure(param.asType())));
+		}
+		return key.append(")").toString();
+	}
+
+	protected String binaryName(final Element type) {
+		return processingEnv.getElementUtils().getBinaryName((TypeElement) type).toString();
+	}
+
+	/**
+	 * @return The name of the erased type as returned by
+	 *         {@link Class#getName()}.
+	 */
+	protected String className(final TypeMirror type) {
+		if (type.getKind() == TypeKind.ARRAY) {
+			return "[" + descriptor(((ArrayType) type).getComponentType());
+		}
+		if (type.getKind() == TypeKind.DECLARED) {
+			return binaryName(((DeclaredType) type).asElement());
+		}
+		return type.getKind().name().toLowerCase(Locale.ENGLISH);
+	}
+
+	/**
+	 * The reflective access required for a class in a native image.
+	 */
+	protected static class ReflectEntry {
+		boolean allDeclaredFields;
+		boolean allDeclaredMethods;
+		boolean defaultConstructor;
+	}
+
+	protected String descriptor(final TypeMirror type) {
+		switch (type.getKind()) {
+			case BOOLEAN:
+				return "Z";
+			case BYTE:
+				return "B";
+			case CHAR:
+				return "C";
+			case SHORT:
+				return "S";
+			case INT:
+				return "I";
+			case LONG:
+				return "J";
+			case FLOAT:
+				return "F";
+			case DOUBLE:
+				return "D";
+			case ARRAY:
+				return "[" + descriptor(((ArrayType) type).getComponentType());
+			default:
+				return "L" + className(processingEnv.getTypeUtils().erasure(type)) + ";";
+		}
+	}
+
+}
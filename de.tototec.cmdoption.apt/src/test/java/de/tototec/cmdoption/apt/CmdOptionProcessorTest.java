@@ -0,0 +1,383 @@
+package de.tototec.cmdoption.apt;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+import de.tototec.cmdoption.CmdOptionDescriptor;
+import de.tototec.cmdoption.CmdlineParser;
+import de.tototec.cmdoption.CommandHandle;
+import de.tototec.cmdoption.OptionHandle;
+
+public class CmdOptionProcessorTest extends FreeSpec {
+
+	public static File compile(final File dir, final String... sourcesAndContents) throws Exception {
+		final File srcDir = new File(dir, "src");
+		final File outDir = new File(dir, "classes");
+		outDir.mkdirs();
+		// like an incremental build, the classes of previous compilations are on the classpath
+		final List<String> args = new LinkedList<String>(Arrays.asList(
+			"-classpath", classpathOf(CmdlineParser.class, CmdOptionProcessor.class) + File.pathSeparator + outDir.getPath(),
+			"-processor", CmdOptionProcessor.class.getName(),
+			"-s", outDir.getPath(),
+			"-d", outDir.getPath()));
+		for (int i = 0; i < sourcesAndContents.length; i += 2) {
+			final File file = new File(srcDir, sourcesAndContents[i]);
+			file.getParentFile().mkdirs();
+			final Writer writer = new OutputStreamWriter(new FileOutputStream(file), Charset.forName("UTF-8"));
+			try {
+				writer.write(sourcesAndContents[i + 1]);
+			} finally {
+				writer.close();
+			}
+			args.add(file.getPath());
+		}
+		final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		final int result = compiler.run(null, null, null, args.toArray(new String[0]));
+		expectEquals(result, 0, "Compilation failed");
+		return outDir;
+	}
+
+	public static String classpathOf(final Class<?>... classes) throws Exception {
+		final StringBuilder classpath = new StringBuilder();
+		for (final Class<?> cls : classes) {
+			if (classpath.length() > 0) {
+				classpath.append(File.pathSeparator);
+			}
+			classpath.append(new File(cls.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath());
+		}
+		return classpath.toString();
+	}
+
+	public static String read(final File file) throws IOException {
+		final InputStream in = new FileInputStream(file);
+		try {
+			final byte[] bytes = new byte[(int) file.length()];
+			int pos = 0;
+			while (pos < bytes.length) {
+				pos += in.read(bytes, pos, bytes.length - pos);
+			}
+			return new String(bytes, Charset.forName("UTF-8"));
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * @return The names of all entries of the given reflection configuration,
+	 *         which register all declared fields and methods.
+	 */
+	public static List<String> fullyRegistered(final String reflectConfig) {
+		final List<String> names = new ArrayList<String>();
+		final Matcher matcher = Pattern
+			.compile("\"name\": \"([^\"]+)\",\\s*\"allDeclaredFields\": true,\\s*\"allDeclaredMethods\": true")
+			.matcher(reflectConfig);
+		while (matcher.find()) {
+			names.add(matcher.group(1));
+		}
+		return names;
+	}
+
+	public static File tempDir(final String name) throws IOException {
+		final File dir = File.createTempFile(name, "");
+		dir.delete();
+		dir.mkdirs();
+		return dir;
+	}
+
+	{
+		test("Generate descriptor for class hierarchy", () -> {
+			final File classes = compile(tempDir("apt"),
+				"base/Base.java",
+				"package base;\n" +
+					"import de.tototec.cmdoption.CmdOption;\n" +
+					"public class Base {\n" +
+					"  @CmdOption(names = \"--base\")\n" +
+					"  protected boolean base;\n" +
+					"  @CmdOption(names = \"--overridden\", args = \"ARG\")\n" +
+					"  public void setOverridden(String arg) {}\n" +
+					"}\n",
+				"sample/Config.java",
+				"package sample;\n" +
+					"import de.tototec.cmdoption.CmdOption;\n" +
+					"import de.tototec.cmdoption.CmdOptionDelegate;\n" +
+					"public class Config extends base.Base {\n" +
+					"  @CmdOption(names = \"--name\", args = \"NAME\")\n" +
+					"  private String name;\n" +
+					"  public String getName() { return name; }\n" +
+					"  @CmdOptionDelegate\n" +
+					"  public final Nested nested = new Nested();\n" +
+					"  @Override\n" +
+					"  public void setOverridden(String arg) {}\n" +
+					"  @CmdOption(names = \"--values\", args = { \"A\", \"B\" })\n" +
+					"  void values(String a, String b) {}\n" +
+					"  @CmdOption(names = \"--level\", args = \"N\")\n" +
+					"  private void level(int level) {}\n" +
+					"  public static class Nested {\n" +
+					"    @CmdOption(names = \"--count\", args = \"N\")\n" +
+					"    public int count;\n" +
+					"  }\n" +
+					"}\n");
+
+			final URLClassLoader cl = new URLClassLoader(new URL[] { classes.toURI().toURL() },
+				getClass().getClassLoader());
+			final CmdOptionDescriptor descriptor = (CmdOptionDescriptor) cl
+				.loadClass("sample.Config" + CmdOptionProcessor.DESCRIPTOR_SUFFIX).newInstance();
+			expectEquals(Arrays.asList(descriptor.getElements()), Arrays.asList(
+				"sample.Config#name",
+				"sample.Config#nested",
+				"base.Base#base",
+				"sample.Config#level(int)",
+				"sample.Config#values(java.lang.String,java.lang.String)"));
+
+			final CmdOptionDescriptor nestedDescriptor = (CmdOptionDescriptor) cl
+				.loadClass("sample.Config$Nested" + CmdOptionProcessor.DESCRIPTOR_SUFFIX).newInstance();
+			expectEquals(Arrays.asList(nestedDescriptor.getElements()), Arrays.asList("sample.Config$Nested#count"));
+
+			final Object nested = cl.loadClass("sample.Config$Nested").newInstance();
+			expectTrue(nestedDescriptor.apply(0, nested, new Object[] { 3 }));
+			expectEquals(nested.getClass().getField("count").get(nested), 3);
+
+			final Object config = cl.loadClass("sample.Config").newInstance();
+			final CmdlineParser cp = new CmdlineParser(config);
+			cp.parse("--name", "test", "--count", "2", "--base");
+			expectEquals(config.getClass().getMethod("getName").invoke(config), "test");
+			expectTrue(cp.usageString().contains("--values A B"));
+			expectTrue(!cp.usageString().contains("--overridden"));
+
+			// private and inaccessible protected members are left to reflection
+			expectEquals(descriptor.apply(0, config, new Object[] { "direct" }), false);
+			expectEquals(descriptor.apply(1, config, new Object[] { null }), false);
+			expectEquals(descriptor.apply(2, config, new Object[] { true }), false);
+			expectEquals(descriptor.apply(3, config, new Object[] { 1 }), false);
+			expectEquals(descriptor.apply(4, config, new Object[] { "a", "b" }), true);
+		});
+
+		test("Generate descriptor for command without options", () -> {
+			final File classes = compile(tempDir("apt"),
+				"sample/Cmd.java",
+				"package sample;\n" +
+					"@de.tototec.cmdoption.CmdCommand(names = \"cmd\")\n" +
+					"public class Cmd {}\n");
+			final URLClassLoader cl = new URLClassLoader(new URL[] { classes.toURI().toURL() },
+				getClass().getClassLoader());
+			final CmdOptionDescriptor descriptor = (CmdOptionDescriptor) cl
+				.loadClass("sample.Cmd" + CmdOptionProcessor.DESCRIPTOR_SUFFIX).newInstance();
+			expectEquals(descriptor.getElements().length, 0);
+		});
+
+		test("Native-image smoke test: reflection config covers a sample CLI", () -> {
+			final File classes = compile(tempDir("apt"),
+				"base/Base.java",
+				"package base;\n" +
+					"import de.tototec.cmdoption.CmdOption;\n" +
+					"public class Base {\n" +
+					"  @CmdOption(names = { \"-h\", \"--help\" }, description = \"Show help\", isHelp = true)\n" +
+					"  public boolean help;\n" +
+					"}\n",
+				"sample/UpperCaseHandler.java",
+				"package sample;\n" +
+					"import java.lang.reflect.*;\n" +
+					"public class UpperCaseHandler implements de.tototec.cmdoption.handler.CmdOptionHandler {\n" +
+					"  public boolean canHandle(AccessibleObject element, int argCount) { return argCount == 1; }\n" +
+					"  public void applyParams(Object config, AccessibleObject element, String[] args, String name) {\n" +
+					"    try { ((Field) element).set(config, args[0].toUpperCase()); } catch (Exception e) { throw new RuntimeException(e); }\n" +
+					"  }\n" +
+					"}\n",
+				"sample/Cli.java",
+				"package sample;\n" +
+					"import de.tototec.cmdoption.*;\n" +
+					"public class Cli extends base.Base {\n" +
+					"  @CmdOption(names = \"--name\", args = \"NAME\", description = \"The name\", handler = UpperCaseHandler.class)\n" +
+					"  private String name;\n" +
+					"  @CmdOptionDelegate(CmdOptionDelegate.Mode.COMMAND)\n" +
+					"  public final Run run = new Run();\n" +
+					"  @CmdOptionDelegate(lazy = true)\n" +
+					"  public Logging logging;\n" +
+					"  public String getName() { return name; }\n" +
+					"  public static class Logging {\n" +
+					"    @CmdOption(names = \"--log-level\", args = \"LEVEL\")\n" +
+					"    public String level;\n" +
+					"  }\n" +
+					"  @CmdCommand(names = \"run\", description = \"Run it\")\n" +
+					"  public static class Run {\n" +
+					"    @CmdOption(names = \"--count\", args = \"N\")\n" +
+					"    public void setCount(int count) { this.count = count; }\n" +
+					"    public int count;\n" +
+					"  }\n" +
+					"}\n");
+
+			final File configFile = new File(classes,
+				"META-INF/native-image/" + CmdOptionProcessor.DEFAULT_NATIVE_IMAGE_NAME + "/reflect-config.json");
+			expectTrue(configFile.isFile(), "Missing " + configFile);
+			final String reflectConfig = read(configFile);
+			final List<String> registered = fullyRegistered(reflectConfig);
+			expectEquals(registered, Arrays.asList("base.Base", "sample.Cli", "sample.Cli$Logging", "sample.Cli$Run"));
+			for (final String className : Arrays.asList(
+				"sample.Cli" + CmdOptionProcessor.DESCRIPTOR_SUFFIX,
+				"sample.Cli$Run" + CmdOptionProcessor.DESCRIPTOR_SUFFIX,
+				"sample.UpperCaseHandler")) {
+				expectTrue(reflectConfig.contains("\"name\": \"" + className + "\",\n    \"methods\": [ { \"name\": \"<init>\""),
+					"Missing constructor of " + className);
+			}
+			expectTrue(reflectConfig.contains("\"name\": \"sample.Cli$Logging\",\n    \"allDeclaredFields\": true,\n"
+				+ "    \"allDeclaredMethods\": true,\n    \"methods\": [ { \"name\": \"<init>\""),
+				"Missing constructor of lazy delegate");
+
+			final URLClassLoader cl = new URLClassLoader(new URL[] { classes.toURI().toURL() },
+				getClass().getClassLoader());
+			final Object config = cl.loadClass("sample.Cli").newInstance();
+			final CmdlineParser cp = new CmdlineParser(config);
+			cp.setProgramName("sample");
+			cp.parse("--name", "native", "--log-level", "debug", "run", "--count", "3");
+			expectEquals(config.getClass().getMethod("getName").invoke(config), "NATIVE");
+			final Object logging = config.getClass().getField("logging").get(config);
+			expectEquals(logging.getClass().getField("level").get(logging), "debug");
+			expectEquals(cp.getParsedCommandName(), "run");
+
+			final String usage = cp.usageString();
+			expectTrue(usage.contains("Usage: sample [options] [command]"), usage);
+			expectTrue(usage.contains("--name NAME"), usage);
+			expectTrue(usage.contains("--count N"), usage);
+
+			// everything the parser accesses via reflection is registered
+			final List<OptionHandle> options = new ArrayList<OptionHandle>(cp.getCmdlineModel().getOptions());
+			for (final CommandHandle command : cp.getCmdlineModel().getCommands()) {
+				options.addAll(command.getCommandCmdlineModel().getOptions());
+			}
+			expectEquals(options.size(), 4);
+			for (final OptionHandle option : options) {
+				final Class<?> declaringClass = ((java.lang.reflect.Member) option.getElement()).getDeclaringClass();
+				expectTrue(registered.contains(declaringClass.getName()), "Not registered: " + declaringClass);
+			}
+		});
+
+		test("Plugin commands are indexed and loaded on demand", () -> {
+			final File classes = compile(tempDir("apt"),
+				"plugin/Deploy.java",
+				"package plugin;\n" +
+					"import de.tototec.cmdoption.*;\n" +
+					"@CmdCommandPlugin\n" +
+					"@CmdCommand(names = { \"deploy\", \"d\" }, description = \"Deploy\\tthe \\\\ app\")\n" +
+					"public class Deploy {\n" +
+					"  static { System.setProperty(\"cmdoption.test.deployLoaded\", \"true\"); }\n" +
+					"  @CmdOption(names = \"--target\", args = \"TARGET\")\n" +
+					"  public String target;\n" +
+					"}\n",
+				"plugin/Info.java",
+				"package plugin;\n" +
+					"import de.tototec.cmdoption.*;\n" +
+					"@CmdCommandPlugin\n" +
+					"@CmdCommand(names = \"info\", hidden = true)\n" +
+					"public class Info {\n" +
+					"  @CmdOption(args = \"TOPIC\")\n" +
+					"  public String topic;\n" +
+					"}\n");
+
+			final File index = new File(classes, CmdOptionProcessor.PLUGIN_COMMAND_INDEX);
+			expectEquals(read(index), "# CmdOption plugin commands 1\n"
+				+ "plugin.Deploy\tfalse\ttrue\tfalse\tDeploy\\tthe \\\\ app\tdeploy\td\n"
+				+ "plugin.Info\ttrue\tfalse\ttrue\t\tinfo\n");
+			expectTrue(read(new File(classes, "META-INF/native-image/" + CmdOptionProcessor.DEFAULT_NATIVE_IMAGE_NAME
+				+ "/reflect-config.json")).contains("\"name\": \"plugin.Deploy\",\n    \"allDeclaredFields\": true,\n"
+					+ "    \"allDeclaredMethods\": true,\n    \"methods\": [ { \"name\": \"<init>\""));
+
+			System.clearProperty("cmdoption.test.deployLoaded");
+			final URLClassLoader cl = new URLClassLoader(new URL[] { classes.toURI().toURL() },
+				getClass().getClassLoader());
+			final CmdlineParser cp = new CmdlineParser();
+			cp.setProgramName("tool");
+			cp.addPluginCommands(cl);
+			final String usage = cp.usageString();
+			expectTrue(usage.contains("deploy,d"), usage);
+			expectTrue(usage.contains("Deploy\tthe \\ app"), usage);
+			expectTrue(usage.contains("[command options]"), usage);
+			expectEquals(System.getProperty("cmdoption.test.deployLoaded"), null);
+
+			cp.parse("deploy", "--target", "prod");
+			expectEquals(System.getProperty("cmdoption.test.deployLoaded"), "true");
+			final Object deploy = cp.getParsedCommandObject();
+			expectEquals(deploy.getClass().getField("target").get(deploy), "prod");
+		});
+
+		test("An incremental compilation keeps the entries of other classes", () -> {
+			final File dir = tempDir("apt");
+			final String deploy = "package plugin;\n" +
+				"@de.tototec.cmdoption.CmdCommandPlugin\n" +
+				"@de.tototec.cmdoption.CmdCommand(names = \"deploy\")\n" +
+				"public class Deploy {\n" +
+				"  @de.tototec.cmdoption.CmdOption(names = \"--target\", args = \"TARGET\")\n" +
+				"  public String target;\n" +
+				"}\n";
+			final String info = "package plugin;\n" +
+				"@de.tototec.cmdoption.CmdCommandPlugin\n" +
+				"@de.tototec.cmdoption.CmdCommand(names = \"info\")\n" +
+				"public class Info {}\n";
+			compile(dir, "plugin/Deploy.java", deploy, "plugin/Info.java", info);
+
+			final File classes = compile(dir, "plugin/Info.java", info.replace("\"info\"", "\"about\""));
+			final File index = new File(classes, CmdOptionProcessor.PLUGIN_COMMAND_INDEX);
+			expectEquals(read(index), "# CmdOption plugin commands 1\n"
+				+ "plugin.Deploy\tfalse\ttrue\tfalse\t\tdeploy\n"
+				+ "plugin.Info\tfalse\tfalse\tfalse\t\tabout\n");
+			final File configFile = new File(classes,
+				"META-INF/native-image/" + CmdOptionProcessor.DEFAULT_NATIVE_IMAGE_NAME + "/reflect-config.json");
+			expectEquals(fullyRegistered(read(configFile)), Arrays.asList("plugin.Deploy", "plugin.Info"));
+			expectTrue(read(configFile).contains("\"name\": \"plugin.Deploy" + CmdOptionProcessor.DESCRIPTOR_SUFFIX
+				+ "\",\n    \"methods\": [ { \"name\": \"<init>\""));
+
+			// a class which is no plugin command anymore is removed from the index
+			compile(dir, "plugin/Info.java", info.replace("@de.tototec.cmdoption.CmdCommandPlugin\n", ""));
+			expectEquals(read(index), "# CmdOption plugin commands 1\n"
+				+ "plugin.Deploy\tfalse\ttrue\tfalse\t\tdeploy\n");
+		});
+
+		test("Native-image config can be disabled", () -> {
+			final File dir = tempDir("apt");
+			final File srcFile = new File(dir, "src/sample/Config.java");
+			srcFile.getParentFile().mkdirs();
+			final Writer writer = new OutputStreamWriter(new FileOutputStream(srcFile), Charset.forName("UTF-8"));
+			try {
+				writer.write("package sample;\n" +
+					"public class Config {\n" +
+					"  @de.tototec.cmdoption.CmdOption(names = \"-v\")\n" +
+					"  public boolean verbose;\n" +
+					"}\n");
+			} finally {
+				writer.close();
+			}
+			final File classes = new File(dir, "classes");
+			classes.mkdirs();
+			final int result = ToolProvider.getSystemJavaCompiler().run(null, null, null,
+				"-classpath", classpathOf(CmdlineParser.class, CmdOptionProcessor.class),
+				"-processor", CmdOptionProcessor.class.getName(),
+				"-A" + CmdOptionProcessor.OPTION_NATIVE_IMAGE + "=false",
+				"-d", classes.getPath(),
+				srcFile.getPath());
+			expectEquals(result, 0);
+			expectTrue(new File(classes, "sample/Config" + CmdOptionProcessor.DESCRIPTOR_SUFFIX + ".class").isFile());
+			expectTrue(!new File(classes, "META-INF/native-image").exists());
+		});
+	}
+
+}
@@ -0,0 +1,95 @@
+package de.tototec.cmdoption;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.tototec.cmdoption.handler.IntegerHandler;
+
+/**
+ * Compares the throughput of applying a value to a private field, via the
+ * former approach (toggle the accessible flag for each apply and let the
+ * handler write the field) and the accessors bound once per option.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApplyBenchmark {
+
+	public static class Config {
+		@CmdOption(names = "--count", args = "N")
+		private int count;
+	}
+
+	/**
+	 * Stands in for a descriptor generated by the annotation processor. It can
+	 * not access the private field, so we write a package-private one.
+	 */
+	public static class GeneratedLikeDescriptor implements CmdOptionDescriptor {
+		public String[] getElements() {
+			return new String[] { Config.class.getName() + "#count" };
+		}
+
+		public boolean apply(final int element, final Object config, final Object[] values) throws Exception {
+			((Config) config).count = ((Integer) values[0]).intValue();
+			return true;
+		}
+	}
+
+	private final String[] args = new String[] { "42" };
+	private final IntegerHandler handler = new IntegerHandler();
+	private Config config;
+	private Field toggledField;
+	private ElementAccessor reflective;
+	private ElementAccessor generated;
+
+	@Setup
+	public void setup() throws Exception {
+		config = new Config();
+		// a private copy, which is not accessible yet
+		toggledField = Config.class.getDeclaredField("count");
+		final Field field = Config.class.getDeclaredField("count");
+		field.setAccessible(true);
+		reflective = new ReflectiveElementAccessor(field);
+		generated = new DescriptorElementAccessor(new GeneratedLikeDescriptor(), 0, reflective);
+	}
+
+	@Benchmark
+	public Config toggleAccessible() throws Exception {
+		final boolean origAccessibleFlag = toggledField.isAccessible();
+		if (!origAccessibleFlag) {
+			toggledField.setAccessible(true);
+		}
+		handler.applyParams(config, toggledField, args, "--count");
+		if (!origAccessibleFlag) {
+			toggledField.setAccessible(origAccessibleFlag);
+		}
+		return config;
+	}
+
+	@Benchmark
+	public Config reflectiveAccessor() throws Exception {
+		reflective.apply(config, handler.convertParams(toggledField, args, "--count"));
+		return config;
+	}
+
+	@Benchmark
+	public Config generatedAccessor() throws Exception {
+		generated.apply(config, handler.convertParams(toggledField, args, "--count"));
+		return config;
+	}
+
+}
@@ -0,0 +1,62 @@
+package de.tototec.cmdoption;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures parsing command lines of growing length, e.g. file lists read from
+ * an @-file. Every tenth argument is an aggregated short option, which is
+ * rewritten while parsing. The time per argument should stay constant.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArgsScalingBenchmark {
+
+	@Param({ "1000", "10000", "100000", "1000000" })
+	int argCount;
+
+	CmdlineParser parser;
+	String[] cmdline;
+
+	@Setup
+	public void setup() {
+		final OptionSink sink = new OptionSink() {
+			@Override
+			public void apply(final String optionName, final String[] args) {
+			}
+		};
+		parser = new CmdlineParser();
+		parser.setAggregateShortOptionsWithPrefix("-");
+		parser.addOption(OptionBuilder.option("-v").maxCount(-1).sink(sink).build());
+		parser.addOption(OptionBuilder.option("-q").maxCount(-1).sink(sink).build());
+		parser.addOption(OptionBuilder.option("-o").args("FILE").maxCount(-1).sink(sink).build());
+		parser.addOption(OptionBuilder.parameter("FILE").maxCount(-1).sink(sink).build());
+
+		cmdline = new String[argCount];
+		for (int i = 0; i < argCount; ++i) {
+			cmdline[i] = i % 10 == 0 ? "-vq" : "file-" + i + ".txt";
+		}
+	}
+
+	@Benchmark
+	public CmdlineParser parse() {
+		parser.parse(cmdline);
+		return parser;
+	}
+
+}
@@ -0,0 +1,218 @@
+package de.tototec.cmdoption;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.tototec.cmdoption.internal.NameIndex;
+
+/**
+ * Measures the share of the option name lookup and of the requires, conflicts
+ * and count checks in a whole parse, and compares them with code like an
+ * annotation processor could generate per config class: a switch on the hash
+ * code of the option name and checks inlined per option.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+	public static class Config {
+		@CmdOption(names = { "--name", "-n" }, args = "NAME", requires = "--count")
+		String name;
+		@CmdOption(names = { "--count", "-c" }, args = "N")
+		int count;
+		@CmdOption(names = { "--verbose", "-v" }, conflictsWith = "--quiet")
+		boolean verbose;
+		@CmdOption(names = { "--quiet", "-q" })
+		boolean quiet;
+		@CmdOption(names = "--host", args = "HOST")
+		String host;
+		@CmdOption(names = "--port", args = "PORT", requires = "--host")
+		int port;
+		@CmdOption(names = "--timeout", args = "MS")
+		long timeout;
+		@CmdOption(names = "--retries", args = "N")
+		int retries;
+		@CmdOption(names = "--user", args = "USER")
+		String user;
+		@CmdOption(names = "--mode", args = "MODE")
+		String mode;
+		@CmdOption(names = "--dry-run")
+		boolean dryRun;
+		@CmdOption(names = "--force", conflictsWith = "--dry-run")
+		boolean force;
+		@CmdOption(args = "FILE", maxCount = -1)
+		final List<String> files = new ArrayList<String>();
+	}
+
+	private final String[] cmdline = { "--name", "job", "--count", "3", "-v", "--host", "h", "--port", "80",
+		"--timeout", "1000", "--retries", "2", "--user", "u", "--force", "f1", "f2" };
+	/**
+	 * The elements of the command line the parser looks up.
+	 */
+	private final String[] names = { "--name", "--count", "-v", "--host", "--port", "--timeout", "--retries",
+		"--user", "--force", "f1", "f2" };
+	private final ConfigFactory<Config> configFactory = new ConfigFactory<Config>() {
+		public Config createConfig() {
+			return new Config();
+		}
+	};
+
+	private CompiledCmdlineParser compiled;
+	private NameIndex<OptionHandle> optionNames;
+	private OptionOrdinals ordinals;
+	private final BitSet used = new BitSet();
+	private int[] counts;
+	private boolean[] given;
+
+	@Setup
+	public void setup() {
+		compiled = new CmdlineParser(new Config()).compile();
+		final List<OptionHandle> options = new ArrayList<OptionHandle>();
+		optionNames = new NameIndex<OptionHandle>();
+		for (final OptionHandle option : compiled.getCmdlineModel().getOptions()) {
+			options.add(option);
+			for (final String name : option.getNames()) {
+				optionNames.put(name, option);
+			}
+		}
+		ordinals = new OptionOrdinals(options, null, optionNames);
+		counts = new int[ordinals.size()];
+		given = new boolean[ordinals.size()];
+		for (final String name : names) {
+			final int index = optionNames.indexOf(name);
+			if (index >= 0) {
+				final int ordinal = ordinals.ordinalOfName(index);
+				used.set(ordinal);
+				counts[ordinal] = 1;
+				given[ordinal] = true;
+			}
+		}
+	}
+
+	@Benchmark
+	public Config compiledParse() {
+		return compiled.parse(configFactory, cmdline).getConfig();
+	}
+
+	@Benchmark
+	public int nameIndexLookup() {
+		int result = 0;
+		for (final String name : names) {
+			result += optionNames.indexOf(name);
+		}
+		return result;
+	}
+
+	@Benchmark
+	public int hashSwitchLookup() {
+		int result = 0;
+		for (final String name : names) {
+			result += ordinalOf(name);
+		}
+		return result;
+	}
+
+	@Benchmark
+	public int ordinalChecks() {
+		int result = ordinals.firstInvalidCount(used, counts);
+		for (int o = used.nextSetBit(0); o >= 0; o = used.nextSetBit(o + 1)) {
+			if (!ordinals.requiredGiven(o, used) || ordinals.conflictGiven(o, used)) {
+				result += o;
+			}
+		}
+		return result;
+	}
+
+	@Benchmark
+	public int inlinedChecks() {
+		return checkInlined(given, counts);
+	}
+
+	/**
+	 * Like a generated dispatch: one case per distinct hash code, each case
+	 * checks the names with this hash code.
+	 */
+	private static int ordinalOf(final String name) {
+		switch (name.hashCode()) {
+			case 1333243947:
+				return name.equals("--name") ? 0 : -1;
+			case 1505:
+				return name.equals("-n") ? 0 : -1;
+			case -1628844177:
+				return name.equals("--count") ? 1 : -1;
+			case 1494:
+				return name.equals("-c") ? 1 : -1;
+			case 1737088994:
+				return name.equals("--verbose") ? 2 : -1;
+			case 1513:
+				return name.equals("-v") ? 2 : -1;
+			case -1615747948:
+				return name.equals("--quiet") ? 3 : -1;
+			case 1508:
+				return name.equals("-q") ? 3 : -1;
+			case 1333078856:
+				return name.equals("--host") ? 4 : -1;
+			case 1333317153:
+				return name.equals("--port") ? 5 : -1;
+			case 72070081:
+				return name.equals("--timeout") ? 6 : -1;
+			case -1810608218:
+				return name.equals("--retries") ? 7 : -1;
+			case 1333469547:
+				return name.equals("--user") ? 8 : -1;
+			case 1333227331:
+				return name.equals("--mode") ? 9 : -1;
+			case -976007735:
+				return name.equals("--dry-run") ? 10 : -1;
+			case -1626076853:
+				return name.equals("--force") ? 11 : -1;
+			default:
+				return -1;
+		}
+	}
+
+	/**
+	 * Like generated checks: the requires, conflicts and counts of each option,
+	 * inlined.
+	 *
+	 * @return The first ordinal of an invalid option or <code>-1</code>.
+	 */
+	private static int checkInlined(final boolean[] given, final int[] counts) {
+		for (int o = 0; o < counts.length; ++o) {
+			if (counts[o] > 1) {
+				return o;
+			}
+		}
+		if (given[0] && !given[1]) {
+			return 0;
+		}
+		if (given[2] && given[3]) {
+			return 2;
+		}
+		if (given[5] && !given[4]) {
+			return 5;
+		}
+		if (given[11] && given[10]) {
+			return 11;
+		}
+		return -1;
+	}
+
+}
@@ -0,0 +1,61 @@
+package de.tototec.cmdoption;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures parsing a short command line with a parser with many options, some
+ * of them requiring or conflicting with others. The cost should depend on the
+ * given options, not on the size of the model.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LargeModelParseBenchmark {
+
+	@Param({ "1000", "20000" })
+	int optionCount;
+
+	CmdlineParser parser;
+	final String[] cmdline = { "--option-0", "--option-1", "--option-2" };
+
+	@Setup
+	public void setup() {
+		final OptionSink sink = new OptionSink() {
+			@Override
+			public void apply(final String optionName, final String[] args) {
+			}
+		};
+		parser = new CmdlineParser();
+		for (int i = 0; i < optionCount; ++i) {
+			final OptionBuilder option = OptionBuilder.option("--option-" + i).sink(sink);
+			if (i % 10 == 1) {
+				option.requires("--option-" + (i - 1));
+			} else if (i % 10 == 2) {
+				option.conflictsWith("--option-" + (i + 1));
+			}
+			parser.addOption(option.build());
+		}
+	}
+
+	@Benchmark
+	public CmdlineParser parse() {
+		parser.parse(cmdline);
+		return parser;
+	}
+
+}
@@ -0,0 +1,85 @@
+package de.tototec.cmdoption;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Reports the heap used per option by a parser with many options, like a
+ * generated CLI, where each option gets its own but equal argument names.
+ * <p>
+ * The measurement is based on the used heap after a garbage collection, so it
+ * is only an estimate. The two option names and the description alone need
+ * about 150 bytes per option, the option handle and its names array about 90.
+ */
+public class ModelFootprint {
+
+	public static class Config {
+		@CmdOption(names = { "-h", "--help" }, description = "Show this help", isHelp = true)
+		boolean help;
+
+		@CmdOption(names = "--options", args = "N", description = "Number of options (default: 20000)")
+		int options = 20000;
+
+		@CmdOption(names = "--runs", args = "N", description = "Number of measured parsers, the best is reported (default: 3)")
+		int runs = 3;
+	}
+
+	public static CmdlineParser generatedParser(final int optionCount) {
+		final OptionSink sink = new OptionSink() {
+			@Override
+			public void apply(final String optionName, final String[] args) {
+			}
+		};
+		final CmdlineParser cp = new CmdlineParser();
+		for (int i = 0; i < optionCount; ++i) {
+			cp.addOption(OptionBuilder.option("--option-" + i, "-o" + i)
+				.args(new String("VALUE"))
+				.description("Option " + i)
+				.sink(sink)
+				.build());
+		}
+		return cp;
+	}
+
+	private static long usedHeap() throws InterruptedException {
+		for (int i = 0; i < 3; ++i) {
+			System.gc();
+			Thread.sleep(20);
+		}
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	/**
+	 * @return The fewest bytes per option of all runs, to ignore garbage of
+	 *         other threads.
+	 */
+	public static long bytesPerOption(final int optionCount, final int runs) throws InterruptedException {
+		long bytesPerOption = Long.MAX_VALUE;
+		for (int run = 0; run < runs; ++run) {
+			final long before = usedHeap();
+			final CmdlineParser cp = generatedParser(optionCount);
+			bytesPerOption = Math.min(bytesPerOption, (usedHeap() - before) / optionCount);
+			// keep the parser reachable until it was measured
+			if (cp.getCmdlineModel() == null) {
+				throw new IllegalStateException("No model");
+			}
+		}
+		return bytesPerOption;
+	}
+
+	public static void main(final String[] args) throws Exception {
+		final Config config = new Config();
+		final CmdlineParser cp = new CmdlineParser(config);
+		cp.setProgramName(ModelFootprint.class.getName());
+		cp.parse(args);
+		if (config.help) {
+			cp.usage();
+			return;
+		}
+		if (config.options < 1 || config.runs < 1) {
+			throw new IllegalArgumentException("At least one option and one run are required");
+		}
+		System.out.println("options: " + config.options + ", bytes per option: "
+			+ bytesPerOption(config.options, config.runs));
+	}
+
+}
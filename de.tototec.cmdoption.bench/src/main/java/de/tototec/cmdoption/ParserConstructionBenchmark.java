@@ -0,0 +1,125 @@
+package de.tototec.cmdoption;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the construction of a {@link CmdlineParser} for an already seen
+ * config class, with and without the per-class scan cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserConstructionBenchmark {
+
+	public static class BaseConfig {
+		@CmdOption(names = { "-h", "--help" }, isHelp = true)
+		boolean help;
+
+		@CmdOption(names = { "-v", "--verbose" })
+		boolean verbose;
+
+		@CmdOption(names = "--log-level", args = "LEVEL")
+		String logLevel;
+
+		@CmdOption(names = "--threads", args = "N")
+		int threads;
+
+		@CmdOption(names = "--timeout", args = "MILLIS")
+		long timeout;
+
+		@CmdOption(args = "FILE", maxCount = -1)
+		void addFile(final String file) {
+		}
+	}
+
+	public static class Config extends BaseConfig {
+		@CmdOption(names = "--input", args = "DIR")
+		String input;
+
+		@CmdOption(names = "--output", args = "DIR")
+		String output;
+
+		@CmdOption(names = "--dry-run")
+		boolean dryRun;
+
+		@CmdOption(names = "--force", conflictsWith = "--dry-run")
+		boolean force;
+
+		@CmdOption(names = "--user", args = "USER")
+		String user;
+
+		@CmdOption(names = "--password", args = "PASSWORD", requires = "--user")
+		String password;
+
+		@CmdOption(names = "--retries", args = "N")
+		int retries;
+
+		@CmdOption(names = "--unit", args = "UNIT")
+		TimeUnit unit;
+
+		@CmdOption(names = "--define", args = { "KEY", "VALUE" }, maxCount = -1)
+		void define(final String key, final String value) {
+		}
+
+		@CmdOption(names = "--exclude", args = "PATTERN", maxCount = -1)
+		void exclude(final String pattern) {
+		}
+
+		@CmdOptionDelegate
+		final NetworkConfig network = new NetworkConfig();
+
+		// some unannotated members, which are part of each scan
+		public String getInput() {
+			return input;
+		}
+
+		public String getOutput() {
+			return output;
+		}
+
+		public int getRetries() {
+			return retries;
+		}
+
+		@Override
+		public String toString() {
+			return getClass().getSimpleName() + "(input=" + input + ",output=" + output + ")";
+		}
+	}
+
+	public static class NetworkConfig {
+		@CmdOption(names = "--host", args = "HOST")
+		String host;
+
+		@CmdOption(names = "--port", args = "PORT")
+		int port;
+
+		@CmdOption(names = "--proxy", args = "URL")
+		String proxy;
+	}
+
+	@Benchmark
+	public CmdlineParser cached() {
+		return new CmdlineParser(new Config());
+	}
+
+	@Benchmark
+	public CmdlineParser uncached() {
+		ScanCache.clear();
+		return new CmdlineParser(new Config());
+	}
+
+}
@@ -0,0 +1,167 @@
+package de.tototec.cmdoption;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the scan of config class hierarchies of growing size.
+ * <p>
+ * The hierarchies are generated and compiled in the setup. Each class declares
+ * <code>methods</code> methods and overrides the methods of its parent, and
+ * every fourth class is placed in another package. The <code>linear</code>
+ * benchmark is the former list based override resolution, for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScanScalingBenchmark {
+
+	@Param({ "2", "8", "32" })
+	int depth;
+
+	@Param({ "10", "50" })
+	int methods;
+
+	private Class<?> configClass;
+	private CmdlineParser parser;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		final File dir = File.createTempFile("scan-bench", "");
+		dir.delete();
+		final File srcDir = new File(dir, "src");
+		final File outDir = new File(dir, "classes");
+		outDir.mkdirs();
+
+		final List<String> args = new ArrayList<String>(Arrays.asList(
+			"-classpath", new File(CmdOption.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath(),
+			"-proc:none",
+			"-d", outDir.getPath()));
+		String parent = null;
+		for (int level = 0; level < depth; ++level) {
+			final String pack = "gen" + (level / 4);
+			final String name = "Level" + level;
+			final StringBuilder src = new StringBuilder();
+			src.append("package ").append(pack).append(";\n");
+			src.append("public class ").append(name);
+			if (parent != null) {
+				src.append(" extends ").append(parent);
+			}
+			src.append(" {\n");
+			for (int m = 0; m < methods; ++m) {
+				// a new option per level, an override and an overload of the parent
+				src.append("  @de.tototec.cmdoption.CmdOption(names = \"--l").append(level).append("-").append(m)
+					.append("\", args = \"V\")\n");
+				src.append("  public void opt").append(level).append("x").append(m).append("(String v) {}\n");
+				src.append("  public void shared").append(m).append("(String v) {}\n");
+				src.append("  void shared").append(m).append("(int v) {}\n");
+			}
+			src.append("  protected int field").append(level).append(";\n");
+			src.append("}\n");
+			args.add(write(new File(srcDir, pack + "/" + name + ".java"), src.toString()).getPath());
+			parent = pack + "." + name;
+		}
+
+		final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		if (compiler.run(null, null, null, args.toArray(new String[args.size()])) != 0) {
+			throw new IllegalStateException("Could not compile generated config classes in " + dir);
+		}
+		final URLClassLoader cl = new URLClassLoader(new URL[] { outDir.toURI().toURL() },
+			CmdOption.class.getClassLoader());
+		configClass = cl.loadClass(parent);
+		parser = new CmdlineParser();
+	}
+
+	private static File write(final File file, final String content) throws IOException {
+		file.getParentFile().mkdirs();
+		final Writer writer = new OutputStreamWriter(new FileOutputStream(file), Charset.forName("UTF-8"));
+		try {
+			writer.write(content);
+		} finally {
+			writer.close();
+		}
+		return file;
+	}
+
+	@Benchmark
+	public Set<AccessibleObject> indexed() {
+		return parser.scanElements(configClass);
+	}
+
+	@Benchmark
+	public Set<AccessibleObject> linear() {
+		final List<Field> fields = new LinkedList<Field>();
+		final List<Method> privateMethods = new LinkedList<Method>();
+		final List<Method> otherPackageNonPrivateMethods = new LinkedList<Method>();
+		final List<Method> currentPackageNonPrivateMethods = new LinkedList<Method>();
+
+		Class<?> parentClass = configClass;
+		while (parentClass != null && !parentClass.equals(Object.class)) {
+			fields.addAll(Arrays.asList(parentClass.getDeclaredFields()));
+			for (final Method method : parentClass.getDeclaredMethods()) {
+				if (parser.isPrivate(method)) {
+					privateMethods.add(method);
+				} else if (parser.isPublicOrProtected(method)) {
+					if (!parser.containsMethod(otherPackageNonPrivateMethods, method)
+						&& !parser.containsMethod(currentPackageNonPrivateMethods, method)) {
+						currentPackageNonPrivateMethods.add(method);
+					}
+				} else if (parser.isPackagePrivate(method)) {
+					if (!parser.containsMethod(currentPackageNonPrivateMethods, method)) {
+						currentPackageNonPrivateMethods.add(method);
+					}
+				}
+			}
+			final Package pack = parentClass.getPackage();
+			parentClass = parentClass.getSuperclass();
+			if ((pack == null && parentClass.getPackage() != null) ||
+				(pack != null && !pack.equals(parentClass.getPackage()))) {
+				otherPackageNonPrivateMethods.addAll(currentPackageNonPrivateMethods);
+				currentPackageNonPrivateMethods.clear();
+			}
+		}
+
+		final Set<AccessibleObject> elements = new LinkedHashSet<AccessibleObject>();
+		elements.addAll(fields);
+		elements.addAll(privateMethods);
+		elements.addAll(otherPackageNonPrivateMethods);
+		elements.addAll(currentPackageNonPrivateMethods);
+		return elements;
+	}
+
+}
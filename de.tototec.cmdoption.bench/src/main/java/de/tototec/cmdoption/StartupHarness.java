@@ -0,0 +1,184 @@
+package de.tototec.cmdoption;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Launches the {@link StartupSample} (or another main class printing
+ * {@link StartupSample#RESULT_PREFIX}) in fresh JVMs and reports the time from
+ * <code>main</code> to the end of {@link CmdlineParser#parse(String...)}.
+ * <p>
+ * It can also create a dynamic AppCDS archive (Java 13+) from a run of the
+ * sample, and use it for the measured runs. CDS only supports jar files on the
+ * classpath, no directories.
+ * <p>
+ * Arguments for the sample can be given after <code>--</code>.
+ */
+public class StartupHarness {
+
+	public static class Config {
+		@CmdOption(names = { "-h", "--help" }, description = "Show this help", isHelp = true)
+		boolean help;
+
+		@CmdOption(names = "--runs", args = "N", description = "Number of measured JVM launches (default: 20)")
+		int runs = 20;
+
+		@CmdOption(names = "--java", args = "EXECUTABLE", description = "The java executable (default: the current one)")
+		String java = currentJava();
+
+		@CmdOption(names = "--classpath", args = "CLASSPATH", description = "The classpath of the sample (default: the current one)")
+		String classpath = System.getProperty("java.class.path");
+
+		@CmdOption(names = "--main-class", args = "CLASS", description = "The main class to measure (default: StartupSample)")
+		String mainClass = StartupSample.class.getName();
+
+		@CmdOption(names = "--archive", args = "FILE", description = "Use the given CDS archive")
+		String archive;
+
+		@CmdOption(names = "--create-archive", args = "FILE", description = "Create a CDS archive from a run of the sample and exit")
+		String createArchive;
+
+		@CmdOption(names = "--jvm-arg", args = "ARG", maxCount = -1, description = "Additional JVM argument")
+		final List<String> jvmArgs = new LinkedList<String>();
+
+		@CmdOption(args = "ARG", maxCount = -1, description = "Arguments passed to the sample")
+		final List<String> args = new LinkedList<String>();
+	}
+
+	private final Config config;
+
+	public StartupHarness(final Config config) {
+		this.config = config;
+	}
+
+	public static String currentJava() {
+		return new File(new File(System.getProperty("java.home"), "bin"), "java").getPath();
+	}
+
+	/**
+	 * @return The command to launch the sample.
+	 */
+	public List<String> command(final String... jvmArgs) {
+		final List<String> command = new ArrayList<String>();
+		command.add(config.java);
+		command.addAll(Arrays.asList(jvmArgs));
+		command.addAll(config.jvmArgs);
+		if (config.archive != null) {
+			command.add("-XX:SharedArchiveFile=" + config.archive);
+		}
+		command.add("-cp");
+		command.add(config.classpath);
+		command.add(config.mainClass);
+		command.addAll(config.args);
+		return command;
+	}
+
+	/**
+	 * Launch the given command and wait for it.
+	 *
+	 * @return The output lines of the process.
+	 * @throws IOException if the process failed.
+	 */
+	public static List<String> launch(final List<String> command) throws IOException, InterruptedException {
+		final Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+		final List<String> lines = new ArrayList<String>();
+		final BufferedReader reader = new BufferedReader(
+			new InputStreamReader(process.getInputStream(), Charset.defaultCharset()));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lines.add(line);
+			}
+		} finally {
+			reader.close();
+		}
+		final int exitCode = process.waitFor();
+		if (exitCode != 0) {
+			throw new IOException("Command " + command + " failed with exit code " + exitCode + ":\n" + lines);
+		}
+		return lines;
+	}
+
+	/**
+	 * @return The measured time in nanoseconds, as printed by the sample.
+	 */
+	public static long parseResult(final List<String> lines) throws IOException {
+		for (final String line : lines) {
+			if (line.startsWith(StartupSample.RESULT_PREFIX)) {
+				return Long.parseLong(line.substring(StartupSample.RESULT_PREFIX.length()).trim());
+			}
+		}
+		throw new IOException("No result found in output: " + lines);
+	}
+
+	/**
+	 * Run the sample once and record all loaded classes in the given CDS archive.
+	 */
+	public File createArchive(final File archive) throws IOException, InterruptedException {
+		archive.getAbsoluteFile().getParentFile().mkdirs();
+		launch(command("-XX:ArchiveClassesAtExit=" + archive.getPath()));
+		if (!archive.isFile()) {
+			throw new IOException("CDS archive was not created: " + archive);
+		}
+		return archive;
+	}
+
+	/**
+	 * @return The measured times of all runs in nanoseconds, in the order of the
+	 *         runs.
+	 */
+	public List<Long> measure() throws IOException, InterruptedException {
+		final List<Long> times = new ArrayList<Long>(config.runs);
+		for (int i = 0; i < config.runs; ++i) {
+			times.add(parseResult(launch(command())));
+		}
+		return times;
+	}
+
+	public static String report(final List<Long> times) {
+		final List<Long> sorted = new ArrayList<Long>(times);
+		Collections.sort(sorted);
+		long sum = 0;
+		for (final Long time : sorted) {
+			sum += time;
+		}
+		return String.format("runs: %d, min: %.2f ms, median: %.2f ms, mean: %.2f ms, max: %.2f ms",
+			sorted.size(),
+			sorted.get(0) / 1e6,
+			sorted.get(sorted.size() / 2) / 1e6,
+			sum / 1e6 / sorted.size(),
+			sorted.get(sorted.size() - 1) / 1e6);
+	}
+
+	public static void main(final String[] args) throws Exception {
+		final Config config = new Config();
+		final CmdlineParser cp = new CmdlineParser(config);
+		cp.setProgramName(StartupHarness.class.getName());
+		cp.parse(args);
+		if (config.help) {
+			cp.usage();
+			return;
+		}
+
+		final StartupHarness harness = new StartupHarness(config);
+		if (config.createArchive != null) {
+			System.out.println("Created CDS archive: " + harness.createArchive(new File(config.createArchive)));
+			return;
+		}
+		if (config.runs < 1) {
+			throw new IllegalArgumentException("At least one run is required");
+		}
+		System.out.println("Measuring " + config.mainClass + (config.archive == null ? "" : " with CDS archive "
+			+ config.archive));
+		System.out.println(report(harness.measure()));
+	}
+
+}
@@ -0,0 +1,89 @@
+package de.tototec.cmdoption;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * A small sample CLI used to measure the startup cost of CmdOption in a fresh
+ * JVM, see {@link StartupHarness}.
+ * <p>
+ * It prints the time from the start of {@link #main(String[])} to the end of
+ * {@link CmdlineParser#parse(String...)} in nanoseconds, prefixed with
+ * {@link #RESULT_PREFIX}.
+ */
+public class StartupSample {
+
+	public static final String RESULT_PREFIX = "CMDOPTION_STARTUP_NANOS=";
+
+	/**
+	 * Used when no arguments are given.
+	 */
+	public static final String[] DEFAULT_ARGS = { "--verbose", "--threads", "4", "-D", "key", "value", "build",
+		"--target", "all", "--skip-tests", "module-a", "module-b" };
+
+	public static class Config {
+		@CmdOption(names = { "-h", "--help" }, description = "Show this help", isHelp = true)
+		boolean help;
+
+		@CmdOption(names = { "-v", "--verbose" }, description = "Be verbose")
+		boolean verbose;
+
+		@CmdOption(names = "--threads", args = "N", description = "Number of threads")
+		int threads;
+
+		@CmdOption(names = "--log-level", args = "LEVEL", description = "The log level")
+		String logLevel;
+
+		@CmdOption(names = "-D", args = { "KEY", "VALUE" }, maxCount = -1, description = "Define a property")
+		void define(final String key, final String value) {
+		}
+
+		@CmdOptionDelegate
+		final NetworkConfig network = new NetworkConfig();
+	}
+
+	public static class NetworkConfig {
+		@CmdOption(names = "--proxy", args = "HOST", description = "The proxy host")
+		String proxy;
+
+		@CmdOption(names = "--offline", description = "Work offline", conflictsWith = "--proxy")
+		boolean offline;
+	}
+
+	@CmdCommand(names = "build", description = "Build the given modules")
+	public static class BuildCommand {
+		@CmdOption(names = "--target", args = "TARGET", description = "The build target")
+		String target;
+
+		@CmdOption(names = "--skip-tests", description = "Skip tests")
+		boolean skipTests;
+
+		@CmdOption(args = "MODULE", maxCount = -1, description = "The modules to build")
+		final List<String> modules = new LinkedList<String>();
+	}
+
+	@CmdCommand(names = "clean", description = "Clean the given modules")
+	public static class CleanCommand {
+		@CmdOption(names = "--all", description = "Clean all modules")
+		boolean all;
+
+		@CmdOption(args = "MODULE", maxCount = -1, description = "The modules to clean")
+		final List<String> modules = new LinkedList<String>();
+	}
+
+	public static void main(final String[] args) {
+		final long start = System.nanoTime();
+
+		final Config config = new Config();
+		final BuildCommand build = new BuildCommand();
+		final CmdlineParser cp = new CmdlineParser(config, build, new CleanCommand());
+		cp.parse(args.length == 0 ? DEFAULT_ARGS : args);
+
+		final long end = System.nanoTime();
+		if (!"build".equals(cp.getParsedCommandName()) && args.length == 0) {
+			throw new IllegalStateException("Sample was not parsed as expected");
+		}
+		System.out.println(RESULT_PREFIX + (end - start));
+	}
+
+}
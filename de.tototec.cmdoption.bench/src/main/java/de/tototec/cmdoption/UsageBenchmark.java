@@ -0,0 +1,61 @@
+package de.tototec.cmdoption;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures rendering the usage of a CLI with many commands, each with some
+ * options.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UsageBenchmark {
+
+	@Param({ "40", "400" })
+	int commandCount;
+
+	CmdlineParser parser;
+
+	@Setup
+	public void setup() {
+		final OptionSink sink = new OptionSink() {
+			@Override
+			public void apply(final String optionName, final String[] args) {
+			}
+		};
+		parser = new CmdlineParser();
+		parser.setProgramName("tool");
+		parser.addOption(OptionBuilder.option("-h", "--help").isHelp(true).description("Show help").sink(sink).build());
+		for (int i = 0; i < commandCount; ++i) {
+			final CommandBuilder command = CommandBuilder.command("command-" + i).description("Command " + i);
+			for (int j = 0; j < 10; ++j) {
+				command.option(OptionBuilder.option("--option-" + (10 - j), "-" + (char) ('a' + j))
+					.args("VALUE").description("Option " + j + " of command " + i).sink(sink).build());
+			}
+			parser.addCommand(command);
+		}
+		// create the parsers of all commands
+		parser.usageString();
+	}
+
+	@Benchmark
+	public String usage() {
+		return parser.usageString();
+	}
+
+}
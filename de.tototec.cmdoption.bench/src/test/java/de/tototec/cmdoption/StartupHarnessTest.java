@@ -0,0 +1,117 @@
+package de.tototec.cmdoption;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class StartupHarnessTest extends FreeSpec {
+
+	/**
+	 * @return A jar containing the classes the given class was loaded from. CDS
+	 *         does not support directories on the classpath.
+	 */
+	public static File jarOf(final Class<?> cls, final File dir) throws Exception {
+		final File location = new File(cls.getProtectionDomain().getCodeSource().getLocation().toURI());
+		if (location.isFile()) {
+			return location;
+		}
+		final File jar = new File(dir, cls.getSimpleName() + ".jar");
+		final JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+		try {
+			addToJar(out, location, "");
+		} finally {
+			out.close();
+		}
+		return jar;
+	}
+
+	private static void addToJar(final JarOutputStream out, final File dir, final String prefix) throws IOException {
+		final File[] files = dir.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (final File file : files) {
+			if (file.isDirectory()) {
+				addToJar(out, file, prefix + file.getName() + "/");
+			} else {
+				out.putNextEntry(new JarEntry(prefix + file.getName()));
+				final InputStream in = new FileInputStream(file);
+				try {
+					final byte[] buf = new byte[8192];
+					int len;
+					while ((len = in.read(buf)) > 0) {
+						out.write(buf, 0, len);
+					}
+				} finally {
+					in.close();
+				}
+				out.closeEntry();
+			}
+		}
+	}
+
+	public static File tempDir() throws IOException {
+		final File dir = File.createTempFile("startup", "");
+		dir.delete();
+		dir.mkdirs();
+		return dir;
+	}
+
+	public static int javaVersion() {
+		final String version = System.getProperty("java.specification.version");
+		return Integer.parseInt(version.startsWith("1.") ? version.substring(2) : version);
+	}
+
+	private static StartupHarness.Config config(final File dir) throws Exception {
+		final StartupHarness.Config config = new StartupHarness.Config();
+		config.classpath = jarOf(CmdlineParser.class, dir).getPath() + File.pathSeparator
+			+ jarOf(StartupSample.class, dir).getPath();
+		config.runs = 2;
+		return config;
+	}
+
+	public StartupHarnessTest() {
+
+		test("Measure the sample in fresh JVMs", () -> {
+			final List<Long> times = new StartupHarness(config(tempDir())).measure();
+			expectEquals(times.size(), 2);
+			for (final Long time : times) {
+				expectTrue(time > 0);
+			}
+			expectTrue(StartupHarness.report(times).startsWith("runs: 2, min: "));
+		});
+
+		test("Create and use a CDS archive for the sample", () -> {
+			if (javaVersion() < 13) {
+				// dynamic archives require Java 13
+				return;
+			}
+			final File dir = tempDir();
+			final StartupHarness.Config config = config(dir);
+			final File archive = new StartupHarness(config).createArchive(new File(dir, "sample.jsa"));
+			expectTrue(archive.length() > 0);
+
+			config.archive = archive.getPath();
+			config.jvmArgs.add("-Xlog:class+load=info");
+			final List<String> output = StartupHarness.launch(new StartupHarness(config).command());
+			expectTrue(StartupHarness.parseResult(output) > 0);
+			boolean sharedParser = false;
+			for (final String line : output) {
+				sharedParser |= line.contains(" de.tototec.cmdoption.CmdlineParser ") && line.contains("shared");
+			}
+			expectTrue(sharedParser, "CmdlineParser was not loaded from the CDS archive");
+		});
+
+	}
+
+}
@@ -0,0 +1,46 @@
+package de.tototec.cmdoption;
+
+/**
+ * The engine used by {@link CmdlineParser} to apply parsed option values to
+ * fields and methods of config classes, for which no compile-time
+ * {@link CmdOptionDescriptor} was generated.
+ *
+ * @see CmdlineParser#setApplyEngine(ApplyEngine)
+ * @since 0.8.0
+ */
+public enum ApplyEngine {
+
+	/**
+	 * Apply values via reflection.
+	 */
+	REFLECTION,
+
+	/**
+	 * Generate a class at runtime, which writes fields and invokes methods
+	 * directly. Private members and members not accessible from the package of
+	 * the config class are still applied via reflection. If the class can not be
+	 * generated, e.g. because of a security manager, this falls back to
+	 * {@link #REFLECTION}.
+	 */
+	GENERATED;
+
+	/**
+	 * The system property to select the default engine.
+	 */
+	public static final String PROPERTY = "de.tototec.cmdoption.applyEngine";
+
+	/**
+	 * @return The engine selected with the system property {@value #PROPERTY},
+	 *         or {@link #REFLECTION} if none or an unknown one is selected.
+	 */
+	public static ApplyEngine defaultEngine() {
+		final String engine = System.getProperty(PROPERTY);
+		for (final ApplyEngine value : values()) {
+			if (value.name().equalsIgnoreCase(engine)) {
+				return value;
+			}
+		}
+		return REFLECTION;
+	}
+
+}
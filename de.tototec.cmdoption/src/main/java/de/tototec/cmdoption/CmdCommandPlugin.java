@@ -0,0 +1,27 @@
+package de.tototec.cmdoption;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@link CmdCommand} class as plugin command, which is found with
+ * {@link CmdlineParser#addPluginCommands(ClassLoader)}.
+ * <p>
+ * The annotation processor <code>de.tototec.cmdoption.apt</code> lists all
+ * plugin commands of a JAR in the index
+ * <code>META-INF/cmdoption/plugin-commands</code>, together with their names,
+ * descriptions and hidden flags. The parser reads these indexes, so that a
+ * plugin command class is not loaded before the command is selected. The class
+ * needs a constructor without parameters.
+ *
+ * @since 0.8.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE })
+@Documented
+public @interface CmdCommandPlugin {
+
+}
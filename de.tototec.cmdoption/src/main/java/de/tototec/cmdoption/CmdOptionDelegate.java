@@ -29,4 +29,25 @@ public @interface CmdOptionDelegate {
 	 * @since CmdOption 0.7.0
 	 */
 	Mode value() default Mode.OPTIONS;
+
+	/**
+	 * If <code>true</code>, the field may be <code>null</code> when its owner is
+	 * added to the parser. The options are then found by scanning the class given
+	 * by {@link #type()}, and the delegate object is created with its no-arg
+	 * constructor and stored in the field, not before one of its options is
+	 * applied. If the field is not <code>null</code>, its value is used as usual.
+	 * <p>
+	 * Only supported for mode {@link Mode#OPTIONS} and non-final fields.
+	 *
+	 * @since 0.8.0
+	 */
+	boolean lazy() default false;
+
+	/**
+	 * The class of a lazily created delegate (see {@link #lazy()}). If not given,
+	 * the type of the field is used.
+	 *
+	 * @since 0.8.0
+	 */
+	Class<?> type() default Object.class;
 }
@@ -0,0 +1,54 @@
+package de.tototec.cmdoption;
+
+/**
+ * A compile-time generated description of all CmdOption-relevant members of a
+ * config class.
+ * <p>
+ * Implementations are generated by the CmdOption annotation processor
+ * (<code>de.tototec.cmdoption.apt</code>) into the package of the described
+ * class and are named after its binary name with the suffix {@value #SUFFIX}.
+ * If such a descriptor is present, {@link CmdlineParser} uses it instead of
+ * scanning the class hierarchy via reflection. If it is absent or outdated, the
+ * parser falls back to reflection.
+ *
+ * @since 0.8.0
+ */
+public interface CmdOptionDescriptor {
+
+	/**
+	 * The suffix appended to the binary name of the described class to form the
+	 * class name of its descriptor.
+	 */
+	String SUFFIX = "_CmdOptionDescriptor";
+
+	/**
+	 * The signatures of all fields and methods annotated with {@link CmdOption}
+	 * or {@link CmdOptionDelegate} of the described class and all its super
+	 * classes, in the order they would be found by the reflective scan.
+	 * <p>
+	 * A field is denoted as <code>declaringClass#name</code>, a method as
+	 * <code>declaringClass#name(paramType,...)</code>. All class names are binary
+	 * names as returned by {@link Class#getName()}.
+	 */
+	String[] getElements();
+
+	/**
+	 * Apply the given values directly to an element of the given config object,
+	 * without the use of reflection.
+	 *
+	 * @param element
+	 *            The index of the element in {@link #getElements()}.
+	 * @param config
+	 *            The config object, an instance of the described class.
+	 * @param values
+	 *            The values as converted by a
+	 *            {@link de.tototec.cmdoption.handler.CmdOptionValueHandler}.
+	 * @return <code>true</code> if the values were applied, or
+	 *         <code>false</code> if the element is not accessible from the
+	 *         generated code (e.g. because it is private).
+	 * @throws Exception
+	 *             Any exception thrown while applying the values.
+	 */
+	boolean apply(int element, Object config, Object[] values) throws Exception;
+
+}
@@ -1,17 +1,31 @@
 package de.tototec.cmdoption;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.ResourceBundle;
 
+/**
+ * An immutable snapshot of the options, the parameter and the commands of a
+ * parser.
+ * <p>
+ * The parser caches its model until its options or commands change, so
+ * repeated calls of {@link CmdlineParser#getCmdlineModel()}, e.g. when
+ * rendering the usage of many commands, are cheap. The sorted views of the
+ * visible options and commands are computed once per model.
+ */
 public class CmdlineModel {
 
 	private final String programName;
 	private final List<OptionHandle> options;
 	private final List<CommandHandle> commands;
 	private final OptionHandle parameter;
-	private String aboutLine;
-	private ResourceBundle resourceBundle;
+	private final String aboutLine;
+	private final ResourceBundle resourceBundle;
+	private volatile List<OptionHandle> visibleOptions;
+	private volatile List<CommandHandle> visibleCommands;
 
 	public CmdlineModel(final String programName,
 			final List<OptionHandle> options,
@@ -21,8 +35,8 @@ public class CmdlineModel {
 			final ResourceBundle resourceBundle) {
 		this.programName = programName;
 		this.aboutLine = aboutLine;
-		this.options = new ArrayList<OptionHandle>(options);
-		this.commands = new ArrayList<CommandHandle>(commands);
+		this.options = Collections.unmodifiableList(new ArrayList<OptionHandle>(options));
+		this.commands = Collections.unmodifiableList(new ArrayList<CommandHandle>(commands));
 		this.parameter = parameter;
 		this.resourceBundle = resourceBundle;
 	}
@@ -31,14 +45,107 @@ public class CmdlineModel {
 		return programName;
 	}
 
+	/**
+	 * @return All options in the order they were defined. The list is not
+	 *         modifiable.
+	 */
 	public List<OptionHandle> getOptions() {
 		return options;
 	}
 
+	/**
+	 * @return All commands in the order they were defined. The list is not
+	 *         modifiable.
+	 */
 	public List<CommandHandle> getCommands() {
 		return commands;
 	}
 
+	/**
+	 * @return The options, which are not hidden, sorted like with
+	 *         {@link OptionHandle.OptionHandleComparator}. The list is not
+	 *         modifiable.
+	 * @since 0.8.0
+	 */
+	public List<OptionHandle> getVisibleOptions() {
+		List<OptionHandle> visible = visibleOptions;
+		if (visible == null) {
+			final List<OptionHandle> unsorted = new ArrayList<OptionHandle>(options.size());
+			final List<String> keys = new ArrayList<String>(options.size());
+			for (final OptionHandle option : options) {
+				if (!option.isHidden()) {
+					unsorted.add(option);
+					keys.add(sortKey(option.getNames()[0]));
+				}
+			}
+			visible = sortByKeys(unsorted, keys);
+			visibleOptions = visible;
+		}
+		return visible;
+	}
+
+	/**
+	 * @return The commands, which are not hidden, sorted like with
+	 *         {@link CommandHandle.CommandHandleComparator}. The list is not
+	 *         modifiable.
+	 * @since 0.8.0
+	 */
+	public List<CommandHandle> getVisibleCommands() {
+		List<CommandHandle> visible = visibleCommands;
+		if (visible == null) {
+			final List<CommandHandle> unsorted = new ArrayList<CommandHandle>(commands.size());
+			final List<String> keys = new ArrayList<String>(commands.size());
+			for (final CommandHandle command : commands) {
+				if (!command.isHidden()) {
+					unsorted.add(command);
+					keys.add(sortKey(command.getNames()[0]));
+				}
+			}
+			visible = sortByKeys(unsorted, keys);
+			visibleCommands = visible;
+		}
+		return visible;
+	}
+
+	/**
+	 * Sort the given elements by their precomputed keys. Elements with equal keys
+	 * keep their order.
+	 */
+	private static <T> List<T> sortByKeys(final List<T> elements, final List<String> keys) {
+		final Integer[] order = new Integer[elements.size()];
+		for (int i = 0; i < order.length; ++i) {
+			order[i] = Integer.valueOf(i);
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(final Integer i1, final Integer i2) {
+				return keys.get(i1.intValue()).compareTo(keys.get(i2.intValue()));
+			}
+		});
+		final List<T> sorted = new ArrayList<T>(order.length);
+		for (final Integer index : order) {
+			sorted.add(elements.get(index.intValue()));
+		}
+		return Collections.unmodifiableList(sorted);
+	}
+
+	/**
+	 * @return The given name without leading characters other than
+	 *         <code>A-Z</code>, <code>a-z</code> and <code>0-9</code>, used to
+	 *         sort options and commands.
+	 */
+	static String sortKey(final String name) {
+		int start = 0;
+		while (start < name.length()) {
+			final char c = name.charAt(start);
+			if (c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c >= '0' && c <= '9') {
+				break;
+			}
+			++start;
+		}
+		return name.substring(start);
+	}
+
 	public OptionHandle getParameter() {
 		return parameter;
 	}
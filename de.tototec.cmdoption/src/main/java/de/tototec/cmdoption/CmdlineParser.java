@@ -7,24 +7,37 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.Reader;
 import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.nio.charset.Charset;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.MissingResourceException;
+import java.util.NoSuchElementException;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import de.tototec.cmdoption.handler.AddToCollectionHandler;
 import de.tototec.cmdoption.handler.BooleanHandler;
@@ -32,12 +45,15 @@ import de.tototec.cmdoption.handler.BooleanOptionHandler;
 import de.tototec.cmdoption.handler.ByteHandler;
 import de.tototec.cmdoption.handler.CmdOptionHandler;
 import de.tototec.cmdoption.handler.CmdOptionHandlerException;
+import de.tototec.cmdoption.handler.CmdOptionValueHandler;
 import de.tototec.cmdoption.handler.EnumHandler;
 import de.tototec.cmdoption.handler.IntegerHandler;
 import de.tototec.cmdoption.handler.LongHandler;
 import de.tototec.cmdoption.handler.PutIntoMapHandler;
 import de.tototec.cmdoption.handler.StringFieldHandler;
 import de.tototec.cmdoption.handler.StringMethodHandler;
+import de.tototec.cmdoption.internal.ArgsCursor;
+import de.tototec.cmdoption.internal.BinderGenerator;
 import de.tototec.cmdoption.internal.F0;
 import de.tototec.cmdoption.internal.F1;
 import de.tototec.cmdoption.internal.FList;
@@ -46,8 +62,12 @@ import de.tototec.cmdoption.internal.I18n.PreparedI18n;
 import de.tototec.cmdoption.internal.I18nFactory;
 import de.tototec.cmdoption.internal.Logger;
 import de.tototec.cmdoption.internal.LoggerFactory;
+import de.tototec.cmdoption.internal.NameIndex;
 import de.tototec.cmdoption.internal.Optional;
+import de.tototec.cmdoption.internal.PrefixIndex;
 import de.tototec.cmdoption.internal.Procedure1;
+import de.tototec.cmdoption.internal.Signatures;
+import de.tototec.cmdoption.internal.StringTable;
 
 /**
  * CmdOption main entry point to configure the parser, parse the command line
@@ -70,6 +90,14 @@ import de.tototec.cmdoption.internal.Procedure1;
  */
 public class CmdlineParser {
 
+	/**
+	 * The system property to select the default snapshot file.
+	 *
+	 * @see #setSnapshotFile(File)
+	 * @since 0.8.0
+	 */
+	public static final String SNAPSHOT_FILE_PROPERTY = "de.tototec.cmdoption.snapshotFile";
+
 	private final I18n i18n = I18nFactory.getI18n(CmdlineParser.class);
 
 	private final Logger log = LoggerFactory.getLogger(CmdlineParser.class);
@@ -81,19 +109,44 @@ public class CmdlineParser {
 	/**
 	 * List of all recognized option handles.
 	 */
-	private final List<OptionHandle> options = new LinkedList<OptionHandle>();
+	private final ArrayList<OptionHandle> options = new ArrayList<OptionHandle>();
 	/**
 	 * Map from option name to option handle.
 	 */
-	private final Map<String, OptionHandle> quickOptionMap = new LinkedHashMap<String, OptionHandle>();
+	private final NameIndex<OptionHandle> quickOptionMap = new NameIndex<OptionHandle>();
 	/**
 	 * List of all recognized command handles.
 	 */
-	private final List<CommandHandle> commands = new LinkedList<CommandHandle>();
+	private final ArrayList<CommandHandle> commands = new ArrayList<CommandHandle>();
 	/**
 	 * Map from command name to command handle.
 	 */
-	private final Map<String, CommandHandle> quickCommandMap = new LinkedHashMap<String, CommandHandle>();
+	private final NameIndex<CommandHandle> quickCommandMap = new NameIndex<CommandHandle>();
+	/**
+	 * Shares the argument names and the required and conflicting option names of
+	 * all options, shared with all parsers of commands.
+	 */
+	private final StringTable stringTable;
+	/**
+	 * The cached model, reset when the options, the commands or the settings
+	 * shown in the usage change.
+	 */
+	private volatile CmdlineModel cmdlineModel;
+	/**
+	 * The cached index of all option names, to resolve abbreviated options.
+	 * Reset, when an option is added.
+	 */
+	private volatile PrefixIndex<Object> optionAbbreviations;
+	/**
+	 * The cached index of all command names, to resolve abbreviated commands.
+	 * Reset, when a command is added.
+	 */
+	private volatile PrefixIndex<Object> commandAbbreviations;
+	/**
+	 * The cached ordinals of the options and the parameter. Reset, when an option
+	 * or the parameter is added.
+	 */
+	private volatile OptionOrdinals optionOrdinals;
 
 	/**
 	 * The command name to use, if no command was given AND no parameters are
@@ -101,7 +154,18 @@ public class CmdlineParser {
 	 */
 	private String defaultCommandName = null;
 
-	private final Map<Class<? extends CmdOptionHandler>, CmdOptionHandler> handlerRegistry;
+	/**
+	 * The registered handlers. The map is replaced instead of modified when a
+	 * handler is (un)registered, because the parsers of commands keep the map
+	 * which was current when the command was added, and all parsers start with
+	 * the same {@link DefaultHandlerRegistry}.
+	 */
+	private Map<Class<? extends CmdOptionHandler>, CmdOptionHandler> handlerRegistry;
+	/**
+	 * The handlers found in the {@link #handlerRegistry}, shared with all parsers
+	 * sharing the registry. Replaced together with the registry.
+	 */
+	private HandlerCache handlerCache;
 	private UsageFormatter2 usageFormatter;
 	private String programName;
 	private String parsedCommandName;
@@ -123,6 +187,64 @@ public class CmdlineParser {
 
 	private boolean stopAcceptOptionAfterParameterIsSet = false;
 
+	private boolean abbreviationsAllowed = false;
+
+	private Optional<String> optionArgSeparator = Optional.none();
+
+	private ApplyEngine applyEngine = ApplyEngine.defaultEngine();
+
+	/**
+	 * If not <code>null</code>, used to scan independent config classes in
+	 * parallel.
+	 */
+	private ExecutorService scanExecutor;
+
+	/**
+	 * If not <code>null</code>, the file holding the scan results across JVM
+	 * runs.
+	 */
+	private File snapshotFile = defaultSnapshotFile();
+
+	/**
+	 * The class whose scan hooks are used by this parser, which is the key of
+	 * the scanned elements in the {@link ScanCache} and the snapshot.
+	 */
+	private final Class<?> scanner = scannerOf(getClass());
+
+	/**
+	 * <code>true</code>, if a subclass overrides
+	 * {@link #inspectElements(Object, Set)}, so we have to call it when options
+	 * are added.
+	 */
+	private final boolean inspectElementsOverridden = overrides(getClass(), "inspectElements", Object.class,
+		Set.class);
+
+	/**
+	 * The top-level config objects, as given to {@link #addObject(Object...)}.
+	 */
+	private final List<Object> configObjects = new LinkedList<Object>();
+
+	/**
+	 * <code>true</code>, if options or commands were added via
+	 * {@link #addOption(OptionHandle...)}, {@link #addCommand(CommandBuilder)} or
+	 * {@link #addPluginCommands(ClassLoader)}.
+	 */
+	private boolean definedWithoutConfigObjects = false;
+
+	/**
+	 * If <code>true</code>, the options were already validated when this parser
+	 * was compiled, so we skip {@link #validateOptions()} when parsing. Otherwise,
+	 * they are validated once, before the first parse after a change.
+	 */
+	private final boolean preValidated;
+	/**
+	 * The delegate field of each delegate object bound by this parser and its
+	 * command parsers, to find the delegate objects of the fresh config objects
+	 * a {@link CompiledCmdlineParser} parses into. Only recorded by the parsers
+	 * of a compiled parser, otherwise <code>null</code>.
+	 */
+	private final Map<Object, ConfigBinding.DelegatePath> delegatePaths;
+
 	/**
 	 * The constructor is only intended for internal use. It's used to parse sub-commands.
 	 *
@@ -131,18 +253,75 @@ public class CmdlineParser {
 	 * @param commandObject The target object holding the parsed options.
 	 */
 	protected CmdlineParser(final CmdlineParser parent, final String commandName, final Object commandObject) {
+		this(parent, new InheritedSettings(parent), commandName, commandObject);
+	}
+
+	/**
+	 * Create a parser for a sub-command with the settings its parent had when
+	 * the command was added.
+	 */
+	private CmdlineParser(final CmdlineParser parent, final InheritedSettings settings, final String commandName,
+			final Object commandObject) {
+		this(parent, settings, commandName);
+		addOptions(commandObject);
+		saveSnapshot();
+	}
+
+	/**
+	 * Create a parser for a sub-command without any options.
+	 */
+	private CmdlineParser(final CmdlineParser parent, final InheritedSettings settings, final String commandName) {
 		this.parent = parent;
-		debugAllowed = parent.debugAllowed;
+		preValidated = parent.preValidated;
+		delegatePaths = parent.delegatePaths;
+		// these settings are also passed to already created parsers
 		debugMode = parent.debugMode;
+		abbreviationsAllowed = parent.abbreviationsAllowed;
+		optionArgSeparator = parent.optionArgSeparator;
+		applyEngine = settings.applyEngine;
+		scanExecutor = settings.scanExecutor;
+		snapshotFile = settings.snapshotFile;
+		debugAllowed = settings.debugAllowed;
 		programName = commandName;
-		handlerRegistry = parent.handlerRegistry;
-		resourceBundle = parent.resourceBundle;
-		argsFromFilePrefix = parent.argsFromFilePrefix;
-		usageFormatter = parent.usageFormatter;
+		handlerRegistry = settings.handlerRegistry;
+		handlerCache = settings.handlerCache;
+		stringTable = parent.stringTable;
+		resourceBundle = settings.resourceBundle;
+		argsFromFilePrefix = settings.argsFromFilePrefix;
+		usageFormatter = settings.usageFormatter;
 
 		// TODO: should we set the commands description as about line?
+	}
 
-		addOptions(commandObject);
+	/**
+	 * The settings of a parser, which the parser of a command inherits. They are
+	 * taken when the command is added, so that later changes, e.g. of the
+	 * handlers, only affect commands added afterwards, no matter when the parser
+	 * of a command is created.
+	 */
+	private static class InheritedSettings {
+		final Map<Class<? extends CmdOptionHandler>, CmdOptionHandler> handlerRegistry;
+		final HandlerCache handlerCache;
+		final ResourceBundle resourceBundle;
+		final Optional<String> argsFromFilePrefix;
+		final UsageFormatter2 usageFormatter;
+		final boolean debugAllowed;
+		final ApplyEngine applyEngine;
+		final ExecutorService scanExecutor;
+		final File snapshotFile;
+
+		InheritedSettings(final CmdlineParser parser) {
+			// the registry is never modified, but replaced
+			handlerRegistry = parser.handlerRegistry;
+			handlerCache = parser.handlerCache;
+			resourceBundle = parser.resourceBundle;
+			argsFromFilePrefix = parser.argsFromFilePrefix;
+			usageFormatter = parser.usageFormatter;
+			debugAllowed = parser.debugAllowed;
+			applyEngine = parser.applyEngine;
+			scanExecutor = parser.scanExecutor;
+			snapshotFile = parser.snapshotFile;
+		}
 	}
 
 	/**
@@ -157,22 +336,84 @@ public class CmdlineParser {
 	 */
 	public CmdlineParser(final Object... objects) {
 		parent = null;
+		preValidated = false;
+		delegatePaths = null;
 		programName = "<main class>";
 		usageFormatter = new DefaultUsageFormatter2(true, 80, new TtyLineLengthDetector());
 
-		// ensure order by using a LinkedHashMap
-		handlerRegistry = new LinkedHashMap<Class<? extends CmdOptionHandler>, CmdOptionHandler>();
-
-		FList.foreach(defaultHandlers(), new Procedure1<CmdOptionHandler>() {
-			public void apply(final CmdOptionHandler h) {
-				registerHandler(h);
-			}
-		});
+		// the default handlers are stateless, so all parsers can share them,
+		// unless a subclass provides others
+		handlerRegistry = overrides(getClass(), "defaultHandlers") ? registryOf(defaultHandlers())
+			: DefaultHandlerRegistry.registry;
+		handlerCache = new HandlerCache();
+		stringTable = new StringTable();
 
 		addObject(objects);
 	}
 
+	/**
+	 * Create a new top-level parser with the same settings as the given template,
+	 * bound to the given config object. Used by {@link CompiledCmdlineParser}.
+	 *
+	 * @param template     The parser to copy the settings from.
+	 * @param config       The config object.
+	 * @param preValidated If <code>true</code>, the options of the config object
+	 *                     will not be validated again when parsing.
+	 */
+	CmdlineParser(final CmdlineParser template, final Object config, final boolean preValidated) {
+		parent = null;
+		this.preValidated = preValidated;
+		delegatePaths = new IdentityHashMap<Object, ConfigBinding.DelegatePath>();
+		// the registry is never modified, but replaced
+		handlerRegistry = template.handlerRegistry;
+		handlerCache = template.handlerCache;
+		stringTable = template.stringTable;
+		usageFormatter = template.usageFormatter;
+		programName = template.programName;
+		aboutLine = template.aboutLine;
+		debugAllowed = template.debugAllowed;
+		debugMode = template.debugMode;
+		resourceBundle = template.resourceBundle;
+		argsFromFilePrefix = template.argsFromFilePrefix;
+		aggregateShortOptionsWithPrefix = template.aggregateShortOptionsWithPrefix;
+		shortOptionsWithArgsPrefix = template.shortOptionsWithArgsPrefix;
+		stopAcceptOptionAfterParameterIsSet = template.stopAcceptOptionAfterParameterIsSet;
+		abbreviationsAllowed = template.abbreviationsAllowed;
+		optionArgSeparator = template.optionArgSeparator;
+		defaultCommandName = template.defaultCommandName;
+		applyEngine = template.applyEngine;
+		scanExecutor = template.scanExecutor;
+		snapshotFile = template.snapshotFile;
+
+		addObject(config);
+	}
+
+	/**
+	 * The registry of the handlers returned by {@link #defaultHandlers()}, built
+	 * once on first use.
+	 */
+	private static class DefaultHandlerRegistry {
+		static final Map<Class<? extends CmdOptionHandler>, CmdOptionHandler> registry = registryOf(
+			newDefaultHandlers());
+	}
+
+	private static Map<Class<? extends CmdOptionHandler>, CmdOptionHandler> registryOf(
+			final List<CmdOptionHandler> handlers) {
+		// ensure order by using a LinkedHashMap
+		final Map<Class<? extends CmdOptionHandler>, CmdOptionHandler> registry = new LinkedHashMap<Class<? extends CmdOptionHandler>, CmdOptionHandler>();
+		for (final CmdOptionHandler handler : handlers) {
+			if (handler != null) {
+				registry.put(handler.getClass(), handler);
+			}
+		}
+		return registry;
+	}
+
 	public List<CmdOptionHandler> defaultHandlers() {
+		return newDefaultHandlers();
+	}
+
+	private static List<CmdOptionHandler> newDefaultHandlers() {
 		return Arrays.asList(
 			new BooleanOptionHandler(),
 			new BooleanHandler(),
@@ -217,7 +458,10 @@ public class CmdlineParser {
 		FList.foreach(commands, new Procedure1<CommandHandle>() {
 			@Override
 			public void apply(CommandHandle c) {
-				c.getCmdlineParser().setDebugMode(debugMode);
+				if (c.isCmdlineParserCreated()) {
+					// not yet created parsers will inherit the debug mode
+					c.getCmdlineParser().setDebugMode(debugMode);
+				}
 			}
 		});
 	}
@@ -250,6 +494,152 @@ public class CmdlineParser {
 		this.stopAcceptOptionAfterParameterIsSet = stopAcceptOptionAfterParameterIsSet;
 	}
 
+	/**
+	 * If set to <code>true</code>, options and commands can be given by an
+	 * unambiguous prefix of one of their names, e.g. <code>--verb</code> for
+	 * <code>--verbose</code>. An argument is only treated as abbreviation, if it
+	 * is not an option or command name itself, no supported aggregation of short
+	 * options and contains at least one letter or digit. Only arguments starting
+	 * with <code>-</code> are abbreviated options. Other arguments are only
+	 * abbreviated commands, if there is no main parameter and no default command.
+	 * An ambiguous abbreviation is an error, reporting all candidates.
+	 * <p>
+	 * The parsers of all commands inherit this setting.
+	 *
+	 * @since 0.8.0
+	 */
+	public void setAbbreviationsAllowed(final boolean abbreviationsAllowed) {
+		this.abbreviationsAllowed = abbreviationsAllowed;
+		for (final CommandHandle c : commands) {
+			if (c.isCmdlineParserCreated()) {
+				// not yet created parsers will inherit the setting
+				c.getCmdlineParser().setAbbreviationsAllowed(abbreviationsAllowed);
+			}
+		}
+	}
+
+	/**
+	 * Select the engine used to apply option values to config objects, which are
+	 * added afterwards via {@link #addObject(Object...)}. Config classes with a
+	 * compile-time generated {@link CmdOptionDescriptor} always use the
+	 * descriptor.
+	 * <p>
+	 * The default engine can be selected with the system property
+	 * {@value ApplyEngine#PROPERTY}.
+	 *
+	 * @param applyEngine The engine.
+	 * @since 0.8.0
+	 */
+	public void setApplyEngine(final ApplyEngine applyEngine) {
+		this.applyEngine = applyEngine == null ? ApplyEngine.REFLECTION : applyEngine;
+	}
+
+	/**
+	 * Set an executor to scan independent config classes in parallel.
+	 * <p>
+	 * If set, the classes of config objects given to
+	 * {@link #addObject(Object...)} and their delegates are scanned in parallel.
+	 * Also {@link #validate()} and the usage scan all commands in parallel, before
+	 * their parsers are created. The found options are still registered in the
+	 * original order on the calling thread, so the detection of duplicate names
+	 * and all reported errors are the same as without an executor.
+	 * <p>
+	 * Any {@link ExecutorService} can be used, e.g. a
+	 * <code>java.util.concurrent.ForkJoinPool</code>. The executor is not shut
+	 * down by the parser. By default, all classes are scanned on the calling
+	 * thread.
+	 *
+	 * @param scanExecutor The executor or <code>null</code> to scan on the
+	 *                     calling thread.
+	 * @since 0.8.0
+	 */
+	public void setScanExecutor(final ExecutorService scanExecutor) {
+		this.scanExecutor = scanExecutor;
+	}
+
+	/**
+	 * Keep the results of scanning config classes in the given file, to reuse
+	 * them in later JVM runs.
+	 * <p>
+	 * The snapshot contains the option settings and the signatures of all
+	 * annotated fields and methods of the config classes added afterwards via
+	 * {@link #addObject(Object...)}, including delegates and commands. When a
+	 * class is found in the snapshot and its bytecode (and that of its super
+	 * classes) is unchanged, only its fields and methods are looked up again;
+	 * the class is not scanned and no annotations are read. Otherwise, the class
+	 * is scanned as usual and the snapshot is updated. Classes with a
+	 * compile-time {@link CmdOptionDescriptor} don't need to be scanned and are
+	 * not recorded.
+	 * <p>
+	 * The snapshot is intended for applications, which are started often with
+	 * an unchanged classpath. A {@link #scanElements(Class)} overridden in a
+	 * subclass is not used for restored classes. The classes scanned by such a
+	 * subclass are recorded separately.
+	 * <p>
+	 * The default file can be selected with the system property
+	 * {@value #SNAPSHOT_FILE_PROPERTY}.
+	 *
+	 * @param snapshotFile The file or <code>null</code> to not use a snapshot.
+	 * @since 0.8.0
+	 */
+	public void setSnapshotFile(final File snapshotFile) {
+		this.snapshotFile = snapshotFile;
+	}
+
+	/**
+	 * @return <code>CmdlineParser</code>, or the given parser class, if it
+	 *         overrides one of the methods used to scan config classes.
+	 */
+	private static Class<?> scannerOf(final Class<?> parserClass) {
+		if (overrides(parserClass, "scanElements", Class.class)
+			|| overrides(parserClass, "findDescriptor", Class.class)
+			|| overrides(parserClass, "isPublicOrProtected", Method.class)
+			|| overrides(parserClass, "isPackagePrivate", Method.class)
+			|| overrides(parserClass, "isPrivate", Method.class)) {
+			return parserClass;
+		}
+		return CmdlineParser.class;
+	}
+
+	/**
+	 * @return <code>true</code>, if the given method of this class is overridden
+	 *         in the given parser class or one of its super classes.
+	 */
+	private static boolean overrides(final Class<?> parserClass, final String name, final Class<?>... types) {
+		for (Class<?> c = parserClass; c != CmdlineParser.class; c = c.getSuperclass()) {
+			try {
+				c.getDeclaredMethod(name, types);
+				return true;
+			} catch (final NoSuchMethodException e) {
+				// not overridden here
+			} catch (final SecurityException e) {
+				// can not check it, assume it is overridden
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static File defaultSnapshotFile() {
+		final String file = System.getProperty(SNAPSHOT_FILE_PROPERTY);
+		return file == null || file.length() == 0 ? null : new File(file);
+	}
+
+	/**
+	 * Write the snapshot, if any new class was scanned. Errors are ignored, as
+	 * the snapshot is only an optimization.
+	 */
+	private void saveSnapshot() {
+		if (snapshotFile == null) {
+			return;
+		}
+		try {
+			ScanSnapshot.forFile(snapshotFile).save();
+		} catch (final IOException e) {
+			debug("Could not write snapshot {0}: {1}", snapshotFile, e);
+		}
+	}
+
 	public void setDefaultCommandName(final String defaultCommandName) {
 		this.defaultCommandName = defaultCommandName;
 	}
@@ -270,6 +660,40 @@ public class CmdlineParser {
 		parse(false, true, cmdline);
 	}
 
+	/**
+	 * Parses the command line arguments read from the given iterator, e.g. a
+	 * large list of files.
+	 * <p>
+	 * The arguments are read one after another. Only the arguments of the current
+	 * option are read ahead, and each option or parameter is applied to the
+	 * config object(s) as soon as it was read. Unlike
+	 * {@link #parse(String...)}, options read before an error was detected are
+	 * already applied when the {@link CmdlineParserException} is thrown.
+	 *
+	 * @param cmdline The commandline arguments to be parsed.
+	 * @throws CmdlineParserException If any errors were detected.
+	 * @since 0.8.0
+	 */
+	public void parse(final Iterator<String> cmdline) {
+		debug("About to start parsing incrementally");
+		parse(cmdline, false, true, true);
+	}
+
+	/**
+	 * Parses the command line arguments read from the given reader, one argument
+	 * per line, like with <code>@</code>-files. See {@link #parse(Iterator)}.
+	 * The reader is not closed.
+	 *
+	 * @param cmdline The reader of the commandline arguments to be parsed.
+	 * @throws CmdlineParserException If any errors were detected or the
+	 *                                arguments could not be read.
+	 * @since 0.8.0
+	 */
+	public void parse(final Reader cmdline) {
+		debug("About to start parsing incrementally");
+		parse(new LineIterator(new BufferedReader(cmdline), null), false, true, true);
+	}
+
 	private String debugState(final String prefix) {
 		return prefix + "Parameter: " + parameter.orNull() + "\n" +
 			prefix + "Options: " +
@@ -279,7 +703,11 @@ public class CmdlineParser {
 				FList.map(commands, new F1<CommandHandle, String>() {
 					@Override
 					public String apply(CommandHandle c) {
-						return c.toString() + "\n" + c.getCmdlineParser().debugState(prefix + "  | ");
+						// don't create the parsers of commands just for debugging, the
+						// handle shows, that it was not created yet
+						return c.isCmdlineParserCreated()
+							? c.toString() + "\n" + c.getCmdlineParser().debugState(prefix + "  | ")
+							: c.toString();
 					}
 				}),
 				"\n" + prefix + "  ", ",\n" + prefix + "  ", "") + "\n" +
@@ -297,6 +725,10 @@ public class CmdlineParser {
 	 * <p>
 	 * If any errors where detected, they will be thrown as
 	 * {@link CmdlineParserException}.
+	 * <p>
+	 * The command line is parsed only once. All found options and parameters,
+	 * also those of the selected command, are recorded and validated, before the
+	 * first one is applied.
 	 *
 	 * @param dryrun                      If true, only checks for errors.
 	 * @param detectHelpAndSkipValidation If true, the given cmdline is first checked for applied help
@@ -308,85 +740,241 @@ public class CmdlineParser {
 	public void parse(final boolean dryrun, final boolean detectHelpAndSkipValidation, final String... cmdline) {
 		if (log.isDebugEnabled()) {
 			log.debug("About to start parsing. dryrun: " + dryrun + ", detectHelpAndSkipValidation: "
-				+ detectHelpAndSkipValidation + ", state: " + debugState("  "));
+				+ detectHelpAndSkipValidation);
 		}
 
-		if (defaultCommandName != null && !quickCommandMap.containsKey(defaultCommandName)) {
-			final PreparedI18n msg = i18n.preparetr("Default command \"{0}\" is not a known command.",
-				defaultCommandName);
-			throw new CmdlineParserException(msg.notr(), msg.tr());
+		final List<String> args = cmdline == null ? Collections.<String>emptyList() : Arrays.asList(cmdline);
+		parse(args.iterator(), dryrun, detectHelpAndSkipValidation, false);
+	}
+
+	/**
+	 * @param incremental If <code>true</code>, apply each option as soon as it
+	 *                    was parsed.
+	 */
+	private void parse(final Iterator<String> cmdline, final boolean dryrun,
+			final boolean detectHelpAndSkipValidation, final boolean incremental) {
+		parse(new ParsePlan(!dryrun, incremental, null), cmdline, dryrun, detectHelpAndSkipValidation);
+	}
+
+	/**
+	 * Parse the given command line with the parser of a
+	 * {@link CompiledCmdlineParser} and apply it to the config object of the
+	 * given binding. Neither this parser nor its command parsers are changed.
+	 *
+	 * @return The applied plan, which holds the selected commands.
+	 * @throws CmdlineParserException If any errors were detected.
+	 */
+	ParsePlan parseCompiled(final ConfigBinding binding, final String... cmdline) {
+		final ParsePlan plan = new ParsePlan(true, false, binding);
+		final List<String> args = cmdline == null ? Collections.<String>emptyList() : Arrays.asList(cmdline);
+		parse(plan, args.iterator(), false, true);
+		return plan;
+	}
+
+	/**
+	 * @return <code>true</code>, if the given command line enables the debug
+	 *         mode of this parser, which a compiled parser can't do.
+	 */
+	boolean enablesDebugMode(final String... cmdline) {
+		return debugAllowed && !debugMode && cmdline != null && Arrays.asList(cmdline).contains("--CMDOPTION_DEBUG");
+	}
+
+	private void parse(final ParsePlan plan, final Iterator<String> cmdline, final boolean dryrun,
+			final boolean detectHelpAndSkipValidation) {
+		// explode @-prefix args by reading them from file
+		final ArgsFromFileIterator args = argsFromFilePrefix.isDefined()
+			? new ArgsFromFileIterator(cmdline, argsFromFilePrefix.get())
+			: null;
+		try {
+			record(plan, detectHelpAndSkipValidation, new ArgsCursor(args != null ? args : cmdline));
+		} finally {
+			if (args != null) {
+				args.close();
+			}
+		}
+		if (!dryrun) {
+			debug("Applying {0} parsed options and parameters", plan.size());
+			apply(plan);
+		}
+	}
+
+	/**
+	 * Iterates over the lines of a reader. The reader is closed, when all lines
+	 * were read, if it was opened for an <code>@</code>-file.
+	 */
+	private class LineIterator implements Iterator<String> {
+		private final BufferedReader reader;
+		/**
+		 * The <code>@</code>-file argument, or <code>null</code>.
+		 */
+		private final String fileArg;
+		private String line;
+		private boolean eof;
+
+		LineIterator(final BufferedReader reader, final String fileArg) {
+			this.reader = reader;
+			this.fileArg = fileArg;
 		}
 
-		final String[] cmdline0;
-		if (cmdline == null) {
-			cmdline0 = new String[]{};
-		} else {
-			// explode @-prefix args by reading them from file
-			if (argsFromFilePrefix.isDefined()) {
-				cmdline0 = FList.flatMap(cmdline, new F1<String, List<String>>() {
-					public List<String> apply(final String arg) {
-						if (arg.startsWith(argsFromFilePrefix.get())) {
-							debug("Expanding {0} into argument list", arg);
-							final File file = new File(arg.substring(1));
-							if (file.exists() && file.isFile()) {
-								try {
-									final BufferedReader reader = new BufferedReader(new FileReader(file));
-									final List<String> args = new LinkedList<String>();
-									String line;
-									while ((line = reader.readLine()) != null) {
-										// if (line.trim().length() > 0) {
-										args.add(line);
-										// }
-									}
-									reader.close();
-									return args;
-								} catch (final FileNotFoundException e) {
-									final PreparedI18n msg = i18n.preparetr("File referenced via {0} does not exist.", arg);
-									throw new CmdlineParserException(msg.notr(), e, msg.tr());
-								} catch (final IOException e) {
-									final PreparedI18n msg = i18n.preparetr("File referenced via {0} could not be read.",
-										arg);
-									throw new CmdlineParserException(msg.notr(), e, msg.tr());
-								}
-							} else {
-								final PreparedI18n msg = i18n.preparetr("File referenced via {0} does not exist.", arg);
-								throw new CmdlineParserException(msg.notr(), msg.tr());
-							}
-						} else {
-							return Arrays.asList(arg);
-						}
+		@Override
+		public boolean hasNext() {
+			if (line == null && !eof) {
+				try {
+					line = reader.readLine();
+				} catch (final IOException e) {
+					close();
+					final PreparedI18n msg = fileArg != null
+						? i18n.preparetr("File referenced via {0} could not be read.", fileArg)
+						: i18n.preparetr("Could not read the command line arguments.");
+					throw new CmdlineParserException(msg.notr(), e, msg.tr());
+				}
+				if (line == null) {
+					close();
+				}
+			}
+			return line != null;
+		}
+
+		@Override
+		public String next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			final String next = line;
+			line = null;
+			return next;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		void close() {
+			eof = true;
+			if (fileArg != null) {
+				try {
+					reader.close();
+				} catch (final IOException e) {
+					debug("Could not close file referenced via {0}: {1}", fileArg, e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Iterates over the given arguments, and over the lines of the files
+	 * referenced by arguments starting with the given prefix instead of these
+	 * arguments. A file is not read before its lines are needed.
+	 */
+	private class ArgsFromFileIterator implements Iterator<String> {
+		private final Iterator<String> source;
+		private final String prefix;
+		private LineIterator file;
+		private String next;
+		private boolean hasNext;
+
+		ArgsFromFileIterator(final Iterator<String> source, final String prefix) {
+			this.source = source;
+			this.prefix = prefix;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (!hasNext) {
+				if (file != null && file.hasNext()) {
+					next = file.next();
+					hasNext = true;
+				} else if (source.hasNext()) {
+					file = null;
+					final String arg = source.next();
+					if (arg.startsWith(prefix)) {
+						file = open(arg);
+					} else {
+						next = arg;
+						hasNext = true;
 					}
-				}).toArray(new String[0]);
+				} else {
+					file = null;
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private LineIterator open(final String arg) {
+			debug("Expanding {0} into argument list", arg);
+			final File file = new File(arg.substring(1));
+			if (file.exists() && file.isFile()) {
+				try {
+					return new LineIterator(new BufferedReader(new FileReader(file)), arg);
+				} catch (final FileNotFoundException e) {
+					final PreparedI18n msg = i18n.preparetr("File referenced via {0} does not exist.", arg);
+					throw new CmdlineParserException(msg.notr(), e, msg.tr());
+				}
 			} else {
-				cmdline0 = cmdline;
+				final PreparedI18n msg = i18n.preparetr("File referenced via {0} does not exist.", arg);
+				throw new CmdlineParserException(msg.notr(), msg.tr());
 			}
 		}
 
-		if (!dryrun) {
-			debug("Parsing...");
-			// Check without applying anything
-			parse(true, detectHelpAndSkipValidation, cmdline0);
+		@Override
+		public String next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			hasNext = false;
+			final String result = next;
+			next = null;
+			return result;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		void close() {
+			if (file != null) {
+				file.close();
+				file = null;
+			}
 		}
+	}
 
-		if (dryrun) {
-			validateOptions();
+	/**
+	 * Parse the given command line and record the found options and parameters
+	 * in the plan. Unless the plan is incremental, they are not applied. The rest
+	 * of the command line after a command is recorded by the parser of the
+	 * command.
+	 *
+	 * @throws CmdlineParserException If any errors were detected.
+	 */
+	private void record(final ParsePlan plan, final boolean detectHelpAndSkipValidation, final ArgsCursor rest) {
+		if (log.isDebugEnabled()) {
+			log.debug("Recording parse plan. state: " + debugState("  "));
 		}
 
+		if (defaultCommandName != null && !quickCommandMap.containsKey(defaultCommandName)) {
+			final PreparedI18n msg = i18n.preparetr("Default command \"{0}\" is not a known command.",
+				defaultCommandName);
+			throw new CmdlineParserException(msg.notr(), msg.tr());
+		}
+
+		plan.startParser(this);
+
 		// parseOptions - will be set to false, if an stopOption was found or
 		// when stopAcceptOptionAfterParameterIsSet is true and an parameter was parsed.
 		// when false, it means: parsing of options is no longer allowed
 		boolean parseOptions = true;
 		final String stopOption = "--";
 
-		// optionCount - counts the occurrence for each option handle in the
-		// cmdline for later validation
-		final Map<OptionHandle, Integer> optionCount = new LinkedHashMap<OptionHandle, Integer>();
-		for (final OptionHandle option : options) {
-			optionCount.put(option, 0);
-		}
-		if (parameter.isDefined()) {
-			optionCount.put(parameter.get(), 0);
-		}
+		// optionCount - counts the occurrence for each option by its ordinal in
+		// the cmdline for later validation, usedOptions - the ordinals of the
+		// options found at least once
+		final OptionOrdinals ordinals = optionOrdinals();
+		final int[] optionCount = new int[ordinals.size()];
+		final BitSet usedOptions = new BitSet();
 
 		// helpDetected - will be set to true, if we detect a help option while
 		// parsing
@@ -401,9 +989,10 @@ public class CmdlineParser {
 		final int aggregatePrefixSize = aggregatePrefix.length();
 		if (aggregateShortOptionsWithPrefix.isDefined()) {
 			final int expectedSize = 1 + aggregatePrefixSize;
-			for (final Entry<String, OptionHandle> oh : quickOptionMap.entrySet()) {
-				if (oh.getKey().startsWith(aggregatePrefix) && oh.getKey().length() == expectedSize) {
-					shortOptionMap.put(oh.getKey().substring(aggregatePrefixSize), oh.getValue());
+			for (int i = 0; i < quickOptionMap.size(); ++i) {
+				final String name = quickOptionMap.keyAt(i);
+				if (name.startsWith(aggregatePrefix) && name.length() == expectedSize) {
+					shortOptionMap.put(name.substring(aggregatePrefixSize), quickOptionMap.valueAt(i));
 				}
 			}
 		}
@@ -417,99 +1006,101 @@ public class CmdlineParser {
 		final int optionWithArgPrefixSize = optionWithArgPrefix.length();
 		if (shortOptionsWithArgsPrefix.isDefined()) {
 			final int expectedSize = 1 + optionWithArgPrefixSize;
-			for (final Entry<String, OptionHandle> oh : quickOptionMap.entrySet()) {
-				if (oh.getKey().startsWith(optionWithArgPrefix) && oh.getKey().length() == expectedSize && oh.getValue().getArgsCount() == 1) {
-					optionWithArgMap.put(oh.getKey().substring(optionWithArgPrefixSize), oh.getValue());
+			for (int i = 0; i < quickOptionMap.size(); ++i) {
+				final String name = quickOptionMap.keyAt(i);
+				if (name.startsWith(optionWithArgPrefix) && name.length() == expectedSize
+					&& quickOptionMap.valueAt(i).getArgsCount() == 1) {
+					optionWithArgMap.put(name.substring(optionWithArgPrefixSize), quickOptionMap.valueAt(i));
 				}
 			}
 		}
 
-		int index = -1;
-		String[] rest = cmdline0;
+		final String argSeparator = optionArgSeparator.orNull();
 
-		while (rest.length > index + 1) {
-			if (index >= 0) {
-				rest = Arrays.copyOfRange(rest, ++index, rest.length);
+		while (rest.hasNext()) {
+			if (plan.isIncremental()) {
+				// apply the previous option, before we read the next one
+				apply(plan);
+				plan.clearSteps();
 			}
-			index = 0;
-
 			// Actually iterate over the command line elements
-			// for (int index = 0; index < cmdline.length; ++index) {
-			final String param = rest[index];
+			final String param = rest.next();
+			final int optionIndex = parseOptions ? quickOptionMap.indexOf(param) : -1;
 			if (parseOptions && stopOption.equals(param)) {
 				debug("Found \"" + stopOption + "\". Disabling parsing subsequent options.");
 				parseOptions = false;
 
 			} else if (debugAllowed && param.equals("--CMDOPTION_DEBUG")) {
-				if (!debugMode) {
+				// a compiled parser is shared, so a parse can't enable its debug mode
+				if (!debugMode && plan.getBinding() == null) {
 					setDebugMode(true);
 					debug("Enabled debug mode\n" + debugState(""));
 				}
 				continue;
-			} else if (parseOptions && quickOptionMap.containsKey(param)) {
+			} else if (optionIndex >= 0) {
 				// Found an option
-				final OptionHandle optionHandle = quickOptionMap.get(param);
-				optionCount.put(optionHandle, optionCount.get(optionHandle) + 1);
+				final OptionHandle optionHandle = quickOptionMap.valueAt(optionIndex);
+				final int ordinal = ordinals.ordinalOfName(optionIndex);
+				if (optionCount[ordinal]++ == 0) {
+					usedOptions.set(ordinal);
+				}
 				if (optionHandle.isHelp()) {
 					debug("Detected a help request through: " + param);
 					helpDetected = true;
 				}
 
-				if (rest.length <= index + optionHandle.getArgsCount()) {
+				final int given = rest.available(optionHandle.getArgsCount());
+				if (given < optionHandle.getArgsCount()) {
 					final PreparedI18n msg = i18n.preparetr(
 						"Missing argument(s): {0}. Option \"{1}\" requires {2} arguments, but you gave {3}.",
 						FList.mkString(
-							Arrays.asList(optionHandle.getArgs()).subList(rest.length - index - 1,
+							Arrays.asList(optionHandle.getArgs()).subList(given,
 								optionHandle.getArgsCount()),
 							", "),
 						param, optionHandle
 							.getArgsCount(),
-						rest.length - index - 1);
+						given);
 					throw new CmdlineParserException(msg.notr(), msg.tr());
 				}
 				// slurp next cmdline arguments into option arguments
-				final String[] optionArgs = Arrays.copyOfRange(rest, index + 1,
-					index + 1 + optionHandle.getArgsCount());
-				index += optionHandle.getArgsCount();
-
-				final AccessibleObject element = optionHandle.getElement();
-				final CmdOptionHandler handler = optionHandle.getCmdOptionHandler();
-
-				if (!dryrun) {
-					try {
-						final boolean origAccessibleFlag = element.isAccessible();
-						if (!origAccessibleFlag) {
-							element.setAccessible(true);
-						}
-						handler.applyParams(optionHandle.getObject(), element, optionArgs, param);
-						if (!origAccessibleFlag) {
-							// do not leave doors open
-							element.setAccessible(origAccessibleFlag);
-						}
-					} catch (final CmdOptionHandlerException e) {
-						throw new CmdlineParserException(e.getMessage(), e, e.getLocalizedMessage());
-					} catch (final Exception e) {
-						final PreparedI18n msg = i18n.preparetr("Could not apply parameters {0} to field/method {1}",
-							Arrays.toString(optionArgs), element);
-						throw new CmdlineParserException(msg.notr(), e, msg.tr());
-					}
+				plan.addStep(optionHandle, param);
+				for (int i = 0; i < optionHandle.getArgsCount(); ++i) {
+					plan.addArg(rest.next());
 				}
 				continue;
 			} else if (parseOptions && quickCommandMap.containsKey(param)) {
 				// Found a command
 				final CommandHandle commandHandle = quickCommandMap.get(param);
-				if (!dryrun) {
-					parsedCommandName = param;
-				}
+				plan.selectCommand(param);
 				// Delegate parsing of the rest of the cmdline to the command
-				commandHandle.getCmdlineParser().parse(dryrun, detectHelpAndSkipValidation,
-					Arrays.copyOfRange(rest, index + 1, rest.length));
+				commandHandle.getCmdlineParser().record(plan, detectHelpAndSkipValidation, rest);
 				// Stop parsing
 				break;
 			}
 
 			// until here no single option and no command
 
+			if (parseOptions && argSeparator != null) {
+				final int separatorIndex = param.indexOf(argSeparator);
+				// look up the name before the separator without a substring
+				final int nameIndex = separatorIndex > 0 ? quickOptionMap.indexOfPrefix(param, separatorIndex) : -1;
+				if (nameIndex >= 0 && quickOptionMap.valueAt(nameIndex).getArgsCount() == 1) {
+					// Found an option with its argument
+					final OptionHandle optionHandle = quickOptionMap.valueAt(nameIndex);
+					final int ordinal = ordinals.ordinalOfName(nameIndex);
+					if (optionCount[ordinal]++ == 0) {
+						usedOptions.set(ordinal);
+					}
+					if (optionHandle.isHelp()) {
+						debug("Detected a help request through: " + param);
+						helpDetected = true;
+					}
+					plan.addStep(optionHandle, quickOptionMap.keyAt(nameIndex));
+					plan.addArg(param.substring(separatorIndex + argSeparator.length()));
+					continue;
+				}
+			}
+
 			if (parseOptions
 				&& aggregateShortOptionsWithPrefix.isDefined()
 				&& param.startsWith(aggregatePrefix)
@@ -523,8 +1114,9 @@ public class CmdlineParser {
 
 				final char[] singleOptions = param.substring(aggregatePrefixSize).toCharArray();
 				// rewrite the cmdline
-				final List<String> rewritten = new LinkedList<String>();
-				int procCount = 1;
+				final List<String> rewritten = new ArrayList<String>();
+				// the number of following arguments slurped by the short options
+				int procCount = 0;
 				for (final char c : singleOptions) {
 					final OptionHandle oh = shortOptionMap.get(String.valueOf(c));
 					if (oh == null) {
@@ -532,33 +1124,32 @@ public class CmdlineParser {
 						failed = true;
 						break;
 					}
-					if (rest.length < procCount + oh.getArgsCount()) {
+					final int given = rest.available(procCount + oh.getArgsCount()) - procCount;
+					if (given < oh.getArgsCount()) {
 						// FIXME: missing args detected
 						final PreparedI18n msg = i18n.preparetr(
 							"Missing argument(s): {0}. Option \"{1}\" requires {2} arguments, but you gave {3}.",
 							FList.mkString(
-								Arrays.asList(oh.getArgs()).subList(rest.length - procCount,
+								Arrays.asList(oh.getArgs()).subList(given,
 									oh.getArgsCount()),
 								", "),
 							aggregatePrefix + c, oh.getArgsCount(),
-							rest.length - procCount);
+							given);
 						throw new CmdlineParserException(msg.notr(), msg.tr());
 					}
 					// add as standalone short option
 					rewritten.add(aggregatePrefix + c);
 					for (int i = 0; i < oh.getArgsCount(); ++i) {
 						// slurp args from cmdline
-						rewritten.add(rest[i + procCount]);
+						rewritten.add(rest.peek(procCount));
 						++procCount;
 					}
 				}
 				if (!failed) {
 					// re-iterate parsing with the modified command line
 					// (backtracking)
-					final String[] newRest = Arrays.copyOfRange(rest, procCount, rest.length);
-					rewritten.addAll(Arrays.asList(newRest));
-					rest = rewritten.toArray(new String[0]);
-					index = -1;
+					rest.skip(procCount);
+					rest.insert(rewritten.toArray(new String[rewritten.size()]));
 					continue;
 				}
 			}
@@ -575,20 +1166,30 @@ public class CmdlineParser {
 				final String option = param.substring(optionWithArgPrefixSize, optionWithArgPrefixSize + 1);
 				final String arg = param.substring(optionWithArgPrefixSize + 1);
 
-				// rewrite the cmdline
-				final List<String> rewritten = new LinkedList<String>();
 				final OptionHandle oh = optionWithArgMap.get(option);
 				if (oh != null && oh.getArgsCount() == 1) {
-					// add as standalone arg
-					rewritten.add(optionWithArgPrefix + option);
-					rewritten.add(arg);
-					// re-iterate parsing with the modified command line
-					// (backtracking)
-					final String[] newRest = Arrays.copyOfRange(rest, 1, rest.length);
-					rewritten.addAll(Arrays.asList(newRest));
-					rest = rewritten.toArray(new String[0]);
-					index = -1;
+					// rewrite the cmdline, add as standalone arg, and re-iterate
+					// parsing with the modified command line (backtracking)
+					rest.insert(optionWithArgPrefix + option, arg);
+					continue;
+				}
+			}
+
+			final PrefixIndex<Object> index = parseOptions && abbreviationsAllowed && containsLetterOrDigit(param)
+				? abbreviationIndex(param)
+				: null;
+			if (index != null) {
+				final List<Object> candidates = index.valuesWithPrefix(param);
+				if (candidates.size() == 1) {
+					// re-iterate parsing with the full name (backtracking)
+					final String name = index.namesWithPrefix(param).get(0);
+					debug("Expanding abbreviation {0} to {1}", param, name);
+					rest.insert(name);
 					continue;
+				} else if (candidates.size() > 1) {
+					final PreparedI18n msg = i18n.preparetr("Ambiguous option or command \"{0}\" could be: {1}",
+						param, FList.mkString(index.namesWithPrefix(param), ", "));
+					throw new CmdlineParserException(msg.notr(), msg.tr());
 				}
 			}
 
@@ -598,27 +1199,29 @@ public class CmdlineParser {
 				debug("Unsupported option '" + param + "' found, assuming default command: " + defaultCommandName);
 				final CommandHandle commandHandle = quickCommandMap.get(defaultCommandName);
 
-				if (!dryrun) {
-					parsedCommandName = defaultCommandName;
-				}
-				// Delegate parsing of the rest of the cmdline to the command
-				commandHandle.getCmdlineParser().parse(dryrun, detectHelpAndSkipValidation,
-					Arrays.copyOfRange(rest, index, rest.length));
+				plan.selectCommand(defaultCommandName);
+				// Delegate parsing of the rest of the cmdline, including the current
+				// parameter, to the command
+				rest.insert(param);
+				commandHandle.getCmdlineParser().record(plan, detectHelpAndSkipValidation, rest);
 				// Stop parsing
 				break;
 
 			} else if (parameter.isDefined()) {
 				final OptionHandle paramHandle = parameter.get();
 				// Found a parameter
-				optionCount.put(paramHandle, optionCount.get(paramHandle) + 1);
+				final int ordinal = ordinals.getParameterOrdinal();
+				if (optionCount[ordinal]++ == 0) {
+					usedOptions.set(ordinal);
+				}
 
 				if (stopAcceptOptionAfterParameterIsSet && parseOptions) {
 					debug("Found a parameter and stopAcceptOptionAfterParameterIsSet is enabled. Disabling parsing subsequent options.");
 					parseOptions = false;
 				}
 
-				if (rest.length <= index + paramHandle.getArgsCount() - 1) {
-					final int countOfGivenParams = rest.length - index;
+				final int countOfGivenParams = rest.available(paramHandle.getArgsCount() - 1) + 1;
+				if (countOfGivenParams < paramHandle.getArgsCount()) {
 					final PreparedI18n msg = i18n.preparetr(
 						"Missing arguments: {0} Parameter requires {1} arguments, but you gave {2}.",
 						Arrays.asList(paramHandle.getArgs()).subList(countOfGivenParams,
@@ -626,33 +1229,11 @@ public class CmdlineParser {
 						paramHandle.getArgsCount(), countOfGivenParams);
 					throw new CmdlineParserException(msg.notr(), msg.tr());
 				}
-				// slurp next cmdline arguments into option arguments
-				final String[] optionArgs = Arrays.copyOfRange(rest, index, index + paramHandle.getArgsCount());
-				// -1, because index gets increased by one at end of for-loop
-				index += paramHandle.getArgsCount() - 1;
-
-				final AccessibleObject element = paramHandle.getElement();
-				final CmdOptionHandler handler = paramHandle.getCmdOptionHandler();
-
-				if (!dryrun) {
-					try {
-						debug("Apply main parameter from parameters: {0}", FList.mkString(optionArgs, ", "));
-						final boolean origAccessibleFlag = element.isAccessible();
-						if (!origAccessibleFlag) {
-							element.setAccessible(true);
-						}
-						handler.applyParams(paramHandle.getObject(), element, optionArgs, param);
-						if (!origAccessibleFlag) {
-							// do not leave doors open
-							element.setAccessible(origAccessibleFlag);
-						}
-					} catch (final CmdOptionHandlerException e) {
-						throw new CmdlineParserException(e.getMessage(), e, e.getLocalizedMessage());
-					} catch (final Exception e) {
-						final PreparedI18n msg = i18n.preparetr("Could not apply parameters {0} to field/method {1}",
-							Arrays.toString(optionArgs), element);
-						throw new CmdlineParserException(msg.notr(), e, msg.tr());
-					}
+				// the current and the next cmdline arguments are the parameter arguments
+				plan.addStep(paramHandle, param);
+				plan.addArg(param);
+				for (int i = 1; i < paramHandle.getArgsCount(); ++i) {
+					plan.addArg(rest.next());
 				}
 
 			} else {
@@ -663,80 +1244,66 @@ public class CmdlineParser {
 
 		if (!detectHelpAndSkipValidation || !helpDetected) {
 			// Validate optionCount matches allowed
-			for (final Entry<OptionHandle, Integer> optionC : optionCount.entrySet()) {
-				final OptionHandle option = optionC.getKey();
-				final Integer count = optionC.getValue();
-				if (count < option.getMinCount() || (option.getMaxCount() > 0 && count > option.getMaxCount())) {
-					final PreparedI18n rangeMsg;
-					if (option.getMaxCount() < 0) {
-						rangeMsg = i18n.preparetr("at least {0}", option.getMinCount());
-					} else {
-						if (option.getMinCount() == option.getMaxCount()) {
-							rangeMsg = i18n.preparetr("exactly {0}", option.getMinCount());
-						} else {
-							rangeMsg = i18n.preparetr("between {0} and {1}",
-								option.getMinCount(), option.getMaxCount());
-						}
-					}
-					final String msg;
-					final Object[] msgArgs;
-					final Object[] msgArgsTr;
-					if (option.getNames() == null || option.getNames().length == 0) {
-						msg = I18n.marktr("Main parameter \"{0}\" was given {1} times, but must be given {2} times");
-						msgArgs = new Object[]{FList.mkString(option.getArgs(), " "), count, rangeMsg.notr()};
-						msgArgsTr = new Object[]{FList.mkString(option.getArgs(), " "), count, rangeMsg.tr()};
+			final int invalidCount = ordinals.firstInvalidCount(usedOptions, optionCount);
+			if (invalidCount >= 0) {
+				final OptionHandle option = ordinals.getHandle(invalidCount);
+				final int count = optionCount[invalidCount];
+				final PreparedI18n rangeMsg;
+				if (option.getMaxCount() < 0) {
+					rangeMsg = i18n.preparetr("at least {0}", option.getMinCount());
+				} else {
+					if (option.getMinCount() == option.getMaxCount()) {
+						rangeMsg = i18n.preparetr("exactly {0}", option.getMinCount());
 					} else {
-						msg = I18n.marktr("Option \"{0}\" was given {1} times, but must be given {2} times");
-						msgArgs = new Object[]{option.getNames()[0], count, rangeMsg.notr()};
-						msgArgsTr = new Object[]{option.getNames()[0], count, rangeMsg.tr()};
+						rangeMsg = i18n.preparetr("between {0} and {1}",
+							option.getMinCount(), option.getMaxCount());
 					}
-					throw new CmdlineParserException(MessageFormat.format(msg, msgArgs), i18n.tr(msg, msgArgsTr));
 				}
+				final String msg;
+				final Object[] msgArgs;
+				final Object[] msgArgsTr;
+				if (option.getNames() == null || option.getNames().length == 0) {
+					msg = I18n.marktr("Main parameter \"{0}\" was given {1} times, but must be given {2} times");
+					msgArgs = new Object[]{FList.mkString(option.getArgs(), " "), count, rangeMsg.notr()};
+					msgArgsTr = new Object[]{FList.mkString(option.getArgs(), " "), count, rangeMsg.tr()};
+				} else {
+					msg = I18n.marktr("Option \"{0}\" was given {1} times, but must be given {2} times");
+					msgArgs = new Object[]{option.getNames()[0], count, rangeMsg.notr()};
+					msgArgsTr = new Object[]{option.getNames()[0], count, rangeMsg.tr()};
+				}
+				throw new CmdlineParserException(MessageFormat.format(msg, msgArgs), i18n.tr(msg, msgArgsTr));
 			}
 
 			// Validate required options because of 'required' attribute in
 			// other options
-			for (final Entry<OptionHandle, Integer> optionC : optionCount.entrySet()) {
-				if (optionC.getValue() > 0) {
-					final OptionHandle calledOption = optionC.getKey();
+			for (int o = usedOptions.nextSetBit(0); o >= 0; o = usedOptions.nextSetBit(o + 1)) {
+				final OptionHandle calledOption = ordinals.getHandle(o);
+				if (!ordinals.requiredGiven(o, usedOptions)) {
 					for (final String required : calledOption.getRequires()) {
 						// check, if an option was called with that name, if
 						// not, this is an error
-						final OptionHandle reqOptionHandle = quickOptionMap.get(required);
-						if (reqOptionHandle == null) {
-							// required option does not exists, error
-							// TODO: error
-
-						} else {
-							final Integer reqOptionCount = optionCount.get(reqOptionHandle);
-							if (reqOptionCount == null || reqOptionCount.intValue() <= 0) {
-								// required option was not called, this is an
-								// error
-								final PreparedI18n msg = i18n.preparetr(
-									"When using option \"{0}\" also option \"{1}\" must be given.",
-									calledOption.getNames()[0], required);
-								throw new CmdlineParserException(msg.notr(), msg.tr());
-							}
+						final int reqIndex = quickOptionMap.indexOf(required);
+						if (reqIndex >= 0 && !usedOptions.get(ordinals.ordinalOfName(reqIndex))) {
+							// required option was not called, this is an
+							// error
+							final PreparedI18n msg = i18n.preparetr(
+								"When using option \"{0}\" also option \"{1}\" must be given.",
+								calledOption.getNames()[0], required);
+							throw new CmdlineParserException(msg.notr(), msg.tr());
 						}
 					}
+				}
+				if (ordinals.conflictGiven(o, usedOptions)) {
 					for (final String conflict : calledOption.getConflictsWith()) {
-						// check, if an option was called with that name, if
-						// not, this is an error
-						final OptionHandle conflictOptionHandle = quickOptionMap.get(conflict);
-						if (conflictOptionHandle == null) {
-							// conflicting option does not exists, error
-							// TODO: error
-
-						} else {
-							final Integer conflictOptionCount = optionCount.get(conflictOptionHandle);
-							if (conflictOptionCount != null && conflictOptionCount.intValue() > 0) {
-								// conflicting option was called, this is an
-								// conflict
-								final PreparedI18n msg = i18n.preparetr(
-									"Options \"{0}\" and \"{1}\" cannot be used at the same time.",
-									calledOption.getNames()[0], conflict);
-								throw new CmdlineParserException(msg.notr(), msg.tr());
-							}
+						// check, if an option was called with that name
+						final int conflictIndex = quickOptionMap.indexOf(conflict);
+						if (conflictIndex >= 0 && usedOptions.get(ordinals.ordinalOfName(conflictIndex))) {
+							// conflicting option was called, this is an
+							// conflict
+							final PreparedI18n msg = i18n.preparetr(
+								"Options \"{0}\" and \"{1}\" cannot be used at the same time.",
+								calledOption.getNames()[0], conflict);
+							throw new CmdlineParserException(msg.notr(), msg.tr());
 						}
 					}
 				}
@@ -745,15 +1312,145 @@ public class CmdlineParser {
 
 	}
 
+	private static boolean containsLetterOrDigit(final String string) {
+		for (int i = 0; i < string.length(); ++i) {
+			if (Character.isLetterOrDigit(string.charAt(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return The ordinals of the options. When they are created, the options
+	 *         are validated, unless this parser was pre-validated.
+	 * @throws CmdlineParserException if the options are invalid.
+	 */
+	private OptionOrdinals optionOrdinals() {
+		OptionOrdinals ordinals = optionOrdinals;
+		if (ordinals == null) {
+			if (!preValidated) {
+				validateOptions();
+			}
+			ordinals = new OptionOrdinals(options, parameter.orNull(), quickOptionMap);
+			optionOrdinals = ordinals;
+		}
+		return ordinals;
+	}
+
+	/**
+	 * Like GNU getopt, only arguments starting with <code>-</code> are
+	 * abbreviated options. Any other argument is only an abbreviated command, if
+	 * it can't be the main parameter or the start of the default command.
+	 *
+	 * @return The index of the names the argument may abbreviate or
+	 *         <code>null</code>, if it is no abbreviation.
+	 */
+	private PrefixIndex<Object> abbreviationIndex(final String param) {
+		if (param.startsWith("-")) {
+			PrefixIndex<Object> index = optionAbbreviations;
+			if (index == null) {
+				index = prefixIndex(quickOptionMap);
+				optionAbbreviations = index;
+			}
+			return index;
+		}
+		if (parameter.isEmpty() && defaultCommandName == null) {
+			PrefixIndex<Object> index = commandAbbreviations;
+			if (index == null) {
+				index = prefixIndex(quickCommandMap);
+				commandAbbreviations = index;
+			}
+			return index;
+		}
+		return null;
+	}
+
+	private static PrefixIndex<Object> prefixIndex(final NameIndex<?> nameIndex) {
+		final List<String> names = new ArrayList<String>(nameIndex.size());
+		final List<Object> handles = new ArrayList<Object>(nameIndex.size());
+		for (int i = 0; i < nameIndex.size(); ++i) {
+			names.add(nameIndex.keyAt(i));
+			handles.add(nameIndex.valueAt(i));
+		}
+		return new PrefixIndex<Object>(names, handles);
+	}
+
+	/**
+	 * Apply a recorded and validated parse plan to the config objects of this
+	 * parser and the selected command parsers.
+	 *
+	 * @throws CmdlineParserException if arguments could not be applied.
+	 */
+	private void apply(final ParsePlan plan) {
+		for (int p = 0; p < plan.parserCount(); ++p) {
+			final CmdlineParser parser = plan.getParser(p);
+			for (int step = plan.getFirstStep(p); step < plan.getEndStep(p); ++step) {
+				final OptionHandle optionHandle = plan.getHandle(step);
+				final String[] optionArgs = plan.getArgs(step);
+				if (parser.parameter.isDefined() && parser.parameter.get() == optionHandle) {
+					parser.debug("Apply main parameter from parameters: {0}", FList.mkString(optionArgs, ", "));
+				}
+				parser.applyOption(optionHandle, optionArgs, plan.getParam(step), plan.getBinding());
+			}
+			// a compiled parser is not changed, the command is taken from the plan
+			if (plan.getCommandName(p) != null && plan.getBinding() == null) {
+				parser.parsedCommandName = plan.getCommandName(p);
+			}
+		}
+	}
+
+	/**
+	 * Apply the arguments of an option or parameter to its config object.
+	 *
+	 * @param binding The binding of a compiled parser, which maps the config
+	 *                object of the option, or <code>null</code>.
+	 * @throws CmdlineParserException if the arguments could not be applied.
+	 */
+	private void applyOption(final OptionHandle optionHandle, final String[] optionArgs, final String param,
+			final ConfigBinding binding) {
+		final AccessibleObject element = optionHandle.getElement();
+		final CmdOptionHandler handler = optionHandle.getCmdOptionHandler();
+
+		try {
+			final Object target = binding == null ? optionHandle.getTarget() : optionHandle.getTarget(binding);
+			// only set, if the handler allows to bypass its applyParams
+			final ElementAccessor accessor = optionHandle.getAccessor();
+			if (accessor != null) {
+				final Object[] values = ((CmdOptionValueHandler) handler).convertParams(element, optionArgs, param);
+				if (accessor.apply(target, values)) {
+					return;
+				}
+			}
+
+			// the element was already made accessible when it was scanned
+			handler.applyParams(target, element, optionArgs, param);
+		} catch (final CmdOptionHandlerException e) {
+			throw new CmdlineParserException(e.getMessage(), e, e.getLocalizedMessage());
+		} catch (final Exception e) {
+			final PreparedI18n msg = i18n.preparetr("Could not apply parameters {0} to field/method {1}",
+				Arrays.toString(optionArgs), element);
+			throw new CmdlineParserException(msg.notr(), e, msg.tr());
+		}
+	}
+
 	public String getParsedCommandName() {
 		return parsedCommandName;
 	}
 
 	public Object getParsedCommandObject() {
-		if (parsedCommandName != null) {
-			// NPE not possible, because we set parsedCommandName only if the
+		return getCommandObject(parsedCommandName);
+	}
+
+	/**
+	 * @param commandName A parsed command name or <code>null</code>.
+	 * @return The config object of the command or <code>null</code>.
+	 */
+	Object getCommandObject(final String commandName) {
+		if (commandName != null) {
+			// NPE not possible, because a command name is only parsed if the
 			// command exists in the map
-			return quickCommandMap.get(parsedCommandName).getObject();
+			return quickCommandMap.get(commandName).getObject();
 		} else {
 			return null;
 		}
@@ -768,9 +1465,16 @@ public class CmdlineParser {
 	 */
 	protected CmdOptionHandler findHandler(final AccessibleObject element, final int argsCount,
 										   final Class<? extends CmdOptionHandler> cmdOptionHandlerType) {
-		CmdOptionHandler handler = null;
+		final HandlerCache.Key key = HandlerCache.keyOf(element, argsCount, cmdOptionHandlerType);
+		CmdOptionHandler handler = key == null ? null : handlerCache.get(key);
+		if (handler != null) {
+			return handler;
+		}
+		// only memoize, if all asked handlers decide based on the key
+		boolean memoizable = key != null;
 		if (cmdOptionHandlerType != null && !cmdOptionHandlerType.equals(CmdOptionHandler.class)) {
 			// requested a specific handler
+			memoizable &= HandlerCache.isMemoizable(cmdOptionHandlerType);
 			final CmdOptionHandler dedicatedHandler;
 			if (handlerRegistry.containsKey(cmdOptionHandlerType)) {
 				dedicatedHandler = handlerRegistry.get(cmdOptionHandlerType);
@@ -791,6 +1495,7 @@ public class CmdlineParser {
 		} else {
 			// walk through registered hander and find one
 			for (final CmdOptionHandler regHandle : handlerRegistry.values()) {
+				memoizable &= HandlerCache.isMemoizable(regHandle.getClass());
 				if (regHandle.canHandle(element, argsCount)) {
 					handler = regHandle;
 					break;
@@ -800,6 +1505,9 @@ public class CmdlineParser {
 		if (handler == null && parent != null) {
 			return parent.findHandler(element, argsCount, cmdOptionHandlerType);
 		} else {
+			if (handler != null && memoizable) {
+				handlerCache.put(key, handler);
+			}
 			return handler;
 		}
 	}
@@ -816,12 +1524,22 @@ public class CmdlineParser {
 	 *                                inconsistent.
 	 */
 	public void addObject(final Object... objects) {
+		final List<Object> optionObjects = new ArrayList<Object>(objects.length);
+		for (final Object object : objects) {
+			if (!object.getClass().isAnnotationPresent(CmdCommand.class)) {
+				optionObjects.add(object);
+			}
+		}
+		prescan(optionObjects, false);
+
 		for (final Object object : objects) {
+			configObjects.add(object);
 			boolean commandAdded = addCommand(object);
 			if (!commandAdded) {
 				addOptions(object);
 			}
 		}
+		saveSnapshot();
 	}
 
 	protected boolean addCommand(final Object object) {
@@ -837,38 +1555,204 @@ public class CmdlineParser {
 			throw new CmdlineParserException(msg.notr(), msg.tr());
 		}
 
-		final CmdlineParser subCmdlineParser = new CmdlineParser(this, names[0], object);
+		// The command object is scanned not before the command is used
+		final InheritedSettings settings = new InheritedSettings(this);
+		final F0<CmdlineParser> subCmdlineParser = new F0<CmdlineParser>() {
+			@Override
+			public CmdlineParser apply() {
+				return new CmdlineParser(CmdlineParser.this, settings, names[0], object);
+			}
+		};
 		// TODO: set programm name
 		final CommandHandle command = new CommandHandle(names, commandAnno.description(), subCmdlineParser, object,
 			commandAnno.hidden());
+		registerCommand(command, object);
+		return true;
+	}
 
+	private void registerCommand(final CommandHandle command, final Object definition) {
 		for (final String name : command.getNames()) {
 			if (quickCommandMap.containsKey(name) || quickOptionMap.containsKey(name)) {
 				final PreparedI18n msg = i18n.preparetr("Duplicate command/option name \"{0}\" found in: {1}",
 					name,
-					object);
+					definition);
 				throw new CmdlineParserException(msg.notr(), msg.tr());
 			}
 			quickCommandMap.put(name, command);
 		}
 		commands.add(command);
-		return true;
+		cmdlineModel = null;
+		commandAbbreviations = null;
+	}
+
+	/**
+	 * Add options or the main parameter, which were defined without a config
+	 * object, e.g. with {@link OptionBuilder}.
+	 *
+	 * @throws CmdlineParserException if an option name is already used.
+	 * @since 0.8.0
+	 */
+	public void addOption(final OptionHandle... options) {
+		definedWithoutConfigObjects = true;
+		for (final OptionHandle option : options) {
+			registerOption(option, option, this.options);
+		}
+	}
+
+	/**
+	 * Add a command defined with a {@link CommandBuilder}. Like for annotated
+	 * commands, the parser of the command is created when it is first needed.
+	 * The command has no config object, so {@link #getParsedCommandObject()}
+	 * returns <code>null</code> for it.
+	 *
+	 * @return The handle of the added command.
+	 * @throws CmdlineParserException if a command name is already used.
+	 * @since 0.8.0
+	 */
+	public CommandHandle addCommand(final CommandBuilder command) {
+		definedWithoutConfigObjects = true;
+		final String[] names = command.getNames();
+		final List<OptionHandle> commandOptions = command.getOptions();
+		final List<CommandBuilder> subCommands = command.getSubCommands();
+		final InheritedSettings settings = new InheritedSettings(this);
+		final F0<CmdlineParser> subCmdlineParser = new F0<CmdlineParser>() {
+			@Override
+			public CmdlineParser apply() {
+				final CmdlineParser parser = new CmdlineParser(CmdlineParser.this, settings, names[0]);
+				parser.addOption(commandOptions.toArray(new OptionHandle[commandOptions.size()]));
+				for (final CommandBuilder subCommand : subCommands) {
+					parser.addCommand(subCommand);
+				}
+				return parser;
+			}
+		};
+		final CommandHandle handle = new CommandHandle(names, command.getDescription(), subCmdlineParser, null,
+			command.isHidden());
+		registerCommand(handle, FList.mkString(names, ","));
+		return handle;
+	}
+
+	/**
+	 * Add all plugin commands (see {@link CmdCommandPlugin}) found with the
+	 * context class loader of the current thread.
+	 *
+	 * @see #addPluginCommands(ClassLoader)
+	 * @since 0.8.0
+	 */
+	public List<CommandHandle> addPluginCommands() {
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		if (classLoader == null) {
+			classLoader = CmdlineParser.class.getClassLoader();
+		}
+		return addPluginCommands(classLoader);
+	}
+
+	/**
+	 * Add all plugin commands (see {@link CmdCommandPlugin}) listed in the plugin
+	 * command indexes visible to the given class loader.
+	 * <p>
+	 * The names, descriptions and hidden flags are read from the indexes, so the
+	 * commands can be listed in the usage and recognized when parsing, without
+	 * loading their classes. A command class is loaded and instantiated, when the
+	 * command is parsed or its parser is needed otherwise, e.g. by
+	 * {@link CommandHandle#getCmdlineParser()}. The usage of this parser does not
+	 * show the options of plugin commands, which were not loaded yet.
+	 *
+	 * @return The handles of the added commands.
+	 * @throws CmdlineParserException if an index could not be read or a command
+	 *                                name is already used.
+	 * @since 0.8.0
+	 */
+	public List<CommandHandle> addPluginCommands(final ClassLoader classLoader) {
+		definedWithoutConfigObjects = true;
+		final List<CommandHandle> handles = new ArrayList<CommandHandle>();
+		final InheritedSettings settings = new InheritedSettings(this);
+		for (final PluginCommand plugin : PluginCommand.readIndexes(classLoader)) {
+			debug("Found plugin command: {0}", plugin);
+			final F0<CmdlineParser> subCmdlineParser = new F0<CmdlineParser>() {
+				@Override
+				public CmdlineParser apply() {
+					return new CmdlineParser(CmdlineParser.this, settings, plugin.getNames()[0],
+						plugin.getInstance());
+				}
+			};
+			final CommandHandle handle = new CommandHandle(plugin, subCmdlineParser);
+			registerCommand(handle, plugin.getClassName());
+			handles.add(handle);
+		}
+		return handles;
 	}
 
 	/**
 	 * Check validity of the given configutaion classes. You should call this method
 	 * from a unit test to detect errors and inconsistencies in your configuration.
+	 * <p>
+	 * The parsers of all commands are created, even if they were not used yet, so
+	 * that their configuration is checked, too.
 	 *
 	 * @throws CmdlineParserException if the configutation is not valid.
 	 * @since 0.6.0
 	 */
 	public void validate() {
 		validateOptions();
+		prescan(uncreatedCommandObjects(), true);
 		for (final CommandHandle command : commands) {
 			command.getCmdlineParser().validate();
 		}
 	}
 
+	/**
+	 * Create an immutable and thread-safe parser from the current configuration
+	 * of this parser.
+	 * <p>
+	 * The config object is scanned and validated once, together with all its
+	 * delegates and commands. Each call to
+	 * {@link CompiledCmdlineParser#parse(ConfigFactory, String...)} parses with
+	 * this frozen model and applies the command line to a fresh config object,
+	 * whose delegates and commands are found through the same delegate fields.
+	 * Later changes to this parser do not affect the compiled parser.
+	 * <p>
+	 * Only a parser with exactly one config object can be compiled. Options and
+	 * commands defined with an {@link OptionBuilder}, a {@link CommandBuilder}
+	 * or loaded as plugins are not supported, as there is no config object to
+	 * create them for each parse.
+	 *
+	 * @return The compiled parser.
+	 * @throws IllegalStateException  if this parser was not created with exactly
+	 *                                one config object, or has options or
+	 *                                commands without config object.
+	 * @throws CmdlineParserException if the configuration is not valid.
+	 * @since 0.8.0
+	 */
+	public CompiledCmdlineParser compile() {
+		if (parent != null || configObjects.size() != 1) {
+			throw new IllegalStateException(
+				"Only a top-level parser with exactly one config object can be compiled, but found "
+					+ configObjects.size() + " config objects");
+		}
+		if (definedWithoutConfigObjects) {
+			throw new IllegalStateException(
+				"Options and commands defined without a config object can not be compiled");
+		}
+		final Object config = configObjects.get(0);
+		final CmdlineParser template = new CmdlineParser(this, config, true);
+		// also creates the parsers of all commands
+		template.validate();
+		template.prepareOrdinals();
+		return new CompiledCmdlineParser(template, config, template.delegatePaths);
+	}
+
+	/**
+	 * Create the option ordinals of this parser and all command parsers, before
+	 * a compiled parser is shared.
+	 */
+	private void prepareOrdinals() {
+		optionOrdinals();
+		for (final CommandHandle command : commands) {
+			command.getCmdlineParser().prepareOrdinals();
+		}
+	}
+
 	/**
 	 * Do a consistency check for the given cmdoption model (all annotated opitons).
 	 *
@@ -894,7 +1778,7 @@ public class CmdlineParser {
 				throw new CmdlineParserException(msg.notr(), msg.tr());
 			}
 
-			for (final String reqOptionName : optionHandle.getRequires()) {
+			for (final String reqOptionName : optionHandle.sharedRequires()) {
 				if (quickOptionMap.get(reqOptionName) == null) {
 					// required option does not exists
 					final PreparedI18n msg = i18n.preparetr(
@@ -903,7 +1787,7 @@ public class CmdlineParser {
 					throw new CmdlineParserException(msg.notr(), msg.tr());
 				}
 			}
-			for (final String conflictOptionName : optionHandle.getConflictsWith()) {
+			for (final String conflictOptionName : optionHandle.sharedConflictsWith()) {
 				if (Arrays.asList(optionHandle.getNames()).contains(conflictOptionName)) {
 					final PreparedI18n msg = i18n.preparetr("Option \"{0}\" is configured to conflicts with itself.",
 						optionName);
@@ -986,14 +1870,314 @@ public class CmdlineParser {
 	}
 
 	protected void addOptions(final Object object) {
-		final Class<?> class1 = object.getClass();
+		if (inspectElementsOverridden) {
+			options.addAll(inspectElements(object, scanElements(object.getClass())));
+		} else {
+			options.addAll(bindElements(object, null, scanClass(object.getClass(), applyEngine)));
+		}
+		cmdlineModel = null;
+		optionOrdinals = null;
+	}
+
+	/**
+	 * Add the options of a lazily created delegate, see
+	 * {@link CmdOptionDelegate#lazy()}.
+	 *
+	 * @param ownerObject The object holding the delegate field, or
+	 *                    <code>null</code> if the owner is lazy itself.
+	 * @param owner       The lazy owner or <code>null</code>.
+	 */
+	private void addLazyOptions(final Object ownerObject, final LazyDelegate owner, final Field field,
+			final Class<?> type, final CmdOptionDelegate.Mode mode) {
+		if (mode != CmdOptionDelegate.Mode.OPTIONS) {
+			final PreparedI18n msg = i18n.preparetr("Lazy delegates only support mode {0}: {1}",
+				CmdOptionDelegate.Mode.OPTIONS, field);
+			throw new CmdlineParserException(msg.notr(), msg.tr());
+		}
+		if (Modifier.isFinal(field.getModifiers()) || !field.getType().isAssignableFrom(type)
+			|| type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+			final PreparedI18n msg = i18n.preparetr("Lazy delegate of type {0} can not be stored in field {1}",
+				type.getName(), field);
+			throw new CmdlineParserException(msg.notr(), msg.tr());
+		}
+		final Constructor<?> constructor;
+		try {
+			constructor = type.getDeclaredConstructor();
+		} catch (final NoSuchMethodException e) {
+			final PreparedI18n msg = i18n.preparetr("Lazy delegate of type {0} needs a constructor without parameters",
+				type.getName());
+			throw new CmdlineParserException(msg.notr(), e, msg.tr());
+		}
+		try {
+			constructor.setAccessible(true);
+		} catch (final RuntimeException e) {
+			// e.g. a SecurityException, creating the delegate will fail later
+		}
+		debug("Delegate object at {0} will be created lazily as {1}", field, type);
+		final LazyDelegate lazy = new LazyDelegate(ownerObject, owner, field, constructor);
+		options.addAll(bindElements(null, lazy, scanClass(type, applyEngine)));
+		cmdlineModel = null;
+		optionOrdinals = null;
+	}
+
+	/**
+	 * @return The objects of all commands, whose parser was not created yet.
+	 */
+	private List<Object> uncreatedCommandObjects() {
+		final List<Object> objects = new ArrayList<Object>();
+		for (final CommandHandle command : commands) {
+			if (!command.isCmdlineParserCreated() && command.getObject() != null) {
+				objects.add(command.getObject());
+			}
+		}
+		return objects;
+	}
+
+	/**
+	 * Scan the classes of the given objects and of their delegates in parallel
+	 * with the {@link #scanExecutor}, to fill the {@link ScanCache}. Does nothing,
+	 * if no executor is set.
+	 * <p>
+	 * Only the scan runs in parallel, the elements are bound later on the calling
+	 * thread in the usual order. Errors are ignored here, as the same scan will be
+	 * repeated and fail in the same way when binding.
+	 *
+	 * @param objects        The objects to scan.
+	 * @param nestedCommands If <code>true</code>, delegates which will be
+	 *                       registered as commands are scanned too.
+	 */
+	private void prescan(final List<Object> objects, final boolean nestedCommands) {
+		if (scanExecutor == null) {
+			return;
+		}
+		final Map<Object, Object> seen = new IdentityHashMap<Object, Object>();
+		final Map<Class<?>, Future<List<ScannedElement>>> scans = new HashMap<Class<?>, Future<List<ScannedElement>>>();
+		List<Object> level = objects;
+		// scan level by level, so we never wait inside of the executor
+		while (!level.isEmpty()) {
+			final List<Object> levelObjects = new ArrayList<Object>();
+			for (final Object object : level) {
+				if (seen.put(object, object) != null) {
+					continue;
+				}
+				final Class<?> class1 = object.getClass();
+				if (!scans.containsKey(class1)) {
+					final List<ScannedElement> cached = ScanCache.get(scanner, class1, applyEngine);
+					scans.put(class1, cached != null ? null
+						: scanExecutor.submit(new Callable<List<ScannedElement>>() {
+							@Override
+							public List<ScannedElement> call() throws Exception {
+								return scanClass(class1, applyEngine);
+							}
+						}));
+				}
+				levelObjects.add(object);
+			}
+
+			final List<Object> nextLevel = new ArrayList<Object>();
+			for (final Object object : levelObjects) {
+				final Future<List<ScannedElement>> scan = scans.get(object.getClass());
+				final List<ScannedElement> elements;
+				try {
+					elements = scan == null ? ScanCache.get(scanner, object.getClass(), applyEngine) : scan.get();
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				} catch (final ExecutionException e) {
+					debug("Could not scan {0} in parallel: {1}", object.getClass(), e.getCause());
+					continue;
+				}
+				if (elements == null) {
+					continue;
+				}
+				for (final ScannedElement element : elements) {
+					if (element.getDelegate() == null) {
+						continue;
+					}
+					try {
+						final Object delegate = ((Field) element.getElement()).get(object);
+						if (delegate != null && (nestedCommands
+							|| element.getDelegate() == CmdOptionDelegate.Mode.OPTIONS
+							|| !delegate.getClass().isAnnotationPresent(CmdCommand.class))) {
+							nextLevel.add(delegate);
+						}
+					} catch (final IllegalArgumentException e) {
+						// will be reported when binding
+					} catch (final IllegalAccessException e) {
+						// will be reported when binding
+					}
+				}
+			}
+			level = nextLevel;
+		}
+	}
+
+	/**
+	 * Find all annotated elements of the given class. The result is cached per
+	 * class and {@link #scanner}, so that other parsers binding the same class
+	 * with the same scan hooks can reuse it.
+	 */
+	private List<ScannedElement> scanClass(final Class<?> class1, final ApplyEngine engine) {
+		final List<ScannedElement> cached = ScanCache.get(scanner, class1, engine);
+		if (cached != null) {
+			debug("Using cached elements of {0}", class1);
+			return cached;
+		}
+
+		final List<ScannedElement> scanned;
+		if (engine == ApplyEngine.GENERATED) {
+			scanned = bindGenerated(class1, scanClass(class1, ApplyEngine.REFLECTION));
+		} else {
+			scanned = scanClass(class1);
+		}
+		ScanCache.put(scanner, class1, engine, scanned);
+		return scanned;
+	}
+
+	private List<ScannedElement> scanClass(final Class<?> class1) {
+		final List<ScannedElement> scanned = new ArrayList<ScannedElement>();
+		final CmdOptionDescriptor descriptor = findDescriptor(class1);
+		final List<AccessibleObject> described = descriptor == null ? null : resolveElements(class1, descriptor);
+		if (described == null) {
+			final ScanSnapshot snapshot = snapshotFile == null ? null : ScanSnapshot.forFile(snapshotFile);
+			if (snapshot != null) {
+				final List<ScannedElement> restored = snapshot.get(scanner, class1);
+				if (restored != null) {
+					debug("Using snapshot {0} for {1}", snapshotFile, class1);
+					return restored;
+				}
+			}
+			for (final AccessibleObject element : scanElements(class1)) {
+				final ScannedElement scannedElement = ScannedElement.of(element, null, -1);
+				if (scannedElement != null) {
+					scanned.add(scannedElement);
+				}
+			}
+			if (snapshot != null) {
+				snapshot.put(scanner, class1, scanned);
+			}
+		} else {
+			debug("Using descriptor {0} for {1}", descriptor, class1);
+			for (int i = 0; i < described.size(); ++i) {
+				final ScannedElement scannedElement = ScannedElement.of(described.get(i), descriptor, i);
+				if (scannedElement != null) {
+					scanned.add(scannedElement);
+				}
+			}
+		}
+		return scanned;
+	}
+
+	/**
+	 * Bind the given elements to a binder class generated at runtime, unless they
+	 * are already bound to a compile-time descriptor.
+	 *
+	 * @return The bound elements, or the given ones, if no binder could be
+	 *         generated.
+	 */
+	private List<ScannedElement> bindGenerated(final Class<?> class1, final List<ScannedElement> elements) {
+		final List<AccessibleObject> accessibleObjects = new ArrayList<AccessibleObject>(elements.size());
+		for (final ScannedElement element : elements) {
+			if (element.getAccessor() instanceof DescriptorElementAccessor) {
+				// already bound to the compile-time descriptor
+				return elements;
+			}
+			accessibleObjects.add(element.getElement());
+		}
+
+		final CmdOptionDescriptor binder;
+		try {
+			binder = BinderGenerator.generate(class1, accessibleObjects);
+		} catch (final Exception e) {
+			debug("Could not generate binder for {0}. Falling back to reflection. Cause: {1}", class1, e);
+			return elements;
+		} catch (final LinkageError e) {
+			debug("Could not generate binder for {0}. Falling back to reflection. Cause: {1}", class1, e);
+			return elements;
+		}
+		if (binder == null) {
+			return elements;
+		}
+
+		debug("Using generated binder {0} for {1}", binder.getClass().getName(), class1);
+		final List<ScannedElement> bound = new ArrayList<ScannedElement>(elements.size());
+		for (int i = 0; i < elements.size(); ++i) {
+			final ScannedElement element = elements.get(i);
+			bound.add(element.withAccessor(new DescriptorElementAccessor(binder, i, element.getAccessor())));
+		}
+		return bound;
+	}
+
+	/**
+	 * Resolve all elements listed in the given descriptor.
+	 *
+	 * @return The elements, or <code>null</code> if at least one could not be
+	 *         resolved.
+	 */
+	private List<AccessibleObject> resolveElements(final Class<?> class1, final CmdOptionDescriptor descriptor) {
+		final String[] signatures = descriptor.getElements();
+		final List<AccessibleObject> elements = new ArrayList<AccessibleObject>(signatures.length);
+		for (final String signature : signatures) {
+			final AccessibleObject element = Signatures.resolve(class1, signature);
+			if (element == null) {
+				debug("Could not resolve element {0} of descriptor {1}. Falling back to reflection.", signature,
+					descriptor);
+				return null;
+			}
+			elements.add(element);
+		}
+		return elements;
+	}
+
+	/**
+	 * Find the compile-time generated {@link CmdOptionDescriptor} of the given
+	 * class.
+	 *
+	 * @return The descriptor or <code>null</code> if there is none.
+	 */
+	protected CmdOptionDescriptor findDescriptor(final Class<?> class1) {
+		if (class1.getClassLoader() == null || class1.isAnonymousClass() || class1.isLocalClass()) {
+			// the annotation processor does not generate descriptors for these
+			return null;
+		}
+		try {
+			final Class<?> descriptorClass = Class.forName(class1.getName() + CmdOptionDescriptor.SUFFIX, true,
+				class1.getClassLoader());
+			if (CmdOptionDescriptor.class.isAssignableFrom(descriptorClass)) {
+				return (CmdOptionDescriptor) descriptorClass.newInstance();
+			}
+		} catch (final ClassNotFoundException e) {
+			// no descriptor generated
+		} catch (final LinkageError e) {
+			debug("Could not load descriptor for {0}: {1}", class1, e);
+		} catch (final InstantiationException e) {
+			debug("Could not create descriptor for {0}: {1}", class1, e);
+		} catch (final IllegalAccessException e) {
+			debug("Could not create descriptor for {0}: {1}", class1, e);
+		}
+		return null;
+	}
 
-		final List<Field> fields = new LinkedList<Field>();
-		final List<Method> privateMethods = new LinkedList<Method>();
+	/**
+	 * Scan the given class and its super classes via reflection for all fields and
+	 * methods, respecting overridden methods.
+	 * <p>
+	 * The annotated elements found are cached per class, so this method is only
+	 * called once per class (as long as the cache is not cleared under memory
+	 * pressure). Parsers of a subclass overriding this method or
+	 * {@link #findDescriptor(Class)} use a cache of their own.
+	 *
+	 * @since 0.8.0
+	 */
+	protected Set<AccessibleObject> scanElements(final Class<?> class1) {
+		final List<Field> fields = new ArrayList<Field>();
+		final List<Method> privateMethods = new ArrayList<Method>();
 
-		final List<Method> otherPackageNonPrivateMethods = new LinkedList<Method>();
+		final List<Method> otherPackageNonPrivateMethods = new ArrayList<Method>();
+		final Set<MethodSignature> otherPackageSignatures = new HashSet<MethodSignature>();
 
-		final List<Method> currentPackageNonPrivateMethods = new LinkedList<Method>();
+		final List<Method> currentPackageNonPrivateMethods = new ArrayList<Method>();
+		final Set<MethodSignature> currentPackageSignatures = new HashSet<MethodSignature>();
 
 		Class<?> parentClass = class1;
 		while (parentClass != null && !parentClass.equals(Object.class)) {
@@ -1007,17 +2191,14 @@ public class CmdlineParser {
 				if (isPrivate(method)) {
 					privateMethods.add(method);
 				} else if (isPublicOrProtected(method)) {
-					if (!containsMethod(otherPackageNonPrivateMethods, method)
-						&& !containsMethod(currentPackageNonPrivateMethods, method)) {
+					final MethodSignature signature = new MethodSignature(method);
+					if (!otherPackageSignatures.contains(signature) && currentPackageSignatures.add(signature)) {
 						currentPackageNonPrivateMethods.add(method);
 					}
 				} else if (isPackagePrivate(method)) {
-					// if (!containsMethod(publicOrProtectedMethods, method)) {
-					// method not overloaded
-					if (isPackagePrivate(method)) {
-						if (!containsMethod(currentPackageNonPrivateMethods, method)) {
-							currentPackageNonPrivateMethods.add(method);
-						}
+					// package private methods can only be overridden from the same package
+					if (currentPackageSignatures.add(new MethodSignature(method))) {
+						currentPackageNonPrivateMethods.add(method);
 					}
 				}
 			}
@@ -1027,7 +2208,9 @@ public class CmdlineParser {
 			if ((pack == null && parentClass.getPackage() != null) ||
 				(pack != null && !pack.equals(parentClass.getPackage()))) {
 				otherPackageNonPrivateMethods.addAll(currentPackageNonPrivateMethods);
+				otherPackageSignatures.addAll(currentPackageSignatures);
 				currentPackageNonPrivateMethods.clear();
+				currentPackageSignatures.clear();
 			}
 		}
 
@@ -1038,34 +2221,64 @@ public class CmdlineParser {
 		elements.addAll(otherPackageNonPrivateMethods);
 		elements.addAll(currentPackageNonPrivateMethods);
 
-		options.addAll(inspectElements(object, elements));
+		return elements;
 	}
 
+	/**
+	 * Create the option handles for the given elements of the config object.
+	 * <p>
+	 * This method is only called, if it is overridden in a subclass. Then the
+	 * config objects are scanned with {@link #scanElements(Class)} every time,
+	 * without the {@link ScanCache}, the snapshot or a compile-time descriptor.
+	 */
 	protected List<OptionHandle> inspectElements(final Object object, final Set<AccessibleObject> elements) {
-		final List<OptionHandle> options = new LinkedList<OptionHandle>();
-
+		final List<ScannedElement> scanned = new ArrayList<ScannedElement>(elements.size());
 		for (final AccessibleObject element : elements) {
+			final ScannedElement scannedElement = ScannedElement.of(element, null, -1);
+			if (scannedElement != null) {
+				scanned.add(scannedElement);
+			}
+		}
+		return bindElements(object, null, scanned);
+	}
+
+	/**
+	 * Create the option handles for the given elements, bound to the given config
+	 * object or lazily created delegate.
+	 *
+	 * @param object The config object or <code>null</code> if it is lazy.
+	 * @param lazy   The lazily created config object or <code>null</code>.
+	 */
+	private List<OptionHandle> bindElements(final Object object, final LazyDelegate lazy,
+			final List<ScannedElement> elements) {
+		final List<OptionHandle> options = new ArrayList<OptionHandle>(elements.size());
+
+		for (final ScannedElement scannedElement : elements) {
+			final AccessibleObject element = scannedElement.getElement();
 
-			final CmdOptionDelegate delegateAnno = element.getAnnotation(CmdOptionDelegate.class);
+			final CmdOptionDelegate.Mode delegateMode = scannedElement.getDelegate();
 
-			if (element instanceof Field && delegateAnno != null) {
+			if (delegateMode != null) {
 				debug("Found delegate object at: {0} with mode: ", element);
+				final Field field = (Field) element;
+				final Class<?> lazyType = scannedElement.getLazyType();
+				if (lazy != null && lazyType != null) {
+					// the owner is not created yet, so is its delegate
+					addLazyOptions(null, lazy, field, lazyType, delegateMode);
+					continue;
+				}
 				try {
-					final boolean origAccessibleFlag = element.isAccessible();
-					final Object delegate;
-					try {
-						if (!origAccessibleFlag) {
-							element.setAccessible(true);
-						}
-						delegate = ((Field) element).get(object);
-					} finally {
-						if (!origAccessibleFlag) {
-							// do not leave doors open
-							element.setAccessible(origAccessibleFlag);
+					// a not lazy delegate of a lazy owner requires the owner now
+					final Object owner = lazy == null ? object : lazy.get();
+					final Object delegate = field.get(owner);
+					if (delegate == null && lazyType != null) {
+						addLazyOptions(owner, null, field, lazyType, delegateMode);
+					} else if (delegate != null) {
+						if (delegatePaths != null && !delegatePaths.containsKey(delegate)) {
+							delegatePaths.put(delegate, new ConfigBinding.DelegatePath(lazy == null ? object : null,
+								lazy, field));
 						}
-					}
-					if (delegate != null) {
-						switch (delegateAnno.value()) {
+						switch (delegateMode) {
 							case OPTIONS:
 								addOptions(delegate);
 								break;
@@ -1084,14 +2297,16 @@ public class CmdlineParser {
 					debug("Could not scan delegate object at: {0}", element);
 				} catch (final IllegalAccessException e) {
 					debug("Could not scan delegate object at: {0}", element);
+				} catch (final CmdlineParserException e) {
+					throw e;
+				} catch (final Exception e) {
+					final PreparedI18n msg = i18n.preparetr("Could not create delegate object at: {0}", element);
+					throw new CmdlineParserException(msg.notr(), e, msg.tr());
 				}
 				continue;
 			}
 
-			final CmdOption anno = element.getAnnotation(CmdOption.class);
-			if (anno == null) {
-				continue;
-			}
+			final OptionSpec anno = scannedElement.getOption();
 
 			if (element instanceof Field && Modifier.isFinal(((Field) element).getModifiers())) {
 				debug("Detected option on final field: {0}", element);
@@ -1111,13 +2326,6 @@ public class CmdlineParser {
 
 			if (names == null || names.length == 0) {
 				// No names means this is the ONLY parameter
-				if (parameter.isDefined()) {
-					final PreparedI18n msg = i18n.preparetr(
-						"More than one parameter definition found. First definition: {0} Second definition: {1}",
-						parameter.get().getElement(), element);
-					throw new CmdlineParserException(msg.notr(), msg.tr());
-				}
-
 				if (anno.isHelp()) {
 					debug("Warning: Found annotation for the main parameter with enabled isHelp=true. The isHelp will be ignored.");
 				}
@@ -1130,12 +2338,11 @@ public class CmdlineParser {
 					object, element, anno.args(), anno.minCount(), anno.maxCount(),
 					false /* cannot be a help option */,
 					anno.hidden(), anno.requires(), anno.conflictsWith());
-
-				if (paramHandle.getArgsCount() <= 0) {
-					final PreparedI18n msg = i18n.preparetr("Parameter definition must support at least on argument.");
-					throw new CmdlineParserException(msg.notr(), msg.tr());
+				if (HandlerCache.isValueHandler(handler)) {
+					paramHandle.setAccessor(scannedElement.getAccessor());
 				}
-				parameter = Optional.some(paramHandle);
+				paramHandle.setLazyDelegate(lazy);
+				registerOption(paramHandle, element, options);
 
 			} else {
 				if (anno.maxCount() == 0) {
@@ -1146,28 +2353,82 @@ public class CmdlineParser {
 				final OptionHandle option = new OptionHandle(names, anno.description(), handler, object,
 					element, anno.args(), anno.minCount(), anno.maxCount(), anno.isHelp(), anno.hidden(),
 					anno.requires(), anno.conflictsWith());
-
-				for (final String name : names) {
-					if (quickCommandMap.containsKey(name) || quickOptionMap.containsKey(name)) {
-						final PreparedI18n msg = i18n.preparetr("Duplicate command/option name \"{0}\" found in: {1}",
-							name, element);
-						throw new CmdlineParserException(msg.notr(), msg.tr());
-					}
-					quickOptionMap.put(name, option);
+				if (HandlerCache.isValueHandler(handler)) {
+					option.setAccessor(scannedElement.getAccessor());
 				}
-				options.add(option);
+				option.setLazyDelegate(lazy);
+				registerOption(option, element, options);
 			}
 		}
 		return options;
 	}
 
+	/**
+	 * Register the given option, or the main parameter, if it has no names.
+	 *
+	 * @param definition Where the option was defined, used in error messages.
+	 * @param options    The list to add the option to.
+	 */
+	private void registerOption(final OptionHandle option, final Object definition, final List<OptionHandle> options) {
+		if (option.getNames() == null || option.getNames().length == 0) {
+			if (parameter.isDefined()) {
+				final OptionHandle first = parameter.get();
+				final PreparedI18n msg = i18n.preparetr(
+					"More than one parameter definition found. First definition: {0} Second definition: {1}",
+					first.getElement() == null ? first : first.getElement(), definition);
+				throw new CmdlineParserException(msg.notr(), msg.tr());
+			}
+			if (option.getArgsCount() <= 0) {
+				final PreparedI18n msg = i18n.preparetr("Parameter definition must support at least on argument.");
+				throw new CmdlineParserException(msg.notr(), msg.tr());
+			}
+			shareStrings(option);
+			parameter = Optional.some(option);
+			cmdlineModel = null;
+			optionOrdinals = null;
+			return;
+		}
+
+		for (final String name : option.getNames()) {
+			if (quickCommandMap.containsKey(name) || quickOptionMap.containsKey(name)) {
+				final PreparedI18n msg = i18n.preparetr("Duplicate command/option name \"{0}\" found in: {1}",
+					name, definition);
+				throw new CmdlineParserException(msg.notr(), msg.tr());
+			}
+			quickOptionMap.put(name, option);
+		}
+		shareStrings(option);
+		options.add(option);
+		cmdlineModel = null;
+		optionAbbreviations = null;
+		optionOrdinals = null;
+	}
+
+	/**
+	 * Share the arrays of the option via the {@link #stringTable}, unless this
+	 * parser is pre-validated. A pre-validated parser binds a config object for
+	 * a single parse of a {@link CompiledCmdlineParser}. Its options get the
+	 * arrays of the cached scan results, which all bindings share anyway, and
+	 * the synchronized table would be a lock for all threads parsing.
+	 */
+	private void shareStrings(final OptionHandle option) {
+		if (!preValidated) {
+			option.share(stringTable);
+		}
+	}
+
 	public void unregisterAllHandler() {
-		handlerRegistry.clear();
+		handlerRegistry = new LinkedHashMap<Class<? extends CmdOptionHandler>, CmdOptionHandler>();
+		handlerCache = new HandlerCache();
 	}
 
 	public void unregisterHandler(final Class<? extends CmdOptionHandler> type) {
 		if (type != null) {
-			handlerRegistry.remove(type);
+			final Map<Class<? extends CmdOptionHandler>, CmdOptionHandler> registry = new LinkedHashMap<Class<? extends CmdOptionHandler>, CmdOptionHandler>(
+				handlerRegistry);
+			registry.remove(type);
+			handlerRegistry = registry;
+			handlerCache = new HandlerCache();
 		}
 	}
 
@@ -1179,13 +2440,18 @@ public class CmdlineParser {
 	public void registerHandler(final CmdOptionHandler handler) {
 		if (handler != null) {
 			debug("Register CmdOptionHandler: {0}", handler);
-			handlerRegistry.put(handler.getClass(), handler);
+			final Map<Class<? extends CmdOptionHandler>, CmdOptionHandler> registry = new LinkedHashMap<Class<? extends CmdOptionHandler>, CmdOptionHandler>(
+				handlerRegistry);
+			registry.put(handler.getClass(), handler);
+			handlerRegistry = registry;
+			handlerCache = new HandlerCache();
 		}
 	}
 
 	public void commandUsage(final Class<?> command) {
 		for (final CommandHandle cmdHandle : commands) {
-			if (cmdHandle.getObject().getClass().equals(command)) {
+			if (cmdHandle.getObject() != null && cmdHandle.getObject().getClass().equals(command)
+				|| cmdHandle.getPlugin() != null && cmdHandle.getPlugin().getClassName().equals(command.getName())) {
 				cmdHandle.getCmdlineParser().usage();
 				return;
 			}
@@ -1209,6 +2475,7 @@ public class CmdlineParser {
 	}
 
 	public void usage(final PrintStream output) {
+		prescan(uncreatedCommandObjects(), false);
 		usageFormatter.format(output, getCmdlineModel());
 	}
 
@@ -1220,13 +2487,26 @@ public class CmdlineParser {
 		return new String(baos.toByteArray(), Charset.forName("UTF-8"));
 	}
 
+	/**
+	 * @return An immutable snapshot of the options and commands. It is cached
+	 *         until they change.
+	 */
 	public CmdlineModel getCmdlineModel() {
 		String programName = this.programName;
 		if (parent != null) {
 			// We are a command
 			programName = parent.programName + " " + programName;
 		}
-		return new CmdlineModel(programName, options, commands, parameter.orNull(), aboutLine, resourceBundle);
+		CmdlineModel model = cmdlineModel;
+		if (model == null || !equal(model.getProgramName(), programName)) {
+			model = new CmdlineModel(programName, options, commands, parameter.orNull(), aboutLine, resourceBundle);
+			cmdlineModel = model;
+		}
+		return model;
+	}
+
+	private static boolean equal(final Object o1, final Object o2) {
+		return o1 == null ? o2 == null : o1.equals(o2);
 	}
 
 	/**
@@ -1234,6 +2514,7 @@ public class CmdlineParser {
 	 */
 	public void setProgramName(final String programName) {
 		this.programName = programName;
+		cmdlineModel = null;
 	}
 
 	/**
@@ -1241,6 +2522,7 @@ public class CmdlineParser {
 	 */
 	public void setAboutLine(final String aboutLine) {
 		this.aboutLine = aboutLine;
+		cmdlineModel = null;
 	}
 
 	public void setResourceBundle(final String resourceBundleName, final ClassLoader classloader) {
@@ -1258,10 +2540,12 @@ public class CmdlineParser {
 			// no resource bundle found
 			this.resourceBundle = null;
 		}
+		cmdlineModel = null;
 	}
 
 	public void setResourceBundle(final ResourceBundle resourceBundle) {
 		this.resourceBundle = resourceBundle;
+		cmdlineModel = null;
 	}
 
 	/**
@@ -1284,6 +2568,33 @@ public class CmdlineParser {
 		}
 	}
 
+	/**
+	 * If used to set a non-empty string, options with exactly one argument also
+	 * accept their argument after this separator in the same command line
+	 * argument, e.g. <code>--file=a.txt</code>. The option name is the part
+	 * before the first occurrence of the separator.
+	 * <p>
+	 * The parsers of all commands inherit this setting.
+	 *
+	 * @param separator The separator, typically a <code>"="</code>. If
+	 *                  <code>null</code> or the empty string, this feature is
+	 *                  disabled.
+	 * @since 0.8.0
+	 */
+	public void setOptionArgSeparator(final String separator) {
+		if (separator == null || separator.trim().isEmpty()) {
+			optionArgSeparator = Optional.none();
+		} else {
+			optionArgSeparator = Optional.some(separator.trim());
+		}
+		for (final CommandHandle c : commands) {
+			if (c.isCmdlineParserCreated()) {
+				// not yet created parsers will inherit the setting
+				c.getCmdlineParser().setOptionArgSeparator(separator);
+			}
+		}
+	}
+
 	/**
 	 * Set the prefix of short options, that should be aggregated.
 	 *
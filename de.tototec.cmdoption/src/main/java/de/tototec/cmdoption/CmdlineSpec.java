@@ -0,0 +1,249 @@
+package de.tototec.cmdoption;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.tototec.cmdoption.internal.Json;
+
+/**
+ * Exports a {@link CmdlineModel} to a JSON spec and creates a parser from such
+ * a spec.
+ * <p>
+ * The spec contains the program name, the about line and all options, the main
+ * parameter and all commands (recursively) with all their settings. It does
+ * not contain the config objects, fields, methods and handlers the options are
+ * bound to. A parser created from a spec does not need any config class;
+ * instead, it records the arguments of all parsed options in a value map.
+ * Thus, exporting the model of such a parser results in the same spec.
+ * <p>
+ * The keys of the value map are the first name of an option, or
+ * {@link #PARAMETER_KEY} for the main parameter. For options of commands, the
+ * key is prefixed with the command names, separated by spaces, e.g.
+ * <code>"build --target"</code>. Each occurrence of an option adds its
+ * arguments to the list of its key.
+ *
+ * @since 0.8.0
+ */
+public class CmdlineSpec {
+
+	/**
+	 * The version of the spec format.
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * The key of the main parameter in the value map.
+	 */
+	public static final String PARAMETER_KEY = "<parameter>";
+
+	private CmdlineSpec() {
+	}
+
+	/**
+	 * Export the given model, e.g. from {@link CmdlineParser#getCmdlineModel()}.
+	 * <p>
+	 * The parsers of all commands are created, if not already done.
+	 *
+	 * @return The spec as JSON.
+	 */
+	public static String toJson(final CmdlineModel model) {
+		final Map<String, Object> spec = new LinkedHashMap<String, Object>();
+		spec.put("cmdoptionSpec", Integer.valueOf(VERSION));
+		spec.put("programName", model.getProgramName());
+		spec.put("aboutLine", model.getAboutLine());
+		putOptions(spec, model);
+		return Json.write(spec);
+	}
+
+	private static void putOptions(final Map<String, Object> spec, final CmdlineModel model) {
+		final List<Object> options = new ArrayList<Object>();
+		for (final OptionHandle option : model.getOptions()) {
+			options.add(toMap(option));
+		}
+		spec.put("options", options);
+		spec.put("parameter", model.getParameter() == null ? null : toMap(model.getParameter()));
+		final List<Object> commands = new ArrayList<Object>();
+		for (final CommandHandle command : model.getCommands()) {
+			final Map<String, Object> map = new LinkedHashMap<String, Object>();
+			map.put("names", list(command.getNames()));
+			map.put("description", command.getDescription());
+			map.put("hidden", Boolean.valueOf(command.isHidden()));
+			putOptions(map, command.getCommandCmdlineModel());
+			commands.add(map);
+		}
+		spec.put("commands", commands);
+	}
+
+	private static Map<String, Object> toMap(final OptionHandle option) {
+		final Map<String, Object> map = new LinkedHashMap<String, Object>();
+		map.put("names", list(option.getNames()));
+		map.put("description", option.getDescription());
+		map.put("args", list(option.getArgs()));
+		map.put("minCount", Integer.valueOf(option.getMinCount()));
+		map.put("maxCount", Integer.valueOf(option.getMaxCount()));
+		map.put("isHelp", Boolean.valueOf(option.isHelp()));
+		map.put("hidden", Boolean.valueOf(option.isHidden()));
+		map.put("requires", list(option.getRequires()));
+		map.put("conflictsWith", list(option.getConflictsWith()));
+		return map;
+	}
+
+	private static List<String> list(final String[] strings) {
+		return strings == null ? new ArrayList<String>() : Arrays.asList(strings);
+	}
+
+	/**
+	 * Create a parser from the given spec. Parsed options are recorded in the
+	 * given value map.
+	 *
+	 * @param json   The spec as JSON, as created by {@link #toJson(CmdlineModel)}.
+	 * @param values The map, which receives the arguments of all parsed options.
+	 * @return The parser.
+	 * @throws IllegalArgumentException if the spec is invalid.
+	 * @throws CmdlineParserException   if the spec contains inconsistent options,
+	 *                                  e.g. duplicate names.
+	 */
+	public static CmdlineParser fromJson(final String json, final Map<String, List<String[]>> values) {
+		final Map<String, Object> spec = asMap(Json.read(json), "spec");
+		final Object version = spec.get("cmdoptionSpec");
+		if (!(version instanceof Number) || ((Number) version).intValue() != VERSION) {
+			throw new IllegalArgumentException("Unsupported spec version: " + version);
+		}
+		final CmdlineParser parser = new CmdlineParser();
+		final String programName = getString(spec, "programName", null);
+		if (programName != null) {
+			parser.setProgramName(programName);
+		}
+		parser.setAboutLine(getString(spec, "aboutLine", null));
+		parser.addOption(toOptions(spec, "", values));
+		for (final Object command : getList(spec, "commands")) {
+			parser.addCommand(toCommand(asMap(command, "command"), "", values));
+		}
+		return parser;
+	}
+
+	private static OptionHandle[] toOptions(final Map<String, Object> spec, final String prefix,
+			final Map<String, List<String[]>> values) {
+		final List<OptionHandle> options = new ArrayList<OptionHandle>();
+		for (final Object option : getList(spec, "options")) {
+			options.add(toOption(asMap(option, "option"), prefix, values));
+		}
+		if (spec.get("parameter") != null) {
+			options.add(toOption(asMap(spec.get("parameter"), "parameter"), prefix, values));
+		}
+		return options.toArray(new OptionHandle[options.size()]);
+	}
+
+	private static CommandBuilder toCommand(final Map<String, Object> spec, final String prefix,
+			final Map<String, List<String[]>> values) {
+		final String[] names = getStrings(spec, "names");
+		if (names.length == 0) {
+			throw new IllegalArgumentException("Invalid spec: command without names");
+		}
+		final String commandPrefix = prefix + names[0] + " ";
+		final CommandBuilder command = CommandBuilder.command(names)
+			.description(getString(spec, "description", ""))
+			.hidden(getBoolean(spec, "hidden", false))
+			.option(toOptions(spec, commandPrefix, values));
+		for (final Object subCommand : getList(spec, "commands")) {
+			command.subCommand(toCommand(asMap(subCommand, "command"), commandPrefix, values));
+		}
+		return command;
+	}
+
+	private static OptionHandle toOption(final Map<String, Object> spec, final String prefix,
+			final Map<String, List<String[]>> values) {
+		final String[] names = getStrings(spec, "names");
+		final String key = prefix + (names.length == 0 ? PARAMETER_KEY : names[0]);
+		final OptionBuilder option = names.length == 0 ? OptionBuilder.parameter() : OptionBuilder.option(names);
+		return option
+			.description(getString(spec, "description", ""))
+			.args(getStrings(spec, "args"))
+			.minCount(getInt(spec, "minCount", 0))
+			.maxCount(getInt(spec, "maxCount", 1))
+			.isHelp(getBoolean(spec, "isHelp", false))
+			.hidden(getBoolean(spec, "hidden", false))
+			.requires(getStrings(spec, "requires"))
+			.conflictsWith(getStrings(spec, "conflictsWith"))
+			.sink(new OptionSink() {
+				@Override
+				public void apply(final String optionName, final String[] args) {
+					List<String[]> occurrences = values.get(key);
+					if (occurrences == null) {
+						occurrences = new ArrayList<String[]>();
+						values.put(key, occurrences);
+					}
+					occurrences.add(args.clone());
+				}
+			})
+			.build();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> asMap(final Object value, final String what) {
+		if (!(value instanceof Map<?, ?>)) {
+			throw new IllegalArgumentException("Invalid spec: " + what + " is not an object");
+		}
+		return (Map<String, Object>) value;
+	}
+
+	private static List<?> getList(final Map<String, Object> spec, final String key) {
+		final Object value = spec.get(key);
+		if (value == null) {
+			return new ArrayList<Object>();
+		}
+		if (!(value instanceof List<?>)) {
+			throw new IllegalArgumentException("Invalid spec: " + key + " is not an array");
+		}
+		return (List<?>) value;
+	}
+
+	private static String[] getStrings(final Map<String, Object> spec, final String key) {
+		final List<?> list = getList(spec, key);
+		final String[] strings = new String[list.size()];
+		for (int i = 0; i < strings.length; ++i) {
+			if (!(list.get(i) instanceof String)) {
+				throw new IllegalArgumentException("Invalid spec: " + key + " must only contain strings");
+			}
+			strings[i] = (String) list.get(i);
+		}
+		return strings;
+	}
+
+	private static String getString(final Map<String, Object> spec, final String key, final String defaultValue) {
+		final Object value = spec.get(key);
+		if (value == null) {
+			return defaultValue;
+		}
+		if (!(value instanceof String)) {
+			throw new IllegalArgumentException("Invalid spec: " + key + " is not a string");
+		}
+		return (String) value;
+	}
+
+	private static int getInt(final Map<String, Object> spec, final String key, final int defaultValue) {
+		final Object value = spec.get(key);
+		if (value == null) {
+			return defaultValue;
+		}
+		if (!(value instanceof Long)) {
+			throw new IllegalArgumentException("Invalid spec: " + key + " is not an integer");
+		}
+		return ((Long) value).intValue();
+	}
+
+	private static boolean getBoolean(final Map<String, Object> spec, final String key, final boolean defaultValue) {
+		final Object value = spec.get(key);
+		if (value == null) {
+			return defaultValue;
+		}
+		if (!(value instanceof Boolean)) {
+			throw new IllegalArgumentException("Invalid spec: " + key + " is not a boolean");
+		}
+		return ((Boolean) value).booleanValue();
+	}
+
+}
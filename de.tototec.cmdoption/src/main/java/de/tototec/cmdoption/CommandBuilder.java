@@ -0,0 +1,92 @@
+package de.tototec.cmdoption;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Defines a command without annotations and reflection. Its options are
+ * defined with {@link OptionBuilder}.
+ *
+ * @see CmdlineParser#addCommand(CommandBuilder)
+ * @since 0.8.0
+ */
+public class CommandBuilder {
+
+	private final String[] names;
+	private String description = "";
+	private boolean hidden = false;
+	private final List<OptionHandle> options = new ArrayList<OptionHandle>();
+	private final List<CommandBuilder> subCommands = new ArrayList<CommandBuilder>();
+
+	private CommandBuilder(final String[] names) {
+		this.names = names;
+	}
+
+	/**
+	 * Start the definition of a command.
+	 *
+	 * @param names The names of the command.
+	 * @see CmdCommand#names()
+	 */
+	public static CommandBuilder command(final String... names) {
+		if (names == null || names.length == 0) {
+			throw new IllegalArgumentException("A command needs at least one name.");
+		}
+		return new CommandBuilder(names.clone());
+	}
+
+	/**
+	 * @see CmdCommand#description()
+	 */
+	public CommandBuilder description(final String description) {
+		this.description = description == null ? "" : description;
+		return this;
+	}
+
+	/**
+	 * @see CmdCommand#hidden()
+	 */
+	public CommandBuilder hidden(final boolean hidden) {
+		this.hidden = hidden;
+		return this;
+	}
+
+	/**
+	 * Add options or the main parameter of the command.
+	 */
+	public CommandBuilder option(final OptionHandle... options) {
+		this.options.addAll(Arrays.asList(options));
+		return this;
+	}
+
+	/**
+	 * Add sub-commands of the command.
+	 */
+	public CommandBuilder subCommand(final CommandBuilder... subCommands) {
+		this.subCommands.addAll(Arrays.asList(subCommands));
+		return this;
+	}
+
+	String[] getNames() {
+		return names.clone();
+	}
+
+	String getDescription() {
+		return description;
+	}
+
+	boolean isHidden() {
+		return hidden;
+	}
+
+	List<OptionHandle> getOptions() {
+		return Collections.unmodifiableList(new ArrayList<OptionHandle>(options));
+	}
+
+	List<CommandBuilder> getSubCommands() {
+		return Collections.unmodifiableList(new ArrayList<CommandBuilder>(subCommands));
+	}
+
+}
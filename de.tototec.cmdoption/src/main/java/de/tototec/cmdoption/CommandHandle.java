@@ -2,18 +2,19 @@ package de.tototec.cmdoption;
 
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
+import de.tototec.cmdoption.internal.F0;
 import de.tototec.cmdoption.internal.FList;
 
 public class CommandHandle {
 
 	private final String[] names;
 	private final String description;
-	private final CmdlineParser cmdlineParser;
+	private CmdlineParser cmdlineParser;
+	private F0<CmdlineParser> cmdlineParserFactory;
 	private final Object object;
 	private final boolean hidden;
+	private final PluginCommand plugin;
 
 	public CommandHandle(final String[] names, final String description, final CmdlineParser cmdlineParser, final Object object, final boolean hidden) {
 		this.names = names;
@@ -21,6 +22,38 @@ public class CommandHandle {
 		this.cmdlineParser = cmdlineParser;
 		this.object = object;
 		this.hidden = hidden;
+		this.plugin = null;
+	}
+
+	/**
+	 * Create a command handle, whose parser is created by the given factory when
+	 * it is first needed.
+	 *
+	 * @since 0.8.0
+	 */
+	CommandHandle(final String[] names, final String description, final F0<CmdlineParser> cmdlineParserFactory,
+			final Object object, final boolean hidden) {
+		this.names = names;
+		this.description = description;
+		this.cmdlineParserFactory = cmdlineParserFactory;
+		this.object = object;
+		this.hidden = hidden;
+		this.plugin = null;
+	}
+
+	/**
+	 * Create a command handle for a plugin command, whose class is not loaded
+	 * before its parser is created by the given factory.
+	 *
+	 * @since 0.8.0
+	 */
+	CommandHandle(final PluginCommand plugin, final F0<CmdlineParser> cmdlineParserFactory) {
+		this.names = plugin.getNames();
+		this.description = plugin.getDescription();
+		this.cmdlineParserFactory = cmdlineParserFactory;
+		this.object = null;
+		this.hidden = plugin.isHidden();
+		this.plugin = plugin;
 	}
 
 	public String[] getNames() {
@@ -31,16 +64,46 @@ public class CommandHandle {
 		return description;
 	}
 
-	public CmdlineParser getCmdlineParser() {
+	/**
+	 * @return The parser of this command. If not already done, it will be created
+	 *         now, which involves the scan of the command object.
+	 */
+	public synchronized CmdlineParser getCmdlineParser() {
+		if (cmdlineParser == null) {
+			cmdlineParser = cmdlineParserFactory.apply();
+			cmdlineParserFactory = null;
+		}
 		return cmdlineParser;
 	}
 
+	/**
+	 * @return <code>true</code>, if the parser of this command was already
+	 *         created.
+	 * @since 0.8.0
+	 */
+	public synchronized boolean isCmdlineParserCreated() {
+		return cmdlineParser != null;
+	}
+
 	public CmdlineModel getCommandCmdlineModel() {
-		return cmdlineParser.getCmdlineModel();
+		return getCmdlineParser().getCmdlineModel();
 	}
 
+	/**
+	 * @return The command object. For plugin commands (see
+	 *         {@link CmdCommandPlugin}), this is <code>null</code> until the
+	 *         command was used.
+	 */
 	public Object getObject() {
-		return object;
+		return plugin == null ? object : plugin.getInstanceIfCreated();
+	}
+
+	/**
+	 * @return The plugin command or <code>null</code>, if this is not a plugin
+	 *         command.
+	 */
+	PluginCommand getPlugin() {
+		return plugin;
 	}
 
 	public boolean isHidden() {
@@ -54,12 +117,7 @@ public class CommandHandle {
 		}
 
 		public String sanitizeString(final String string) {
-			final Pattern pattern = Pattern.compile("^[^A-Za-z0-9]*(.*)$");
-			final Matcher matcher = pattern.matcher(string);
-			if (matcher.matches()) {
-				return matcher.group(1);
-			}
-			return string;
+			return CmdlineModel.sortKey(string);
 		}
 	}
 
@@ -68,7 +126,7 @@ public class CommandHandle {
 		return getClass().getSimpleName() +
 				"(names=" + FList.mkString(names, ",") +
 				",description=" + description +
-				",cmdlineParser=" + cmdlineParser +
+				",cmdlineParserCreated=" + isCmdlineParserCreated() +
 				",object=" + object +
 				",hidden=" + hidden +
 				")";
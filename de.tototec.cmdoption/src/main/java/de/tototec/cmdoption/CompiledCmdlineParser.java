@@ -0,0 +1,113 @@
+package de.tototec.cmdoption;
+
+import java.io.PrintStream;
+import java.util.Map;
+
+/**
+ * An immutable and thread-safe command line parser, created with
+ * {@link CmdlineParser#compile()}.
+ * <p>
+ * The config object and all its delegates and commands are scanned and
+ * validated once at compile time. Each parse uses this frozen model and applies
+ * the command line to a fresh config object created by a {@link ConfigFactory},
+ * so the same instance can be used from multiple threads at once. The delegates
+ * and commands of the fresh config object are found through the same delegate
+ * fields, so they must not be <code>null</code>, unless they are created lazily.
+ * <p>
+ * Only parsers with exactly one config object can be compiled, see
+ * {@link CmdlineParser#compile()}.
+ *
+ * @since 0.8.0
+ */
+public class CompiledCmdlineParser {
+
+	/**
+	 * The frozen parser, bound to the config object given at compile time. It
+	 * records each parse, but is never changed by it.
+	 */
+	private final CmdlineParser template;
+	private final Object templateConfig;
+	private final Class<?> configClass;
+	/**
+	 * The delegate objects of the template, see {@link ConfigBinding}.
+	 */
+	private final Map<Object, ConfigBinding.DelegatePath> delegatePaths;
+
+	CompiledCmdlineParser(final CmdlineParser template, final Object templateConfig,
+			final Map<Object, ConfigBinding.DelegatePath> delegatePaths) {
+		this.template = template;
+		this.templateConfig = templateConfig;
+		this.configClass = templateConfig.getClass();
+		this.delegatePaths = delegatePaths;
+	}
+
+	/**
+	 * @return The class of the config objects this parser was compiled for.
+	 */
+	public Class<?> getConfigClass() {
+		return configClass;
+	}
+
+	/**
+	 * Parse the given command line into a new config object.
+	 *
+	 * @param configFactory Creates the config object. It must create a new
+	 *                      instance of the class this parser was compiled for on
+	 *                      each call.
+	 * @param cmdline       The commandline argument to be parsed.
+	 * @return The result, containing the config object.
+	 * @throws CmdlineParserException If any errors were detected.
+	 * @see CmdlineParser#parse(String...)
+	 */
+	public <T> ParseResult<T> parse(final ConfigFactory<T> configFactory, final String... cmdline) {
+		final T config = configFactory.createConfig();
+		if (config == null || !config.getClass().equals(configClass)) {
+			throw new IllegalArgumentException("The config factory must create instances of " + configClass.getName()
+				+ ", but created: " + config);
+		}
+		if (template.enablesDebugMode(cmdline)) {
+			// the debug mode is a setting of the parser, so use a parser of our own
+			final CmdlineParser parser = new CmdlineParser(template, config, true);
+			parser.parse(cmdline);
+			return new ParseResult<T>(config, parser.getParsedCommandName(), parser.getParsedCommandObject());
+		}
+		final ConfigBinding binding = new ConfigBinding(templateConfig, config, delegatePaths);
+		final ParsePlan plan = template.parseCompiled(binding, cmdline);
+		final String commandName = plan.parserCount() == 0 ? null : plan.getCommandName(0);
+		final Object commandObject;
+		try {
+			commandObject = commandName == null ? null : binding.target(template.getCommandObject(commandName));
+		} catch (final Exception e) {
+			// the delegate fields were already read at compile time
+			throw new IllegalStateException(e);
+		}
+		return new ParseResult<T>(config, commandName, commandObject);
+	}
+
+	/**
+	 * @return The model of the compiled configuration.
+	 */
+	public CmdlineModel getCmdlineModel() {
+		synchronized (template) {
+			return template.getCmdlineModel();
+		}
+	}
+
+	public void usage(final PrintStream output) {
+		synchronized (template) {
+			template.usage(output);
+		}
+	}
+
+	public String usageString() {
+		synchronized (template) {
+			return template.usageString();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "(configClass=" + configClass.getName() + ")";
+	}
+
+}
@@ -0,0 +1,95 @@
+package de.tototec.cmdoption;
+
+import java.lang.reflect.Field;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Maps the config objects a {@link CompiledCmdlineParser} was compiled with to
+ * the config objects of one parse.
+ * <p>
+ * The options of the compiled parser stay bound to the objects found at compile
+ * time. The corresponding objects of the fresh config object are found by
+ * following the same delegate fields, when the first of their options is
+ * applied. Lazily created delegates are created in the fresh config object.
+ */
+class ConfigBinding {
+
+	/**
+	 * The delegate field, which holds a delegate object found at compile time.
+	 */
+	static class DelegatePath {
+		/**
+		 * The object holding the field, or <code>null</code> if the owner is lazy.
+		 */
+		final Object ownerObject;
+		/**
+		 * The lazy owner, or <code>null</code>.
+		 */
+		final LazyDelegate owner;
+		final Field field;
+
+		DelegatePath(final Object ownerObject, final LazyDelegate owner, final Field field) {
+			this.ownerObject = ownerObject;
+			this.owner = owner;
+			this.field = field;
+		}
+	}
+
+	private final Map<Object, DelegatePath> paths;
+	/**
+	 * The already resolved objects, keyed by the compiled object or
+	 * {@link LazyDelegate}.
+	 */
+	private final Map<Object, Object> targets = new IdentityHashMap<Object, Object>();
+
+	/**
+	 * @param compiledConfig The config object the parser was compiled with.
+	 * @param config         The config object of this parse.
+	 * @param paths          The delegate fields of all delegate objects found at
+	 *                       compile time.
+	 */
+	ConfigBinding(final Object compiledConfig, final Object config, final Map<Object, DelegatePath> paths) {
+		this.paths = paths;
+		targets.put(compiledConfig, config);
+	}
+
+	/**
+	 * @param compiledObject A config or delegate object found at compile time.
+	 * @return The corresponding object of this parse.
+	 * @throws IllegalStateException if the object was not found at compile time
+	 *                               or its delegate field is <code>null</code>
+	 *                               now.
+	 */
+	Object target(final Object compiledObject) throws Exception {
+		Object target = targets.get(compiledObject);
+		if (target == null) {
+			final DelegatePath path = paths.get(compiledObject);
+			if (path == null) {
+				throw new IllegalStateException("Unknown config object: " + compiledObject);
+			}
+			final Object owner = path.owner == null ? target(path.ownerObject) : target(path.owner);
+			target = path.field.get(owner);
+			if (target == null) {
+				throw new IllegalStateException("The delegate field " + path.field
+					+ " is null, but was not when the parser was compiled");
+			}
+			targets.put(compiledObject, target);
+		}
+		return target;
+	}
+
+	/**
+	 * @return The lazily created delegate of this parse. It is created, if
+	 *         needed.
+	 */
+	Object target(final LazyDelegate lazy) throws Exception {
+		Object target = targets.get(lazy);
+		if (target == null) {
+			target = lazy.getIn(this);
+			targets.put(lazy, target);
+		}
+		return target;
+	}
+
+}
@@ -0,0 +1,16 @@
+package de.tototec.cmdoption;
+
+/**
+ * Creates fresh config objects for a {@link CompiledCmdlineParser}.
+ *
+ * @param <T> The type of the config object.
+ * @since 0.8.0
+ */
+public interface ConfigFactory<T> {
+
+	/**
+	 * @return A new config object, which was not yet used for parsing.
+	 */
+	T createConfig();
+
+}
@@ -2,9 +2,6 @@ package de.tototec.cmdoption;
 
 import java.io.PrintStream;
 import java.text.MessageFormat;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.MissingResourceException;
@@ -78,21 +75,8 @@ public class DefaultUsageFormatter2 implements UsageFormatter2 {
 
 	public void format(final PrintStream output, final CmdlineModel cmdlineModel) {
 
-		final ArrayList<OptionHandle> sortedOptions = new ArrayList<OptionHandle>(cmdlineModel.getOptions());
-		for (final Iterator<OptionHandle> it = sortedOptions.iterator(); it.hasNext();) {
-			if (it.next().isHidden()) {
-				it.remove();
-			}
-		}
-		Collections.sort(sortedOptions, new OptionHandle.OptionHandleComparator());
-
-		final ArrayList<CommandHandle> sortedCommands = new ArrayList<CommandHandle>(cmdlineModel.getCommands());
-		for (final Iterator<CommandHandle> it = sortedCommands.iterator(); it.hasNext();) {
-			if (it.next().isHidden()) {
-				it.remove();
-			}
-		}
-		Collections.sort(sortedCommands, new CommandHandle.CommandHandleComparator());
+		final List<OptionHandle> sortedOptions = cmdlineModel.getVisibleOptions();
+		final List<CommandHandle> sortedCommands = cmdlineModel.getVisibleCommands();
 
 		// About
 		if (cmdlineModel.getAboutLine() != null && cmdlineModel.getAboutLine().length() > 0) {
@@ -113,8 +97,15 @@ public class DefaultUsageFormatter2 implements UsageFormatter2 {
 			boolean cmdsHaveOptions = false;
 			boolean cmdsHaveParameter = false;
 			for (final CommandHandle cmd : sortedCommands) {
-				cmdsHaveOptions |= !cmd.getCmdlineParser().getCmdlineModel().getOptions().isEmpty();
-				cmdsHaveParameter |= cmd.getCmdlineParser().getCmdlineModel().getParameter() != null;
+				if (isUnloadedPlugin(cmd)) {
+					// use what the plugin command index tells
+					cmdsHaveOptions |= cmd.getPlugin().hasOptions();
+					cmdsHaveParameter |= cmd.getPlugin().hasParameter();
+				} else {
+					final CmdlineModel commandModel = cmd.getCmdlineParser().getCmdlineModel();
+					cmdsHaveOptions |= !commandModel.getOptions().isEmpty();
+					cmdsHaveParameter |= commandModel.getParameter() != null;
+				}
 			}
 			if (cmdsHaveOptions) {
 				output.append(" ").append(i18n.tr("[command options]"));
@@ -131,25 +122,22 @@ public class DefaultUsageFormatter2 implements UsageFormatter2 {
 
 		if (withCommandDetails) {
 			for (final CommandHandle command : sortedCommands) {
-				final ArrayList<OptionHandle> commandOptions = new ArrayList<OptionHandle>(command.getCmdlineParser()
-						.getCmdlineModel().getOptions());
-				for (final Iterator<OptionHandle> it = commandOptions.iterator(); it.hasNext();) {
-					if (it.next().isHidden()) {
-						it.remove();
-					}
+				if (isUnloadedPlugin(command)) {
+					// we do not load a plugin just to show its options
+					continue;
 				}
-				Collections.sort(commandOptions, new OptionHandle.OptionHandleComparator());
+				final CmdlineModel commandModel = command.getCmdlineParser().getCmdlineModel();
 
 				formatOptions(
 						output,
-						commandOptions,
+						commandModel.getVisibleOptions(),
 						"\n" + i18n.tr("Options for command:") + " "
 								+ FList.mkString(command.getNames(), ", "),
 								cmdlineModel.getResourceBundle());
 
 				formatParameter(
 						output,
-						command.getCmdlineParser().getCmdlineModel().getParameter(),
+						commandModel.getParameter(),
 						"\n" + i18n.tr("Parameter for command:") + " "
 								+ FList.mkString(command.getNames(), ", "),
 								cmdlineModel.getResourceBundle());
@@ -161,6 +149,14 @@ public class DefaultUsageFormatter2 implements UsageFormatter2 {
 				cmdlineModel.getResourceBundle());
 	}
 
+	/**
+	 * @return <code>true</code>, if the given command is a plugin command, whose
+	 *         class was not loaded yet.
+	 */
+	private static boolean isUnloadedPlugin(final CommandHandle command) {
+		return command.getPlugin() != null && !command.isCmdlineParserCreated();
+	}
+
 	protected void formatParameter(final PrintStream output, final OptionHandle parameter, final String title,
 			final ResourceBundle resourceBundle) {
 		if (parameter == null) {
@@ -0,0 +1,35 @@
+package de.tototec.cmdoption;
+
+/**
+ * Applies option values with the code generated into a
+ * {@link CmdOptionDescriptor}, and falls back to another accessor for elements
+ * not accessible from the generated code.
+ */
+class DescriptorElementAccessor implements ElementAccessor {
+
+	private final CmdOptionDescriptor descriptor;
+	private final int element;
+	private final ElementAccessor fallback;
+
+	DescriptorElementAccessor(final CmdOptionDescriptor descriptor, final int element,
+			final ElementAccessor fallback) {
+		this.descriptor = descriptor;
+		this.element = element;
+		this.fallback = fallback;
+	}
+
+	CmdOptionDescriptor getDescriptor() {
+		return descriptor;
+	}
+
+	public boolean apply(final Object config, final Object[] values) throws Exception {
+		return descriptor.apply(element, config, values) || fallback.apply(config, values);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "(descriptor=" + descriptor + ",element=" + element + ",fallback="
+				+ fallback + ")";
+	}
+
+}
@@ -0,0 +1,18 @@
+package de.tototec.cmdoption;
+
+/**
+ * Applies converted option values to the field or method of an option,
+ * bypassing the reflective write of the option handler.
+ *
+ * @see de.tototec.cmdoption.handler.CmdOptionValueHandler
+ */
+interface ElementAccessor {
+
+	/**
+	 * @return <code>true</code> if the values were applied, <code>false</code>
+	 *         if this accessor can not apply them and the caller needs to fall
+	 *         back to the option handler.
+	 */
+	boolean apply(Object config, Object[] values) throws Exception;
+
+}
@@ -0,0 +1,187 @@
+package de.tototec.cmdoption;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import de.tototec.cmdoption.handler.AddToCollectionHandler;
+import de.tototec.cmdoption.handler.BooleanHandler;
+import de.tototec.cmdoption.handler.BooleanOptionHandler;
+import de.tototec.cmdoption.handler.ByteHandler;
+import de.tototec.cmdoption.handler.CmdOptionHandler;
+import de.tototec.cmdoption.handler.CmdOptionValueHandler;
+import de.tototec.cmdoption.handler.EnumHandler;
+import de.tototec.cmdoption.handler.IntegerHandler;
+import de.tototec.cmdoption.handler.LongHandler;
+import de.tototec.cmdoption.handler.PutIntoMapHandler;
+import de.tototec.cmdoption.handler.StringFieldHandler;
+import de.tototec.cmdoption.handler.StringMethodHandler;
+import de.tototec.cmdoption.handler.UrlHandler;
+
+/**
+ * Memoizes the handler found for an option element.
+ * <p>
+ * The key consists of the element kind, the declared type (field type or
+ * method parameter types), the final modifier of fields, the argument count
+ * and the requested handler class. That is all the built-in handlers look at
+ * in {@link CmdOptionHandler#canHandle(AccessibleObject, int)}. Other handlers
+ * may decide on anything else, so a resolution is only memoized, if no other
+ * handler was asked.
+ * <p>
+ * The cache must be cleared whenever the handler registry changes.
+ */
+class HandlerCache {
+
+	@SuppressWarnings("deprecation")
+	private static final Set<Class<?>> builtinHandlers = new HashSet<Class<?>>(Arrays.<Class<?>> asList(
+		AddToCollectionHandler.class,
+		de.tototec.cmdoption.handler.BooleanFieldHandler.class,
+		BooleanHandler.class,
+		BooleanOptionHandler.class,
+		ByteHandler.class,
+		EnumHandler.class,
+		IntegerHandler.class,
+		LongHandler.class,
+		PutIntoMapHandler.class,
+		StringFieldHandler.class,
+		StringMethodHandler.class,
+		UrlHandler.class));
+
+	/**
+	 * The result of {@link #isValueHandler(CmdOptionHandler)} per handler class.
+	 */
+	private static final Map<Class<?>, Boolean> valueHandlers = new WeakHashMap<Class<?>, Boolean>();
+
+	private final Map<Key, CmdOptionHandler> handlers = new HashMap<Key, CmdOptionHandler>();
+
+	/**
+	 * @return <code>true</code>, if the decision of the given handler class only
+	 *         depends on the parts of the {@link Key}.
+	 */
+	static boolean isMemoizable(final Class<?> handlerType) {
+		return builtinHandlers.contains(handlerType);
+	}
+
+	/**
+	 * Decide, whether the values converted by the given handler may be applied
+	 * with an {@link ElementAccessor} instead of calling
+	 * {@link CmdOptionHandler#applyParams(Object, AccessibleObject, String[], String)}.
+	 * <p>
+	 * This is only the case, if <code>applyParams</code> is implemented by a
+	 * class which itself implements {@link CmdOptionValueHandler}. A subclass of
+	 * e.g. {@link IntegerHandler}, which overrides <code>applyParams</code>,
+	 * expects it to be called, so its options are applied with the handler.
+	 */
+	static boolean isValueHandler(final CmdOptionHandler handler) {
+		if (!(handler instanceof CmdOptionValueHandler)) {
+			return false;
+		}
+		final Class<?> handlerType = handler.getClass();
+		synchronized (valueHandlers) {
+			Boolean valueHandler = valueHandlers.get(handlerType);
+			if (valueHandler == null) {
+				valueHandler = Boolean.FALSE;
+				try {
+					final Class<?> implementor = handlerType.getMethod("applyParams", Object.class,
+						AccessibleObject.class, String[].class, String.class).getDeclaringClass();
+					valueHandler = Arrays.asList(implementor.getInterfaces()).contains(CmdOptionValueHandler.class);
+				} catch (final NoSuchMethodException e) {
+					// not possible for a CmdOptionHandler, keep the handler
+				} catch (final SecurityException e) {
+					// can not check it, keep the handler
+				}
+				valueHandlers.put(handlerType, valueHandler);
+			}
+			return valueHandler.booleanValue();
+		}
+	}
+
+	/**
+	 * @param requestedHandler The handler class requested in the annotation, or
+	 *                         <code>null</code>.
+	 * @return The key for the given element, or <code>null</code> if the element
+	 *         is neither a field nor a method.
+	 */
+	static Key keyOf(final AccessibleObject element, final int argCount,
+			final Class<? extends CmdOptionHandler> requestedHandler) {
+		final Class<?> requested = CmdOptionHandler.class.equals(requestedHandler) ? null : requestedHandler;
+		if (element instanceof Field) {
+			final Field field = (Field) element;
+			return new Key(false, new Class<?>[] { field.getType() }, Modifier.isFinal(field.getModifiers()),
+				argCount, requested);
+		}
+		if (element instanceof Method) {
+			return new Key(true, ((Method) element).getParameterTypes(), false, argCount, requested);
+		}
+		return null;
+	}
+
+	synchronized CmdOptionHandler get(final Key key) {
+		return handlers.get(key);
+	}
+
+	synchronized void put(final Key key, final CmdOptionHandler handler) {
+		handlers.put(key, handler);
+	}
+
+	synchronized void clear() {
+		handlers.clear();
+	}
+
+	static class Key {
+		private final boolean method;
+		private final Class<?>[] types;
+		private final boolean isFinal;
+		private final int argCount;
+		private final Class<?> requestedHandler;
+		private final int hashCode;
+
+		Key(final boolean method, final Class<?>[] types, final boolean isFinal, final int argCount,
+				final Class<?> requestedHandler) {
+			this.method = method;
+			this.types = types;
+			this.isFinal = isFinal;
+			this.argCount = argCount;
+			this.requestedHandler = requestedHandler;
+			int hash = Arrays.hashCode(types);
+			hash = 31 * hash + (method ? 1 : 0);
+			hash = 31 * hash + (isFinal ? 1 : 0);
+			hash = 31 * hash + argCount;
+			hash = 31 * hash + (requestedHandler == null ? 0 : requestedHandler.hashCode());
+			this.hashCode = hash;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return hashCode == other.hashCode && method == other.method && isFinal == other.isFinal
+				&& argCount == other.argCount && requestedHandler == other.requestedHandler
+				&& Arrays.equals(types, other.types);
+		}
+
+		@Override
+		public String toString() {
+			return getClass().getSimpleName() + "(method=" + method + ",types=" + Arrays.toString(types) + ",final="
+				+ isFinal + ",argCount=" + argCount + ",requestedHandler=" + requestedHandler + ")";
+		}
+	}
+
+}
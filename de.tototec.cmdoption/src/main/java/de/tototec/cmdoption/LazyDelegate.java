@@ -0,0 +1,79 @@
+package de.tototec.cmdoption;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+
+/**
+ * A delegate object, which is created when the first of its options is
+ * applied, see {@link CmdOptionDelegate#lazy()}.
+ * <p>
+ * The created object is stored in the delegate field of its owner. The owner
+ * may be a lazily created delegate itself.
+ */
+class LazyDelegate {
+
+	private final Object ownerObject;
+	private final LazyDelegate owner;
+	private final Field field;
+	private final Constructor<?> constructor;
+	private Object instance;
+
+	/**
+	 * @param ownerObject The object holding the delegate field, or
+	 *                    <code>null</code> if the owner is lazy.
+	 * @param owner       The lazy owner, or <code>null</code> if the owner object
+	 *                    is given.
+	 * @param field       The delegate field, which is already accessible.
+	 * @param constructor The accessible no-arg constructor of the delegate.
+	 */
+	LazyDelegate(final Object ownerObject, final LazyDelegate owner, final Field field,
+			final Constructor<?> constructor) {
+		this.ownerObject = ownerObject;
+		this.owner = owner;
+		this.field = field;
+		this.constructor = constructor;
+	}
+
+	/**
+	 * @return The delegate object. It is created and stored in the delegate field,
+	 *         if the field is still <code>null</code>.
+	 */
+	synchronized Object get() throws Exception {
+		if (instance == null) {
+			instance = getOrCreateIn(owner == null ? ownerObject : owner.get());
+		}
+		return instance;
+	}
+
+	/**
+	 * @return The delegate object of the owner bound by the given binding. It is
+	 *         created and stored in the delegate field, if the field is still
+	 *         <code>null</code>. This delegate is not changed.
+	 */
+	Object getIn(final ConfigBinding binding) throws Exception {
+		return getOrCreateIn(owner == null ? binding.target(ownerObject) : binding.target(owner));
+	}
+
+	private Object getOrCreateIn(final Object ownerInstance) throws Exception {
+		Object value = field.get(ownerInstance);
+		if (value == null) {
+			value = constructor.newInstance();
+			field.set(ownerInstance, value);
+		}
+		return value;
+	}
+
+	/**
+	 * @return The delegate object, or <code>null</code> if it was not created
+	 *         yet.
+	 */
+	synchronized Object getIfCreated() {
+		return instance;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "(field=" + field + ",created=" + (getIfCreated() != null) + ")";
+	}
+
+}
@@ -0,0 +1,47 @@
+package de.tototec.cmdoption;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * The name and parameter types of a method, as relevant to decide whether a
+ * method overrides another one. Used as hash key while scanning class
+ * hierarchies.
+ */
+class MethodSignature {
+
+	private final String name;
+	private final Class<?>[] parameterTypes;
+	private final int hashCode;
+
+	MethodSignature(final Method method) {
+		this.name = method.getName();
+		this.parameterTypes = method.getParameterTypes();
+		this.hashCode = 31 * name.hashCode() + Arrays.hashCode(parameterTypes);
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof MethodSignature)) {
+			return false;
+		}
+		final MethodSignature other = (MethodSignature) obj;
+		return hashCode == other.hashCode && name.equals(other.name)
+			&& Arrays.equals(parameterTypes, other.parameterTypes);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "(name=" + name + ",parameterTypes=" + Arrays.toString(parameterTypes)
+			+ ")";
+	}
+
+}
@@ -0,0 +1,153 @@
+package de.tototec.cmdoption;
+
+/**
+ * Defines an option or the main parameter without annotations and reflection.
+ * <p>
+ * The parsed arguments are passed to an {@link OptionSink} instead of a field
+ * or method. The settings and their defaults are the same as those of
+ * {@link CmdOption}.
+ *
+ * <pre>
+ * cp.addOption(OptionBuilder.option("-v", "--verbose")
+ * 	.description("Be verbose")
+ * 	.sink(new OptionSink() {
+ * 		public void apply(String optionName, String[] args) {
+ * 			verbose = true;
+ * 		}
+ * 	}).build());
+ * </pre>
+ *
+ * @see CmdlineParser#addOption(OptionHandle...)
+ * @see CommandBuilder
+ * @since 0.8.0
+ */
+public class OptionBuilder {
+
+	private final String[] names;
+	private String description = "";
+	private String[] args = {};
+	private int minCount = 0;
+	private int maxCount = 1;
+	private boolean help = false;
+	private boolean hidden = false;
+	private String[] requires = {};
+	private String[] conflictsWith = {};
+	private OptionSink sink;
+
+	private OptionBuilder(final String[] names) {
+		this.names = names;
+	}
+
+	/**
+	 * Start the definition of an option.
+	 *
+	 * @param names The names of the option.
+	 * @see CmdOption#names()
+	 */
+	public static OptionBuilder option(final String... names) {
+		if (names == null || names.length == 0) {
+			throw new IllegalArgumentException("An option needs at least one name. Use parameter() instead.");
+		}
+		return new OptionBuilder(names.clone());
+	}
+
+	/**
+	 * Start the definition of the main parameter.
+	 *
+	 * @param args The names of the arguments of the parameter.
+	 * @see CmdOption#args()
+	 */
+	public static OptionBuilder parameter(final String... args) {
+		return new OptionBuilder(new String[0]).args(args);
+	}
+
+	/**
+	 * @see CmdOption#description()
+	 */
+	public OptionBuilder description(final String description) {
+		this.description = description == null ? "" : description;
+		return this;
+	}
+
+	/**
+	 * @see CmdOption#args()
+	 */
+	public OptionBuilder args(final String... args) {
+		this.args = args == null ? new String[0] : args.clone();
+		return this;
+	}
+
+	/**
+	 * @see CmdOption#minCount()
+	 */
+	public OptionBuilder minCount(final int minCount) {
+		this.minCount = minCount;
+		return this;
+	}
+
+	/**
+	 * @see CmdOption#maxCount()
+	 */
+	public OptionBuilder maxCount(final int maxCount) {
+		this.maxCount = maxCount;
+		return this;
+	}
+
+	/**
+	 * Ignored for the main parameter.
+	 *
+	 * @see CmdOption#isHelp()
+	 */
+	public OptionBuilder isHelp(final boolean help) {
+		this.help = help;
+		return this;
+	}
+
+	/**
+	 * @see CmdOption#hidden()
+	 */
+	public OptionBuilder hidden(final boolean hidden) {
+		this.hidden = hidden;
+		return this;
+	}
+
+	/**
+	 * @see CmdOption#requires()
+	 */
+	public OptionBuilder requires(final String... requires) {
+		this.requires = requires == null ? new String[0] : requires.clone();
+		return this;
+	}
+
+	/**
+	 * @see CmdOption#conflictsWith()
+	 */
+	public OptionBuilder conflictsWith(final String... conflictsWith) {
+		this.conflictsWith = conflictsWith == null ? new String[0] : conflictsWith.clone();
+		return this;
+	}
+
+	/**
+	 * @param sink Receives the arguments of each occurrence of the option.
+	 */
+	public OptionBuilder sink(final OptionSink sink) {
+		this.sink = sink;
+		return this;
+	}
+
+	/**
+	 * @return The option, to be added with
+	 *         {@link CmdlineParser#addOption(OptionHandle...)} or
+	 *         {@link CommandBuilder#option(OptionHandle...)}.
+	 * @throws IllegalStateException if no sink was given.
+	 */
+	public OptionHandle build() {
+		if (sink == null) {
+			throw new IllegalStateException("No sink given for option: " + (names.length == 0 ? "<parameter>"
+				: names[0]));
+		}
+		return new OptionHandle(names.clone(), description, new SinkHandler(sink), null, null, args.clone(),
+			minCount, maxCount, names.length > 0 && help, hidden, requires.clone(), conflictsWith.clone());
+	}
+
+}
@@ -2,19 +2,18 @@ package de.tototec.cmdoption;
 
 import java.lang.reflect.AccessibleObject;
 import java.util.Comparator;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import de.tototec.cmdoption.handler.CmdOptionHandler;
 import de.tototec.cmdoption.internal.FList;
+import de.tototec.cmdoption.internal.StringTable;
 
 public class OptionHandle {
 
-	private final String[] names;
+	private String[] names;
 	private final String description;
 	private final CmdOptionHandler cmdOptionHandler;
 	private final AccessibleObject element;
-	private final String[] args;
+	private String[] args;
 	private final int minCount;
 	private final int maxCount;
 	private final boolean help;
@@ -22,6 +21,8 @@ public class OptionHandle {
 	private final boolean hidden;
 	private String[] requires;
 	private String[] conflictsWith;
+	private ElementAccessor accessor;
+	private LazyDelegate lazyDelegate;
 
 	public OptionHandle(
 			final String[] names,
@@ -62,7 +63,19 @@ public class OptionHandle {
 		return cmdOptionHandler;
 	}
 
+	/**
+	 * @return A copy of the argument names, as the array is shared with other
+	 *         options.
+	 */
 	public String[] getArgs() {
+		return copy(args);
+	}
+
+	/**
+	 * @return The shared array of the argument names, which must not be
+	 *         modified.
+	 */
+	String[] sharedArgs() {
 		return args;
 	}
 
@@ -78,8 +91,29 @@ public class OptionHandle {
 		return maxCount;
 	}
 
+	/**
+	 * @return The config object. For options of lazily created delegates (see
+	 *         {@link CmdOptionDelegate#lazy()}), this is <code>null</code> until
+	 *         the delegate was created.
+	 */
 	public Object getObject() {
-		return object;
+		return lazyDelegate == null ? object : lazyDelegate.getIfCreated();
+	}
+
+	/**
+	 * @return The config object to apply the option to. A lazily created delegate
+	 *         is created now.
+	 */
+	Object getTarget() throws Exception {
+		return lazyDelegate == null ? object : lazyDelegate.get();
+	}
+
+	/**
+	 * @return The config object of the given binding to apply the option to. A
+	 *         lazily created delegate is created in the bound config object.
+	 */
+	Object getTarget(final ConfigBinding binding) throws Exception {
+		return lazyDelegate == null ? binding.target(object) : binding.target(lazyDelegate);
 	}
 
 	public AccessibleObject getElement() {
@@ -94,14 +128,68 @@ public class OptionHandle {
 		return help;
 	}
 
+	/**
+	 * @return A copy of the names of the required options, as the array is
+	 *         shared with other options.
+	 */
 	public String[] getRequires() {
+		return copy(requires);
+	}
+
+	/**
+	 * @return The shared array of the names of the required options, which must
+	 *         not be modified.
+	 */
+	String[] sharedRequires() {
 		return requires;
 	}
 
+	/**
+	 * @return A copy of the names of the conflicting options, as the array is
+	 *         shared with other options.
+	 */
 	public String[] getConflictsWith() {
+		return copy(conflictsWith);
+	}
+
+	/**
+	 * @return The shared array of the names of the conflicting options, which
+	 *         must not be modified.
+	 */
+	String[] sharedConflictsWith() {
 		return conflictsWith;
 	}
 
+	private static String[] copy(final String[] array) {
+		return array == null || array.length == 0 ? array : array.clone();
+	}
+
+	ElementAccessor getAccessor() {
+		return accessor;
+	}
+
+	void setAccessor(final ElementAccessor accessor) {
+		this.accessor = accessor;
+	}
+
+	void setLazyDelegate(final LazyDelegate lazyDelegate) {
+		this.lazyDelegate = lazyDelegate;
+	}
+
+	/**
+	 * Replace the argument names and the required and conflicting option names
+	 * with the equal instances of the given table, so that many options share
+	 * them. Empty name arrays are replaced by a shared one.
+	 */
+	void share(final StringTable table) {
+		if (names != null && names.length == 0) {
+			names = StringTable.EMPTY;
+		}
+		args = table.share(args);
+		requires = table.share(requires);
+		conflictsWith = table.share(conflictsWith);
+	}
+
 	public static class OptionHandleComparator implements Comparator<OptionHandle> {
 		public int compare(final OptionHandle o1, final OptionHandle o2) {
 			// TODO: check for null and zero names
@@ -109,12 +197,7 @@ public class OptionHandle {
 		}
 
 		public String sanitizeString(final String string) {
-			final Pattern pattern = Pattern.compile("^[^A-Za-z0-9]*(.*)$");
-			final Matcher matcher = pattern.matcher(string);
-			if (matcher.matches()) {
-				return matcher.group(1);
-			}
-			return string;
+			return CmdlineModel.sortKey(string);
 		}
 	}
 
@@ -0,0 +1,164 @@
+package de.tototec.cmdoption;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.tototec.cmdoption.internal.NameIndex;
+
+/**
+ * The options and the main parameter of a parser, numbered by their ordinal,
+ * which is their position in the declaration order, with the parameter last.
+ * <p>
+ * Parsing counts the options in an array indexed by ordinal. The required and
+ * conflicting options of each option are compiled into bit sets of ordinals,
+ * so the validation only looks at the given options and the options with a
+ * minimal count.
+ */
+class OptionOrdinals {
+
+	private final OptionHandle[] handles;
+	/**
+	 * The ordinal of each name of the name index, by its position in the index.
+	 */
+	private final int[] nameOrdinals;
+	private final int parameterOrdinal;
+	/**
+	 * The ordinals of the options with a minimal count, in ascending order.
+	 */
+	private final int[] minCountOrdinals;
+	/**
+	 * The required options of each option, or <code>null</code>, if none.
+	 */
+	private final BitSet[] requires;
+	/**
+	 * The conflicting options of each option, or <code>null</code>, if none.
+	 */
+	private final BitSet[] conflicts;
+
+	OptionOrdinals(final List<OptionHandle> options, final OptionHandle parameter,
+			final NameIndex<OptionHandle> optionNames) {
+		final int size = options.size() + (parameter == null ? 0 : 1);
+		handles = options.toArray(new OptionHandle[size]);
+		parameterOrdinal = parameter == null ? -1 : options.size();
+		if (parameter != null) {
+			handles[parameterOrdinal] = parameter;
+		}
+
+		final Map<OptionHandle, Integer> ordinals = new IdentityHashMap<OptionHandle, Integer>(size);
+		for (int i = 0; i < size; ++i) {
+			ordinals.put(handles[i], i);
+		}
+		nameOrdinals = new int[optionNames.size()];
+		for (int i = 0; i < nameOrdinals.length; ++i) {
+			nameOrdinals[i] = ordinals.get(optionNames.valueAt(i));
+		}
+
+		final List<Integer> minCounts = new ArrayList<Integer>();
+		requires = new BitSet[size];
+		conflicts = new BitSet[size];
+		for (int i = 0; i < size; ++i) {
+			if (handles[i].getMinCount() > 0) {
+				minCounts.add(i);
+			}
+			requires[i] = ordinalsOf(handles[i].sharedRequires(), optionNames);
+			conflicts[i] = ordinalsOf(handles[i].sharedConflictsWith(), optionNames);
+		}
+		minCountOrdinals = new int[minCounts.size()];
+		for (int i = 0; i < minCountOrdinals.length; ++i) {
+			minCountOrdinals[i] = minCounts.get(i);
+		}
+	}
+
+	/**
+	 * @return The ordinals of the given option names, unknown names are ignored.
+	 *         <code>null</code>, if there are none.
+	 */
+	private BitSet ordinalsOf(final String[] names, final NameIndex<OptionHandle> optionNames) {
+		BitSet result = null;
+		for (final String name : names) {
+			final int index = optionNames.indexOf(name);
+			if (index >= 0) {
+				if (result == null) {
+					result = new BitSet();
+				}
+				result.set(nameOrdinals[index]);
+			}
+		}
+		return result;
+	}
+
+	int size() {
+		return handles.length;
+	}
+
+	OptionHandle getHandle(final int ordinal) {
+		return handles[ordinal];
+	}
+
+	/**
+	 * @param nameIndex The position of the name in the name index.
+	 */
+	int ordinalOfName(final int nameIndex) {
+		return nameOrdinals[nameIndex];
+	}
+
+	/**
+	 * @return The ordinal of the main parameter or <code>-1</code>.
+	 */
+	int getParameterOrdinal() {
+		return parameterOrdinal;
+	}
+
+	/**
+	 * @param used   The ordinals of the given options.
+	 * @param counts The count of each option by ordinal.
+	 * @return The smallest ordinal of an option given too often or too rarely, or
+	 *         <code>-1</code>.
+	 */
+	int firstInvalidCount(final BitSet used, final int[] counts) {
+		int invalid = -1;
+		for (int o = used.nextSetBit(0); o >= 0; o = used.nextSetBit(o + 1)) {
+			final int maxCount = handles[o].getMaxCount();
+			if (counts[o] < handles[o].getMinCount() || (maxCount > 0 && counts[o] > maxCount)) {
+				invalid = o;
+				break;
+			}
+		}
+		for (final int o : minCountOrdinals) {
+			if (invalid >= 0 && o > invalid) {
+				break;
+			}
+			if (counts[o] < handles[o].getMinCount()) {
+				return o;
+			}
+		}
+		return invalid;
+	}
+
+	/**
+	 * @return <code>true</code>, if all options required by the option are given.
+	 */
+	boolean requiredGiven(final int ordinal, final BitSet used) {
+		final BitSet required = requires[ordinal];
+		if (required != null) {
+			for (int r = required.nextSetBit(0); r >= 0; r = required.nextSetBit(r + 1)) {
+				if (!used.get(r)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return <code>true</code>, if an option conflicting with the option is
+	 *         given.
+	 */
+	boolean conflictGiven(final int ordinal, final BitSet used) {
+		return conflicts[ordinal] != null && conflicts[ordinal].intersects(used);
+	}
+
+}
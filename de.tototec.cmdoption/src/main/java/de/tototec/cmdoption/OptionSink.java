@@ -0,0 +1,24 @@
+package de.tototec.cmdoption;
+
+import de.tototec.cmdoption.handler.CmdOptionHandlerException;
+
+/**
+ * Receives the arguments of an option defined with {@link OptionBuilder}.
+ *
+ * @since 0.8.0
+ */
+public interface OptionSink {
+
+	/**
+	 * Called for each occurrence of the option on the command line.
+	 *
+	 * @param optionName The name of the option as given on the command line. For
+	 *                   the main parameter, this is its first argument.
+	 * @param args       The arguments of the option.
+	 * @throws Exception If the arguments could not be applied. A
+	 *                   {@link CmdOptionHandlerException} is reported with its
+	 *                   (localized) message.
+	 */
+	void apply(String optionName, String[] args) throws Exception;
+
+}
@@ -0,0 +1,88 @@
+package de.tototec.cmdoption;
+
+import de.tototec.cmdoption.handler.CmdOptionHandler;
+
+/**
+ * The settings of an option, as declared by a {@link CmdOption} annotation.
+ * <p>
+ * Holding them independently of the annotation allows to restore them from a
+ * {@link ScanSnapshot} without reading any annotation.
+ */
+class OptionSpec {
+
+	private final String[] names;
+	private final String description;
+	private final String[] args;
+	private final Class<? extends CmdOptionHandler> handler;
+	private final int minCount;
+	private final int maxCount;
+	private final boolean isHelp;
+	private final boolean hidden;
+	private final String[] requires;
+	private final String[] conflictsWith;
+
+	OptionSpec(final String[] names, final String description, final String[] args,
+			final Class<? extends CmdOptionHandler> handler, final int minCount, final int maxCount,
+			final boolean isHelp, final boolean hidden, final String[] requires, final String[] conflictsWith) {
+		this.names = names;
+		this.description = description;
+		this.args = args;
+		this.handler = handler;
+		this.minCount = minCount;
+		this.maxCount = maxCount;
+		this.isHelp = isHelp;
+		this.hidden = hidden;
+		this.requires = requires;
+		this.conflictsWith = conflictsWith;
+	}
+
+	static OptionSpec of(final CmdOption anno) {
+		return new OptionSpec(anno.names(), anno.description(), anno.args(), anno.handler(), anno.minCount(),
+			anno.maxCount(), anno.isHelp(), anno.hidden(), anno.requires(), anno.conflictsWith());
+	}
+
+	public String[] names() {
+		return names;
+	}
+
+	public String description() {
+		return description;
+	}
+
+	public String[] args() {
+		return args;
+	}
+
+	/**
+	 * @return The requested handler class, or {@link CmdOptionHandler} if any
+	 *         registered handler can be used.
+	 */
+	public Class<? extends CmdOptionHandler> handler() {
+		return handler;
+	}
+
+	public int minCount() {
+		return minCount;
+	}
+
+	public int maxCount() {
+		return maxCount;
+	}
+
+	public boolean isHelp() {
+		return isHelp;
+	}
+
+	public boolean hidden() {
+		return hidden;
+	}
+
+	public String[] requires() {
+		return requires;
+	}
+
+	public String[] conflictsWith() {
+		return conflictsWith;
+	}
+
+}
@@ -0,0 +1,193 @@
+package de.tototec.cmdoption;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The options and parameters found while parsing a command line, in the order
+ * they have to be applied.
+ * <p>
+ * A plan is recorded and validated by the parser and all selected command
+ * parsers, before anything is applied to the config objects. The steps of each
+ * parser are contiguous and are followed by the steps of the command parser
+ * selected by it.
+ * <p>
+ * The arguments of all steps are kept in one array, each step refers to its
+ * range, so that a long command line does not leave an array per option
+ * behind until it is applied.
+ * <p>
+ * An incremental plan is applied and cleared by the parser after each option,
+ * so it only holds the steps not applied yet.
+ */
+class ParsePlan {
+
+	/**
+	 * If <code>false</code>, e.g. in a dry run, the steps are not recorded.
+	 */
+	private final boolean recordSteps;
+	private final boolean incremental;
+	/**
+	 * Binds the config objects of a compiled parser to those of this parse, or
+	 * <code>null</code> to apply to the config objects of the parsers.
+	 */
+	private final ConfigBinding binding;
+
+	private OptionHandle[] handles = new OptionHandle[16];
+	private String[] params = new String[16];
+	/**
+	 * The index of the first argument of each step in {@link #args}.
+	 */
+	private int[] argsStarts = new int[16];
+	private int size;
+
+	private String[] args = new String[16];
+	private int argsSize;
+
+	private final List<CmdlineParser> parsers = new ArrayList<CmdlineParser>();
+	private final List<String> commandNames = new ArrayList<String>();
+	/**
+	 * The index of the first step of each parser.
+	 */
+	private final List<Integer> firstSteps = new ArrayList<Integer>();
+
+	ParsePlan(final boolean recordSteps, final boolean incremental, final ConfigBinding binding) {
+		this.recordSteps = recordSteps;
+		this.incremental = incremental;
+		this.binding = binding;
+	}
+
+	/**
+	 * @return The binding of a compiled parser, or <code>null</code>.
+	 */
+	ConfigBinding getBinding() {
+		return binding;
+	}
+
+	/**
+	 * @return <code>true</code>, if the steps should be applied while parsing.
+	 */
+	boolean isIncremental() {
+		return incremental;
+	}
+
+	/**
+	 * Remove all recorded steps, e.g. after they were applied. The recorded
+	 * parsers and their selected commands are kept.
+	 */
+	void clearSteps() {
+		Arrays.fill(handles, 0, size, null);
+		Arrays.fill(params, 0, size, null);
+		Arrays.fill(args, 0, argsSize, null);
+		size = 0;
+		argsSize = 0;
+		for (int i = 0; i < firstSteps.size(); ++i) {
+			firstSteps.set(i, 0);
+		}
+	}
+
+	/**
+	 * Start recording the steps of the given parser.
+	 */
+	void startParser(final CmdlineParser parser) {
+		parsers.add(parser);
+		commandNames.add(null);
+		firstSteps.add(size);
+	}
+
+	/**
+	 * Record the command name selected by the current parser.
+	 */
+	void selectCommand(final String commandName) {
+		commandNames.set(commandNames.size() - 1, commandName);
+	}
+
+	/**
+	 * Record an option or parameter of the current parser. Its arguments are
+	 * added with {@link #addArg(String)}.
+	 *
+	 * @param handle The option or parameter.
+	 * @param param The command line element which selected the option.
+	 */
+	void addStep(final OptionHandle handle, final String param) {
+		if (!recordSteps) {
+			return;
+		}
+		if (size == handles.length) {
+			final int capacity = size * 2;
+			handles = Arrays.copyOf(handles, capacity);
+			params = Arrays.copyOf(params, capacity);
+			argsStarts = Arrays.copyOf(argsStarts, capacity);
+		}
+		handles[size] = handle;
+		params[size] = param;
+		argsStarts[size] = argsSize;
+		++size;
+	}
+
+	/**
+	 * Add an argument to the last recorded step.
+	 */
+	void addArg(final String arg) {
+		if (!recordSteps) {
+			return;
+		}
+		if (argsSize == args.length) {
+			args = Arrays.copyOf(args, argsSize * 2);
+		}
+		args[argsSize++] = arg;
+	}
+
+	int parserCount() {
+		return parsers.size();
+	}
+
+	CmdlineParser getParser(final int parserIndex) {
+		return parsers.get(parserIndex);
+	}
+
+	/**
+	 * @return The command name selected by the parser or <code>null</code>.
+	 */
+	String getCommandName(final int parserIndex) {
+		return commandNames.get(parserIndex);
+	}
+
+	int getFirstStep(final int parserIndex) {
+		return firstSteps.get(parserIndex);
+	}
+
+	/**
+	 * @return The index after the last step of the parser.
+	 */
+	int getEndStep(final int parserIndex) {
+		return parserIndex + 1 < firstSteps.size() ? firstSteps.get(parserIndex + 1) : size;
+	}
+
+	OptionHandle getHandle(final int step) {
+		return handles[step];
+	}
+
+	/**
+	 * @return A new array with the arguments of the step.
+	 */
+	String[] getArgs(final int step) {
+		final int end = step + 1 < size ? argsStarts[step + 1] : argsSize;
+		return Arrays.copyOfRange(args, argsStarts[step], end);
+	}
+
+	String getParam(final int step) {
+		return params[step];
+	}
+
+	int size() {
+		return size;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "(parsers=" + parsers.size() + ",steps=" + size + ",commands="
+			+ commandNames + ")";
+	}
+
+}
@@ -0,0 +1,55 @@
+package de.tototec.cmdoption;
+
+/**
+ * The result of {@link CompiledCmdlineParser#parse(ConfigFactory, String...)}.
+ *
+ * @param <T> The type of the config object.
+ * @since 0.8.0
+ */
+public class ParseResult<T> {
+
+	private final T config;
+	private final String parsedCommandName;
+	private final Object parsedCommandObject;
+
+	public ParseResult(final T config, final String parsedCommandName, final Object parsedCommandObject) {
+		this.config = config;
+		this.parsedCommandName = parsedCommandName;
+		this.parsedCommandObject = parsedCommandObject;
+	}
+
+	/**
+	 * @return The config object, to which the command line was applied.
+	 */
+	public T getConfig() {
+		return config;
+	}
+
+	/**
+	 * @return The name of the parsed command or <code>null</code> if no command
+	 *         was parsed.
+	 * @see CmdlineParser#getParsedCommandName()
+	 */
+	public String getParsedCommandName() {
+		return parsedCommandName;
+	}
+
+	/**
+	 * @return The object of the parsed command or <code>null</code> if no command
+	 *         was parsed.
+	 * @see CmdlineParser#getParsedCommandObject()
+	 */
+	public Object getParsedCommandObject() {
+		return parsedCommandObject;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() +
+			"(config=" + config +
+			",parsedCommandName=" + parsedCommandName +
+			",parsedCommandObject=" + parsedCommandObject +
+			")";
+	}
+
+}
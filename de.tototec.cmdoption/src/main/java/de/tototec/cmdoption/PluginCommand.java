@@ -0,0 +1,212 @@
+package de.tototec.cmdoption;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Constructor;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import de.tototec.cmdoption.internal.I18n;
+import de.tototec.cmdoption.internal.I18n.PreparedI18n;
+import de.tototec.cmdoption.internal.I18nFactory;
+
+/**
+ * A command listed in a plugin command index, see {@link CmdCommandPlugin}.
+ * The command class is loaded and instantiated not before
+ * {@link #getInstance()} is called.
+ */
+class PluginCommand {
+
+	/**
+	 * The location of the index in each JAR, as written by the annotation
+	 * processor.
+	 */
+	static final String INDEX = "META-INF/cmdoption/plugin-commands";
+
+	private static final String HEADER = "# CmdOption plugin commands 1";
+
+	private final ClassLoader classLoader;
+	private final String className;
+	private final String[] names;
+	private final String description;
+	private final boolean hidden;
+	private final boolean hasOptions;
+	private final boolean hasParameter;
+	private Object instance;
+
+	PluginCommand(final ClassLoader classLoader, final String className, final String[] names,
+			final String description, final boolean hidden, final boolean hasOptions, final boolean hasParameter) {
+		this.classLoader = classLoader;
+		this.className = className;
+		this.names = names;
+		this.description = description;
+		this.hidden = hidden;
+		this.hasOptions = hasOptions;
+		this.hasParameter = hasParameter;
+	}
+
+	/**
+	 * Read all plugin command indexes visible to the given class loader.
+	 *
+	 * @throws CmdlineParserException if an index could not be read or is
+	 *                                invalid.
+	 */
+	static List<PluginCommand> readIndexes(final ClassLoader classLoader) {
+		final I18n i18n = I18nFactory.getI18n(PluginCommand.class);
+		final List<PluginCommand> commands = new ArrayList<PluginCommand>();
+		// a JAR might be visible more than once
+		final Set<URL> urls = new LinkedHashSet<URL>();
+		try {
+			final Enumeration<URL> resources = classLoader.getResources(INDEX);
+			while (resources.hasMoreElements()) {
+				urls.add(resources.nextElement());
+			}
+			for (final URL url : urls) {
+				final BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), "UTF-8"));
+				try {
+					final String header = reader.readLine();
+					if (!HEADER.equals(header)) {
+						final PreparedI18n msg = i18n.preparetr("Unsupported plugin command index: {0}", url);
+						throw new CmdlineParserException(msg.notr(), msg.tr());
+					}
+					String line;
+					while ((line = reader.readLine()) != null) {
+						if (line.length() > 0) {
+							commands.add(parse(classLoader, line, url, i18n));
+						}
+					}
+				} finally {
+					reader.close();
+				}
+			}
+		} catch (final IOException e) {
+			final PreparedI18n msg = i18n.preparetr("Could not read plugin command index: {0}", urls);
+			throw new CmdlineParserException(msg.notr(), e, msg.tr());
+		}
+		return commands;
+	}
+
+	private static PluginCommand parse(final ClassLoader classLoader, final String line, final URL url,
+			final I18n i18n) {
+		final String[] fields = line.split("\t", -1);
+		if (fields.length < 6) {
+			final PreparedI18n msg = i18n.preparetr("Invalid entry \"{0}\" in plugin command index: {1}", line, url);
+			throw new CmdlineParserException(msg.notr(), msg.tr());
+		}
+		final String[] names = new String[fields.length - 5];
+		for (int i = 0; i < names.length; ++i) {
+			names[i] = unescape(fields[i + 5]);
+		}
+		return new PluginCommand(classLoader, fields[0], names, unescape(fields[4]),
+			Boolean.parseBoolean(fields[1]), Boolean.parseBoolean(fields[2]), Boolean.parseBoolean(fields[3]));
+	}
+
+	static String unescape(final String string) {
+		if (string.indexOf('\\') < 0) {
+			return string;
+		}
+		final StringBuilder result = new StringBuilder(string.length());
+		for (int i = 0; i < string.length(); ++i) {
+			final char c = string.charAt(i);
+			if (c == '\\' && i + 1 < string.length()) {
+				final char next = string.charAt(++i);
+				switch (next) {
+					case 't':
+						result.append('\t');
+						break;
+					case 'n':
+						result.append('\n');
+						break;
+					case 'r':
+						result.append('\r');
+						break;
+					default:
+						result.append(next);
+				}
+			} else {
+				result.append(c);
+			}
+		}
+		return result.toString();
+	}
+
+	/**
+	 * @return The command object. The command class is loaded and instantiated,
+	 *         if not already done.
+	 * @throws CmdlineParserException if the command could not be created.
+	 */
+	synchronized Object getInstance() {
+		if (instance == null) {
+			try {
+				final Class<?> commandClass = Class.forName(className, true, classLoader);
+				if (!commandClass.isAnnotationPresent(CmdCommand.class)) {
+					final I18n i18n = I18nFactory.getI18n(PluginCommand.class);
+					final PreparedI18n msg = i18n.preparetr("Plugin command {0} is not annotated with @{1}",
+						className, CmdCommand.class.getSimpleName());
+					throw new CmdlineParserException(msg.notr(), msg.tr());
+				}
+				final Constructor<?> constructor = commandClass.getDeclaredConstructor();
+				constructor.setAccessible(true);
+				instance = constructor.newInstance();
+			} catch (final CmdlineParserException e) {
+				throw e;
+			} catch (final Exception e) {
+				final I18n i18n = I18nFactory.getI18n(PluginCommand.class);
+				final PreparedI18n msg = i18n.preparetr("Could not create plugin command {0}", className);
+				throw new CmdlineParserException(msg.notr(), e, msg.tr());
+			}
+		}
+		return instance;
+	}
+
+	/**
+	 * @return The command object or <code>null</code>, if it was not created yet.
+	 */
+	synchronized Object getInstanceIfCreated() {
+		return instance;
+	}
+
+	String getClassName() {
+		return className;
+	}
+
+	String[] getNames() {
+		return names.clone();
+	}
+
+	String getDescription() {
+		return description;
+	}
+
+	boolean isHidden() {
+		return hidden;
+	}
+
+	/**
+	 * @return <code>true</code>, if the command has options, according to the
+	 *         index.
+	 */
+	boolean hasOptions() {
+		return hasOptions;
+	}
+
+	/**
+	 * @return <code>true</code>, if the command has a parameter, according to the
+	 *         index.
+	 */
+	boolean hasParameter() {
+		return hasParameter;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "(className=" + className + ",names=" + Arrays.toString(names) + ")";
+	}
+
+}
@@ -0,0 +1,51 @@
+package de.tototec.cmdoption;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Applies option values via reflection. The element is expected to be already
+ * accessible (see {@link ScannedElement}), so no accessible flags are changed
+ * when applying values.
+ */
+class ReflectiveElementAccessor implements ElementAccessor {
+
+	private final Field field;
+	private final Method method;
+
+	ReflectiveElementAccessor(final AccessibleObject element) {
+		this.field = element instanceof Field ? (Field) element : null;
+		this.method = element instanceof Method ? (Method) element : null;
+	}
+
+	public boolean apply(final Object config, final Object[] values) throws Exception {
+		if (field != null) {
+			field.set(config, values[0]);
+			return true;
+		}
+		if (method != null) {
+			try {
+				method.invoke(config, values);
+			} catch (final InvocationTargetException e) {
+				// report the same exception as a direct call would
+				if (e.getCause() instanceof Exception) {
+					throw (Exception) e.getCause();
+				}
+				if (e.getCause() instanceof Error) {
+					throw (Error) e.getCause();
+				}
+				throw e;
+			}
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "(" + (field != null ? field : method) + ")";
+	}
+
+}
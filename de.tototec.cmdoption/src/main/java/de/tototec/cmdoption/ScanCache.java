@@ -0,0 +1,137 @@
+package de.tototec.cmdoption;
+
+import java.lang.ref.SoftReference;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Caches the annotated elements found for a config class (per
+ * {@link ApplyEngine}), so that parsers created for an already seen class do
+ * not need to scan it again.
+ * <p>
+ * The elements are cached per scanner, which is the class of the parser, if it
+ * overrides the scan hooks of {@link CmdlineParser}, or
+ * <code>CmdlineParser</code> itself. So a parser subclass never gets elements
+ * found by the default scan or by another subclass.
+ * <p>
+ * The scan results reference their class, so they must only be reachable from
+ * the class itself, to not prevent unloading of classes and their class
+ * loaders. On Java 7 and newer, they are stored in a
+ * <code>java.lang.ClassValue</code>. On Java 6, the classes are weakly and the
+ * scan results softly referenced, so they are only released under memory
+ * pressure.
+ */
+class ScanCache {
+
+	private static volatile Store store = newStore();
+
+	private ScanCache() {
+	}
+
+	/**
+	 * The scan results of one config class, by scanner and engine. The scanners
+	 * are weakly referenced, as they may be loaded by another class loader than
+	 * the config class.
+	 */
+	static class Entry {
+		private final Map<Class<?>, Map<ApplyEngine, List<ScannedElement>>> scanners = new WeakHashMap<Class<?>, Map<ApplyEngine, List<ScannedElement>>>();
+
+		synchronized List<ScannedElement> get(final Class<?> scanner, final ApplyEngine engine) {
+			final Map<ApplyEngine, List<ScannedElement>> engines = scanners.get(scanner);
+			return engines == null ? null : engines.get(engine);
+		}
+
+		synchronized void put(final Class<?> scanner, final ApplyEngine engine, final List<ScannedElement> elements) {
+			Map<ApplyEngine, List<ScannedElement>> engines = scanners.get(scanner);
+			if (engines == null) {
+				engines = new EnumMap<ApplyEngine, List<ScannedElement>>(ApplyEngine.class);
+				scanners.put(scanner, engines);
+			}
+			engines.put(engine, elements);
+		}
+	}
+
+	/**
+	 * Holds the {@link Entry} of each config class.
+	 */
+	static abstract class Store {
+		/**
+		 * @return The entry of the given class, created if needed.
+		 */
+		abstract Entry entryOf(Class<?> configClass);
+	}
+
+	/**
+	 * Stores the entries in a <code>ClassValue</code>, which is only reachable
+	 * from the class. Only loaded on Java 7 and newer.
+	 */
+	static class ClassValueStore extends Store {
+		private final ClassValue<Entry> entries = new ClassValue<Entry>() {
+			@Override
+			protected Entry computeValue(final Class<?> type) {
+				return new Entry();
+			}
+		};
+
+		@Override
+		Entry entryOf(final Class<?> configClass) {
+			return entries.get(configClass);
+		}
+	}
+
+	/**
+	 * Stores the entries softly referenced in a map with weak keys, for Java 6.
+	 */
+	static class SoftStore extends Store {
+		private final Map<Class<?>, SoftReference<Entry>> entries = new WeakHashMap<Class<?>, SoftReference<Entry>>();
+
+		@Override
+		synchronized Entry entryOf(final Class<?> configClass) {
+			final SoftReference<Entry> ref = entries.get(configClass);
+			Entry entry = ref == null ? null : ref.get();
+			if (entry == null) {
+				entry = new Entry();
+				entries.put(configClass, new SoftReference<Entry>(entry));
+			}
+			return entry;
+		}
+	}
+
+	private static Store newStore() {
+		try {
+			// loaded by name, as ClassValue does not exist before Java 7
+			return (Store) Class.forName(ScanCache.class.getName() + "$ClassValueStore").newInstance();
+		} catch (final Exception e) {
+			return new SoftStore();
+		} catch (final LinkageError e) {
+			// Java 6
+			return new SoftStore();
+		}
+	}
+
+	/**
+	 * @param scanner The class of the parser which scans the config class.
+	 * @return The cached elements of the given class, or <code>null</code> if
+	 *         the class was not scanned yet.
+	 */
+	static List<ScannedElement> get(final Class<?> scanner, final Class<?> configClass, final ApplyEngine engine) {
+		return store.entryOf(configClass).get(scanner, engine);
+	}
+
+	static void put(final Class<?> scanner, final Class<?> configClass, final ApplyEngine engine,
+			final List<ScannedElement> elements) {
+		store.entryOf(configClass).put(scanner, engine, Collections.unmodifiableList(elements));
+	}
+
+	/**
+	 * Forget all cached elements. The entries of the replaced store are released
+	 * together with it.
+	 */
+	static void clear() {
+		store = newStore();
+	}
+
+}
@@ -0,0 +1,424 @@
+package de.tototec.cmdoption;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.AccessibleObject;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import de.tototec.cmdoption.handler.CmdOptionHandler;
+import de.tototec.cmdoption.internal.Logger;
+import de.tototec.cmdoption.internal.LoggerFactory;
+import de.tototec.cmdoption.internal.Signatures;
+
+/**
+ * A binary file holding the scan results of config classes across JVM runs.
+ * <p>
+ * For each class, the snapshot contains a fingerprint of the bytecode of the
+ * class and its super classes, and for each annotated element its signature
+ * and its option settings or delegate mode. When a class is restored, only the
+ * elements and requested handler classes are resolved again, no class is
+ * scanned and no annotation is read. If the fingerprint does not match or
+ * anything can not be resolved, the class is scanned as usual and the entry is
+ * replaced. Classes scanned by a parser subclass with its own scan hooks are
+ * recorded separately, see {@link ScanCache}.
+ * <p>
+ * There is only one instance per file in a JVM. The file is written to a
+ * temporary file first and then renamed, so concurrently running processes
+ * never see a partially written snapshot.
+ *
+ * @see CmdlineParser#setSnapshotFile(File)
+ */
+class ScanSnapshot {
+
+	private static final Logger log = LoggerFactory.getLogger(ScanSnapshot.class);
+
+	private static final int MAGIC = 0x434d4f53;
+	private static final int VERSION = 2;
+
+	private static final Map<File, ScanSnapshot> snapshots = new HashMap<File, ScanSnapshot>();
+
+	private final File file;
+	private Map<String, ClassEntry> entries;
+	private boolean dirty;
+
+	private ScanSnapshot(final File file) {
+		this.file = file;
+	}
+
+	static ScanSnapshot forFile(final File file) {
+		final File absoluteFile = file.getAbsoluteFile();
+		synchronized (snapshots) {
+			ScanSnapshot snapshot = snapshots.get(absoluteFile);
+			if (snapshot == null) {
+				snapshot = new ScanSnapshot(absoluteFile);
+				snapshots.put(absoluteFile, snapshot);
+			}
+			return snapshot;
+		}
+	}
+
+	/**
+	 * Forget all loaded snapshots, so they will be read from disk again.
+	 */
+	static void clear() {
+		synchronized (snapshots) {
+			snapshots.clear();
+		}
+	}
+
+	/**
+	 * @param scanner The class of the parser which scans the config class, see
+	 *                {@link ScanCache}.
+	 * @return The restored elements of the given class, or <code>null</code> if
+	 *         the snapshot contains no valid entry for it.
+	 */
+	synchronized List<ScannedElement> get(final Class<?> scanner, final Class<?> class1) {
+		load();
+		final ClassEntry entry = entries.get(keyOf(scanner, class1));
+		if (entry == null) {
+			return null;
+		}
+		final Long fingerprint = fingerprint(class1);
+		if (fingerprint == null || fingerprint.longValue() != entry.fingerprint) {
+			log.debug("Snapshot entry of {} is outdated", class1);
+			return null;
+		}
+		final List<ScannedElement> elements = new ArrayList<ScannedElement>(entry.elements.size());
+		for (final ElementEntry elementEntry : entry.elements) {
+			final ScannedElement element = elementEntry.resolve(class1);
+			if (element == null) {
+				log.debug("Could not resolve {} of snapshot entry {}", elementEntry.signature, class1);
+				return null;
+			}
+			elements.add(element);
+		}
+		return elements;
+	}
+
+	/**
+	 * Record the scanned elements of the given class. They will be written with
+	 * the next {@link #save()}.
+	 */
+	synchronized void put(final Class<?> scanner, final Class<?> class1, final List<ScannedElement> elements) {
+		load();
+		final Long fingerprint = fingerprint(class1);
+		if (fingerprint == null) {
+			return;
+		}
+		final List<ElementEntry> elementEntries = new ArrayList<ElementEntry>(elements.size());
+		for (final ScannedElement element : elements) {
+			final String signature = Signatures.of(element.getElement());
+			if (signature == null) {
+				return;
+			}
+			elementEntries.add(new ElementEntry(signature, element.getOption(), element.getDelegate(),
+				element.getLazyType()));
+		}
+		entries.put(keyOf(scanner, class1), new ClassEntry(fingerprint.longValue(), elementEntries));
+		dirty = true;
+	}
+
+	/**
+	 * @return The name of the class, prefixed with the name of the scanner, if it
+	 *         is not <code>CmdlineParser</code>.
+	 */
+	private static String keyOf(final Class<?> scanner, final Class<?> class1) {
+		return scanner == CmdlineParser.class ? class1.getName() : scanner.getName() + " " + class1.getName();
+	}
+
+	/**
+	 * Write the snapshot, if it was changed.
+	 */
+	synchronized void save() throws IOException {
+		if (!dirty) {
+			return;
+		}
+		final File dir = file.getParentFile();
+		if (dir != null) {
+			dir.mkdirs();
+		}
+		final File tmpFile = File.createTempFile(file.getName(), ".tmp", dir);
+		try {
+			final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+			try {
+				write(out);
+			} finally {
+				out.close();
+			}
+			if (!tmpFile.renameTo(file)) {
+				// some platforms can not replace an existing file
+				file.delete();
+				if (!tmpFile.renameTo(file)) {
+					throw new IOException("Could not move " + tmpFile + " to " + file);
+				}
+			}
+			dirty = false;
+		} finally {
+			tmpFile.delete();
+		}
+	}
+
+	private void load() {
+		if (entries != null) {
+			return;
+		}
+		entries = new LinkedHashMap<String, ClassEntry>();
+		if (!file.isFile()) {
+			return;
+		}
+		try {
+			final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			try {
+				read(in, file.length());
+			} finally {
+				in.close();
+			}
+		} catch (final IOException e) {
+			log.debug("Could not read snapshot {}: {}", file, e);
+			entries.clear();
+			// replace the unreadable file
+			dirty = true;
+		} catch (final RuntimeException e) {
+			log.debug("Could not read snapshot {}: {}", file, e);
+			entries.clear();
+			// replace the unreadable file
+			dirty = true;
+		}
+	}
+
+	/**
+	 * @param size The size of the file, no count can be larger.
+	 */
+	private void read(final DataInputStream in, final long size) throws IOException {
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a snapshot file");
+		}
+		if (in.readInt() != VERSION) {
+			throw new IOException("Unsupported snapshot version");
+		}
+		final int classCount = readCount(in, size, "class");
+		for (int i = 0; i < classCount; ++i) {
+			final String className = in.readUTF();
+			final long fingerprint = in.readLong();
+			final int elementCount = readCount(in, size, "element");
+			final List<ElementEntry> elements = new ArrayList<ElementEntry>(elementCount);
+			for (int j = 0; j < elementCount; ++j) {
+				elements.add(ElementEntry.read(in, size));
+			}
+			entries.put(className, new ClassEntry(fingerprint, elements));
+		}
+	}
+
+	private void write(final DataOutputStream out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(entries.size());
+		for (final Map.Entry<String, ClassEntry> entry : entries.entrySet()) {
+			out.writeUTF(entry.getKey());
+			out.writeLong(entry.getValue().fingerprint);
+			out.writeInt(entry.getValue().elements.size());
+			for (final ElementEntry element : entry.getValue().elements) {
+				element.write(out);
+			}
+		}
+	}
+
+	/**
+	 * @return A checksum of the bytecode of the given class and its super
+	 *         classes, or <code>null</code> if the bytecode is not available.
+	 */
+	static Long fingerprint(final Class<?> class1) {
+		final CRC32 crc = new CRC32();
+		final byte[] buf = new byte[8192];
+		Class<?> current = class1;
+		while (current != null && current.getClassLoader() != null) {
+			final String resource = current.getName().replace('.', '/') + ".class";
+			final InputStream in = current.getClassLoader().getResourceAsStream(resource);
+			if (in == null) {
+				return null;
+			}
+			try {
+				try {
+					int len;
+					while ((len = in.read(buf)) > 0) {
+						crc.update(buf, 0, len);
+					}
+				} finally {
+					in.close();
+				}
+			} catch (final IOException e) {
+				return null;
+			}
+			current = current.getSuperclass();
+		}
+		return Long.valueOf(crc.getValue());
+	}
+
+	private static class ClassEntry {
+		final long fingerprint;
+		final List<ElementEntry> elements;
+
+		ClassEntry(final long fingerprint, final List<ElementEntry> elements) {
+			this.fingerprint = fingerprint;
+			this.elements = elements;
+		}
+	}
+
+	private static class ElementEntry {
+		final String signature;
+		final OptionSpec option;
+		final CmdOptionDelegate.Mode delegate;
+		/**
+		 * The names of the requested handler and of the lazy delegate type, as the
+		 * classes are only known after resolving them.
+		 */
+		final String handler;
+		final String lazyType;
+
+		ElementEntry(final String signature, final OptionSpec option, final CmdOptionDelegate.Mode delegate,
+				final Class<?> lazyType) {
+			this(signature, option, delegate, option == null ? null : option.handler().getName(),
+				lazyType == null ? null : lazyType.getName());
+		}
+
+		private ElementEntry(final String signature, final OptionSpec option, final CmdOptionDelegate.Mode delegate,
+				final String handler, final String lazyType) {
+			this.signature = signature;
+			this.option = option;
+			this.delegate = delegate;
+			this.handler = handler;
+			this.lazyType = lazyType;
+		}
+
+		/**
+		 * @return The element bound to the given class, or <code>null</code> if
+		 *         it could not be resolved.
+		 */
+		ScannedElement resolve(final Class<?> class1) {
+			final AccessibleObject element = Signatures.resolve(class1, signature);
+			if (element == null) {
+				return null;
+			}
+			if (delegate != null) {
+				final Class<?> lazyClass = lazyType == null ? null : load(lazyType, class1);
+				if (lazyType != null && lazyClass == null) {
+					return null;
+				}
+				return ScannedElement.of(element, null, delegate, lazyClass, null, -1);
+			}
+			final Class<?> loaded = load(handler, class1);
+			if (loaded == null || !CmdOptionHandler.class.isAssignableFrom(loaded)) {
+				return null;
+			}
+			final Class<? extends CmdOptionHandler> handlerClass = loaded.asSubclass(CmdOptionHandler.class);
+			final OptionSpec spec = new OptionSpec(option.names(), option.description(), option.args(), handlerClass,
+				option.minCount(), option.maxCount(), option.isHelp(), option.hidden(), option.requires(),
+				option.conflictsWith());
+			return ScannedElement.of(element, spec, null, null, null, -1);
+		}
+
+		/**
+		 * @return The class or <code>null</code> if it could not be loaded.
+		 */
+		private static Class<?> load(final String className, final Class<?> class1) {
+			try {
+				return Class.forName(className, false, class1.getClassLoader());
+			} catch (final ClassNotFoundException e) {
+				return null;
+			} catch (final LinkageError e) {
+				return null;
+			}
+		}
+
+		static ElementEntry read(final DataInputStream in, final long size) throws IOException {
+			final String signature = in.readUTF();
+			if (in.readBoolean()) {
+				final String mode = in.readUTF();
+				final String lazyType = in.readBoolean() ? in.readUTF() : null;
+				try {
+					return new ElementEntry(signature, null, CmdOptionDelegate.Mode.valueOf(mode), null, lazyType);
+				} catch (final IllegalArgumentException e) {
+					throw new IOException("Unknown delegate mode: " + mode);
+				}
+			}
+			final String[] names = readStrings(in, size);
+			final String description = in.readUTF();
+			final String[] args = readStrings(in, size);
+			final String handler = in.readUTF();
+			final int minCount = in.readInt();
+			final int maxCount = in.readInt();
+			final boolean isHelp = in.readBoolean();
+			final boolean hidden = in.readBoolean();
+			final String[] requires = readStrings(in, size);
+			final String[] conflictsWith = readStrings(in, size);
+			// the handler class is resolved later
+			final OptionSpec option = new OptionSpec(names, description, args, null, minCount, maxCount, isHelp,
+				hidden, requires, conflictsWith);
+			return new ElementEntry(signature, option, null, handler, null);
+		}
+
+		void write(final DataOutputStream out) throws IOException {
+			out.writeUTF(signature);
+			out.writeBoolean(delegate != null);
+			if (delegate != null) {
+				out.writeUTF(delegate.name());
+				out.writeBoolean(lazyType != null);
+				if (lazyType != null) {
+					out.writeUTF(lazyType);
+				}
+				return;
+			}
+			writeStrings(out, option.names());
+			out.writeUTF(option.description());
+			writeStrings(out, option.args());
+			out.writeUTF(handler);
+			out.writeInt(option.minCount());
+			out.writeInt(option.maxCount());
+			out.writeBoolean(option.isHelp());
+			out.writeBoolean(option.hidden());
+			writeStrings(out, option.requires());
+			writeStrings(out, option.conflictsWith());
+		}
+	}
+
+	private static String[] readStrings(final DataInputStream in, final long size) throws IOException {
+		final int count = readCount(in, size, "string");
+		final String[] strings = new String[count];
+		for (int i = 0; i < count; ++i) {
+			strings[i] = in.readUTF();
+		}
+		return strings;
+	}
+
+	/**
+	 * Read a count, which can not be negative or larger than the file, as each
+	 * counted item takes at least one byte.
+	 */
+	private static int readCount(final DataInputStream in, final long size, final String what) throws IOException {
+		final int count = in.readInt();
+		if (count < 0 || count > size) {
+			throw new IOException("Invalid " + what + " count: " + count);
+		}
+		return count;
+	}
+
+	private static void writeStrings(final DataOutputStream out, final String[] strings) throws IOException {
+		out.writeInt(strings.length);
+		for (final String string : strings) {
+			out.writeUTF(string);
+		}
+	}
+
+}
@@ -0,0 +1,127 @@
+package de.tototec.cmdoption;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+
+/**
+ * A field or method annotated with {@link CmdOption} or
+ * {@link CmdOptionDelegate}, as found by the scan of a config class.
+ * <p>
+ * Instances are shared between all parsers binding the same config class, so
+ * they must not contain any state of a specific config object.
+ */
+class ScannedElement {
+
+	private final AccessibleObject element;
+	private final OptionSpec option;
+	private final CmdOptionDelegate.Mode delegate;
+	private final Class<?> lazyType;
+	private final ElementAccessor accessor;
+
+	private ScannedElement(final AccessibleObject element, final OptionSpec option,
+			final CmdOptionDelegate.Mode delegate, final Class<?> lazyType, final ElementAccessor accessor) {
+		this.element = element;
+		this.option = option;
+		this.delegate = delegate;
+		this.lazyType = lazyType;
+		this.accessor = accessor;
+	}
+
+	/**
+	 * Create a scanned element, if the given element is annotated.
+	 * <p>
+	 * As the element will be shared, it will be made accessible once here, instead
+	 * of toggling its accessible flag for each access, which would race between
+	 * threads.
+	 *
+	 * @param descriptor
+	 *            An optional descriptor to apply option values without
+	 *            reflection.
+	 * @param index
+	 *            The index of the element in the descriptor.
+	 * @return The scanned element or <code>null</code> if the element is not
+	 *         annotated.
+	 */
+	static ScannedElement of(final AccessibleObject element, final CmdOptionDescriptor descriptor, final int index) {
+		final CmdOptionDelegate delegate = element instanceof Field ? element.getAnnotation(CmdOptionDelegate.class)
+				: null;
+		final CmdOption option = delegate == null ? element.getAnnotation(CmdOption.class) : null;
+		if (option == null && delegate == null) {
+			return null;
+		}
+		Class<?> lazyType = null;
+		if (delegate != null && delegate.lazy()) {
+			lazyType = Object.class.equals(delegate.type()) ? ((Field) element).getType() : delegate.type();
+		}
+		return of(element, option == null ? null : OptionSpec.of(option), delegate == null ? null : delegate.value(),
+			lazyType, descriptor, index);
+	}
+
+	/**
+	 * Create a scanned element from already known settings, e.g. restored from
+	 * a {@link ScanSnapshot}.
+	 *
+	 * @param option
+	 *            The option settings or <code>null</code> if this is a delegate.
+	 * @param delegate
+	 *            The delegate mode or <code>null</code> if this is an option.
+	 * @param lazyType
+	 *            The class of a lazily created delegate or <code>null</code>.
+	 */
+	static ScannedElement of(final AccessibleObject element, final OptionSpec option,
+			final CmdOptionDelegate.Mode delegate, final Class<?> lazyType, final CmdOptionDescriptor descriptor,
+			final int index) {
+		try {
+			element.setAccessible(true);
+		} catch (final RuntimeException e) {
+			// e.g. a SecurityException, applying a value will fail later
+		}
+		final ElementAccessor reflective = new ReflectiveElementAccessor(element);
+		final ElementAccessor accessor = descriptor == null ? reflective
+				: new DescriptorElementAccessor(descriptor, index, reflective);
+		return new ScannedElement(element, option, delegate, lazyType, accessor);
+	}
+
+	/**
+	 * @return A copy of this element with the given accessor.
+	 */
+	ScannedElement withAccessor(final ElementAccessor accessor) {
+		return new ScannedElement(element, option, delegate, lazyType, accessor);
+	}
+
+	public AccessibleObject getElement() {
+		return element;
+	}
+
+	/**
+	 * @return The option settings or <code>null</code> if this is a delegate.
+	 */
+	public OptionSpec getOption() {
+		return option;
+	}
+
+	/**
+	 * @return The delegate mode or <code>null</code> if this is an option.
+	 */
+	public CmdOptionDelegate.Mode getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * @return The class of a lazily created delegate, or <code>null</code> if this
+	 *         is no lazy delegate.
+	 */
+	public Class<?> getLazyType() {
+		return lazyType;
+	}
+
+	public ElementAccessor getAccessor() {
+		return accessor;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "(element=" + element + ",accessor=" + accessor + ")";
+	}
+
+}
@@ -0,0 +1,49 @@
+package de.tototec.cmdoption;
+
+import java.lang.reflect.AccessibleObject;
+import java.util.Arrays;
+
+import de.tototec.cmdoption.handler.CmdOptionHandler;
+import de.tototec.cmdoption.handler.CmdOptionHandlerException;
+import de.tototec.cmdoption.internal.I18n;
+import de.tototec.cmdoption.internal.I18n.PreparedI18n;
+import de.tototec.cmdoption.internal.I18nFactory;
+
+/**
+ * Passes the arguments of an option defined with {@link OptionBuilder} to its
+ * {@link OptionSink}. There is no config object and no element.
+ */
+class SinkHandler implements CmdOptionHandler {
+
+	private final OptionSink sink;
+
+	SinkHandler(final OptionSink sink) {
+		this.sink = sink;
+	}
+
+	@Override
+	public boolean canHandle(final AccessibleObject element, final int argCount) {
+		return element == null;
+	}
+
+	@Override
+	public void applyParams(final Object config, final AccessibleObject element, final String[] args,
+			final String optionName) throws CmdOptionHandlerException {
+		try {
+			sink.apply(optionName, args);
+		} catch (final CmdOptionHandlerException e) {
+			throw e;
+		} catch (final Exception e) {
+			final I18n i18n = I18nFactory.getI18n(SinkHandler.class);
+			final PreparedI18n msg = i18n.preparetr("Could not apply parameters {0} to option {1}.",
+				Arrays.toString(args), optionName);
+			throw new CmdOptionHandlerException(msg.notr(), e, msg.tr());
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "(" + sink + ")";
+	}
+
+}
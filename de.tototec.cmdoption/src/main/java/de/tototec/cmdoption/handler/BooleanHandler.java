@@ -20,7 +20,7 @@ import de.tototec.cmdoption.internal.I18nFactory;
  *
  * @since 0.3.0
  */
-public class BooleanHandler implements CmdOptionHandler {
+public class BooleanHandler implements CmdOptionValueHandler {
 
 	private final String[] trueWords;
 	private final String[] falseWords;
@@ -59,8 +59,8 @@ public class BooleanHandler implements CmdOptionHandler {
 		return false;
 	}
 
-	public void applyParams(final Object config, final AccessibleObject element, final String[] args,
-			final String optionName) throws CmdOptionHandlerException {
+	public Object[] convertParams(final AccessibleObject element, final String[] args, final String optionName)
+			throws CmdOptionHandlerException {
 
 		String arg = args[0];
 		if (!caseSensitive) {
@@ -95,6 +95,14 @@ public class BooleanHandler implements CmdOptionHandler {
 			throw new CmdOptionHandlerException(msg.notr(), msg.tr());
 		}
 
+		return new Object[] { decission };
+	}
+
+	public void applyParams(final Object config, final AccessibleObject element, final String[] args,
+			final String optionName) throws CmdOptionHandlerException {
+
+		final Boolean decission = (Boolean) convertParams(element, args, optionName)[0];
+
 		try {
 			if (element instanceof Field) {
 				final Field field = (Field) element;
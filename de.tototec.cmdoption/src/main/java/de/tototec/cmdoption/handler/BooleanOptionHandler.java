@@ -11,7 +11,14 @@ import java.lang.reflect.Modifier;
  * <code>true</code>.
  *
  */
-public class BooleanOptionHandler implements CmdOptionHandler {
+public class BooleanOptionHandler implements CmdOptionValueHandler {
+
+	public Object[] convertParams(final AccessibleObject element, final String[] args, final String optionName) {
+		if (element instanceof Method && ((Method) element).getParameterTypes().length == 0) {
+			return new Object[0];
+		}
+		return new Object[] { Boolean.TRUE };
+	}
 
 	public void applyParams(final Object config, final AccessibleObject element, final String[] args,
 			final String optionName) {
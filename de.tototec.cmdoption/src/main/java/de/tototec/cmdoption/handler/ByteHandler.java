@@ -15,7 +15,7 @@ import de.tototec.cmdoption.internal.I18nFactory;
  *
  * @since 0.6.0
  */
-public class ByteHandler implements CmdOptionHandler {
+public class ByteHandler implements CmdOptionValueHandler {
 
 	public ByteHandler() {}
 
@@ -34,19 +34,21 @@ public class ByteHandler implements CmdOptionHandler {
 		return false;
 	}
 
-	public void applyParams(final Object config, final AccessibleObject element, final String[] args,
-			final String optionName) throws CmdOptionHandlerException {
-
-		byte parsedValue = 0;
-
+	public Object[] convertParams(final AccessibleObject element, final String[] args, final String optionName)
+			throws CmdOptionHandlerException {
 		try {
-			final String arg = args[0];
-			parsedValue = Byte.parseByte(arg);
+			return new Object[] { Byte.valueOf(Byte.parseByte(args[0])) };
 		} catch (final NumberFormatException e) {
 			final I18n i18n = I18nFactory.getI18n(ByteHandler.class);
 			final PreparedI18n msg = i18n.preparetr("Could not read byte value \"{0}\".", args[0]);
 			throw new CmdOptionHandlerException(msg.notr(), e, msg.tr());
 		}
+	}
+
+	public void applyParams(final Object config, final AccessibleObject element, final String[] args,
+			final String optionName) throws CmdOptionHandlerException {
+
+		final Object parsedValue = convertParams(element, args, optionName)[0];
 
 		try {
 			if (element instanceof Field) {
@@ -0,0 +1,37 @@
+package de.tototec.cmdoption.handler;
+
+import java.lang.reflect.AccessibleObject;
+
+/**
+ * A {@link CmdOptionHandler} which can convert the option arguments into the
+ * value(s) to be applied independently from applying them.
+ * <p>
+ * This allows the parser to apply the values in a faster way than reflection,
+ * e.g. with code generated by the CmdOption annotation processor. Handlers
+ * which modify the current value of an element instead of replacing it (e.g.
+ * {@link AddToCollectionHandler}) can not implement this interface.
+ *
+ * @since 0.8.0
+ */
+public interface CmdOptionValueHandler extends CmdOptionHandler {
+
+	/**
+	 * Convert the option arguments into the value(s) to be applied to the field
+	 * or method representing the option.
+	 *
+	 * @param element
+	 *            The field or method to which the values will be applied.
+	 * @param args
+	 *            The parsed arguments of the option.
+	 * @param optionName
+	 *            The actual name of the currently handled option. This is only
+	 *            required to create good error messages.
+	 * @return For a field, an array containing the new field value as only
+	 *         element. For a method, the arguments to invoke the method with.
+	 * @throws CmdOptionHandlerException
+	 *             When the arguments can not be converted.
+	 */
+	Object[] convertParams(AccessibleObject element, String[] args, String optionName)
+			throws CmdOptionHandlerException;
+
+}
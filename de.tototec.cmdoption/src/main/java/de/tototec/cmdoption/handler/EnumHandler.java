@@ -18,7 +18,7 @@ import de.tototec.cmdoption.internal.I18nFactory;
  *
  * @since 0.4.2
  */
-public class EnumHandler implements CmdOptionHandler {
+public class EnumHandler implements CmdOptionValueHandler {
 
 	public boolean canHandle(final AccessibleObject element, final int argCount) {
 		if (argCount == 1) {
@@ -33,33 +33,35 @@ public class EnumHandler implements CmdOptionHandler {
 		return false;
 	}
 
-	public void applyParams(final Object config, final AccessibleObject element, final String[] args,
-			final String optionName) throws CmdOptionHandlerException {
+	public Object[] convertParams(final AccessibleObject element, final String[] args, final String optionName)
+			throws CmdOptionHandlerException {
+		final Class<? extends Enum> type;
+		if (element instanceof Field) {
+			type = (Class<? extends Enum>) ((Field) element).getType();
+		} else if (element instanceof Method) {
+			type = (Class<? extends Enum>) ((Method) element).getParameterTypes()[0];
+		} else {
+			type = Enum.class;
+		}
 		try {
-			if (element instanceof Field) {
-				final Field field = (Field) element;
-				final Class<? extends Enum> type = (Class<? extends Enum>) field.getType();
-				final Enum<?> value = Enum.valueOf(type, args[0]);
-				field.set(config, value);
-			} else if (element instanceof Method) {
-				final Method method = (Method) element;
-				final Class<? extends Enum> type = (Class<? extends Enum>) method.getParameterTypes()[0];
-				final Enum<?> value = Enum.valueOf(type, args[0]);
-				method.invoke(config, value);
-			}
+			return new Object[] { Enum.valueOf(type, args[0]) };
 		} catch (final IllegalArgumentException e) {
-			final Class<? extends Enum> type;
-			if (element instanceof Field) {
-				type = (Class<? extends Enum>) ((Field) element).getType();
-			} else if (element instanceof Method) {
-				type = (Class<? extends Enum>) ((Method) element).getParameterTypes()[0];
-			} else {
-				type = Enum.class;
-			}
 			final I18n i18n = I18nFactory.getI18n(EnumHandler.class);
 			final PreparedI18n msg = i18n.preparetr("Invalid enum value: \"{0}\". Supported values: {1}", args[0],
 					FList.mkString(EnumSet.allOf(type), ", "));
 			throw new CmdOptionHandlerException(msg.notr(), e, msg.tr());
+		}
+	}
+
+	public void applyParams(final Object config, final AccessibleObject element, final String[] args,
+			final String optionName) throws CmdOptionHandlerException {
+		final Object value = convertParams(element, args, optionName)[0];
+		try {
+			if (element instanceof Field) {
+				((Field) element).set(config, value);
+			} else if (element instanceof Method) {
+				((Method) element).invoke(config, value);
+			}
 		} catch (final Exception e) {
 			// TODO better message
 			final I18n i18n = I18nFactory.getI18n(EnumHandler.class);
@@ -15,7 +15,7 @@ import de.tototec.cmdoption.internal.I18nFactory;
  *
  * @since 0.3.1
  */
-public class IntegerHandler implements CmdOptionHandler {
+public class IntegerHandler implements CmdOptionValueHandler {
 
 	public IntegerHandler() {}
 
@@ -34,19 +34,21 @@ public class IntegerHandler implements CmdOptionHandler {
 		return false;
 	}
 
-	public void applyParams(final Object config, final AccessibleObject element, final String[] args,
-			final String optionName) throws CmdOptionHandlerException {
-
-		int parsedValue = 0;
-
+	public Object[] convertParams(final AccessibleObject element, final String[] args, final String optionName)
+			throws CmdOptionHandlerException {
 		try {
-			final String arg = args[0];
-			parsedValue = Integer.parseInt(arg);
+			return new Object[] { Integer.valueOf(Integer.parseInt(args[0])) };
 		} catch (final NumberFormatException e) {
 			final I18n i18n = I18nFactory.getI18n(IntegerHandler.class);
 			final PreparedI18n msg = i18n.preparetr("Could not read integer value \"{0}\".", args[0]);
 			throw new CmdOptionHandlerException(msg.notr(), e, msg.tr());
 		}
+	}
+
+	public void applyParams(final Object config, final AccessibleObject element, final String[] args,
+			final String optionName) throws CmdOptionHandlerException {
+
+		final Object parsedValue = convertParams(element, args, optionName)[0];
 
 		try {
 			if (element instanceof Field) {
@@ -15,7 +15,7 @@ import de.tototec.cmdoption.internal.I18nFactory;
  *
  * @since 0.5.0
  */
-public class LongHandler implements CmdOptionHandler {
+public class LongHandler implements CmdOptionValueHandler {
 
 	public LongHandler() {}
 
@@ -34,19 +34,21 @@ public class LongHandler implements CmdOptionHandler {
 		return false;
 	}
 
-	public void applyParams(final Object config, final AccessibleObject element, final String[] args,
-			final String optionName) throws CmdOptionHandlerException {
-
-		long parsedValue = 0;
-
+	public Object[] convertParams(final AccessibleObject element, final String[] args, final String optionName)
+			throws CmdOptionHandlerException {
 		try {
-			final String arg = args[0];
-			parsedValue = Long.parseLong(arg);
+			return new Object[] { Long.valueOf(Long.parseLong(args[0])) };
 		} catch (final NumberFormatException e) {
 			final I18n i18n = I18nFactory.getI18n(LongHandler.class);
 			final PreparedI18n msg = i18n.preparetr("Could not read long value \"{0}\".", args[0]);
 			throw new CmdOptionHandlerException(msg.notr(), e, msg.tr());
 		}
+	}
+
+	public void applyParams(final Object config, final AccessibleObject element, final String[] args,
+			final String optionName) throws CmdOptionHandlerException {
+
+		final Object parsedValue = convertParams(element, args, optionName)[0];
 
 		try {
 			if (element instanceof Field) {
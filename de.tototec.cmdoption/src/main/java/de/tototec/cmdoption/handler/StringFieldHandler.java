@@ -13,7 +13,7 @@ import de.tototec.cmdoption.internal.I18nFactory;
  * Apply an one-arg option to a field of type {@link String}.
  *
  */
-public class StringFieldHandler implements CmdOptionHandler {
+public class StringFieldHandler implements CmdOptionValueHandler {
 
 	public boolean canHandle(final AccessibleObject element, final int argCount) {
 		if (element instanceof Field && argCount == 1) {
@@ -23,6 +23,10 @@ public class StringFieldHandler implements CmdOptionHandler {
 		return false;
 	}
 
+	public Object[] convertParams(final AccessibleObject element, final String[] args, final String optionName) {
+		return new Object[] { args[0] };
+	}
+
 	public void applyParams(final Object config, final AccessibleObject element, final String[] args,
 			final String optionName) throws CmdOptionHandlerException {
 
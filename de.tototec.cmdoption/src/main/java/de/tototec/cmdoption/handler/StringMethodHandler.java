@@ -13,7 +13,7 @@ import de.tototec.cmdoption.internal.I18nFactory;
  * {@link String}.
  *
  */
-public class StringMethodHandler implements CmdOptionHandler {
+public class StringMethodHandler implements CmdOptionValueHandler {
 
 	public boolean canHandle(final AccessibleObject element, final int argCount) {
 		if (element instanceof Method) {
@@ -29,6 +29,10 @@ public class StringMethodHandler implements CmdOptionHandler {
 		return false;
 	}
 
+	public Object[] convertParams(final AccessibleObject element, final String[] args, final String optionName) {
+		return args.clone();
+	}
+
 	public void applyParams(final Object config, final AccessibleObject element, final String[] args,
 			final String optionName) throws CmdOptionHandlerException {
 		try {
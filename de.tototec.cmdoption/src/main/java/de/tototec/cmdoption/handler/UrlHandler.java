@@ -12,7 +12,7 @@ import de.tototec.cmdoption.internal.I18n;
 import de.tototec.cmdoption.internal.I18n.PreparedI18n;
 import de.tototec.cmdoption.internal.I18nFactory;
 
-public class UrlHandler implements CmdOptionHandler {
+public class UrlHandler implements CmdOptionValueHandler {
 
 	public boolean canHandle(final AccessibleObject element, final int argCount) {
 		if (argCount == 1) {
@@ -27,19 +27,26 @@ public class UrlHandler implements CmdOptionHandler {
 		return false;
 	}
 
+	public Object[] convertParams(final AccessibleObject element, final String[] args, final String optionName)
+			throws CmdOptionHandlerException {
+		try {
+			return new Object[] { new URL(args[0]) };
+		} catch (final MalformedURLException e) {
+			final I18n i18n = I18nFactory.getI18n(UrlHandler.class);
+			final PreparedI18n msg = i18n.preparetr("Invalid url: \"{0}\"", args[0]);
+			throw new CmdOptionHandlerException(msg.notr(), e, msg.tr());
+		}
+	}
+
 	public void applyParams(final Object config, final AccessibleObject element, final String[] args,
 			final String optionName) throws CmdOptionHandlerException {
+		final URL url = (URL) convertParams(element, args, optionName)[0];
 		try {
-			final URL url = new URL(args[0]);
 			if (element instanceof Field) {
 				((Field) element).set(config, url);
 			} else if (element instanceof Method) {
 				((Method) element).invoke(config, url);
 			}
-		} catch (final MalformedURLException e) {
-			final I18n i18n = I18nFactory.getI18n(UrlHandler.class);
-			final PreparedI18n msg = i18n.preparetr("Invalid url: \"{0}\"", args[0]);
-			throw new CmdOptionHandlerException(msg.notr(), e, msg.tr());
 		} catch (final Exception e) {
 			// TODO better message
 			final I18n i18n = I18nFactory.getI18n(UrlHandler.class);
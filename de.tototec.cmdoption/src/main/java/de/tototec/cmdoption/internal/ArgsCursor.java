@@ -0,0 +1,128 @@
+package de.tototec.cmdoption.internal;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * A cursor over command line arguments.
+ * <p>
+ * Arguments are read from the source not before they are needed. Only the
+ * arguments looked ahead, e.g. the arguments of the current option, and
+ * rewritten arguments, e.g. expanded aggregated short options, are buffered.
+ * Rewritten arguments are inserted in front of the remaining arguments, so the
+ * cost of an insertion only depends on the number of inserted and buffered
+ * arguments.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class ArgsCursor {
+
+	private final Iterator<String> source;
+	/**
+	 * The buffered arguments, from <code>start</code> (inclusive) to
+	 * <code>end</code> (exclusive), which come before the remaining arguments of
+	 * the source.
+	 */
+	private String[] buffer = new String[8];
+	private int start;
+	private int end;
+
+	public ArgsCursor(final String[] args) {
+		this(Arrays.asList(args).iterator());
+	}
+
+	public ArgsCursor(final Iterator<String> source) {
+		this.source = source;
+	}
+
+	/**
+	 * Read ahead, until the given number of arguments is buffered or the source
+	 * is exhausted.
+	 *
+	 * @return The number of remaining arguments, but at most <code>max</code>.
+	 */
+	public int available(final int max) {
+		while (end - start < max && source.hasNext()) {
+			if (end == buffer.length) {
+				ensureCapacity(0);
+			}
+			buffer[end++] = source.next();
+		}
+		return Math.min(end - start, max);
+	}
+
+	public boolean hasNext() {
+		return available(1) > 0;
+	}
+
+	/**
+	 * @return The remaining argument at the given offset, without consuming it.
+	 */
+	public String peek(final int offset) {
+		if (offset < 0 || available(offset + 1) <= offset) {
+			throw new IndexOutOfBoundsException("Offset: " + offset + ", Available: " + (end - start));
+		}
+		return buffer[start + offset];
+	}
+
+	/**
+	 * Consume the next argument.
+	 */
+	public String next() {
+		final String next = peek(0);
+		skip(1);
+		return next;
+	}
+
+	/**
+	 * Consume the given number of arguments without returning them.
+	 */
+	public void skip(final int count) {
+		if (count < 0 || available(count) < count) {
+			throw new IndexOutOfBoundsException("Count: " + count + ", Available: " + (end - start));
+		}
+		for (int i = 0; i < count; ++i) {
+			buffer[start++] = null;
+		}
+		if (start == end) {
+			start = 0;
+			end = 0;
+		}
+	}
+
+	/**
+	 * Insert the given arguments, so that they are the next ones.
+	 */
+	public void insert(final String... newArgs) {
+		if (start < newArgs.length) {
+			ensureCapacity(newArgs.length);
+		}
+		start -= newArgs.length;
+		System.arraycopy(newArgs, 0, buffer, start, newArgs.length);
+	}
+
+	/**
+	 * Move the buffered arguments, so that there is room for the given number of
+	 * arguments before them and at least one after them.
+	 */
+	private void ensureCapacity(final int before) {
+		final int size = end - start;
+		final String[] newBuffer = before + size < buffer.length ? buffer
+			: new String[Math.max(buffer.length * 2, before + size + 1)];
+		System.arraycopy(buffer, start, newBuffer, before, size);
+		if (newBuffer == buffer) {
+			Arrays.fill(buffer, before + size, buffer.length, null);
+			Arrays.fill(buffer, 0, before, null);
+		}
+		buffer = newBuffer;
+		start = before;
+		end = before + size;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "(buffered="
+			+ Arrays.toString(Arrays.copyOfRange(buffer, start, end)) + ")";
+	}
+
+}
@@ -0,0 +1,556 @@
+package de.tototec.cmdoption.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import de.tototec.cmdoption.CmdOptionDescriptor;
+
+/**
+ * Generates a {@link CmdOptionDescriptor} for a config class at runtime, whose
+ * {@link CmdOptionDescriptor#apply(int, Object, Object[])} writes fields and
+ * invokes methods directly instead of via reflection.
+ * <p>
+ * The class is defined in the package of the config class, so it can also
+ * access package-private members. On Java 15 and newer it is defined as hidden
+ * class, on Java 9 to 14 via <code>MethodHandles.Lookup.defineClass</code> and
+ * on older Java versions directly in the class loader of the config class. The
+ * generated bytecode targets Java 5, which needs no stack map frames.
+ */
+public abstract class BinderGenerator {
+
+	/**
+	 * The suffix appended to the binary name of the config class to form the
+	 * name of the generated class.
+	 */
+	public static final String SUFFIX = "$$CmdOptionBinder";
+
+	private static final String OBJECT = "java/lang/Object";
+	private static final String DESCRIPTOR = CmdOptionDescriptor.class.getName().replace('.', '/');
+	private static final int MAX_ELEMENTS = Short.MAX_VALUE;
+
+	/**
+	 * Generate and instantiate a binder for the given elements of the given
+	 * config class. The element index of
+	 * {@link CmdOptionDescriptor#apply(int, Object, Object[])} is the index in the
+	 * given list. Elements which are not accessible from the package of the
+	 * config class (e.g. private members) are not applied by the binder.
+	 *
+	 * @return The binder, or <code>null</code> if none of the elements can be
+	 *         applied by a binder.
+	 * @throws Exception
+	 *             If the binder could not be defined.
+	 */
+	public static CmdOptionDescriptor generate(final Class<?> configClass,
+			final List<? extends AccessibleObject> elements) throws Exception {
+		if (configClass.getClassLoader() == null || elements.size() > MAX_ELEMENTS) {
+			return null;
+		}
+		final String name = configClass.getName() + SUFFIX;
+		final byte[] bytes = generateClass(configClass, name.replace('.', '/'), elements);
+		if (bytes == null) {
+			return null;
+		}
+		return (CmdOptionDescriptor) define(configClass, name, bytes).newInstance();
+	}
+
+	/**
+	 * @return The class file, or <code>null</code> if no element can be applied.
+	 */
+	static byte[] generateClass(final Class<?> configClass, final String internalName,
+			final List<? extends AccessibleObject> elements) throws IOException {
+		final ConstantPool cp = new ConstantPool();
+		final int thisClass = cp.classRef(internalName);
+		final int superClass = cp.classRef(OBJECT);
+		final int descriptorInterface = cp.classRef(DESCRIPTOR);
+		final int code = cp.utf8("Code");
+
+		// the cases of the switch in apply
+		final byte[][] cases = new byte[elements.size()][];
+		int maxStack = 2;
+		boolean anyCase = false;
+		for (int i = 0; i < cases.length; ++i) {
+			final Code caseCode = new Code();
+			final int stack = applyCase(cp, caseCode, configClass, elements.get(i));
+			if (stack >= 0) {
+				caseCode.op(0x04); // iconst_1
+				caseCode.op(0xac); // ireturn
+				cases[i] = caseCode.toByteArray();
+				maxStack = Math.max(maxStack, stack);
+				anyCase = true;
+			}
+		}
+		if (!anyCase) {
+			return null;
+		}
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(bytes);
+
+		// constructor
+		final Code init = new Code();
+		init.op(0x2a); // aload_0
+		init.op(0xb7).u2(cp.methodRef(OBJECT, "<init>", "()V")); // invokespecial
+		init.op(0xb1); // return
+		writeMethod(out, cp, 0x0001, "<init>", "()V", code, 1, 1, init.toByteArray());
+
+		// getElements: the elements are only known to the parser
+		final Code getElements = new Code();
+		getElements.op(0x03); // iconst_0
+		getElements.op(0xbd).u2(cp.classRef("java/lang/String")); // anewarray
+		getElements.op(0xb0); // areturn
+		writeMethod(out, cp, 0x0001, "getElements", "()[Ljava/lang/String;", code, 1, 1, getElements.toByteArray());
+
+		// apply: iload_1; tableswitch; cases...; default
+		final Code apply = new Code();
+		apply.op(0x1b); // iload_1
+		final int switchPos = apply.size();
+		final int padding = (4 - ((switchPos + 1) % 4)) % 4;
+		final int switchSize = 1 + padding + 12 + 4 * cases.length;
+		int offset = switchSize;
+		final int[] caseOffsets = new int[cases.length];
+		for (int i = 0; i < cases.length; ++i) {
+			if (cases[i] != null) {
+				caseOffsets[i] = offset;
+				offset += cases[i].length;
+			}
+		}
+		final int defaultOffset = offset;
+		apply.op(0xaa); // tableswitch
+		for (int i = 0; i < padding; ++i) {
+			apply.op(0);
+		}
+		apply.u4(defaultOffset).u4(0).u4(cases.length - 1);
+		for (int i = 0; i < cases.length; ++i) {
+			apply.u4(cases[i] != null ? caseOffsets[i] : defaultOffset);
+		}
+		for (final byte[] caseCode : cases) {
+			if (caseCode != null) {
+				apply.bytes(caseCode);
+			}
+		}
+		apply.op(0x03); // iconst_0
+		apply.op(0xac); // ireturn
+		writeMethod(out, cp, 0x0001, "apply", "(ILjava/lang/Object;[Ljava/lang/Object;)Z", code, maxStack, 4,
+				apply.toByteArray());
+		out.flush();
+		final byte[] methods = bytes.toByteArray();
+
+		final ByteArrayOutputStream classFile = new ByteArrayOutputStream();
+		final DataOutputStream cf = new DataOutputStream(classFile);
+		cf.writeInt(0xCAFEBABE);
+		cf.writeShort(0); // minor
+		cf.writeShort(49); // major: Java 5
+		cf.writeShort(cp.count());
+		cf.write(cp.toByteArray());
+		cf.writeShort(0x0001 | 0x0010 | 0x0020); // public final super
+		cf.writeShort(thisClass);
+		cf.writeShort(superClass);
+		cf.writeShort(1);
+		cf.writeShort(descriptorInterface);
+		cf.writeShort(0); // fields
+		cf.writeShort(3); // methods
+		cf.write(methods);
+		cf.writeShort(0); // attributes
+		cf.flush();
+		return classFile.toByteArray();
+	}
+
+	/**
+	 * Write the code applying <code>values</code> to the given element.
+	 *
+	 * @return The maximal stack size needed, or <code>-1</code> if the element can
+	 *         not be applied directly.
+	 */
+	private static int applyCase(final ConstantPool cp, final Code code, final Class<?> configClass,
+			final AccessibleObject element) {
+		if (!(element instanceof Field || element instanceof Method)) {
+			return -1;
+		}
+		final Member member = (Member) element;
+		final int modifiers = member.getModifiers();
+		final Class<?> owner = member.getDeclaringClass();
+		if (Modifier.isPrivate(modifiers) || Modifier.isStatic(modifiers) || owner.isInterface()
+				|| !isAccessible(owner, configClass)
+				|| (!Modifier.isPublic(modifiers) && !isSamePackage(owner, configClass))) {
+			return -1;
+		}
+		final String ownerName = internalName(owner);
+
+		if (element instanceof Field) {
+			final Field field = (Field) element;
+			if (Modifier.isFinal(modifiers) || !isAccessible(field.getType(), configClass)) {
+				return -1;
+			}
+			code.op(0x2c); // aload_2
+			code.op(0xc0).u2(cp.classRef(ownerName)); // checkcast
+			code.op(0x2d); // aload_3
+			code.pushInt(cp, 0);
+			code.op(0x32); // aaload
+			convert(cp, code, field.getType());
+			code.op(0xb5).u2(cp.fieldRef(ownerName, field.getName(), descriptor(field.getType()))); // putfield
+			return 4;
+		}
+
+		final Method method = (Method) element;
+		final Class<?>[] paramTypes = method.getParameterTypes();
+		for (final Class<?> paramType : paramTypes) {
+			if (!isAccessible(paramType, configClass)) {
+				return -1;
+			}
+		}
+		code.op(0x2c); // aload_2
+		code.op(0xc0).u2(cp.classRef(ownerName)); // checkcast
+		int stack = 1;
+		int maxStack = 1;
+		for (int i = 0; i < paramTypes.length; ++i) {
+			code.op(0x2d); // aload_3
+			code.pushInt(cp, i);
+			code.op(0x32); // aaload
+			convert(cp, code, paramTypes[i]);
+			maxStack = Math.max(maxStack, stack + Math.max(2, slots(paramTypes[i])));
+			stack += slots(paramTypes[i]);
+		}
+		final StringBuilder desc = new StringBuilder("(");
+		for (final Class<?> paramType : paramTypes) {
+			desc.append(descriptor(paramType));
+		}
+		desc.append(")").append(descriptor(method.getReturnType()));
+		code.op(0xb6).u2(cp.methodRef(ownerName, method.getName(), desc.toString())); // invokevirtual
+		final int returnSlots = slots(method.getReturnType());
+		if (returnSlots == 1) {
+			code.op(0x57); // pop
+		} else if (returnSlots == 2) {
+			code.op(0x58); // pop2
+		}
+		return Math.max(maxStack, returnSlots) + 1;
+	}
+
+	/**
+	 * Write the code converting the object on top of the stack to the given type.
+	 */
+	private static void convert(final ConstantPool cp, final Code code, final Class<?> type) {
+		if (type.isPrimitive()) {
+			final String wrapper = internalName(wrapper(type));
+			code.op(0xc0).u2(cp.classRef(wrapper)); // checkcast
+			code.op(0xb6).u2(cp.methodRef(wrapper, type.getName() + "Value", "()" + descriptor(type))); // invokevirtual
+		} else if (!type.equals(Object.class)) {
+			code.op(0xc0).u2(cp.classRef(internalName(type))); // checkcast
+		}
+	}
+
+	private static int slots(final Class<?> type) {
+		if (type.equals(void.class)) {
+			return 0;
+		}
+		return type.equals(long.class) || type.equals(double.class) ? 2 : 1;
+	}
+
+	private static Class<?> wrapper(final Class<?> primitive) {
+		if (primitive.equals(boolean.class)) {
+			return Boolean.class;
+		}
+		if (primitive.equals(byte.class)) {
+			return Byte.class;
+		}
+		if (primitive.equals(char.class)) {
+			return Character.class;
+		}
+		if (primitive.equals(short.class)) {
+			return Short.class;
+		}
+		if (primitive.equals(int.class)) {
+			return Integer.class;
+		}
+		if (primitive.equals(long.class)) {
+			return Long.class;
+		}
+		if (primitive.equals(float.class)) {
+			return Float.class;
+		}
+		return Double.class;
+	}
+
+	/**
+	 * @return <code>true</code> if the given type can be referenced from the
+	 *         package of the given class.
+	 */
+	static boolean isAccessible(final Class<?> type, final Class<?> from) {
+		Class<?> component = type;
+		while (component.isArray()) {
+			component = component.getComponentType();
+		}
+		if (component.isPrimitive()) {
+			return true;
+		}
+		for (Class<?> c = component; c != null; c = c.getDeclaringClass()) {
+			final int modifiers = c.getModifiers();
+			if (Modifier.isPrivate(modifiers) || (!Modifier.isPublic(modifiers) && !isSamePackage(c, from))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isSamePackage(final Class<?> a, final Class<?> b) {
+		return a.getClassLoader() == b.getClassLoader() && packageName(a).equals(packageName(b));
+	}
+
+	private static String packageName(final Class<?> type) {
+		final String name = type.getName();
+		final int dot = name.lastIndexOf('.');
+		return dot < 0 ? "" : name.substring(0, dot);
+	}
+
+	private static String internalName(final Class<?> type) {
+		return type.getName().replace('.', '/');
+	}
+
+	private static String descriptor(final Class<?> type) {
+		if (type.isArray()) {
+			return internalName(type);
+		}
+		if (type.isPrimitive()) {
+			if (type.equals(void.class)) {
+				return "V";
+			}
+			if (type.equals(boolean.class)) {
+				return "Z";
+			}
+			if (type.equals(long.class)) {
+				return "J";
+			}
+			return type.getName().substring(0, 1).toUpperCase(Locale.ENGLISH);
+		}
+		return "L" + internalName(type) + ";";
+	}
+
+	private static void writeMethod(final DataOutputStream out, final ConstantPool cp, final int access,
+			final String name, final String desc, final int codeAttribute, final int maxStack, final int maxLocals,
+			final byte[] code) throws IOException {
+		out.writeShort(access);
+		out.writeShort(cp.utf8(name));
+		out.writeShort(cp.utf8(desc));
+		out.writeShort(1);
+		out.writeShort(codeAttribute);
+		out.writeInt(12 + code.length);
+		out.writeShort(maxStack);
+		out.writeShort(maxLocals);
+		out.writeInt(code.length);
+		out.write(code);
+		out.writeShort(0); // exception table
+		out.writeShort(0); // attributes
+	}
+
+	/**
+	 * Define the class in the package of the config class.
+	 */
+	private static Class<?> define(final Class<?> configClass, final String name, final byte[] bytes)
+			throws Exception {
+		final ClassLoader loader = configClass.getClassLoader();
+
+		Method privateLookupIn = null;
+		Class<?> lookupClass = null;
+		try {
+			final Class<?> methodHandles = Class.forName("java.lang.invoke.MethodHandles");
+			lookupClass = Class.forName("java.lang.invoke.MethodHandles$Lookup");
+			privateLookupIn = methodHandles.getMethod("privateLookupIn", Class.class, lookupClass);
+		} catch (final ClassNotFoundException e) {
+			// Java 6
+		} catch (final NoSuchMethodException e) {
+			// Java 7 and 8
+		}
+
+		if (privateLookupIn != null) {
+			final Object lookup = privateLookupIn.getDeclaringClass().getMethod("lookup").invoke(null);
+			final Object privateLookup = privateLookupIn.invoke(null, configClass, lookup);
+			try {
+				final Class<?> classOption = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+				final Object noOptions = Array.newInstance(classOption, 0);
+				final Method defineHiddenClass = lookupClass.getMethod("defineHiddenClass", byte[].class,
+						boolean.class, noOptions.getClass());
+				final Object hiddenLookup = defineHiddenClass.invoke(privateLookup, bytes, Boolean.TRUE, noOptions);
+				return (Class<?>) lookupClass.getMethod("lookupClass").invoke(hiddenLookup);
+			} catch (final ClassNotFoundException e) {
+				// Java 9 to 14
+			}
+			final Class<?> existing = findExisting(name, loader);
+			if (existing != null) {
+				return existing;
+			}
+			return (Class<?>) lookupClass.getMethod("defineClass", byte[].class).invoke(privateLookup, bytes);
+		}
+
+		final Class<?> existing = findExisting(name, loader);
+		if (existing != null) {
+			return existing;
+		}
+		final Method defineClass = ClassLoader.class.getDeclaredMethod("defineClass", String.class, byte[].class,
+				int.class, int.class);
+		defineClass.setAccessible(true);
+		return (Class<?>) defineClass.invoke(loader, name, bytes, 0, bytes.length);
+	}
+
+	/**
+	 * Find a binder class, which was already defined earlier, e.g. before the
+	 * scan cache was cleared.
+	 */
+	private static Class<?> findExisting(final String name, final ClassLoader loader) {
+		try {
+			final Class<?> existing = Class.forName(name, false, loader);
+			if (CmdOptionDescriptor.class.isAssignableFrom(existing)) {
+				return existing;
+			}
+		} catch (final ClassNotFoundException e) {
+			// not yet defined
+		}
+		return null;
+	}
+
+	private static class Code {
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		Code op(final int opcode) {
+			bytes.write(opcode);
+			return this;
+		}
+
+		Code u2(final int value) {
+			bytes.write(value >>> 8);
+			bytes.write(value);
+			return this;
+		}
+
+		Code u4(final int value) {
+			u2(value >>> 16);
+			return u2(value & 0xffff);
+		}
+
+		Code bytes(final byte[] value) {
+			bytes.write(value, 0, value.length);
+			return this;
+		}
+
+		Code pushInt(final ConstantPool cp, final int value) {
+			if (value <= 5) {
+				return op(0x03 + value); // iconst_<n>
+			}
+			if (value <= Byte.MAX_VALUE) {
+				return op(0x10).op(value); // bipush
+			}
+			return op(0x11).u2(value); // sipush
+		}
+
+		int size() {
+			return bytes.size();
+		}
+
+		byte[] toByteArray() {
+			return bytes.toByteArray();
+		}
+	}
+
+	private static class ConstantPool {
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private final DataOutputStream out = new DataOutputStream(bytes);
+		private final Map<String, Integer> entries = new HashMap<String, Integer>();
+		private int count = 1;
+
+		private Integer lookup(final String key) {
+			return entries.get(key);
+		}
+
+		private int add(final String key) {
+			final int index = count++;
+			entries.put(key, index);
+			return index;
+		}
+
+		int utf8(final String value) {
+			final Integer existing = lookup("U" + value);
+			if (existing != null) {
+				return existing;
+			}
+			try {
+				out.writeByte(1);
+				out.writeUTF(value);
+			} catch (final IOException e) {
+				throw new IllegalStateException(e);
+			}
+			return add("U" + value);
+		}
+
+		int classRef(final String internalName) {
+			final Integer existing = lookup("C" + internalName);
+			if (existing != null) {
+				return existing;
+			}
+			final int name = utf8(internalName);
+			write(7, name);
+			return add("C" + internalName);
+		}
+
+		int fieldRef(final String owner, final String name, final String desc) {
+			return memberRef(9, owner, name, desc);
+		}
+
+		int methodRef(final String owner, final String name, final String desc) {
+			return memberRef(10, owner, name, desc);
+		}
+
+		private int memberRef(final int tag, final String owner, final String name, final String desc) {
+			final String key = tag + owner + "." + name + ":" + desc;
+			final Integer existing = lookup(key);
+			if (existing != null) {
+				return existing;
+			}
+			final int ownerRef = classRef(owner);
+			final int nameAndType = nameAndType(name, desc);
+			write(tag, ownerRef, nameAndType);
+			return add(key);
+		}
+
+		private int nameAndType(final String name, final String desc) {
+			final String key = "N" + name + ":" + desc;
+			final Integer existing = lookup(key);
+			if (existing != null) {
+				return existing;
+			}
+			final int nameRef = utf8(name);
+			final int descRef = utf8(desc);
+			write(12, nameRef, descRef);
+			return add(key);
+		}
+
+		private void write(final int tag, final int... refs) {
+			try {
+				out.writeByte(tag);
+				for (final int ref : refs) {
+					out.writeShort(ref);
+				}
+			} catch (final IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		int count() {
+			return count;
+		}
+
+		byte[] toByteArray() throws IOException {
+			out.flush();
+			return bytes.toByteArray();
+		}
+	}
+
+}
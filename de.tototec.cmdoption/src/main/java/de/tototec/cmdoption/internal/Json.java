@@ -0,0 +1,296 @@
+package de.tototec.cmdoption.internal;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal JSON reader and writer.
+ * <p>
+ * JSON objects are represented as {@link Map} (with {@link String} keys),
+ * arrays as {@link List}, numbers as {@link Long} or {@link Double}, and
+ * <code>true</code>, <code>false</code> and <code>null</code> as
+ * {@link Boolean} and <code>null</code>.
+ */
+public abstract class Json {
+
+	/**
+	 * @return The given value as indented JSON text.
+	 * @throws IllegalArgumentException if the value contains unsupported types.
+	 */
+	public static String write(final Object value) {
+		final StringBuilder json = new StringBuilder();
+		write(json, value, "");
+		return json.append("\n").toString();
+	}
+
+	private static void write(final StringBuilder json, final Object value, final String indent) {
+		if (value == null) {
+			json.append("null");
+		} else if (value instanceof String) {
+			writeString(json, (String) value);
+		} else if (value instanceof Boolean || value instanceof Integer || value instanceof Long) {
+			json.append(value);
+		} else if (value instanceof Map<?, ?>) {
+			final Map<?, ?> map = (Map<?, ?>) value;
+			if (map.isEmpty()) {
+				json.append("{}");
+				return;
+			}
+			json.append("{");
+			String sep = "\n";
+			for (final Map.Entry<?, ?> entry : map.entrySet()) {
+				json.append(sep).append(indent).append("  ");
+				writeString(json, String.valueOf(entry.getKey()));
+				json.append(": ");
+				write(json, entry.getValue(), indent + "  ");
+				sep = ",\n";
+			}
+			json.append("\n").append(indent).append("}");
+		} else if (value instanceof List<?>) {
+			final List<?> list = (List<?>) value;
+			if (list.isEmpty()) {
+				json.append("[]");
+				return;
+			}
+			boolean simple = true;
+			for (final Object item : list) {
+				simple &= !(item instanceof Map<?, ?> || item instanceof List<?>);
+			}
+			json.append("[");
+			String sep = simple ? "" : "\n" + indent + "  ";
+			for (final Object item : list) {
+				json.append(sep);
+				write(json, item, indent + "  ");
+				sep = simple ? ", " : ",\n" + indent + "  ";
+			}
+			json.append(simple ? "]" : "\n" + indent + "]");
+		} else {
+			throw new IllegalArgumentException("Unsupported type: " + value.getClass().getName());
+		}
+	}
+
+	private static void writeString(final StringBuilder json, final String string) {
+		json.append('"');
+		for (int i = 0; i < string.length(); ++i) {
+			final char c = string.charAt(i);
+			switch (c) {
+				case '"':
+					json.append("\\\"");
+					break;
+				case '\\':
+					json.append("\\\\");
+					break;
+				case '\n':
+					json.append("\\n");
+					break;
+				case '\r':
+					json.append("\\r");
+					break;
+				case '\t':
+					json.append("\\t");
+					break;
+				default:
+					if (c < 0x20) {
+						json.append(String.format("\\u%04x", Integer.valueOf(c)));
+					} else {
+						json.append(c);
+					}
+			}
+		}
+		json.append('"');
+	}
+
+	/**
+	 * Parse the given JSON text.
+	 *
+	 * @throws IllegalArgumentException if the text is not valid JSON.
+	 */
+	public static Object read(final String json) {
+		final Reader reader = new Reader(json);
+		reader.skipWhitespace();
+		final Object value = reader.readValue();
+		reader.skipWhitespace();
+		if (reader.pos < json.length()) {
+			throw reader.error("Unexpected content");
+		}
+		return value;
+	}
+
+	private static class Reader {
+		private final String json;
+		private int pos = 0;
+
+		Reader(final String json) {
+			this.json = json;
+		}
+
+		IllegalArgumentException error(final String msg) {
+			return new IllegalArgumentException(msg + " at position " + pos);
+		}
+
+		void skipWhitespace() {
+			while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+				++pos;
+			}
+		}
+
+		char peek() {
+			if (pos >= json.length()) {
+				throw error("Unexpected end of input");
+			}
+			return json.charAt(pos);
+		}
+
+		void expect(final char c) {
+			if (peek() != c) {
+				throw error("Expected '" + c + "'");
+			}
+			++pos;
+		}
+
+		Object readValue() {
+			final char c = peek();
+			if (c == '{') {
+				return readObject();
+			} else if (c == '[') {
+				return readArray();
+			} else if (c == '"') {
+				return readString();
+			} else if (c == '-' || (c >= '0' && c <= '9')) {
+				return readNumber();
+			} else if (json.startsWith("true", pos)) {
+				pos += 4;
+				return Boolean.TRUE;
+			} else if (json.startsWith("false", pos)) {
+				pos += 5;
+				return Boolean.FALSE;
+			} else if (json.startsWith("null", pos)) {
+				pos += 4;
+				return null;
+			}
+			throw error("Unexpected character '" + c + "'");
+		}
+
+		Map<String, Object> readObject() {
+			expect('{');
+			final Map<String, Object> map = new LinkedHashMap<String, Object>();
+			skipWhitespace();
+			if (peek() == '}') {
+				++pos;
+				return map;
+			}
+			while (true) {
+				skipWhitespace();
+				final String key = readString();
+				skipWhitespace();
+				expect(':');
+				skipWhitespace();
+				map.put(key, readValue());
+				skipWhitespace();
+				if (peek() == ',') {
+					++pos;
+				} else {
+					expect('}');
+					return map;
+				}
+			}
+		}
+
+		List<Object> readArray() {
+			expect('[');
+			final List<Object> list = new ArrayList<Object>();
+			skipWhitespace();
+			if (peek() == ']') {
+				++pos;
+				return list;
+			}
+			while (true) {
+				skipWhitespace();
+				list.add(readValue());
+				skipWhitespace();
+				if (peek() == ',') {
+					++pos;
+				} else {
+					expect(']');
+					return list;
+				}
+			}
+		}
+
+		String readString() {
+			expect('"');
+			final StringBuilder string = new StringBuilder();
+			while (true) {
+				final char c = peek();
+				++pos;
+				if (c == '"') {
+					return string.toString();
+				}
+				if (c != '\\') {
+					string.append(c);
+					continue;
+				}
+				final char escaped = peek();
+				++pos;
+				switch (escaped) {
+					case '"':
+					case '\\':
+					case '/':
+						string.append(escaped);
+						break;
+					case 'b':
+						string.append('\b');
+						break;
+					case 'f':
+						string.append('\f');
+						break;
+					case 'n':
+						string.append('\n');
+						break;
+					case 'r':
+						string.append('\r');
+						break;
+					case 't':
+						string.append('\t');
+						break;
+					case 'u':
+						if (pos + 4 > json.length()) {
+							throw error("Invalid unicode escape");
+						}
+						try {
+							string.append((char) Integer.parseInt(json.substring(pos, pos + 4), 16));
+						} catch (final NumberFormatException e) {
+							throw error("Invalid unicode escape");
+						}
+						pos += 4;
+						break;
+					default:
+						throw error("Invalid escape '\\" + escaped + "'");
+				}
+			}
+		}
+
+		Object readNumber() {
+			final int start = pos;
+			boolean integral = true;
+			while (pos < json.length()) {
+				final char c = json.charAt(pos);
+				if (c == '.' || c == 'e' || c == 'E') {
+					integral = false;
+				} else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+					break;
+				}
+				++pos;
+			}
+			final String number = json.substring(start, pos);
+			try {
+				return integral ? (Object) Long.valueOf(number) : (Object) Double.valueOf(number);
+			} catch (final NumberFormatException e) {
+				throw error("Invalid number '" + number + "'");
+			}
+		}
+	}
+
+}
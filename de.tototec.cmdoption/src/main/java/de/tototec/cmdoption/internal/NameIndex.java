@@ -0,0 +1,181 @@
+package de.tototec.cmdoption.internal;
+
+import java.util.Arrays;
+
+/**
+ * A compact map from names to values, which keeps the insertion order.
+ * <p>
+ * Keys and values are stored in two arrays in insertion order. The lookup uses
+ * an open-addressing hash table (linear probing) of indexes into these arrays,
+ * so no entry objects are created. Entries can not be removed.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @param <V> The type of the values.
+ */
+public class NameIndex<V> {
+
+	private String[] keys = new String[8];
+	private Object[] values = new Object[8];
+	private int size = 0;
+	/**
+	 * The hash table. Each slot holds the index of an entry plus one, or
+	 * <code>0</code> if the slot is free. The length is always a power of two and
+	 * at least twice the size.
+	 */
+	private int[] slots = new int[16];
+
+	public int size() {
+		return size;
+	}
+
+	public boolean containsKey(final String key) {
+		return indexOf(key) >= 0;
+	}
+
+	/**
+	 * @return The value of the given key, or <code>null</code>, if the key is
+	 *         unknown.
+	 */
+	public V get(final String key) {
+		final int index = indexOf(key);
+		return index < 0 ? null : valueAt(index);
+	}
+
+	/**
+	 * Add the given key, or replace its value, if already present. A replaced
+	 * entry keeps its position.
+	 *
+	 * @return The previous value or <code>null</code>.
+	 */
+	public V put(final String key, final V value) {
+		if (key == null) {
+			throw new IllegalArgumentException("key must not be null");
+		}
+		final int index = indexOf(key);
+		if (index >= 0) {
+			final V previous = valueAt(index);
+			values[index] = value;
+			return previous;
+		}
+		if (size == keys.length) {
+			final int capacity = size + (size >> 1) + 1;
+			keys = Arrays.copyOf(keys, capacity);
+			values = Arrays.copyOf(values, capacity);
+		}
+		keys[size] = key;
+		values[size] = value;
+		++size;
+		if (size * 2 > slots.length) {
+			rehash(slots.length * 2);
+		} else {
+			insertSlot(size - 1);
+		}
+		return null;
+	}
+
+	/**
+	 * @return The key of the entry at the given position in insertion order.
+	 */
+	public String keyAt(final int index) {
+		checkIndex(index);
+		return keys[index];
+	}
+
+	/**
+	 * @return The value of the entry at the given position in insertion order.
+	 */
+	@SuppressWarnings("unchecked")
+	public V valueAt(final int index) {
+		checkIndex(index);
+		return (V) values[index];
+	}
+
+	private void checkIndex(final int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+	/**
+	 * @return The position of the entry with the given key in insertion order, or
+	 *         <code>-1</code>.
+	 */
+	public int indexOf(final String key) {
+		if (key == null) {
+			return -1;
+		}
+		final int mask = slots.length - 1;
+		for (int slot = hash(key) & mask;; slot = (slot + 1) & mask) {
+			final int entry = slots[slot];
+			if (entry == 0) {
+				return -1;
+			}
+			if (key.equals(keys[entry - 1])) {
+				return entry - 1;
+			}
+		}
+	}
+
+	/**
+	 * Find the key, which is equal to the first <code>length</code> characters of
+	 * the given string, without creating a substring.
+	 *
+	 * @return The position of the entry in insertion order, or <code>-1</code>.
+	 */
+	public int indexOfPrefix(final String string, final int length) {
+		if (length < 0 || length > string.length()) {
+			throw new IndexOutOfBoundsException("Length: " + length + ", String length: " + string.length());
+		}
+		// same as String.hashCode() of the substring
+		int h = 0;
+		for (int i = 0; i < length; ++i) {
+			h = 31 * h + string.charAt(i);
+		}
+		final int mask = slots.length - 1;
+		for (int slot = (h ^ (h >>> 16)) & mask;; slot = (slot + 1) & mask) {
+			final int entry = slots[slot];
+			if (entry == 0) {
+				return -1;
+			}
+			final String key = keys[entry - 1];
+			if (key.length() == length && string.regionMatches(0, key, 0, length)) {
+				return entry - 1;
+			}
+		}
+	}
+
+	private void insertSlot(final int index) {
+		final int mask = slots.length - 1;
+		int slot = hash(keys[index]) & mask;
+		while (slots[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		slots[slot] = index + 1;
+	}
+
+	private void rehash(final int length) {
+		slots = new int[length];
+		for (int i = 0; i < size; ++i) {
+			insertSlot(i);
+		}
+	}
+
+	private static int hash(final String key) {
+		final int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder result = new StringBuilder("{");
+		for (int i = 0; i < size; ++i) {
+			if (i > 0) {
+				result.append(", ");
+			}
+			result.append(keys[i]).append("=").append(values[i]);
+		}
+		return result.append("}").toString();
+	}
+
+}
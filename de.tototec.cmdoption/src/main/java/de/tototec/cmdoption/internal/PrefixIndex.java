@@ -0,0 +1,96 @@
+package de.tototec.cmdoption.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An immutable index of names, to find all names starting with a given prefix.
+ * <p>
+ * The names are kept in a sorted array, so all names with the same prefix are
+ * adjacent. A lookup is a binary search for the first candidate and a scan over
+ * the matching names only.
+ *
+ * @param <V> The type of the values.
+ */
+public class PrefixIndex<V> {
+
+	private final String[] names;
+	private final Object[] values;
+
+	/**
+	 * Create an index of the given names and their values. Names must not occur
+	 * more than once.
+	 */
+	public PrefixIndex(final List<String> names, final List<? extends V> values) {
+		if (names.size() != values.size()) {
+			throw new IllegalArgumentException("names and values must have the same size");
+		}
+		final Integer[] order = new Integer[names.size()];
+		for (int i = 0; i < order.length; ++i) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(final Integer o1, final Integer o2) {
+				return names.get(o1).compareTo(names.get(o2));
+			}
+		});
+		this.names = new String[order.length];
+		this.values = new Object[order.length];
+		for (int i = 0; i < order.length; ++i) {
+			this.names[i] = names.get(order[i]);
+			this.values[i] = values.get(order[i]);
+		}
+	}
+
+	/**
+	 * @return The index of the first name, which is equal to or greater than the
+	 *         prefix.
+	 */
+	private int first(final String prefix) {
+		final int index = Arrays.binarySearch(names, prefix);
+		return index < 0 ? -index - 1 : index;
+	}
+
+	/**
+	 * @return All names starting with the given prefix, in sorted order.
+	 */
+	public List<String> namesWithPrefix(final String prefix) {
+		final List<String> result = new ArrayList<String>();
+		for (int i = first(prefix); i < names.length && names[i].startsWith(prefix); ++i) {
+			result.add(names[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * @return The distinct values of all names starting with the given prefix, in
+	 *         the order of their first name.
+	 */
+	@SuppressWarnings("unchecked")
+	public List<V> valuesWithPrefix(final String prefix) {
+		final List<V> result = new ArrayList<V>();
+		for (int i = first(prefix); i < names.length && names[i].startsWith(prefix); ++i) {
+			final V value = (V) values[i];
+			// the candidates are typically few, so a linear check is fine
+			boolean known = false;
+			for (final V v : result) {
+				if (v == value) {
+					known = true;
+					break;
+				}
+			}
+			if (!known) {
+				result.add(value);
+			}
+		}
+		return result;
+	}
+
+	public int size() {
+		return names.length;
+	}
+
+}
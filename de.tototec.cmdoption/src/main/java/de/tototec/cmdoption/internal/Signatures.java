@@ -0,0 +1,106 @@
+package de.tototec.cmdoption.internal;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/**
+ * Stable string representations of fields and methods, as used by
+ * {@link de.tototec.cmdoption.CmdOptionDescriptor}.
+ */
+public abstract class Signatures {
+
+	/**
+	 * @return The signature of the given field or method, or <code>null</code>
+	 *         if it is neither.
+	 */
+	public static String of(final AccessibleObject element) {
+		if (element instanceof Field) {
+			final Field field = (Field) element;
+			return field.getDeclaringClass().getName() + "#" + field.getName();
+		}
+		if (element instanceof Method) {
+			final Method method = (Method) element;
+			final StringBuilder sig = new StringBuilder();
+			sig.append(method.getDeclaringClass().getName()).append("#").append(method.getName()).append("(");
+			final Class<?>[] paramTypes = method.getParameterTypes();
+			for (int i = 0; i < paramTypes.length; ++i) {
+				if (i > 0) {
+					sig.append(",");
+				}
+				sig.append(paramTypes[i].getName());
+			}
+			return sig.append(")").toString();
+		}
+		return null;
+	}
+
+	/**
+	 * Resolve a signature against the given class or one of its super classes.
+	 *
+	 * @return The resolved field or method, or <code>null</code> if it could not
+	 *         be resolved.
+	 */
+	public static AccessibleObject resolve(final Class<?> type, final String signature) {
+		final int hash = signature.indexOf('#');
+		if (hash <= 0) {
+			return null;
+		}
+		final String className = signature.substring(0, hash);
+		Class<?> declaringClass = type;
+		while (declaringClass != null && !declaringClass.getName().equals(className)) {
+			declaringClass = declaringClass.getSuperclass();
+		}
+		if (declaringClass == null) {
+			return null;
+		}
+
+		try {
+			final int paren = signature.indexOf('(', hash);
+			if (paren < 0) {
+				return declaringClass.getDeclaredField(signature.substring(hash + 1));
+			}
+			if (!signature.endsWith(")")) {
+				return null;
+			}
+			final String params = signature.substring(paren + 1, signature.length() - 1);
+			final String[] paramNames = params.length() == 0 ? new String[0] : params.split(",");
+			final Class<?>[] paramTypes = new Class<?>[paramNames.length];
+			for (int i = 0; i < paramNames.length; ++i) {
+				paramTypes[i] = classForName(paramNames[i], declaringClass.getClassLoader());
+			}
+			return declaringClass.getDeclaredMethod(signature.substring(hash + 1, paren), paramTypes);
+		} catch (final NoSuchFieldException e) {
+			return null;
+		} catch (final NoSuchMethodException e) {
+			return null;
+		} catch (final ClassNotFoundException e) {
+			return null;
+		} catch (final SecurityException e) {
+			return null;
+		}
+	}
+
+	private static Class<?> classForName(final String name, final ClassLoader classLoader)
+			throws ClassNotFoundException {
+		if ("boolean".equals(name)) {
+			return boolean.class;
+		} else if ("byte".equals(name)) {
+			return byte.class;
+		} else if ("char".equals(name)) {
+			return char.class;
+		} else if ("short".equals(name)) {
+			return short.class;
+		} else if ("int".equals(name)) {
+			return int.class;
+		} else if ("long".equals(name)) {
+			return long.class;
+		} else if ("float".equals(name)) {
+			return float.class;
+		} else if ("double".equals(name)) {
+			return double.class;
+		}
+		return Class.forName(name, false, classLoader);
+	}
+
+}
@@ -0,0 +1,60 @@
+package de.tototec.cmdoption.internal;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shares equal strings and string arrays, e.g. the argument names of many
+ * options.
+ * <p>
+ * Shared arrays must not be modified. This class is thread-safe.
+ */
+public class StringTable {
+
+	public static final String[] EMPTY = new String[0];
+
+	private final Map<String, String> strings = new HashMap<String, String>();
+	private final Map<List<String>, String[]> arrays = new HashMap<List<String>, String[]>();
+
+	/**
+	 * @return The shared instance equal to the given string.
+	 */
+	public synchronized String share(final String string) {
+		if (string == null) {
+			return null;
+		}
+		final String shared = strings.get(string);
+		if (shared != null) {
+			return shared;
+		}
+		strings.put(string, string);
+		return string;
+	}
+
+	/**
+	 * @return The shared instance equal to the given array. Its elements are
+	 *         shared too.
+	 */
+	public synchronized String[] share(final String[] array) {
+		if (array == null) {
+			return null;
+		}
+		if (array.length == 0) {
+			return EMPTY;
+		}
+		final String[] shared = arrays.get(Arrays.asList(array));
+		if (shared != null) {
+			return shared;
+		}
+		final String[] copy = new String[array.length];
+		for (int i = 0; i < array.length; ++i) {
+			copy[i] = share(array[i]);
+		}
+		// the key is a view of the shared array, so we store no extra copy
+		arrays.put(Arrays.asList(copy), copy);
+		return copy;
+	}
+
+}
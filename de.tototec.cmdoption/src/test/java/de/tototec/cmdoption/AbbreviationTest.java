@@ -0,0 +1,128 @@
+package de.tototec.cmdoption;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+import de.tototec.cmdoption.internal.PrefixIndex;
+
+public class AbbreviationTest extends FreeSpec {
+
+	public static class Config {
+		@CmdOption(names = { "--verbose", "--verbosity" })
+		boolean verbose;
+
+		@CmdOption(names = "--version")
+		boolean version;
+
+		@CmdOption(names = "--output", args = "FILE")
+		String output;
+
+		@CmdOption(names = "-v")
+		boolean v;
+	}
+
+	@CmdCommand(names = "deploy")
+	public static class Deploy {
+		@CmdOption(names = "--target", args = "TARGET")
+		String target;
+	}
+
+	public static class Files {
+		@CmdOption(names = "--verbose")
+		boolean verbose;
+
+		@CmdOption(args = "FILE", maxCount = -1)
+		final List<String> files = new ArrayList<String>();
+	}
+
+	@CmdCommand(names = "status")
+	public static class Status {
+		@CmdOption(args = "FILE", maxCount = -1)
+		final List<String> files = new ArrayList<String>();
+	}
+
+	@CmdCommand(names = "add")
+	public static class Add {
+	}
+
+	public AbbreviationTest() {
+
+		test("Abbreviations are not supported by default", () -> {
+			final CmdlineParser cp = new CmdlineParser(new Config());
+			intercept(CmdlineParserException.class, "\\QUnsupported option or parameter found: --out\\E",
+				() -> cp.parse("--out", "file"));
+		});
+
+		test("Unique prefixes of options and commands are resolved", () -> {
+			final Config config = new Config();
+			final Deploy deploy = new Deploy();
+			final CmdlineParser cp = new CmdlineParser(config, deploy);
+			cp.setAbbreviationsAllowed(true);
+			cp.parse("--verb", "--o", "file", "dep", "--tar", "prod");
+			expectTrue(config.verbose);
+			expectEquals(config.output, "file");
+			expectEquals(cp.getParsedCommandName(), "deploy");
+			expectEquals(deploy.target, "prod");
+		});
+
+		test("Exact names win over abbreviations", () -> {
+			final Config config = new Config();
+			final CmdlineParser cp = new CmdlineParser(config);
+			cp.setAbbreviationsAllowed(true);
+			cp.parse("-v");
+			expectTrue(config.v);
+			expectTrue(!config.verbose && !config.version);
+		});
+
+		test("Ambiguous abbreviations report all candidates", () -> {
+			final CmdlineParser cp = new CmdlineParser(new Config());
+			cp.setAbbreviationsAllowed(true);
+			intercept(CmdlineParserException.class,
+				"\\QAmbiguous option or command \"--ver\" could be: --verbose, --verbosity, --version\\E",
+				() -> cp.parse("--ver"));
+		});
+
+		test("Arguments are no abbreviated commands, if there is a main parameter", () -> {
+			final Files files = new Files();
+			final CmdlineParser cp = new CmdlineParser(files, new Status(), new Add());
+			cp.setAbbreviationsAllowed(true);
+			cp.parse("--verb", "s", "a", "stat");
+			expectTrue(files.verbose);
+			expectEquals(files.files, Arrays.asList("s", "a", "stat"));
+			expectEquals(cp.getParsedCommandName(), null);
+		});
+
+		test("Arguments are no abbreviated commands, if there is a default command", () -> {
+			final Status status = new Status();
+			final CmdlineParser cp = new CmdlineParser(status, new Add());
+			cp.setAbbreviationsAllowed(true);
+			cp.setDefaultCommandClass(Status.class);
+			cp.parse("a");
+			expectEquals(cp.getParsedCommandName(), "status");
+			expectEquals(status.files, Arrays.asList("a"));
+		});
+
+		test("Arguments without option prefix are no abbreviated options", () -> {
+			final CmdlineParser cp = new CmdlineParser(new Config(), new Deploy());
+			cp.setAbbreviationsAllowed(true);
+			intercept(CmdlineParserException.class, "\\QUnsupported option or parameter found: verb\\E",
+				() -> cp.parse("verb"));
+		});
+
+		test("The prefix index finds adjacent names only", () -> {
+			final PrefixIndex<Integer> index = new PrefixIndex<Integer>(
+				Arrays.asList("b", "ab", "abc", "a", "ac"), Arrays.asList(1, 2, 2, 3, 4));
+			expectEquals(index.namesWithPrefix("ab"), Arrays.asList("ab", "abc"));
+			expectEquals(index.valuesWithPrefix("a"), Arrays.asList(3, 2, 4));
+			expectEquals(index.namesWithPrefix("x").size(), 0);
+			expectEquals(index.namesWithPrefix("").size(), 5);
+		});
+
+	}
+
+}
@@ -4,6 +4,10 @@ import static de.tobiasroeser.lambdatest.Expect.expectEquals;
 import static de.tobiasroeser.lambdatest.Expect.expectFalse;
 import static de.tobiasroeser.lambdatest.Expect.expectTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import de.tobiasroeser.lambdatest.testng.FreeSpec;
 
 public class AggregateShortOptionsTest extends FreeSpec {
@@ -24,6 +28,14 @@ public class AggregateShortOptionsTest extends FreeSpec {
 		String param;
 	}
 
+	public static class Files {
+		@CmdOption(names = { "-f" }, args = { "FILE" }, maxCount = -1)
+		final List<String> files = new ArrayList<String>();
+
+		@CmdOption(args = { "PARAMETER" }, maxCount = -1)
+		final List<String> params = new ArrayList<String>();
+	}
+
 	public AggregateShortOptionsTest() {
 
 		test("Setting all short options separate should work (reference test)", () -> {
@@ -108,6 +120,25 @@ public class AggregateShortOptionsTest extends FreeSpec {
 			expectEquals(param.param, "-lsa");
 		});
 
+
+		test("Long command lines with aggregated options are parsed in order", () -> {
+			final Files files = new Files();
+			final CmdlineParser cp = new CmdlineParser(files);
+			cp.setAggregateShortOptionsWithPrefix("-");
+			final String[] cmdline = new String[200000];
+			for (int i = 0; i < cmdline.length; i += 4) {
+				cmdline[i] = "p" + i;
+				cmdline[i + 1] = "-ff";
+				cmdline[i + 2] = "a" + i;
+				cmdline[i + 3] = "b" + i;
+			}
+			cp.parse(cmdline);
+			expectEquals(files.params.size(), 50000);
+			expectEquals(files.files.size(), 100000);
+			expectEquals(files.params.get(49999), "p199996");
+			expectEquals(files.files.subList(99998, 100000), Arrays.asList("a199996", "b199996"));
+		});
+
 	}
 
 }
@@ -0,0 +1,184 @@
+package de.tototec.cmdoption;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+import de.tototec.cmdoption.handler.CmdOptionHandlerException;
+import de.tototec.cmdoption.handler.IntegerHandler;
+import de.tototec.cmdoption.internal.BinderGenerator;
+
+public class ApplyEngineTest extends FreeSpec {
+
+	public enum Color {
+		RED, GREEN
+	}
+
+	public static class BaseConfig {
+		@CmdOption(names = "--base", args = "N")
+		long base;
+	}
+
+	public static class Config extends BaseConfig {
+		@CmdOption(names = "--count", args = "N")
+		int count;
+
+		@CmdOption(names = "--flag")
+		boolean flag;
+
+		@CmdOption(names = "--byte", args = "B")
+		Byte aByte;
+
+		@CmdOption(names = "--color", args = "COLOR")
+		Color color;
+
+		@CmdOption(names = "--private", args = "VALUE")
+		private String privateValue;
+
+		final List<String> pairs = new LinkedList<String>();
+
+		@CmdOption(names = "--pair", args = { "A", "B" }, maxCount = -1)
+		String pair(final String a, final String b) {
+			pairs.add(a + "=" + b);
+			return a;
+		}
+
+		long duration;
+
+		@CmdOption(names = "--duration", args = "MILLIS")
+		public void setDuration(final long duration) {
+			this.duration = duration;
+		}
+
+		@CmdOption(names = "--fail")
+		void fail() throws Exception {
+			throw new Exception("failed on purpose");
+		}
+
+		@CmdOption(args = "PARAM", maxCount = -1)
+		final List<String> params = new LinkedList<String>();
+	}
+
+	/**
+	 * A user handler, which applies twice the given value.
+	 */
+	public static class DoublingIntegerHandler extends IntegerHandler {
+		@Override
+		public void applyParams(final Object config, final AccessibleObject element, final String[] args,
+				final String optionName) throws CmdOptionHandlerException {
+			try {
+				((Field) element).set(config, 2 * Integer.parseInt(args[0]));
+			} catch (final IllegalAccessException e) {
+				throw new CmdOptionHandlerException("Could not apply", e, "Could not apply");
+			}
+		}
+	}
+
+	public static class SubclassedHandlerConfig {
+		@CmdOption(names = "--registered", args = "N")
+		int registered;
+
+		@CmdOption(names = "--annotated", args = "N", handler = DoublingIntegerHandler.class)
+		int annotated;
+	}
+
+	private CmdlineParser generatedParser(final Object config) {
+		final CmdlineParser cp = new CmdlineParser();
+		cp.setApplyEngine(ApplyEngine.GENERATED);
+		cp.addObject(config);
+		return cp;
+	}
+
+	{
+		test("Generated engine binds options to a generated binder", () -> {
+			final CmdlineParser cp = generatedParser(new Config());
+			for (final OptionHandle option : cp.getCmdlineModel().getOptions()) {
+				expectTrue(option.getAccessor() instanceof DescriptorElementAccessor, "Not bound: " + option);
+				final CmdOptionDescriptor binder = ((DescriptorElementAccessor) option.getAccessor()).getDescriptor();
+				expectTrue(binder.getClass().getName().startsWith(Config.class.getName() + BinderGenerator.SUFFIX),
+					"Unexpected binder: " + binder.getClass());
+			}
+		});
+
+		test("Generated engine applies all kinds of options", () -> {
+			final Config config = new Config();
+			generatedParser(config).parse("--base", "1", "--count", "2", "--flag", "--byte", "3", "--color", "GREEN",
+				"--private", "p", "--pair", "a", "b", "--pair", "c", "d", "--duration", "4", "x", "y");
+			expectEquals(config.base, 1L);
+			expectEquals(config.count, 2);
+			expectEquals(config.flag, true);
+			expectEquals(config.aByte, Byte.valueOf((byte) 3));
+			expectEquals(config.color, Color.GREEN);
+			expectEquals(config.privateValue, "p");
+			expectEquals(config.pairs.toString(), "[a=b, c=d]");
+			expectEquals(config.duration, 4L);
+			expectEquals(config.params.toString(), "[x, y]");
+		});
+
+		test("Generated engine reports exceptions of option methods as cause", () -> {
+			final CmdlineParserException e = intercept(CmdlineParserException.class, () -> {
+				generatedParser(new Config()).parse("--fail");
+			});
+			expectEquals(e.getCause().getMessage(), "failed on purpose");
+		});
+
+		test("Generated engine works again after the scan cache was cleared", () -> {
+			generatedParser(new Config());
+			ScanCache.clear();
+			final Config config = new Config();
+			generatedParser(config).parse("--count", "6");
+			expectEquals(config.count, 6);
+		});
+
+		test("Reflection engine does not generate a binder", () -> {
+			final CmdlineParser cp = new CmdlineParser();
+			cp.setApplyEngine(ApplyEngine.REFLECTION);
+			cp.addObject(new Config());
+			for (final OptionHandle option : cp.getCmdlineModel().getOptions()) {
+				expectTrue(option.getAccessor() instanceof ReflectiveElementAccessor, "Not reflective: " + option);
+			}
+		});
+
+		for (final ApplyEngine engine : ApplyEngine.values()) {
+			test(engine + " engine calls applyParams of a subclassed built-in handler", () -> {
+				final CmdlineParser cp = new CmdlineParser();
+				cp.setApplyEngine(engine);
+				cp.unregisterHandler(IntegerHandler.class);
+				cp.registerHandler(new DoublingIntegerHandler());
+				final SubclassedHandlerConfig config = new SubclassedHandlerConfig();
+				cp.addObject(config);
+				cp.parse("--registered", "2", "--annotated", "3");
+				expectEquals(config.registered, 4);
+				expectEquals(config.annotated, 6);
+				for (final OptionHandle option : cp.getCmdlineModel().getOptions()) {
+					expectEquals(option.getAccessor(), null);
+				}
+			});
+		}
+
+		test("Sub-command parsers inherit the engine", () -> {
+			final CmdlineParser cp = new CmdlineParser();
+			cp.setApplyEngine(ApplyEngine.GENERATED);
+			final CommandConfig command = new CommandConfig();
+			cp.addObject(command);
+			cp.parse("cmd", "--count", "5");
+			expectEquals(command.count, 5);
+			final OptionHandle option = cp.getCmdlineModel().getCommands().get(0).getCmdlineParser().getCmdlineModel()
+				.getOptions().get(0);
+			expectTrue(option.getAccessor() instanceof DescriptorElementAccessor);
+		});
+	}
+
+	@CmdCommand(names = "cmd")
+	public static class CommandConfig {
+		@CmdOption(names = "--count", args = "N")
+		int count;
+	}
+
+}
@@ -0,0 +1,96 @@
+package de.tototec.cmdoption;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class CmdOptionDescriptorTest extends FreeSpec {
+
+	public static class Config {
+		@CmdOption(names = "--described")
+		boolean described;
+
+		@CmdOption(names = "--undescribed")
+		boolean undescribed;
+
+		private String name;
+
+		/** Set by the descriptor, when it applied a value directly. */
+		boolean directlyApplied;
+
+		@CmdOption(names = "--name", args = "NAME")
+		private void setName(final String name) {
+			this.name = name;
+		}
+	}
+
+	/**
+	 * Hand-written descriptor for {@link Config}, which deliberately omits the
+	 * <code>--undescribed</code> option.
+	 */
+	public static class Config_CmdOptionDescriptor implements CmdOptionDescriptor {
+		public String[] getElements() {
+			return new String[] {
+				Config.class.getName() + "#described",
+				Config.class.getName() + "#setName(java.lang.String)"
+			};
+		}
+
+		public boolean apply(final int element, final Object config, final Object[] values) throws Exception {
+			switch (element) {
+				case 0:
+					((Config) config).described = ((Boolean) values[0]).booleanValue();
+					((Config) config).directlyApplied = true;
+					return true;
+				default:
+					// private method, let the parser use reflection
+					return false;
+			}
+		}
+	}
+
+	public static class StaleConfig {
+		@CmdOption(names = "--flag")
+		boolean flag;
+	}
+
+	public static class StaleConfig_CmdOptionDescriptor implements CmdOptionDescriptor {
+		public String[] getElements() {
+			return new String[] { StaleConfig.class.getName() + "#removedFlag" };
+		}
+
+		public boolean apply(final int element, final Object config, final Object[] values) throws Exception {
+			throw new AssertionError("Stale descriptor must not be used");
+		}
+	}
+
+	{
+		test("Parser uses descriptor instead of reflection", () -> {
+			final Config config = new Config();
+			final CmdlineParser cp = new CmdlineParser(config);
+			expectEquals(cp.getCmdlineModel().getOptions().size(), 2);
+			cp.parse("--described", "--name", "n");
+			expectEquals(config.described, true);
+			expectEquals(config.name, "n");
+			intercept(CmdlineParserException.class, "\\QUnsupported option or parameter found: --undescribed\\E", () -> {
+				cp.parse("--undescribed");
+			});
+		});
+
+		test("Parser falls back to reflection for elements not applied by descriptor", () -> {
+			final Config config = new Config();
+			final CmdlineParser cp = new CmdlineParser(config);
+			cp.parse("--name", "n");
+			expectEquals(config.name, "n");
+			expectEquals(config.directlyApplied, false);
+		});
+
+		test("Parser falls back to reflection for stale descriptor", () -> {
+			final StaleConfig config = new StaleConfig();
+			final CmdlineParser cp = new CmdlineParser(config);
+			cp.parse("--flag");
+			expectEquals(config.flag, true);
+		});
+	}
+
+}
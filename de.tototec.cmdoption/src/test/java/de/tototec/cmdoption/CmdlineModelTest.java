@@ -0,0 +1,102 @@
+package de.tototec.cmdoption;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class CmdlineModelTest extends FreeSpec {
+
+	public static class Config {
+		@CmdOption(names = "--zeta")
+		boolean zeta;
+		@CmdOption(names = { "-b", "--beta" })
+		boolean beta;
+		@CmdOption(names = "--hidden", hidden = true)
+		boolean hidden;
+		@CmdOption(names = "+alpha")
+		boolean alpha;
+	}
+
+	public static class MoreConfig {
+		@CmdOption(names = "--gamma")
+		boolean gamma;
+	}
+
+	@CmdCommand(names = "run")
+	public static class Run {
+	}
+
+	@CmdCommand(names = "-build")
+	public static class Build {
+	}
+
+	@CmdCommand(names = "secret", hidden = true)
+	public static class Secret {
+	}
+
+	private static List<String> firstNames(final List<?> handles) {
+		final List<String> names = new ArrayList<String>();
+		for (final Object handle : handles) {
+			names.add(handle instanceof OptionHandle ? ((OptionHandle) handle).getNames()[0]
+				: ((CommandHandle) handle).getNames()[0]);
+		}
+		return names;
+	}
+
+	public CmdlineModelTest() {
+
+		test("The model is cached until the parser changes", () -> {
+			final CmdlineParser cp = new CmdlineParser(new Config());
+			final CmdlineModel model = cp.getCmdlineModel();
+			expectTrue(cp.getCmdlineModel() == model);
+
+			cp.setAboutLine("About");
+			final CmdlineModel model2 = cp.getCmdlineModel();
+			expectTrue(model2 != model);
+			expectEquals(model2.getAboutLine(), "About");
+
+			cp.addObject(new MoreConfig());
+			expectEquals(cp.getCmdlineModel().getOptions().size(), 5);
+			expectEquals(model2.getOptions().size(), 4);
+		});
+
+		test("The model of a command follows the program name of its parent", () -> {
+			final CmdlineParser cp = new CmdlineParser(new Config(), new Run());
+			final CommandHandle run = cp.getCmdlineModel().getCommands().get(0);
+			cp.setProgramName("tool");
+			expectEquals(run.getCommandCmdlineModel().getProgramName(), "tool run");
+			cp.setProgramName("other");
+			expectEquals(run.getCommandCmdlineModel().getProgramName(), "other run");
+		});
+
+		test("The model can not be modified", () -> {
+			final CmdlineModel model = new CmdlineParser(new Config(), new Run()).getCmdlineModel();
+			intercept(UnsupportedOperationException.class, () -> model.getOptions().clear());
+			intercept(UnsupportedOperationException.class, () -> model.getCommands().clear());
+			intercept(UnsupportedOperationException.class, () -> model.getVisibleOptions().clear());
+		});
+
+		test("Visible options and commands are sorted without hidden ones", () -> {
+			final CmdlineModel model = new CmdlineParser(new Config(), new Run(), new Build(), new Secret())
+				.getCmdlineModel();
+			expectEquals(firstNames(model.getOptions()), Arrays.asList("--zeta", "-b", "--hidden", "+alpha"));
+			expectEquals(firstNames(model.getVisibleOptions()), Arrays.asList("+alpha", "-b", "--zeta"));
+			expectEquals(firstNames(model.getVisibleCommands()), Arrays.asList("-build", "run"));
+			expectTrue(model.getVisibleOptions() == model.getVisibleOptions());
+		});
+
+		test("Sort keys ignore leading non-alphanumeric characters", () -> {
+			expectEquals(CmdlineModel.sortKey("--name"), "name");
+			expectEquals(CmdlineModel.sortKey("-+-9x"), "9x");
+			expectEquals(CmdlineModel.sortKey("---"), "");
+			expectEquals(new OptionHandle.OptionHandleComparator().sanitizeString("--a-b"), "a-b");
+		});
+
+	}
+
+}
@@ -0,0 +1,123 @@
+package de.tototec.cmdoption;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+import de.tototec.cmdoption.internal.Json;
+
+public class CmdlineSpecTest extends FreeSpec {
+
+	public static class Config {
+		@CmdOption(names = { "-h", "--help" }, isHelp = true, description = "Show \"help\"\nand exit")
+		boolean help;
+		@CmdOption(names = "-D", args = { "KEY", "VALUE" }, maxCount = -1, description = "Define {0}={1}")
+		void define(final String key, final String value) {
+		}
+		@CmdOption(names = "--level", args = "LEVEL", minCount = 1, requires = "-D", conflictsWith = "--quiet")
+		int level;
+		@CmdOption(names = "--quiet", hidden = true)
+		boolean quiet;
+		@CmdOptionDelegate(CmdOptionDelegate.Mode.COMMAND)
+		final Remote remote = new Remote();
+	}
+
+	@CmdCommand(names = { "build", "b" }, description = "Build modules")
+	public static class Build {
+		@CmdOption(names = "--target", args = "TARGET")
+		String target;
+		@CmdOption(args = "MODULE", maxCount = -1)
+		final List<String> modules = new LinkedList<String>();
+	}
+
+	@CmdCommand(names = "remote", hidden = true)
+	public static class Remote {
+		@CmdOptionDelegate(CmdOptionDelegate.Mode.COMMAND)
+		final RemoteAdd add = new RemoteAdd();
+	}
+
+	@CmdCommand(names = "add")
+	public static class RemoteAdd {
+		@CmdOption(names = "--name", args = "NAME", minCount = 1)
+		String name;
+	}
+
+	private static CmdlineParser annotatedParser() {
+		final CmdlineParser cp = new CmdlineParser(new Config(), new Build());
+		cp.setProgramName("tool");
+		cp.setAboutLine("The tool");
+		return cp;
+	}
+
+	public CmdlineSpecTest() {
+
+		test("Spec round-trips through a spec-driven parser", () -> {
+			final CmdlineParser cp = annotatedParser();
+			final String spec = CmdlineSpec.toJson(cp.getCmdlineModel());
+			expectTrue(spec.contains("\"names\": [\"build\", \"b\"]"), spec);
+
+			final CmdlineParser specParser = CmdlineSpec.fromJson(spec, new LinkedHashMap<String, List<String[]>>());
+			expectEquals(CmdlineSpec.toJson(specParser.getCmdlineModel()), spec);
+			expectEquals(specParser.usageString(), cp.usageString());
+		});
+
+		test("Spec-driven parser records values", () -> {
+			final String spec = CmdlineSpec.toJson(annotatedParser().getCmdlineModel());
+			final Map<String, List<String[]>> values = new LinkedHashMap<String, List<String[]>>();
+			final CmdlineParser cp = CmdlineSpec.fromJson(spec, values);
+			cp.parse("-D", "a", "1", "-D", "b", "2", "--level", "3", "b", "--target", "t", "m1", "m2");
+
+			expectEquals(cp.getParsedCommandName(), "b");
+			expectEquals(values.keySet().toString(), "[-D, --level, build --target, build <parameter>]");
+			expectEquals(values.get("-D").size(), 2);
+			expectEquals(Arrays.asList(values.get("-D").get(1)), Arrays.asList("b", "2"));
+			expectEquals(values.get("build <parameter>").size(), 2);
+			expectEquals(values.get("build <parameter>").get(1)[0], "m2");
+
+			values.clear();
+			cp.parse("-D", "a", "1", "--level", "3", "remote", "add", "--name", "origin");
+			expectEquals(values.get("remote add --name").get(0)[0], "origin");
+		});
+
+		test("Spec-driven parser validates like the original parser", () -> {
+			final String spec = CmdlineSpec.toJson(annotatedParser().getCmdlineModel());
+			final CmdlineParser cp = CmdlineSpec.fromJson(spec, new LinkedHashMap<String, List<String[]>>());
+			intercept(CmdlineParserException.class, () -> cp.parse());
+			intercept(CmdlineParserException.class, () -> cp.parse("--level", "1"));
+			intercept(CmdlineParserException.class, () -> cp.parse("-D", "a", "1", "--level", "1", "--quiet"));
+			intercept(CmdlineParserException.class, () -> cp.parse("-D", "a", "1", "--level", "1", "remote", "add"));
+			cp.parse("--help");
+		});
+
+		test("Invalid specs are rejected", () -> {
+			final Map<String, List<String[]>> values = new LinkedHashMap<String, List<String[]>>();
+			intercept(IllegalArgumentException.class, () -> CmdlineSpec.fromJson("[]", values));
+			intercept(IllegalArgumentException.class, () -> CmdlineSpec.fromJson("{\"cmdoptionSpec\": 2}", values));
+			intercept(IllegalArgumentException.class,
+				() -> CmdlineSpec.fromJson("{\"cmdoptionSpec\": 1, \"options\": [{\"names\": \"-a\"}]}", values));
+			intercept(IllegalArgumentException.class,
+				() -> CmdlineSpec.fromJson("{\"cmdoptionSpec\": 1, \"options\": [", values));
+			intercept(CmdlineParserException.class, () -> CmdlineSpec.fromJson(
+				"{\"cmdoptionSpec\": 1, \"options\": [{\"names\": [\"-a\"]}, {\"names\": [\"-a\"]}]}", values));
+		});
+
+		test("Json reads what it writes", () -> {
+			final Map<String, Object> map = new LinkedHashMap<String, Object>();
+			map.put("string", "a \"b\" \\ \n\t\u0001 \u00e4");
+			map.put("numbers", Arrays.<Object> asList(Long.valueOf(-1), Long.valueOf(Long.MAX_VALUE)));
+			map.put("nested", Arrays.<Object> asList(new LinkedHashMap<String, Object>(), Boolean.TRUE, null));
+			expectEquals(Json.read(Json.write(map)), map);
+			expectEquals(Json.read(" {\"a\" : [1.5, \"\\u00e4\\/\"] } "),
+				Collections.singletonMap("a", Arrays.<Object> asList(Double.valueOf(1.5), "\u00e4/")));
+		});
+
+	}
+
+}
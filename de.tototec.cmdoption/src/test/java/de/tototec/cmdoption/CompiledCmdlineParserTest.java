@@ -0,0 +1,198 @@
+package de.tototec.cmdoption;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectNull;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class CompiledCmdlineParserTest extends FreeSpec {
+
+	public static class Config {
+		@CmdOption(names = "--name", args = "NAME", requires = "--count")
+		String name;
+
+		@CmdOption(names = "--count", args = "N")
+		private int count;
+
+		final List<String> params = new LinkedList<String>();
+
+		@CmdOption(args = "PARAM", maxCount = -1)
+		void addParam(final String param) {
+			params.add(param);
+		}
+	}
+
+	@CmdCommand(names = "run")
+	public static class RunCmd {
+		@CmdOption(names = "--fast")
+		boolean fast;
+	}
+
+	public static class CmdConfig {
+		@CmdOptionDelegate(CmdOptionDelegate.Mode.COMMAND)
+		final RunCmd run = new RunCmd();
+	}
+
+	public static class Inner {
+		@CmdOption(names = "--inner", args = "VALUE")
+		String inner;
+	}
+
+	public static class Lazy {
+		@CmdOption(names = "--lazy", args = "VALUE")
+		String lazy;
+	}
+
+	public static class DelegateConfig {
+		@CmdOptionDelegate
+		Inner inner = new Inner();
+
+		@CmdOptionDelegate(lazy = true)
+		Lazy lazy;
+
+		@CmdOptionDelegate(CmdOptionDelegate.Mode.COMMAND)
+		final RunCmd run = new RunCmd();
+	}
+
+	public static class InvalidConfig {
+		@CmdOption(names = "--a", requires = "--missing")
+		boolean a;
+	}
+
+	public CompiledCmdlineParserTest() {
+
+		test("Each parse applies to a fresh config object", () -> {
+			final CompiledCmdlineParser cp = new CmdlineParser(new Config()).compile();
+			final ParseResult<Config> r1 = cp.parse(Config::new, "--name", "one", "--count", "1", "p1");
+			final ParseResult<Config> r2 = cp.parse(Config::new, "p2", "p3");
+			expectTrue(r1.getConfig() != r2.getConfig());
+			expectEquals(r1.getConfig().name, "one");
+			expectEquals(r1.getConfig().count, 1);
+			expectEquals(r1.getConfig().params, Arrays.asList("p1"));
+			expectNull(r2.getConfig().name);
+			expectEquals(r2.getConfig().params, Arrays.asList("p2", "p3"));
+			expectNull(r1.getParsedCommandName());
+		});
+
+		test("Parse errors are still detected", () -> {
+			final CompiledCmdlineParser cp = new CmdlineParser(new Config()).compile();
+			intercept(CmdlineParserException.class, "\\QWhen using option \"--name\" also option \"--count\" must be given.\\E", () -> {
+				cp.parse(Config::new, "--name", "one");
+			});
+		});
+
+		test("Compile validates the configuration", () -> {
+			intercept(CmdlineParserException.class, ".*requires the unknown/missing option.*", () -> {
+				new CmdlineParser(new InvalidConfig()).compile();
+			});
+		});
+
+		test("Compile requires exactly one config object", () -> {
+			intercept(IllegalStateException.class, () -> {
+				new CmdlineParser(new Config(), new RunCmd()).compile();
+			});
+		});
+
+		test("Config factory must create the compiled config class", () -> {
+			final CompiledCmdlineParser cp = new CmdlineParser(new Config()).compile();
+			intercept(IllegalArgumentException.class, () -> {
+				cp.parse(() -> null);
+			});
+			intercept(IllegalArgumentException.class, () -> {
+				cp.parse(InvalidConfig::new);
+			});
+		});
+
+		test("Parsed command is part of the result", () -> {
+			final CompiledCmdlineParser cp = new CmdlineParser(new CmdConfig()).compile();
+			final ParseResult<CmdConfig> result = cp.parse(CmdConfig::new, "run", "--fast");
+			expectEquals(result.getParsedCommandName(), "run");
+			expectTrue(result.getParsedCommandObject() == result.getConfig().run);
+			expectEquals(result.getConfig().run.fast, true);
+		});
+
+		test("Delegates and commands of the fresh config object are used", () -> {
+			final DelegateConfig compiled = new DelegateConfig();
+			final CompiledCmdlineParser cp = new CmdlineParser(compiled).compile();
+			final ParseResult<DelegateConfig> r1 = cp.parse(DelegateConfig::new, "--inner", "i1", "--lazy", "l1",
+				"run", "--fast");
+			final ParseResult<DelegateConfig> r2 = cp.parse(DelegateConfig::new, "--inner", "i2", "run");
+			expectEquals(r1.getConfig().inner.inner, "i1");
+			expectEquals(r1.getConfig().lazy.lazy, "l1");
+			expectEquals(r1.getConfig().run.fast, true);
+			expectEquals(r2.getConfig().inner.inner, "i2");
+			expectNull(r2.getConfig().lazy);
+			expectEquals(r2.getConfig().run.fast, false);
+			expectTrue(r2.getParsedCommandObject() == r2.getConfig().run);
+			// the config object given to compile is not changed
+			expectNull(compiled.inner.inner);
+			expectNull(compiled.lazy);
+			expectEquals(compiled.run.fast, false);
+		});
+
+		test("Parsing does not scan the config classes again", () -> {
+			final CompiledCmdlineParser cp = new CmdlineParser(new DelegateConfig()).compile();
+			ScanCache.clear();
+			cp.parse(DelegateConfig::new, "--inner", "i", "--lazy", "l", "run", "--fast");
+			final ApplyEngine engine = ApplyEngine.defaultEngine();
+			expectNull(ScanCache.get(CmdlineParser.class, DelegateConfig.class, engine));
+			expectNull(ScanCache.get(CmdlineParser.class, Inner.class, engine));
+			expectNull(ScanCache.get(CmdlineParser.class, RunCmd.class, engine));
+		});
+
+		test("A delegate missing in the fresh config object is an error", () -> {
+			final CompiledCmdlineParser cp = new CmdlineParser(new DelegateConfig()).compile();
+			intercept(CmdlineParserException.class, () -> {
+				cp.parse(() -> {
+					final DelegateConfig config = new DelegateConfig();
+					config.inner = null;
+					return config;
+				}, "--inner", "i");
+			});
+		});
+
+		test("Compiled parser is not affected by later changes of the original parser", () -> {
+			final CmdlineParser parser = new CmdlineParser(new Config());
+			final CompiledCmdlineParser cp = parser.compile();
+			parser.setReadArgsFromFilePrefix("#");
+			final ParseResult<Config> result = cp.parse(Config::new, "#param");
+			expectEquals(result.getConfig().params, Arrays.asList("#param"));
+		});
+
+		test("Compiled parser can be used from multiple threads", () -> {
+			final CompiledCmdlineParser cp = new CmdlineParser(new Config()).compile();
+			final ExecutorService executor = Executors.newFixedThreadPool(8);
+			try {
+				final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+				for (int i = 0; i < 400; ++i) {
+					final int n = i;
+					results.add(executor.submit(new Callable<Boolean>() {
+						@Override
+						public Boolean call() throws Exception {
+							final Config config = cp.parse(Config::new,
+								"--name", "name" + n, "--count", String.valueOf(n), "p" + n).getConfig();
+							return config.name.equals("name" + n) && config.count == n
+								&& config.params.equals(Arrays.asList("p" + n));
+						}
+					}));
+				}
+				for (final Future<Boolean> result : results) {
+					expectTrue(result.get());
+				}
+			} finally {
+				executor.shutdown();
+			}
+		});
+	}
+
+}
@@ -0,0 +1,86 @@
+package de.tototec.cmdoption;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class ElementAccessorTest extends FreeSpec {
+
+	public static class Config {
+		@CmdOption(names = "--count", args = "N")
+		private int count;
+
+		private String name;
+
+		@CmdOption(names = "--name", args = "NAME")
+		private void setName(final String name) {
+			this.name = name;
+		}
+
+		@CmdOption(names = "--fail")
+		private void fail() {
+			throw new IllegalStateException("failed on purpose");
+		}
+	}
+
+	{
+		test("Each option has an accessor bound at bind time", () -> {
+			final CmdlineParser cp = new CmdlineParser(new Config());
+			for (final OptionHandle option : cp.getCmdlineModel().getOptions()) {
+				expectTrue(option.getAccessor() != null, "No accessor for " + option);
+				expectTrue(option.getElement().isAccessible());
+			}
+		});
+
+		test("Applying options does not reset the accessible flag", () -> {
+			final Config config = new Config();
+			final CmdlineParser cp = new CmdlineParser(config);
+			cp.parse("--count", "2", "--name", "n");
+			expectEquals(config.count, 2);
+			expectEquals(config.name, "n");
+			for (final OptionHandle option : cp.getCmdlineModel().getOptions()) {
+				expectTrue(option.getElement().isAccessible());
+			}
+		});
+
+		test("Exceptions thrown by option methods are reported as cause", () -> {
+			final CmdlineParser cp = new CmdlineParser(new Config());
+			final CmdlineParserException e = intercept(CmdlineParserException.class, () -> {
+				cp.parse("--fail");
+			});
+			expectTrue(e.getCause() instanceof IllegalStateException, "Unexpected cause: " + e.getCause());
+		});
+
+		test("Options of the same class can be applied from multiple threads", () -> {
+			final ExecutorService executor = Executors.newFixedThreadPool(8);
+			try {
+				final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+				for (int i = 0; i < 400; ++i) {
+					final int n = i;
+					results.add(executor.submit(new Callable<Boolean>() {
+						@Override
+						public Boolean call() throws Exception {
+							final Config config = new Config();
+							new CmdlineParser(config).parse("--count", String.valueOf(n), "--name", "n" + n);
+							return config.count == n && config.name.equals("n" + n);
+						}
+					}));
+				}
+				for (final Future<Boolean> result : results) {
+					expectTrue(result.get());
+				}
+			} finally {
+				executor.shutdown();
+			}
+		});
+	}
+
+}
@@ -0,0 +1,123 @@
+package de.tototec.cmdoption;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+import de.tototec.cmdoption.handler.CmdOptionHandler;
+import de.tototec.cmdoption.handler.CmdOptionHandlerException;
+import de.tototec.cmdoption.handler.IntegerHandler;
+
+public class HandlerCacheTest extends FreeSpec {
+
+	public static class Config {
+		@CmdOption(names = "--a", args = "N")
+		int a;
+		@CmdOption(names = "--b", args = "N")
+		int b;
+	}
+
+	public static class Other {
+		@CmdOption(names = "--x", args = "N")
+		int x;
+	}
+
+	/**
+	 * Handles only fields named <code>a</code>, which the handler cache can not
+	 * know.
+	 */
+	public static class OnlyAHandler implements CmdOptionHandler {
+		@Override
+		public boolean canHandle(final AccessibleObject element, final int argCount) {
+			return element instanceof Field && ((Field) element).getName().equals("a");
+		}
+
+		@Override
+		public void applyParams(final Object config, final AccessibleObject element, final String[] args,
+				final String optionName) throws CmdOptionHandlerException {
+			try {
+				((Field) element).set(config, -1);
+			} catch (final Exception e) {
+				throw new CmdOptionHandlerException("Could not apply", e, "Could not apply");
+			}
+		}
+	}
+
+	public static class OnlyAParser extends CmdlineParser {
+		public OnlyAParser(final Object... objects) {
+			super(objects);
+		}
+
+		@Override
+		public List<CmdOptionHandler> defaultHandlers() {
+			return Arrays.<CmdOptionHandler> asList(new OnlyAHandler(), new IntegerHandler());
+		}
+	}
+
+	private static CmdOptionHandler handlerOf(final CmdlineParser cp, final String name) {
+		for (final OptionHandle option : cp.getCmdlineModel().getOptions()) {
+			if (option.getNames()[0].equals(name)) {
+				return option.getCmdOptionHandler();
+			}
+		}
+		throw new AssertionError("No option " + name);
+	}
+
+	public HandlerCacheTest() {
+
+		test("Built-in handler is resolved once per key", () -> {
+			final CmdlineParser cp = new CmdlineParser(new Config());
+			expectEquals(handlerOf(cp, "--a").getClass(), IntegerHandler.class);
+			expectEquals(handlerOf(cp, "--a"), handlerOf(cp, "--b"));
+		});
+
+		test("Registering a handler invalidates the cache", () -> {
+			// resolves the handler for int fields
+			final CmdlineParser cp = new CmdlineParser(new Other());
+			cp.unregisterAllHandler();
+			cp.registerHandler(new OnlyAHandler());
+			cp.registerHandler(new IntegerHandler());
+			final Config config = new Config();
+			cp.addObject(config);
+			cp.parse("--a", "1", "--b", "2");
+			expectEquals(config.a, -1);
+			expectEquals(config.b, 2);
+		});
+
+		test("Unregistering a handler invalidates the cache", () -> {
+			// resolves the handler for int fields
+			final CmdlineParser cp = new CmdlineParser(new Other());
+			cp.unregisterHandler(IntegerHandler.class);
+			intercept(CmdlineParserException.class, "\\QNo suitable handler found for option(s): --a (1 argument(s))\\E",
+				() -> cp.addObject(new Config()));
+		});
+
+		test("Unregistering all handlers invalidates the cache", () -> {
+			// resolves the handler for int fields
+			final CmdlineParser cp = new CmdlineParser(new Other());
+			cp.unregisterAllHandler();
+			intercept(CmdlineParserException.class, () -> cp.addObject(new Config()));
+		});
+
+		test("Changing the handlers of a parser does not affect other parsers", () -> {
+			final CmdlineParser cp = new CmdlineParser();
+			cp.unregisterAllHandler();
+			final Config config = new Config();
+			new CmdlineParser(config).parse("--a", "1");
+			expectEquals(config.a, 1);
+		});
+
+		test("The default handlers of a subclass are used", () -> {
+			final Config config = new Config();
+			new OnlyAParser(config).parse("--a", "1", "--b", "2");
+			expectEquals(config.a, -1);
+			expectEquals(config.b, 2);
+		});
+
+	}
+
+}
@@ -0,0 +1,109 @@
+package de.tototec.cmdoption;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectFalse;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.util.List;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class LazyCommandTest extends FreeSpec {
+
+	@CmdCommand(names = "one")
+	public static class CommandOne {
+		@CmdOption(names = "-a")
+		boolean a;
+	}
+
+	@CmdCommand(names = "two")
+	public static class CommandTwo {
+		@CmdOption(names = "-b")
+		boolean b;
+	}
+
+	@CmdCommand(names = "count")
+	public static class CountCommand {
+		@CmdOption(names = "-n", args = "N")
+		int n;
+	}
+
+	@CmdCommand(names = "broken")
+	public static class BrokenCommand {
+		@CmdOption(names = "-c")
+		boolean c;
+		@CmdOption(names = "-c")
+		boolean duplicate;
+	}
+
+	private static CommandHandle command(final CmdlineParser cp, final String name) {
+		final List<CommandHandle> commands = cp.getCmdlineModel().getCommands();
+		for (final CommandHandle command : commands) {
+			if (command.getNames()[0].equals(name)) {
+				return command;
+			}
+		}
+		throw new AssertionError("No command " + name);
+	}
+
+	public LazyCommandTest() {
+
+		test("Command parsers are created when the command is parsed", () -> {
+			final CommandOne one = new CommandOne();
+			final CmdlineParser cp = new CmdlineParser(one, new CommandTwo());
+			expectFalse(command(cp, "one").isCmdlineParserCreated());
+			expectFalse(command(cp, "two").isCmdlineParserCreated());
+
+			cp.parse("one", "-a");
+			expectTrue(one.a);
+			expectTrue(command(cp, "one").isCmdlineParserCreated());
+			expectFalse(command(cp, "two").isCmdlineParserCreated());
+		});
+
+		test("Usage creates all command parsers", () -> {
+			final CmdlineParser cp = new CmdlineParser(new CommandOne(), new CommandTwo());
+			final String usage = cp.usageString();
+			expectTrue(usage.contains("one"));
+			expectTrue(command(cp, "one").isCmdlineParserCreated());
+			expectTrue(command(cp, "two").isCmdlineParserCreated());
+		});
+
+		test("Invalid command is only detected when used", () -> {
+			final CommandOne one = new CommandOne();
+			final CmdlineParser cp = new CmdlineParser(one, new BrokenCommand());
+			cp.parse("one", "-a");
+			expectTrue(one.a);
+			intercept(CmdlineParserException.class, () -> cp.parse("broken", "-c"));
+		});
+
+		test("Command parsers use the handlers registered when the command was added", () -> {
+			final CountCommand count = new CountCommand();
+			final CmdlineParser cp = new CmdlineParser(count);
+			cp.unregisterAllHandler();
+			expectFalse(command(cp, "count").isCmdlineParserCreated());
+			cp.parse("count", "-n", "5");
+			expectEquals(count.n, 5);
+
+			final CmdlineParser later = new CmdlineParser();
+			later.unregisterAllHandler();
+			later.addObject(new CountCommand());
+			intercept(CmdlineParserException.class, "No suitable handler found.*", () -> later.parse("count", "-n", "5"));
+		});
+
+		test("Debug mode does not create command parsers", () -> {
+			final CommandOne one = new CommandOne();
+			final CmdlineParser cp = new CmdlineParser(one, new CommandTwo());
+			cp.parse("--CMDOPTION_DEBUG", "one", "-a");
+			expectTrue(one.a);
+			expectFalse(command(cp, "two").isCmdlineParserCreated());
+		});
+
+		test("Validate checks all commands", () -> {
+			final CmdlineParser cp = new CmdlineParser(new CommandOne(), new BrokenCommand());
+			intercept(CmdlineParserException.class, () -> cp.validate());
+			expectTrue(command(cp, "one").isCmdlineParserCreated());
+		});
+
+	}
+
+}
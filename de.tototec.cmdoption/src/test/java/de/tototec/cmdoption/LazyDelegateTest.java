@@ -0,0 +1,141 @@
+package de.tototec.cmdoption;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectNull;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.io.File;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class LazyDelegateTest extends FreeSpec {
+
+	public static class Config {
+		@CmdOption(names = "-v")
+		boolean verbose;
+		@CmdOptionDelegate(lazy = true)
+		Remote remote;
+		@CmdOptionDelegate(lazy = true, type = FileStorage.class)
+		Storage storage;
+	}
+
+	public static class Remote {
+		static int created;
+		@CmdOption(names = "--url", args = "URL", description = "The remote URL")
+		String url;
+		@CmdOptionDelegate(lazy = true)
+		Auth auth;
+
+		Remote() {
+			created++;
+		}
+	}
+
+	public static class Auth {
+		@CmdOption(names = "--user", args = "USER")
+		String user;
+	}
+
+	public abstract static class Storage {
+	}
+
+	public static class FileStorage extends Storage {
+		@CmdOption(names = "--dir", args = "DIR")
+		String dir;
+	}
+
+	public static class CommandConfig {
+		@CmdOptionDelegate(value = CmdOptionDelegate.Mode.COMMAND, lazy = true)
+		Remote remote;
+	}
+
+	public static class FinalConfig {
+		@CmdOptionDelegate(lazy = true)
+		final Remote remote = null;
+	}
+
+	public static class AbstractConfig {
+		@CmdOptionDelegate(lazy = true)
+		Storage storage;
+	}
+
+	public LazyDelegateTest() {
+
+		test("Options of lazy delegates are known before the delegate is created", () -> {
+			Remote.created = 0;
+			final Config config = new Config();
+			final CmdlineParser cp = new CmdlineParser(config);
+			final String usage = cp.usageString();
+			expectTrue(usage.contains("--url URL"), usage);
+			expectTrue(usage.contains("--user USER"), usage);
+			expectTrue(usage.contains("--dir DIR"), usage);
+
+			cp.parse("-v");
+			expectTrue(config.verbose);
+			expectNull(config.remote);
+			expectNull(config.storage);
+			expectEquals(Remote.created, 0);
+		});
+
+		test("A lazy delegate is created when one of its options is applied", () -> {
+			Remote.created = 0;
+			final Config config = new Config();
+			final CmdlineParser cp = new CmdlineParser(config);
+			cp.parse("--url", "http://example.org", "--dir", "/tmp");
+			expectEquals(config.remote.url, "http://example.org");
+			expectNull(config.remote.auth);
+			expectEquals(((FileStorage) config.storage).dir, "/tmp");
+
+			cp.parse("--url", "http://example.com");
+			expectEquals(config.remote.url, "http://example.com");
+			expectEquals(Remote.created, 1);
+		});
+
+		test("Nested lazy delegates create their owners", () -> {
+			final Config config = new Config();
+			final CmdlineParser cp = new CmdlineParser(config);
+			cp.parse("--user", "me");
+			expectEquals(config.remote.auth.user, "me");
+			expectNull(config.remote.url);
+		});
+
+		test("An already set lazy delegate is used", () -> {
+			final Config config = new Config();
+			final CmdlineParser cp = new CmdlineParser(config);
+			final Remote remote = new Remote();
+			config.remote = remote;
+			cp.parse("--url", "u");
+			expectTrue(config.remote == remote);
+			expectEquals(remote.url, "u");
+		});
+
+		test("Lazy delegates survive a scan snapshot", () -> {
+			ScanCache.clear();
+			ScanSnapshot.clear();
+			final File file = File.createTempFile("cmdoption", ".snapshot");
+			file.delete();
+			file.deleteOnExit();
+			final CmdlineParser first = new CmdlineParser();
+			first.setSnapshotFile(file);
+			first.addObject(new Config());
+
+			ScanCache.clear();
+			ScanSnapshot.clear();
+			final Config config = new Config();
+			final CmdlineParser cp = new CmdlineParser();
+			cp.setSnapshotFile(file);
+			cp.addObject(config);
+			cp.parse("--dir", "d");
+			expectEquals(((FileStorage) config.storage).dir, "d");
+			expectNull(config.remote);
+		});
+
+		test("Invalid lazy delegates are rejected", () -> {
+			intercept(CmdlineParserException.class, () -> new CmdlineParser(new CommandConfig()));
+			intercept(CmdlineParserException.class, () -> new CmdlineParser(new FinalConfig()));
+			intercept(CmdlineParserException.class, () -> new CmdlineParser(new AbstractConfig()));
+		});
+
+	}
+
+}
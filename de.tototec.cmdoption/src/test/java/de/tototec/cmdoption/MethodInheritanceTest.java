@@ -110,6 +110,24 @@ public class MethodInheritanceTest extends FreeSpec {
 		}
 	}
 
+	public static class OverridingChildCfg extends PublicBaseCfg {
+		@Override
+		public void setFirstFlag(final Boolean firstFlag) {
+			super.setFirstFlag(firstFlag);
+		}
+	}
+
+	public static class OverloadingChildCfg extends PublicBaseCfg {
+		private String first;
+		private String second;
+
+		@CmdOption(names = { "-f3" }, args = { "FIRST", "SECOND" })
+		public void setFirstFlag(final String first, final String second) {
+			this.first = first;
+			this.second = second;
+		}
+	}
+
 	public MethodInheritanceTest() {
 
 		test("Inheritance of public methods", () -> {
@@ -144,6 +162,21 @@ public class MethodInheritanceTest extends FreeSpec {
 			expectEquals(cfg.getSecondFlag(), Boolean.FALSE);
 		});
 
+		test("Overriding a method without annotation removes the option", () -> {
+			final OverridingChildCfg cfg = new OverridingChildCfg();
+			final CmdlineParser parser = new CmdlineParser(cfg);
+			intercept(CmdlineParserException.class, () -> parser.parse(new String[] { "-f1", "TRUE" }));
+		});
+
+		test("Overloading a method keeps both methods", () -> {
+			final OverloadingChildCfg cfg = new OverloadingChildCfg();
+			final CmdlineParser parser = new CmdlineParser(cfg);
+			parser.parse(new String[] { "-f1", "TRUE", "-f3", "a", "b" });
+			expectEquals(cfg.getFirstFlag(), Boolean.TRUE);
+			expectEquals(cfg.first, "a");
+			expectEquals(cfg.second, "b");
+		});
+
 	}
 
 }
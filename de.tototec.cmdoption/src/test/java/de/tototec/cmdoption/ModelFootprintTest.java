@@ -0,0 +1,203 @@
+package de.tototec.cmdoption;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectNull;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+import de.tototec.cmdoption.internal.NameIndex;
+
+public class ModelFootprintTest extends FreeSpec {
+
+	private static final int OPTION_COUNT = 20000;
+
+	/**
+	 * Like a generated CLI, each option gets its own but equal argument names.
+	 */
+	private static CmdlineParser generatedParser(final List<String> applied) {
+		final OptionSink sink = new OptionSink() {
+			@Override
+			public void apply(final String optionName, final String[] args) {
+				applied.add(optionName + "=" + args[0]);
+			}
+		};
+		final CmdlineParser cp = new CmdlineParser();
+		for (int i = 0; i < OPTION_COUNT; ++i) {
+			cp.addOption(OptionBuilder.option("--option-" + i, "-o" + i)
+				.args(new String("VALUE"))
+				.description("Option " + i)
+				.sink(sink)
+				.build());
+		}
+		return cp;
+	}
+
+	/**
+	 * The retained size of the given objects, computed with the layout of a 64
+	 * bit JVM with compressed references, so it does not depend on the JVM or the
+	 * garbage collector: 12 bytes per object header, 16 bytes per array header, 4
+	 * bytes per reference and 8 bytes alignment. Strings are counted as compact
+	 * Latin-1 strings, lists by their elements. The excluded objects and objects
+	 * of other JDK classes are not counted.
+	 */
+	private static long retainedSize(final Object[] roots, final Object... excluded) throws Exception {
+		final Map<Object, Object> visited = new IdentityHashMap<Object, Object>();
+		for (final Object object : excluded) {
+			visited.put(object, object);
+		}
+		long size = 0;
+		final List<Object> pending = new ArrayList<Object>();
+		for (final Object root : roots) {
+			pending.add(root);
+		}
+		while (!pending.isEmpty()) {
+			final Object object = pending.remove(pending.size() - 1);
+			if (object == null || visited.put(object, object) != null) {
+				continue;
+			}
+			final Class<?> type = object.getClass();
+			if (object instanceof String) {
+				size += 24 + align(16 + ((String) object).length());
+			} else if (object instanceof List) {
+				final Object[] elements = ((List<?>) object).toArray();
+				size += 24 + align(16 + 4L * elements.length);
+				for (final Object element : elements) {
+					pending.add(element);
+				}
+			} else if (type.isArray()) {
+				final int length = Array.getLength(object);
+				if (type.getComponentType().isPrimitive()) {
+					size += align(16 + (long) length * primitiveSize(type.getComponentType()));
+				} else {
+					size += align(16 + 4L * length);
+					for (final Object element : (Object[]) object) {
+						pending.add(element);
+					}
+				}
+			} else if (type.getName().startsWith("de.tototec.cmdoption.")) {
+				long fieldsSize = 12;
+				for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+					for (final Field field : c.getDeclaredFields()) {
+						if (Modifier.isStatic(field.getModifiers())) {
+							continue;
+						}
+						if (field.getType().isPrimitive()) {
+							fieldsSize += primitiveSize(field.getType());
+						} else {
+							fieldsSize += 4;
+							field.setAccessible(true);
+							pending.add(field.get(object));
+						}
+					}
+				}
+				size += align(fieldsSize);
+			}
+		}
+		return size;
+	}
+
+	private static long align(final long size) {
+		return (size + 7) & ~7L;
+	}
+
+	private static int primitiveSize(final Class<?> type) {
+		if (type == long.class || type == double.class) {
+			return 8;
+		} else if (type == int.class || type == float.class) {
+			return 4;
+		} else if (type == short.class || type == char.class) {
+			return 2;
+		} else {
+			return 1;
+		}
+	}
+
+	/**
+	 * @return The option list and the option name index of the parser.
+	 */
+	private static Object[] optionTables(final CmdlineParser cp) throws Exception {
+		final Field options = CmdlineParser.class.getDeclaredField("options");
+		final Field quickOptionMap = CmdlineParser.class.getDeclaredField("quickOptionMap");
+		options.setAccessible(true);
+		quickOptionMap.setAccessible(true);
+		return new Object[] { options.get(cp), quickOptionMap.get(cp) };
+	}
+
+	public ModelFootprintTest() {
+
+		test("NameIndex keeps the insertion order", () -> {
+			final NameIndex<Integer> index = new NameIndex<Integer>();
+			for (int i = 0; i < 1000; ++i) {
+				expectNull(index.put("name" + (999 - i), Integer.valueOf(i)));
+			}
+			expectEquals(index.put("name999", Integer.valueOf(-1)), Integer.valueOf(0));
+			expectEquals(index.size(), 1000);
+			expectEquals(index.keyAt(0), "name999");
+			expectEquals(index.valueAt(0), Integer.valueOf(-1));
+			expectEquals(index.get("name0"), Integer.valueOf(999));
+			expectTrue(index.containsKey("name500"));
+			expectTrue(!index.containsKey("name1000"));
+			expectNull(index.get(null));
+			intercept(IndexOutOfBoundsException.class, () -> index.keyAt(1000));
+		});
+
+		test("Options share equal argument names", () -> {
+			final List<String> applied = new ArrayList<String>();
+			final CmdlineParser cp = generatedParser(applied);
+			final List<OptionHandle> options = cp.getCmdlineModel().getOptions();
+			expectEquals(options.size(), OPTION_COUNT);
+			for (final OptionHandle option : options) {
+				expectTrue(option.sharedArgs() == options.get(0).sharedArgs());
+				expectTrue(option.sharedRequires() == options.get(0).sharedRequires());
+				expectTrue(option.sharedConflictsWith() == options.get(0).sharedRequires());
+			}
+			cp.parse("-o0", "a", "--option-19999", "b");
+			expectEquals(applied.toString(), "[-o0=a, --option-19999=b]");
+		});
+
+		test("Retained size of the option tables per option", () -> {
+			final OptionSink sink = new OptionSink() {
+				@Override
+				public void apply(final String optionName, final String[] args) {
+				}
+			};
+			final CmdlineParser cp = new CmdlineParser();
+			final List<String> textList = new ArrayList<String>();
+			for (int i = 0; i < OPTION_COUNT; ++i) {
+				final OptionHandle option = OptionBuilder.option("--option-" + i, "-o" + i)
+					.args(new String("VALUE"))
+					.description("Option " + i)
+					.sink(sink)
+					.build();
+				cp.addOption(option);
+				textList.addAll(Arrays.asList(option.getNames()));
+				textList.add(option.getDescription());
+			}
+			final long total = retainedSize(optionTables(cp), sink);
+			final long texts = retainedSize(textList.toArray());
+			// the option handles, their names arrays and handlers and the index,
+			// without the option names and descriptions, currently 154 bytes
+			final long bytesPerOption = (total - texts) / OPTION_COUNT;
+			expectTrue(bytesPerOption <= 160, "Retained bytes per option: " + bytesPerOption);
+		});
+
+		test("Changing a returned array does not affect other options", () -> {
+			final CmdlineParser cp = generatedParser(new ArrayList<String>());
+			final List<OptionHandle> options = cp.getCmdlineModel().getOptions();
+			options.get(0).getArgs()[0] = "CHANGED";
+			expectEquals(options.get(0).getArgs()[0], "VALUE");
+			expectEquals(options.get(1).getArgs()[0], "VALUE");
+		});
+
+	}
+
+}
@@ -0,0 +1,81 @@
+package de.tototec.cmdoption;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+import de.tototec.cmdoption.internal.NameIndex;
+
+public class OptionArgSeparatorTest extends FreeSpec {
+
+	public static class Config {
+		@CmdOption(names = { "--file", "-f" }, args = "FILE")
+		String file;
+
+		@CmdOption(names = "--verbose")
+		boolean verbose;
+
+		@CmdOption(args = "PARAM", maxCount = -1)
+		final List<String> params = new ArrayList<String>();
+	}
+
+	public OptionArgSeparatorTest() {
+
+		test("The separator is not supported by default", () -> {
+			final Config config = new Config();
+			new CmdlineParser(config).parse("--file=a.txt");
+			expectEquals(config.file, null);
+			expectEquals(config.params, Arrays.asList("--file=a.txt"));
+		});
+
+		test("An option argument can follow the separator", () -> {
+			final Config config = new Config();
+			final CmdlineParser cp = new CmdlineParser(config);
+			cp.setOptionArgSeparator("=");
+			cp.parse("--file=a=b.txt", "x=y");
+			expectEquals(config.file, "a=b.txt");
+			expectEquals(config.params, Arrays.asList("x=y"));
+		});
+
+		test("A custom separator can be used", () -> {
+			final Config config = new Config();
+			final CmdlineParser cp = new CmdlineParser(config);
+			cp.setOptionArgSeparator(":");
+			cp.parse("-f:", "--file=a.txt");
+			expectEquals(config.file, "");
+			expectEquals(config.params, Arrays.asList("--file=a.txt"));
+		});
+
+		test("Options without arguments do not accept the separator", () -> {
+			final Config config = new Config();
+			final CmdlineParser cp = new CmdlineParser(config);
+			cp.setOptionArgSeparator("=");
+			cp.parse("--verbose=true");
+			expectTrue(!config.verbose);
+			expectEquals(config.params, Arrays.asList("--verbose=true"));
+		});
+
+		test("The option count is validated", () -> {
+			final CmdlineParser cp = new CmdlineParser(new Config());
+			cp.setOptionArgSeparator("=");
+			intercept(CmdlineParserException.class, "\\QOption \"--file\" was given 2 times\\E.*",
+				() -> cp.parse("--file=a", "-f", "b"));
+		});
+
+		test("Names are found by a prefix of a string", () -> {
+			final NameIndex<Integer> index = new NameIndex<Integer>();
+			index.put("--file", 1);
+			index.put("-f", 2);
+			expectEquals(index.indexOfPrefix("--file=x", 6), 0);
+			expectEquals(index.indexOfPrefix("-f=x", 2), 1);
+			expectEquals(index.indexOfPrefix("--fil=x", 5), -1);
+			expectEquals(index.indexOfPrefix("-", 1), -1);
+		});
+
+	}
+
+}
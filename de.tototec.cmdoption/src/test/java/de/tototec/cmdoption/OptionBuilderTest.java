@@ -0,0 +1,115 @@
+package de.tototec.cmdoption;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+import de.tototec.cmdoption.handler.CmdOptionHandlerException;
+
+public class OptionBuilderTest extends FreeSpec {
+
+	public static class Config {
+		@CmdOption(names = "--verbose")
+		boolean verbose;
+	}
+
+	public OptionBuilderTest() {
+
+		test("Built options are applied to their sinks", () -> {
+			final List<String> received = new ArrayList<String>();
+			final CmdlineParser cp = new CmdlineParser();
+			cp.addOption(
+				OptionBuilder.option("-n", "--name").args("NAME").sink((name, args) -> received.add(name + "=" + args[0]))
+					.build(),
+				OptionBuilder.option("-f").maxCount(-1).sink((name, args) -> received.add(name)).build(),
+				OptionBuilder.parameter("FILE").maxCount(-1).sink((name, args) -> received.add("file " + args[0]))
+					.build());
+			cp.parse("--name", "a", "-f", "x", "-f", "y");
+			expectEquals(received, Arrays.asList("--name=a", "-f", "file x", "-f", "file y"));
+		});
+
+		test("Built options are validated like annotated ones", () -> {
+			final CmdlineParser cp = new CmdlineParser();
+			cp.addOption(
+				OptionBuilder.option("-a").minCount(1).sink((name, args) -> {}).build(),
+				OptionBuilder.option("-b").requires("-a").conflictsWith("-c").sink((name, args) -> {}).build(),
+				OptionBuilder.option("-c").sink((name, args) -> {}).build());
+			intercept(CmdlineParserException.class, () -> cp.parse());
+			intercept(CmdlineParserException.class, () -> cp.parse("-a", "-a"));
+			intercept(CmdlineParserException.class, () -> cp.parse("-a", "-b", "-c"));
+			cp.parse("-a", "-b");
+		});
+
+		test("Built options can be mixed with annotated objects", () -> {
+			final Config config = new Config();
+			final boolean[] quiet = { false };
+			final CmdlineParser cp = new CmdlineParser(config);
+			cp.addOption(OptionBuilder.option("--quiet").description("Be quiet").sink((name, args) -> quiet[0] = true)
+				.build());
+			cp.parse("--verbose", "--quiet");
+			expectTrue(config.verbose && quiet[0]);
+			expectTrue(cp.usageString().contains("Be quiet"));
+
+			intercept(CmdlineParserException.class, "\\QDuplicate command/option name \"--verbose\"\\E.*",
+				() -> cp.addOption(OptionBuilder.option("--verbose").sink((name, args) -> {}).build()));
+			intercept(IllegalStateException.class, () -> cp.compile());
+		});
+
+		test("Thousands of generated options", () -> {
+			final Map<String, String> values = new LinkedHashMap<String, String>();
+			final OptionSink sink = (name, args) -> values.put(name, args[0]);
+			final CmdlineParser cp = new CmdlineParser();
+			for (int i = 0; i < 5000; ++i) {
+				cp.addOption(OptionBuilder.option("--opt" + i).args("VALUE").sink(sink).build());
+			}
+			cp.parse("--opt42", "a", "--opt4999", "b");
+			expectEquals(values.toString(), "{--opt42=a, --opt4999=b}");
+		});
+
+		test("Built commands are created lazily", () -> {
+			final List<String> received = new ArrayList<String>();
+			final CmdlineParser cp = new CmdlineParser();
+			final CommandHandle build = cp.addCommand(CommandBuilder.command("build").description("Build it")
+				.option(OptionBuilder.option("--target").args("TARGET").sink((name, args) -> received.add(args[0]))
+					.build()));
+			cp.addCommand(CommandBuilder.command("clean").hidden(true));
+			expectEquals(build.isCmdlineParserCreated(), false);
+
+			cp.parse("build", "--target", "all");
+			expectEquals(cp.getParsedCommandName(), "build");
+			expectEquals(cp.getParsedCommandObject(), null);
+			expectEquals(received, Arrays.asList("all"));
+			cp.validate();
+		});
+
+		test("Errors of a sink are reported", () -> {
+			final CmdlineParser cp = new CmdlineParser();
+			cp.addOption(
+				OptionBuilder.option("-a").sink((name, args) -> {
+					throw new CmdOptionHandlerException("Invalid a", "Invalid a");
+				}).build(),
+				OptionBuilder.option("-b").sink((name, args) -> {
+					throw new IllegalArgumentException();
+				}).build());
+			intercept(CmdlineParserException.class, "Invalid a", () -> cp.parse("-a"));
+			intercept(CmdlineParserException.class, "\\QCould not apply parameters [] to option -b.\\E",
+				() -> cp.parse("-b"));
+		});
+
+		test("Invalid definitions are rejected", () -> {
+			intercept(IllegalArgumentException.class, () -> OptionBuilder.option());
+			intercept(IllegalStateException.class, () -> OptionBuilder.option("-a").build());
+			final CmdlineParser cp = new CmdlineParser();
+			intercept(CmdlineParserException.class, () -> cp.addOption(OptionBuilder.parameter().sink((name, args) -> {})
+				.build()));
+		});
+
+	}
+
+}
@@ -0,0 +1,76 @@
+package de.tototec.cmdoption;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class OptionOrdinalsTest extends FreeSpec {
+
+	public static class Config {
+		@CmdOption(names = { "--input", "-i" }, args = "FILE", minCount = 1)
+		String input;
+
+		@CmdOption(names = "--zip", requires = { "--level", "-o" }, conflictsWith = "--raw")
+		boolean zip;
+
+		@CmdOption(names = "--level", args = "N")
+		int level;
+
+		@CmdOption(names = { "--output", "-o" }, args = "FILE")
+		String output;
+
+		@CmdOption(names = "--raw", maxCount = 2)
+		boolean raw;
+
+		@CmdOption(args = "NAME", minCount = 1, maxCount = 2)
+		String name;
+	}
+
+	public OptionOrdinalsTest() {
+
+		test("A valid command line is accepted", () -> {
+			final Config config = new Config();
+			new CmdlineParser(config).parse("-i", "in", "--zip", "--level", "9", "-o", "out", "n");
+			expectEquals(config.level, 9);
+		});
+
+		test("The first invalid count in declaration order is reported", () -> {
+			final CmdlineParser cp = new CmdlineParser(new Config());
+			intercept(CmdlineParserException.class,
+				"\\QOption \"--input\" was given 0 times, but must be given exactly 1 times\\E",
+				() -> cp.parse("--raw", "--raw", "--raw"));
+			intercept(CmdlineParserException.class,
+				"\\QOption \"--raw\" was given 3 times, but must be given between 0 and 2 times\\E",
+				() -> cp.parse("--raw", "--raw", "--raw", "-i", "in"));
+			intercept(CmdlineParserException.class,
+				"\\QMain parameter \"NAME\" was given 0 times, but must be given between 1 and 2 times\\E",
+				() -> cp.parse("-i", "in"));
+		});
+
+		test("Missing required options are reported by the name given in requires", () -> {
+			final CmdlineParser cp = new CmdlineParser(new Config());
+			intercept(CmdlineParserException.class,
+				"\\QWhen using option \"--zip\" also option \"-o\" must be given.\\E",
+				() -> cp.parse("-i", "in", "--zip", "--level", "1", "n"));
+		});
+
+		test("Conflicting options are reported", () -> {
+			final CmdlineParser cp = new CmdlineParser(new Config());
+			intercept(CmdlineParserException.class,
+				"\\QOptions \"--zip\" and \"--raw\" cannot be used at the same time.\\E",
+				() -> cp.parse("-i", "in", "--raw", "--zip", "--level", "1", "--output", "out", "n"));
+		});
+
+		test("Ordinals follow options added later", () -> {
+			final CmdlineParser cp = new CmdlineParser();
+			cp.addOption(OptionBuilder.option("-a").sink((name, args) -> {}).build());
+			cp.parse("-a");
+			cp.addOption(OptionBuilder.option("-b").requires("-a").sink((name, args) -> {}).build());
+			cp.parse("-a", "-b");
+			intercept(CmdlineParserException.class,
+				"\\QWhen using option \"-b\" also option \"-a\" must be given.\\E", () -> cp.parse("-b"));
+		});
+
+	}
+
+}
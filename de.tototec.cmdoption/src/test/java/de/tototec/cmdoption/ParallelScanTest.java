@@ -0,0 +1,128 @@
+package de.tototec.cmdoption;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.lang.reflect.AccessibleObject;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class ParallelScanTest extends FreeSpec {
+
+	public static class Config {
+		@CmdOption(names = "--verbose")
+		boolean verbose;
+		@CmdOptionDelegate
+		final Nested nested = new Nested();
+	}
+
+	public static class Nested {
+		@CmdOption(names = "--level", args = "LEVEL")
+		int level;
+	}
+
+	@CmdCommand(names = "one")
+	public static class CommandOne {
+		@CmdOption(names = "-a")
+		boolean a;
+		@CmdOptionDelegate
+		final Nested nested = new Nested();
+	}
+
+	@CmdCommand(names = "two")
+	public static class CommandTwo {
+		@CmdOption(names = "-b")
+		boolean b;
+	}
+
+	@CmdCommand(names = "three")
+	public static class DuplicateCommand {
+		@CmdOption(names = "-c")
+		boolean c;
+		@CmdOptionDelegate
+		final Duplicate duplicate = new Duplicate();
+	}
+
+	public static class Duplicate {
+		@CmdOption(names = "-c")
+		boolean c;
+	}
+
+	/**
+	 * Records the threads scanning classes.
+	 */
+	public static class RecordingParser extends CmdlineParser {
+		final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+
+		@Override
+		protected Set<AccessibleObject> scanElements(final Class<?> class1) {
+			threads.add(Thread.currentThread());
+			return super.scanElements(class1);
+		}
+	}
+
+	private String usage(final ExecutorService executor) {
+		ScanCache.clear();
+		final CmdlineParser cp = new CmdlineParser();
+		cp.setScanExecutor(executor);
+		cp.addObject(new Config(), new CommandOne(), new CommandTwo());
+		return cp.usageString();
+	}
+
+	private String validationError(final ExecutorService executor) throws Exception {
+		ScanCache.clear();
+		final CmdlineParser cp = new CmdlineParser();
+		cp.setScanExecutor(executor);
+		cp.addObject(new Config(), new CommandOne(), new DuplicateCommand());
+		return intercept(CmdlineParserException.class, () -> cp.validate()).getMessage();
+	}
+
+	public ParallelScanTest() {
+
+		test("Classes are scanned by the executor", () -> {
+			final ExecutorService executor = Executors.newFixedThreadPool(2);
+			try {
+				final RecordingParser cp = new RecordingParser();
+				cp.setScanExecutor(executor);
+				final Config config = new Config();
+				cp.addObject(config, new CommandOne(), new CommandTwo());
+				cp.validate();
+				expectTrue(!cp.threads.isEmpty());
+				expectTrue(!cp.threads.contains(Thread.currentThread()));
+				cp.parse("--verbose", "--level", "2");
+				expectTrue(config.verbose);
+				expectEquals(config.nested.level, 2);
+			} finally {
+				executor.shutdown();
+			}
+		});
+
+		test("Usage is the same with and without executor", () -> {
+			final ExecutorService executor = Executors.newFixedThreadPool(4);
+			try {
+				expectEquals(usage(executor), usage(null));
+			} finally {
+				executor.shutdown();
+			}
+		});
+
+		test("Errors are the same with and without executor", () -> {
+			final ExecutorService executor = Executors.newFixedThreadPool(4);
+			try {
+				final String expected = validationError(null);
+				for (int i = 0; i < 20; ++i) {
+					expectEquals(validationError(executor), expected);
+				}
+			} finally {
+				executor.shutdown();
+			}
+		});
+
+	}
+
+}
@@ -0,0 +1,77 @@
+package de.tototec.cmdoption;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class ParsePlanTest extends FreeSpec {
+
+	public static class Config {
+		final List<String> applied = new ArrayList<String>();
+
+		@CmdOption(names = "-v", maxCount = -1)
+		public void verbose() {
+			applied.add("-v");
+		}
+
+		@CmdOption(names = "--name", args = "NAME")
+		public void name(final String name) {
+			applied.add("--name " + name);
+		}
+	}
+
+	@CmdCommand(names = "run")
+	public static class Run {
+		final List<String> applied = new ArrayList<String>();
+
+		@CmdOption(names = "--count", args = "N", minCount = 1)
+		public void count(final int count) {
+			applied.add("--count " + count);
+		}
+
+		@CmdOption(args = "FILE", maxCount = -1)
+		public void file(final String file) {
+			applied.add(file);
+		}
+	}
+
+	public ParsePlanTest() {
+
+		test("Options of the parser and the command are applied once and in order", () -> {
+			final Config config = new Config();
+			final Run run = new Run();
+			final CmdlineParser cp = new CmdlineParser(config, run);
+			cp.parse("-v", "--name", "a", "-v", "run", "f1", "--count", "2", "f2");
+			expectEquals(config.applied, Arrays.asList("-v", "--name a", "-v"));
+			expectEquals(run.applied, Arrays.asList("f1", "--count 2", "f2"));
+			expectEquals(cp.getParsedCommandName(), "run");
+		});
+
+		test("Nothing is applied, if the command line of the command is invalid", () -> {
+			final Config config = new Config();
+			final Run run = new Run();
+			final CmdlineParser cp = new CmdlineParser(config, run);
+			intercept(CmdlineParserException.class, () -> cp.parse("-v", "--name", "a", "run", "f1"));
+			expectEquals(config.applied.size(), 0);
+			expectEquals(run.applied.size(), 0);
+			expectNull(cp.getParsedCommandName());
+		});
+
+		test("Nothing is applied in dry run mode", () -> {
+			final Config config = new Config();
+			final Run run = new Run();
+			final CmdlineParser cp = new CmdlineParser(config, run);
+			cp.parse(true, false, "-v", "run", "--count", "1");
+			expectEquals(config.applied.size(), 0);
+			expectEquals(run.applied.size(), 0);
+			expectNull(cp.getParsedCommandName());
+		});
+
+	}
+
+}
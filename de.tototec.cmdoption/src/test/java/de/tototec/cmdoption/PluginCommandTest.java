@@ -0,0 +1,117 @@
+package de.tototec.cmdoption;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectNull;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class PluginCommandTest extends FreeSpec {
+
+	public static class Config {
+		@CmdOption(names = "-v")
+		boolean verbose;
+	}
+
+	@CmdCommandPlugin
+	@CmdCommand(names = { "deploy", "d" }, description = "Deploy\tit")
+	public static class Deploy {
+		static int created;
+		@CmdOption(names = "--target", args = "TARGET", description = "The target")
+		String target;
+
+		public Deploy() {
+			created++;
+		}
+	}
+
+	@CmdCommandPlugin
+	@CmdCommand(names = "secret", hidden = true)
+	public static class Secret {
+	}
+
+	public static class NoCommand {
+	}
+
+	/**
+	 * @return A class loader seeing a plugin command index with the given lines.
+	 */
+	private static ClassLoader indexLoader(final String... lines) throws Exception {
+		final File dir = File.createTempFile("cmdoption", "");
+		dir.delete();
+		final File index = new File(dir, PluginCommand.INDEX);
+		index.getParentFile().mkdirs();
+		final Writer writer = new OutputStreamWriter(new FileOutputStream(index), "UTF-8");
+		try {
+			for (final String line : lines) {
+				writer.write(line + "\n");
+			}
+		} finally {
+			writer.close();
+		}
+		return new URLClassLoader(new URL[] { dir.toURI().toURL() }, PluginCommandTest.class.getClassLoader());
+	}
+
+	private static final String HEADER = "# CmdOption plugin commands 1";
+	private static final String DEPLOY = Deploy.class.getName() + "\tfalse\ttrue\tfalse\tDeploy\\tit\tdeploy\td";
+	private static final String SECRET = Secret.class.getName() + "\ttrue\tfalse\tfalse\t\tsecret";
+
+	public PluginCommandTest() {
+
+		test("Plugin commands are listed without creating them", () -> {
+			Deploy.created = 0;
+			final CmdlineParser cp = new CmdlineParser(new Config());
+			cp.setProgramName("tool");
+			final List<CommandHandle> handles = cp.addPluginCommands(indexLoader(HEADER, DEPLOY, SECRET));
+			expectEquals(handles.size(), 2);
+			expectEquals(handles.get(0).getDescription(), "Deploy\tit");
+			expectTrue(handles.get(1).isHidden());
+
+			final String usage = cp.usageString();
+			expectTrue(usage.contains("Usage: tool [options] [command] [command options]"), usage);
+			expectTrue(usage.contains("deploy,d"), usage);
+			expectTrue(!usage.contains("secret"), usage);
+			expectTrue(!usage.contains("--target"), usage);
+			expectNull(handles.get(0).getObject());
+			expectEquals(Deploy.created, 0);
+		});
+
+		test("A plugin command is created when it is parsed", () -> {
+			Deploy.created = 0;
+			final CmdlineParser cp = new CmdlineParser(new Config());
+			cp.addPluginCommands(indexLoader(HEADER, DEPLOY, SECRET));
+			cp.parse("-v", "d", "--target", "prod");
+			expectEquals(cp.getParsedCommandName(), "d");
+			expectEquals(((Deploy) cp.getParsedCommandObject()).target, "prod");
+			expectEquals(Deploy.created, 1);
+			expectTrue(cp.usageString().contains("--target"));
+		});
+
+		test("Invalid plugin commands are rejected", () -> {
+			final CmdlineParser cp = new CmdlineParser(new Config());
+			intercept(CmdlineParserException.class, () -> cp.addPluginCommands(indexLoader("# unknown", DEPLOY)));
+			intercept(CmdlineParserException.class, () -> cp.addPluginCommands(indexLoader(HEADER, "a\tb")));
+			intercept(CmdlineParserException.class, () -> cp.addPluginCommands(indexLoader(HEADER, DEPLOY, DEPLOY)));
+
+			final CmdlineParser cp2 = new CmdlineParser(new Config());
+			cp2.addPluginCommands(indexLoader(HEADER, NoCommand.class.getName() + "\tfalse\tfalse\tfalse\t\tnone"));
+			intercept(CmdlineParserException.class, () -> cp2.parse("none"));
+			intercept(IllegalStateException.class, () -> cp2.compile());
+		});
+
+		test("Index fields are unescaped", () -> {
+			expectEquals(PluginCommand.unescape("a\\tb\\\\n\\n"), "a\tb\\n\n");
+			expectEquals(PluginCommand.unescape("plain"), "plain");
+		});
+
+	}
+
+}
@@ -0,0 +1,162 @@
+package de.tototec.cmdoption;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectNull;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class ScanCacheTest extends FreeSpec {
+
+	public static class Config {
+		@CmdOption(names = "--name", args = "NAME")
+		private String name;
+
+		@CmdOption(names = "--verbose")
+		private void setVerbose() {
+			verbose = true;
+		}
+
+		private boolean verbose;
+	}
+
+	public static class Throwaway {
+		@CmdOption(names = "--name", args = "NAME")
+		public String name;
+	}
+
+	/**
+	 * Loads the given class and the classes nested in the same top-level class
+	 * itself (Java 8 requires them to agree on their nesting) and everything else
+	 * from the parent.
+	 */
+	public static class IsolatingClassLoader extends URLClassLoader {
+		private final String topLevel;
+
+		public IsolatingClassLoader(final Class<?> isolated) {
+			super(new URL[] { isolated.getProtectionDomain().getCodeSource().getLocation() },
+				isolated.getClassLoader());
+			final int nested = isolated.getName().indexOf('$');
+			this.topLevel = nested < 0 ? isolated.getName() : isolated.getName().substring(0, nested);
+		}
+
+		@Override
+		protected Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException {
+			if (name.equals(topLevel) || name.startsWith(topLevel + "$")) {
+				synchronized (getClassLoadingLock(name)) {
+					final Class<?> loaded = findLoadedClass(name);
+					return loaded != null ? loaded : findClass(name);
+				}
+			}
+			return super.loadClass(name, resolve);
+		}
+	}
+
+	/**
+	 * Parse with a config class of a throwaway class loader.
+	 *
+	 * @return The class loader, weakly referenced.
+	 */
+	private static WeakReference<ClassLoader> parseWithThrowawayLoader() throws Exception {
+		final ClassLoader loader = new IsolatingClassLoader(Throwaway.class);
+		final Class<?> configClass = loader.loadClass(Throwaway.class.getName());
+		expectTrue(configClass != Throwaway.class);
+		final Object config = configClass.newInstance();
+		new CmdlineParser(config).parse("--name", "n");
+		expectEquals(configClass.getField("name").get(config), "n");
+		expectEquals(ScanCache.get(CmdlineParser.class, configClass, ApplyEngine.defaultEngine()) != null, true);
+		return new WeakReference<ClassLoader>(loader);
+	}
+
+	/**
+	 * Ignores all methods of config classes.
+	 */
+	public static class FieldsOnlyParser extends CmdlineParser {
+		@Override
+		protected Set<AccessibleObject> scanElements(final Class<?> class1) {
+			final Set<AccessibleObject> elements = new LinkedHashSet<AccessibleObject>();
+			for (final AccessibleObject element : super.scanElements(class1)) {
+				if (!(element instanceof Method)) {
+					elements.add(element);
+				}
+			}
+			return elements;
+		}
+	}
+
+	/**
+	 * Records the inspected config objects.
+	 */
+	public static class InspectingParser extends CmdlineParser {
+		final List<Object> inspected = new ArrayList<Object>();
+
+		@Override
+		protected List<OptionHandle> inspectElements(final Object object, final Set<AccessibleObject> elements) {
+			inspected.add(object);
+			return super.inspectElements(object, elements);
+		}
+	}
+
+	{
+		test("Parsers for the same class share the scanned elements", () -> {
+			ScanCache.clear();
+			final CmdlineParser cp1 = new CmdlineParser(new Config());
+			expectTrue(ScanCache.get(CmdlineParser.class, Config.class, ApplyEngine.defaultEngine()) != null);
+			final CmdlineParser cp2 = new CmdlineParser(new Config());
+			final OptionHandle option1 = cp1.getCmdlineModel().getOptions().get(0);
+			final OptionHandle option2 = cp2.getCmdlineModel().getOptions().get(0);
+			expectTrue(option1.getElement() == option2.getElement());
+			expectTrue(option1.getObject() != option2.getObject());
+		});
+
+		test("A parser overriding scanElements has its own cache", () -> {
+			new CmdlineParser(new Config());
+			final CmdlineParser fieldsOnly = new FieldsOnlyParser();
+			fieldsOnly.addObject(new Config());
+			expectEquals(fieldsOnly.getCmdlineModel().getOptions().size(), 1);
+			expectEquals(new CmdlineParser(new Config()).getCmdlineModel().getOptions().size(), 2);
+		});
+
+		test("An overridden inspectElements is called for each config object", () -> {
+			final InspectingParser cp = new InspectingParser();
+			final Config config = new Config();
+			cp.addObject(config);
+			expectEquals(cp.inspected.size(), 1);
+			expectTrue(cp.inspected.get(0) == config);
+			cp.parse("--name", "n", "--verbose");
+			expectEquals(config.name, "n");
+			expectEquals(config.verbose, true);
+		});
+
+		test("Cached elements are applied to the bound config object", () -> {
+			final Config config1 = new Config();
+			final Config config2 = new Config();
+			new CmdlineParser(config1).parse("--name", "one");
+			new CmdlineParser(config2).parse("--name", "two", "--verbose");
+			expectEquals(config1.name, "one");
+			expectEquals(config1.verbose, false);
+			expectEquals(config2.name, "two");
+			expectEquals(config2.verbose, true);
+		});
+
+		test("The cache does not prevent unloading of config classes", () -> {
+			final WeakReference<ClassLoader> loader = parseWithThrowawayLoader();
+			for (int i = 0; i < 100 && loader.get() != null; ++i) {
+				System.gc();
+				Thread.sleep(10);
+			}
+			expectNull(loader.get());
+		});
+	}
+
+}
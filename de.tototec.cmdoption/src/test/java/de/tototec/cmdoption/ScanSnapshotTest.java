@@ -0,0 +1,175 @@
+package de.tototec.cmdoption;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.lang.reflect.AccessibleObject;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+import de.tototec.cmdoption.handler.StringMethodHandler;
+
+public class ScanSnapshotTest extends FreeSpec {
+
+	public static class Config {
+		@CmdOption(names = { "-v", "--verbose" }, description = "Be verbose")
+		boolean verbose;
+		@CmdOption(names = "--name", args = "NAME", minCount = 1, requires = "-v", handler = StringMethodHandler.class)
+		void name(final String name) {
+			this.name = name;
+		}
+		String name;
+		@CmdOption(args = "FILE", maxCount = -1, description = "The files")
+		final List<String> files = new LinkedList<String>();
+		@CmdOptionDelegate
+		final Nested nested = new Nested();
+	}
+
+	public static class Nested {
+		@CmdOption(names = "--level", args = "LEVEL", hidden = true)
+		int level;
+	}
+
+	/**
+	 * Records the scanned classes.
+	 */
+	public static class RecordingParser extends CmdlineParser {
+		final Set<Class<?>> scanned = Collections.synchronizedSet(new HashSet<Class<?>>());
+
+		public RecordingParser(final File snapshotFile) {
+			setSnapshotFile(snapshotFile);
+		}
+
+		@Override
+		protected Set<AccessibleObject> scanElements(final Class<?> class1) {
+			scanned.add(class1);
+			return super.scanElements(class1);
+		}
+	}
+
+	/**
+	 * Forget everything known about the scanned classes, like in a new JVM.
+	 */
+	private static void newJvm() {
+		ScanCache.clear();
+		ScanSnapshot.clear();
+	}
+
+	private static File tempFile() throws Exception {
+		final File file = File.createTempFile("cmdoption", ".snapshot");
+		file.delete();
+		file.deleteOnExit();
+		return file;
+	}
+
+	public ScanSnapshotTest() {
+
+		test("A restored class is not scanned again", () -> {
+			newJvm();
+			final File file = tempFile();
+			final RecordingParser first = new RecordingParser(file);
+			first.addObject(new Config());
+			expectTrue(file.isFile(), "Snapshot was not written");
+			expectEquals(first.scanned.size(), 2);
+
+			newJvm();
+			final RecordingParser second = new RecordingParser(file);
+			final Config config = new Config();
+			second.addObject(config);
+			expectEquals(second.scanned.size(), 0);
+			expectEquals(second.usageString(), first.usageString());
+
+			second.parse("-v", "--name", "n", "--level", "3", "a", "b");
+			expectEquals(config.verbose, true);
+			expectEquals(config.name, "n");
+			expectEquals(config.nested.level, 3);
+			expectEquals(config.files.size(), 2);
+			intercept(CmdlineParserException.class, () -> second.parse("-v"));
+			intercept(CmdlineParserException.class, () -> second.parse("--name", "n"));
+		});
+
+		test("A class with changed bytecode is scanned again", () -> {
+			newJvm();
+			final File file = tempFile();
+			new RecordingParser(file).addObject(new Nested());
+
+			// corrupt the fingerprint of the only entry
+			final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+			try {
+				// the entry is keyed by the parser class, as it overrides scanElements
+				final long pos = 12 + 2 + (RecordingParser.class.getName() + " " + Nested.class.getName()).length();
+				raf.seek(pos);
+				final long fingerprint = raf.readLong();
+				raf.seek(pos);
+				raf.writeLong(fingerprint + 1);
+			} finally {
+				raf.close();
+			}
+
+			newJvm();
+			final RecordingParser second = new RecordingParser(file);
+			second.addObject(new Nested());
+			expectEquals(second.scanned.size(), 1);
+
+			newJvm();
+			final RecordingParser third = new RecordingParser(file);
+			third.addObject(new Nested());
+			expectEquals(third.scanned.size(), 0);
+		});
+
+		for (final int count : new int[] { -1, Integer.MAX_VALUE }) {
+			test("A snapshot with an invalid element count " + count + " is replaced", () -> {
+				newJvm();
+				final File file = tempFile();
+				new RecordingParser(file).addObject(new Nested());
+
+				final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+				try {
+					raf.seek(12 + 2 + (RecordingParser.class.getName() + " " + Nested.class.getName()).length() + 8);
+					raf.writeInt(count);
+				} finally {
+					raf.close();
+				}
+
+				newJvm();
+				final RecordingParser second = new RecordingParser(file);
+				final Nested nested = new Nested();
+				second.addObject(nested);
+				expectEquals(second.scanned.size(), 1);
+				second.parse("--level", "3");
+				expectEquals(nested.level, 3);
+
+				newJvm();
+				final RecordingParser third = new RecordingParser(file);
+				third.addObject(new Nested());
+				expectEquals(third.scanned.size(), 0);
+			});
+		}
+
+		test("An unreadable snapshot is replaced", () -> {
+			newJvm();
+			final File file = tempFile();
+			final FileOutputStream out = new FileOutputStream(file);
+			out.write("garbage".getBytes("UTF-8"));
+			out.close();
+
+			final RecordingParser first = new RecordingParser(file);
+			first.addObject(new Config());
+			expectEquals(first.scanned.size(), 2);
+
+			newJvm();
+			final RecordingParser second = new RecordingParser(file);
+			second.addObject(new Config());
+			expectEquals(second.scanned.size(), 0);
+		});
+
+	}
+
+}
@@ -0,0 +1,120 @@
+package de.tototec.cmdoption;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class StreamingParseTest extends FreeSpec {
+
+	/**
+	 * Counts the arguments read by the parser.
+	 */
+	static class Source implements Iterator<String> {
+		final int count;
+		int read;
+
+		Source(final int count) {
+			this.count = count;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return read < count;
+		}
+
+		@Override
+		public String next() {
+			++read;
+			return read % 1000 == 0 ? "--pair" : "file-" + read;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	static class Config {
+		Source source;
+		int files;
+		int pairs;
+		int maxLookahead;
+
+		@CmdOption(names = "--pair", args = { "A", "B" }, maxCount = -1)
+		public void pair(final String a, final String b) {
+			++pairs;
+		}
+
+		@CmdOption(names = "--name", args = "NAME")
+		String name;
+
+		@CmdOption(args = "FILE", maxCount = -1)
+		public void file(final String file) {
+			++files;
+			maxLookahead = Math.max(maxLookahead, source.read - Integer.parseInt(file.substring(5)));
+		}
+	}
+
+	@CmdCommand(names = "run")
+	static class Run {
+		@CmdOption(names = "--count", args = "N")
+		int count;
+	}
+
+	public StreamingParseTest() {
+
+		test("Arguments from an iterator are applied while they are read", () -> {
+			final Config config = new Config();
+			config.source = new Source(999999);
+			new CmdlineParser(config).parse(config.source);
+			expectEquals(config.source.read, 999999);
+			expectEquals(config.pairs, 999);
+			expectEquals(config.files, 999999 - 999 * 3);
+			// the parser reads one argument ahead to decide, whether there is another one
+			expectTrue(config.maxLookahead <= 2, "lookahead: " + config.maxLookahead);
+		});
+
+		test("Arguments are read from a reader, one per line", () -> {
+			final Config config = new Config();
+			final Run run = new Run();
+			final CmdlineParser cp = new CmdlineParser(config, run);
+			cp.parse(new StringReader("--name\nwith space\nrun\n--count\n3\n"));
+			expectEquals(config.name, "with space");
+			expectEquals(cp.getParsedCommandName(), "run");
+			expectEquals(run.count, 3);
+		});
+
+		test("Options read before an error are already applied", () -> {
+			final Config config = new Config();
+			final CmdlineParser cp = new CmdlineParser(config);
+			intercept(CmdlineParserException.class,
+				"\\QMissing argument(s): B. Option \"--pair\" requires 2 arguments, but you gave 1.\\E",
+				() -> cp.parse(Arrays.asList("--name", "a", "--pair", "x").iterator()));
+			expectEquals(config.name, "a");
+		});
+
+		test("Arguments are read from @-files on demand", () -> {
+			final File file = File.createTempFile("test", "");
+			final PrintWriter writer = new PrintWriter(file);
+			writer.println("--name");
+			writer.println("from-file");
+			writer.close();
+
+			final Config config = new Config();
+			final CmdlineParser cp = new CmdlineParser(config);
+			cp.parse(Arrays.asList("@" + file.getAbsolutePath()).iterator());
+			expectEquals(config.name, "from-file");
+			intercept(CmdlineParserException.class, "\\QFile referenced via @" + file.getAbsolutePath()
+				+ ".missing does not exist.\\E", () -> cp.parse("@" + file.getAbsolutePath() + ".missing"));
+		});
+
+	}
+
+}
@@ -0,0 +1,73 @@
+package de.tototec.cmdoption.internal;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectFalse;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class ArgsCursorTest extends FreeSpec {
+
+	public ArgsCursorTest() {
+
+		test("Arguments are consumed in order", () -> {
+			final ArgsCursor args = new ArgsCursor(new String[] { "a", "b", "c" });
+			expectEquals(args.available(5), 3);
+			expectEquals(args.next(), "a");
+			expectEquals(args.peek(1), "c");
+			args.skip(2);
+			expectFalse(args.hasNext());
+			intercept(IndexOutOfBoundsException.class, () -> args.next());
+		});
+
+		test("Inserted arguments come before the remaining ones", () -> {
+			final ArgsCursor args = new ArgsCursor(new String[] { "-ab", "x", "y" });
+			args.next();
+			args.insert("-a", "-b");
+			expectEquals(args.available(5), 4);
+			expectEquals(args.next(), "-a");
+			args.insert("-c");
+			expectEquals(args.peek(2), "x");
+			args.skip(3);
+			expectEquals(args.next(), "y");
+			expectFalse(args.hasNext());
+		});
+
+		test("Arguments are read from the source not before they are needed", () -> {
+			final int[] read = new int[1];
+			final Iterator<String> source = new Iterator<String>() {
+				@Override
+				public boolean hasNext() {
+					return true;
+				}
+
+				@Override
+				public String next() {
+					return String.valueOf(read[0]++);
+				}
+
+				@Override
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
+			final ArgsCursor args = new ArgsCursor(source);
+			for (int i = 0; i < 100000; ++i) {
+				expectEquals(args.next(), String.valueOf(i));
+				if (i % 100 == 0) {
+					args.insert("inserted", "twice");
+					args.skip(2);
+				}
+			}
+			expectEquals(read[0], 100000);
+			expectEquals(args.available(3), 3);
+			expectEquals(read[0], 100003);
+			expectTrue(args.toString().contains(Arrays.asList("100000", "100001", "100002").toString()));
+		});
+
+	}
+
+}